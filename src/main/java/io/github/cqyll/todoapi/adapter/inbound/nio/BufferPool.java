@@ -0,0 +1,47 @@
+package io.github.cqyll.todoapi.adapter.inbound.nio;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of equally sized direct {@link ByteBuffer}s.
+ *
+ * <p>Direct buffers are expensive to allocate and are only reclaimed by the GC indirectly, so connections borrow
+ * one while they hold unparsed input and give it back as soon as the buffer is drained. Idle keep-alive
+ * connections therefore hold no buffer at all. At most {@code maxPooled} buffers are retained; extras are left to
+ * the GC.</p>
+ */
+final class BufferPool {
+	private final int bufferSize;
+	private final int maxPooled;
+	private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pooled = new AtomicInteger();
+
+	BufferPool(int bufferSize, int maxPooled) {
+		this.bufferSize = bufferSize;
+		this.maxPooled = maxPooled;
+	}
+
+	ByteBuffer acquire() {
+		ByteBuffer b = free.poll();
+		if (b == null) {
+			return ByteBuffer.allocateDirect(bufferSize);
+		}
+		pooled.decrementAndGet();
+		b.clear();
+		return b;
+	}
+
+	void release(ByteBuffer b) {
+		if (pooled.incrementAndGet() > maxPooled) {
+			pooled.decrementAndGet();
+			return;
+		}
+		free.offer(b);
+	}
+
+	int bufferSize() {
+		return bufferSize;
+	}
+}
@@ -0,0 +1,558 @@
+package io.github.cqyll.todoapi.adapter.inbound.nio;
+
+import com.sun.net.httpserver.Headers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One persistent HTTP/1.1 connection.
+ *
+ * <p>Threading model:</p>
+ * <ul>
+ * 		<li>The selector thread reads and parses. Every complete request is appended to {@link #pending}; parsing
+ * 		continues with whatever is left in the buffer, so pipelined requests are picked up in one read.</li>
+ * 		<li>At most one worker task per connection drains {@link #pending} in order. Because requests of a
+ * 		connection are served strictly one after the other, responses are queued in request order, which is
+ * 		what pipelining requires.</li>
+ * 		<li>Workers append encoded response bytes to {@link #outbound}; only the selector thread writes to the
+ * 		socket. A worker that gets too far ahead of the socket blocks until the queue drains.</li>
+ * </ul>
+ */
+final class HttpConnection {
+	private static final byte[] CONTINUE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] UNAVAILABLE =
+			"HTTP/1.1 503 Service Unavailable\r\nContent-Length: 0\r\nConnection: close\r\n\r\n"
+					.getBytes(StandardCharsets.US_ASCII);
+
+	/** Stop reading from a client that has this many unanswered pipelined requests. */
+	private static final int MAX_PIPELINED = 32;
+	/** Workers block once this many response bytes are waiting for the socket. */
+	private static final long HIGH_WATER = 256 * 1024;
+	private static final long LOW_WATER = 64 * 1024;
+
+	private final NioHttpServer server;
+	private final SocketChannel channel;
+	private final SelectionKey key;
+
+	// ---- selector thread only ----
+	private ByteBuffer readBuffer;
+	private RequestHead head;
+	private byte[] body;
+	private int bodyFilled;
+	private boolean inputDone;
+	/** The executor refused this connection's work; answered with 503 once the parse loop has returned. */
+	private boolean rejected;
+	long lastActive = System.nanoTime();
+
+	// ---- guarded by lock ----
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition drained = lock.newCondition();
+	private final ArrayDeque<RawRequest> pending = new ArrayDeque<>();
+	private boolean processing;
+	private boolean readPaused;
+
+	// ---- shared ----
+	private final ConcurrentLinkedQueue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+	private final AtomicLong queuedBytes = new AtomicLong();
+	private final AtomicBoolean writeRequested = new AtomicBoolean();
+	private volatile boolean closeAfterFlush;
+	private volatile boolean closed;
+
+	HttpConnection(NioHttpServer server, SocketChannel channel, SelectionKey key) {
+		this.server = server;
+		this.channel = channel;
+		this.key = key;
+	}
+
+	SocketChannel channel() {
+		return channel;
+	}
+
+	// ------------------------------------------------------------------ reading (selector thread)
+
+	void onReadable() throws IOException {
+		if (readBuffer == null) {
+			readBuffer = server.buffers().acquire();
+		}
+		int n = channel.read(readBuffer);
+		if (n < 0) {
+			onInputClosed();
+			return;
+		}
+		lastActive = System.nanoTime();
+
+		readBuffer.flip();
+		try {
+			parse();
+		} finally {
+			readBuffer.compact();
+			if (readBuffer.position() == 0) {
+				server.buffers().release(readBuffer);
+				readBuffer = null;
+			}
+		}
+		if (rejected) {
+			rejectUnavailable();
+		}
+	}
+
+	private void parse() {
+		while (!inputDone) {
+			if (head == null) {
+				int end = findHeaderEnd(readBuffer);
+				if (end < 0) {
+					if (readBuffer.position() == 0 && readBuffer.limit() == readBuffer.capacity()) {
+						fail(431); // request line + headers do not fit in one buffer
+					}
+					return;
+				}
+				try {
+					head = RequestHead.parse(readBuffer, end);
+				} catch (IllegalArgumentException e) {
+					fail(400);
+					return;
+				}
+				if (head.unsupportedTransferEncoding) {
+					fail(501);
+					return;
+				}
+				if (head.contentLength > server.maxBodySize()) {
+					fail(413);
+					return;
+				}
+				body = new byte[(int) head.contentLength];
+				bodyFilled = 0;
+				if (head.expectContinue && readBuffer.remaining() < body.length) {
+					sendContinueIfIdle();
+				}
+			}
+
+			int take = Math.min(readBuffer.remaining(), body.length - bodyFilled);
+			readBuffer.get(body, bodyFilled, take);
+			bodyFilled += take;
+			if (bodyFilled < body.length) {
+				return;
+			}
+
+			RequestHead h = head;
+			head = null;
+			byte[] b = body;
+			body = null;
+			submit(new RawRequest(h.method, h.target, h.protocol, h.headers, b, h.keepAlive, 0));
+			if (!h.keepAlive) {
+				stopReading(); // anything after a "Connection: close" request is ignored
+			}
+		}
+	}
+
+	private void fail(int status) {
+		stopReading();
+		submit(RawRequest.error(status));
+	}
+
+	private void stopReading() {
+		inputDone = true;
+		readBuffer.position(readBuffer.limit());
+		key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+	}
+
+	private void onInputClosed() {
+		inputDone = true;
+		key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+		// set before the idle check so a worker finishing concurrently sees it either way
+		closeAfterFlush = true;
+		boolean idle;
+		lock.lock();
+		try {
+			idle = !processing && pending.isEmpty();
+		} finally {
+			lock.unlock();
+		}
+		if (idle) {
+			flushOrClose();
+		}
+	}
+
+	private void sendContinueIfIdle() {
+		lock.lock();
+		try {
+			if (processing || !pending.isEmpty()) {
+				return; // the interim response must not overtake earlier pipelined responses
+			}
+		} finally {
+			lock.unlock();
+		}
+		outbound.add(ByteBuffer.wrap(CONTINUE));
+		queuedBytes.addAndGet(CONTINUE.length);
+		key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+	}
+
+	private void submit(RawRequest request) {
+		boolean start;
+		lock.lock();
+		try {
+			pending.add(request);
+			start = !processing;
+			processing = true;
+			if (pending.size() >= MAX_PIPELINED && !readPaused) {
+				readPaused = true;
+				key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (start) {
+			try {
+				server.executor().execute(this::drainRequests);
+			} catch (RejectedExecutionException e) {
+				// still inside the parse loop: leave the buffer alone and let onReadable answer
+				lock.lock();
+				try {
+					pending.clear();
+					processing = false;
+				} finally {
+					lock.unlock();
+				}
+				rejected = true;
+				if (!inputDone) {
+					stopReading();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Answers 503 in place of the requests the executor would not take and closes once it is written. Nothing
+	 * else is in flight: a rejection only happens when no worker was draining this connection.
+	 */
+	private void rejectUnavailable() {
+		rejected = false;
+		outbound.add(ByteBuffer.wrap(UNAVAILABLE));
+		queuedBytes.addAndGet(UNAVAILABLE.length);
+		closeAfterFlush = true;
+		flushOrClose();
+	}
+
+	// ------------------------------------------------------------------ serving (worker thread)
+
+	private void drainRequests() {
+		while (true) {
+			RawRequest request;
+			boolean resume = false;
+			lock.lock();
+			try {
+				request = pending.poll();
+				if (request == null) {
+					processing = false;
+					break;
+				}
+				if (readPaused && pending.size() < MAX_PIPELINED / 2 && !closeAfterFlush) {
+					readPaused = false;
+					resume = true;
+				}
+			} finally {
+				lock.unlock();
+			}
+			if (resume) {
+				server.runOnSelector(this::resumeReading);
+			}
+
+			boolean keepAlive = server.serve(this, request);
+			if (!keepAlive || closed) {
+				lock.lock();
+				try {
+					pending.clear();
+					processing = false;
+				} finally {
+					lock.unlock();
+				}
+				closeAfterFlush = true;
+				break;
+			}
+		}
+		if (closeAfterFlush) {
+			server.runOnSelector(this::flushOrClose);
+		}
+	}
+
+	private void resumeReading() {
+		if (key.isValid() && !inputDone) {
+			key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+		}
+	}
+
+	/**
+	 * Queues response bytes for the selector thread. The array is owned by the connection afterwards.
+	 * Blocks while too much output is already waiting for a slow client.
+	 */
+	void enqueue(byte[] bytes, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("connection closed");
+		}
+		if (len == 0) {
+			return;
+		}
+		outbound.add(ByteBuffer.wrap(bytes, off, len));
+		long queued = queuedBytes.addAndGet(len);
+		if (writeRequested.compareAndSet(false, true)) {
+			server.runOnSelector(this::enableWrite);
+		}
+		if (queued > HIGH_WATER) {
+			awaitDrain();
+		}
+	}
+
+	private void awaitDrain() throws IOException {
+		lock.lock();
+		try {
+			while (!closed && queuedBytes.get() > LOW_WATER) {
+				drained.await(1, TimeUnit.SECONDS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while writing response", e);
+		} finally {
+			lock.unlock();
+		}
+		if (closed) {
+			throw new IOException("connection closed");
+		}
+	}
+
+	// ------------------------------------------------------------------ writing (selector thread)
+
+	private void enableWrite() {
+		if (key.isValid()) {
+			key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+		}
+	}
+
+	/**
+	 * Copies queued output into the selector's shared direct buffer and writes it. Bytes are only consumed from
+	 * the queue once the socket has accepted them, so the shared buffer carries nothing between calls.
+	 */
+	void onWritable(ByteBuffer writeBuffer) throws IOException {
+		while (true) {
+			writeBuffer.clear();
+			for (ByteBuffer b : outbound) {
+				int take = Math.min(writeBuffer.remaining(), b.remaining());
+				writeBuffer.put(writeBuffer.position(), b, b.position(), take);
+				writeBuffer.position(writeBuffer.position() + take);
+				if (!writeBuffer.hasRemaining()) {
+					break;
+				}
+			}
+			writeBuffer.flip();
+			int attempted = writeBuffer.remaining();
+			int written = attempted == 0 ? 0 : channel.write(writeBuffer);
+			if (written > 0) {
+				lastActive = System.nanoTime();
+				consume(written);
+			}
+			if (written < attempted) {
+				return; // socket buffer full, wait for the next OP_WRITE
+			}
+			if (outbound.isEmpty()) {
+				break;
+			}
+		}
+
+		writeRequested.set(false);
+		if (!outbound.isEmpty() && writeRequested.compareAndSet(false, true)) {
+			return; // a worker queued more while we were finishing; keep OP_WRITE
+		}
+		key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+		if (closeAfterFlush && isIdle()) {
+			close();
+		}
+	}
+
+	private void consume(int written) {
+		int left = written;
+		while (left > 0) {
+			ByteBuffer b = outbound.peek();
+			int k = Math.min(left, b.remaining());
+			b.position(b.position() + k);
+			left -= k;
+			if (!b.hasRemaining()) {
+				outbound.poll();
+			}
+		}
+		while (!outbound.isEmpty() && !outbound.peek().hasRemaining()) {
+			outbound.poll();
+		}
+		if (queuedBytes.addAndGet(-written) <= LOW_WATER) {
+			lock.lock();
+			try {
+				drained.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	private void flushOrClose() {
+		if (closed) {
+			return;
+		}
+		if (outbound.isEmpty() && isIdle()) {
+			close();
+		} else {
+			enableWrite();
+		}
+	}
+
+	boolean isIdle() {
+		lock.lock();
+		try {
+			return !processing && pending.isEmpty() && outbound.isEmpty();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		key.cancel();
+		try {
+			channel.close();
+		} catch (IOException ignored) {
+		}
+		// the read buffer belongs to the selector thread, which may be reading into it right now
+		if (Thread.currentThread() == server.selectorThread()) {
+			releaseReadBuffer();
+		} else {
+			server.runOnSelector(this::releaseReadBuffer);
+		}
+		lock.lock();
+		try {
+			drained.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		server.forget(this);
+	}
+
+	boolean isClosed() {
+		return closed;
+	}
+
+	private void releaseReadBuffer() {
+		if (readBuffer != null) {
+			server.buffers().release(readBuffer);
+			readBuffer = null;
+		}
+	}
+
+	// ------------------------------------------------------------------ request head parsing
+
+	/**
+	 * @return index of the first byte after {@code \r\n\r\n}, or -1 if the head is not complete yet
+	 */
+	private static int findHeaderEnd(ByteBuffer buf) {
+		for (int i = buf.position(), end = buf.limit() - 3; i < end; i++) {
+			if (buf.get(i) == '\r' && buf.get(i + 1) == '\n' && buf.get(i + 2) == '\r' && buf.get(i + 3) == '\n') {
+				return i + 4;
+			}
+		}
+		return -1;
+	}
+
+	private static final class RequestHead {
+		String method;
+		String target;
+		String protocol;
+		final Headers headers = new Headers();
+		long contentLength;
+		boolean keepAlive;
+		boolean expectContinue;
+		boolean unsupportedTransferEncoding;
+
+		static RequestHead parse(ByteBuffer buf, int end) {
+			byte[] raw = new byte[end - buf.position()];
+			buf.get(raw);
+			String text = new String(raw, StandardCharsets.ISO_8859_1);
+
+			int pos = 0;
+			// RFC 9112: ignore at least one empty line before the request line
+			while (text.startsWith("\r\n", pos)) {
+				pos += 2;
+			}
+			int lineEnd = text.indexOf("\r\n", pos);
+			if (lineEnd < 0) {
+				throw new IllegalArgumentException("Missing request line"); // nothing but empty lines
+			}
+			String requestLine = text.substring(pos, lineEnd);
+			int sp1 = requestLine.indexOf(' ');
+			int sp2 = requestLine.lastIndexOf(' ');
+			if (sp1 <= 0 || sp2 <= sp1) {
+				throw new IllegalArgumentException("Malformed request line");
+			}
+
+			RequestHead h = new RequestHead();
+			h.method = requestLine.substring(0, sp1);
+			h.target = requestLine.substring(sp1 + 1, sp2);
+			h.protocol = requestLine.substring(sp2 + 1);
+			if (!h.protocol.startsWith("HTTP/1.")) {
+				throw new IllegalArgumentException("Unsupported protocol");
+			}
+
+			pos = lineEnd + 2;
+			while (true) {
+				lineEnd = text.indexOf("\r\n", pos);
+				if (lineEnd < 0) {
+					throw new IllegalArgumentException("Unterminated header section");
+				}
+				if (lineEnd == pos) {
+					break;
+				}
+				int colon = text.indexOf(':', pos);
+				if (colon <= pos || colon > lineEnd) {
+					throw new IllegalArgumentException("Malformed header");
+				}
+				h.headers.add(text.substring(pos, colon).trim(), text.substring(colon + 1, lineEnd).trim());
+				pos = lineEnd + 2;
+			}
+
+			String length = h.headers.getFirst("Content-Length");
+			if (length != null) {
+				for (String v : h.headers.get("Content-Length")) {
+					if (!v.equals(length)) {
+						throw new IllegalArgumentException("Conflicting Content-Length");
+					}
+				}
+				try {
+					h.contentLength = Long.parseLong(length);
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid Content-Length");
+				}
+				if (h.contentLength < 0) {
+					throw new IllegalArgumentException("Invalid Content-Length");
+				}
+			}
+			h.unsupportedTransferEncoding = h.headers.containsKey("Transfer-Encoding");
+
+			String connection = h.headers.getFirst("Connection");
+			String token = connection == null ? "" : connection.toLowerCase(Locale.ROOT);
+			h.keepAlive = "HTTP/1.1".equals(h.protocol) ? !token.contains("close") : token.contains("keep-alive");
+			h.expectContinue = "100-continue".equalsIgnoreCase(h.headers.getFirst("Expect"));
+			return h;
+		}
+	}
+}
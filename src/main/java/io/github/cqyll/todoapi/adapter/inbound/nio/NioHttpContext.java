@@ -0,0 +1,83 @@
+package io.github.cqyll.todoapi.adapter.inbound.nio;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * {@link HttpContext} of a {@link NioHttpServer}. Same semantics as the JDK one: a path prefix, a handler,
+ * an optional authenticator and a list of filters run in order before the handler.
+ */
+final class NioHttpContext extends HttpContext {
+	private final String path;
+	private final NioHttpServer server;
+	private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+	private final List<Filter> filters = new CopyOnWriteArrayList<>();
+	private volatile HttpHandler handler;
+	private volatile Authenticator authenticator;
+
+	NioHttpContext(String path, HttpHandler handler, NioHttpServer server) {
+		this.path = path;
+		this.handler = handler;
+		this.server = server;
+	}
+
+	@Override
+	public HttpHandler getHandler() {
+		return handler;
+	}
+
+	@Override
+	public void setHandler(HttpHandler handler) {
+		if (handler == null) {
+			throw new NullPointerException("Null handler parameter");
+		}
+		if (this.handler != null) {
+			throw new IllegalArgumentException("handler already set");
+		}
+		this.handler = handler;
+	}
+
+	@Override
+	public String getPath() {
+		return path;
+	}
+
+	@Override
+	public HttpServer getServer() {
+		return server;
+	}
+
+	@Override
+	public Map<String, Object> getAttributes() {
+		return attributes;
+	}
+
+	@Override
+	public List<Filter> getFilters() {
+		return filters;
+	}
+
+	@Override
+	public Authenticator setAuthenticator(Authenticator auth) {
+		Authenticator old = authenticator;
+		authenticator = auth;
+		return old;
+	}
+
+	@Override
+	public Authenticator getAuthenticator() {
+		return authenticator;
+	}
+
+	boolean matches(String requestPath) {
+		return requestPath.startsWith(path);
+	}
+}
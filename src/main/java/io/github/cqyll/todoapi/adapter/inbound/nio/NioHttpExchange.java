@@ -0,0 +1,376 @@
+package io.github.cqyll.todoapi.adapter.inbound.nio;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link HttpExchange} over an {@link HttpConnection}, so existing handlers and filters run unchanged on the
+ * NIO server.
+ *
+ * <p>Follows the JDK contract for {@link #sendResponseHeaders(int, long)}: a positive length sends a fixed
+ * {@code Content-Length} body, {@code 0} streams the body with chunked transfer coding, {@code -1} sends no body.
+ * An HTTP/1.0 client does not understand chunked coding (RFC 9112 section 6.1), so a streamed body goes to it
+ * unframed and the connection is closed to end it. Closing the response body stream (or the exchange) completes
+ * the response.</p>
+ */
+final class NioHttpExchange extends HttpExchange {
+	private static final int CHUNK_SIZE = 8 * 1024;
+
+	private final HttpConnection connection;
+	private final RawRequest request;
+	private final NioHttpContext context;
+	private final URI uri;
+	private final Headers responseHeaders = new Headers();
+	private Map<String, Object> attributes;
+
+	private InputStream in;
+	private OutputStream out;
+	private final ResponseStream rawOut = new ResponseStream();
+
+	private int responseCode = -1;
+	private boolean headersSent;
+	private boolean keepAlive;
+	private HttpPrincipal principal;
+
+	NioHttpExchange(HttpConnection connection, RawRequest request, NioHttpContext context, URI uri) {
+		this.connection = connection;
+		this.request = request;
+		this.context = context;
+		this.uri = uri;
+		this.keepAlive = request.keepAlive();
+		this.in = new ByteArrayInputStream(request.body());
+		this.out = rawOut;
+	}
+
+	@Override
+	public Headers getRequestHeaders() {
+		return request.headers();
+	}
+
+	@Override
+	public Headers getResponseHeaders() {
+		return responseHeaders;
+	}
+
+	@Override
+	public URI getRequestURI() {
+		return uri;
+	}
+
+	@Override
+	public String getRequestMethod() {
+		return request.method();
+	}
+
+	@Override
+	public HttpContext getHttpContext() {
+		return context;
+	}
+
+	@Override
+	public void close() {
+		try {
+			in.close();
+			out.close();
+		} catch (IOException e) {
+			keepAlive = false;
+		}
+	}
+
+	@Override
+	public InputStream getRequestBody() {
+		return in;
+	}
+
+	@Override
+	public OutputStream getResponseBody() {
+		return out;
+	}
+
+	@Override
+	public void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+		if (headersSent) {
+			throw new IOException("headers already sent");
+		}
+		headersSent = true;
+		responseCode = rCode;
+
+		boolean head = "HEAD".equalsIgnoreCase(request.method());
+		boolean bodyless = rCode < 200 || rCode == 204 || rCode == 304;
+		if ("close".equalsIgnoreCase(responseHeaders.getFirst("Connection"))) {
+			keepAlive = false;
+		}
+
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("HTTP/1.1 ").append(rCode).append(' ').append(reason(rCode)).append("\r\n");
+		for (Map.Entry<String, List<String>> e : responseHeaders.entrySet()) {
+			String name = e.getKey();
+			if ("Content-Length".equalsIgnoreCase(name) || "Transfer-Encoding".equalsIgnoreCase(name)
+					|| "Connection".equalsIgnoreCase(name)) {
+				continue; // framing headers are ours
+			}
+			for (String v : e.getValue()) {
+				sb.append(name).append(": ").append(v).append("\r\n");
+			}
+		}
+
+		ResponseStream.Mode mode;
+		if (head || bodyless) {
+			mode = ResponseStream.Mode.NONE;
+			if (head && responseLength > 0) {
+				sb.append("Content-Length: ").append(responseLength).append("\r\n");
+			}
+		} else if (responseLength > 0) {
+			mode = ResponseStream.Mode.FIXED;
+			sb.append("Content-Length: ").append(responseLength).append("\r\n");
+		} else if (responseLength == 0 && "HTTP/1.0".equals(request.protocol())) {
+			mode = ResponseStream.Mode.UNTIL_CLOSE;
+			keepAlive = false;
+		} else if (responseLength == 0) {
+			mode = ResponseStream.Mode.CHUNKED;
+			sb.append("Transfer-Encoding: chunked\r\n");
+		} else {
+			mode = ResponseStream.Mode.NONE;
+			sb.append("Content-Length: 0\r\n");
+		}
+		if (!keepAlive) {
+			sb.append("Connection: close\r\n");
+		}
+		sb.append("\r\n");
+
+		byte[] bytes = sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+		connection.enqueue(bytes, 0, bytes.length);
+		rawOut.start(mode, responseLength);
+	}
+
+	/**
+	 * Completes the response after the handler returned, in case it did not close the exchange itself.
+	 *
+	 * @return whether the connection can carry another request
+	 */
+	boolean finish() {
+		if (!headersSent) {
+			// handler returned without responding: same outcome as an uncaught exception
+			keepAlive = false;
+			try {
+				sendResponseHeaders(500, -1);
+			} catch (IOException e) {
+				return false;
+			}
+		}
+		close();
+		return keepAlive && !rawOut.truncated;
+	}
+
+	boolean headersSent() {
+		return headersSent;
+	}
+
+	@Override
+	public InetSocketAddress getRemoteAddress() {
+		try {
+			return (InetSocketAddress) connection.channel().getRemoteAddress();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public int getResponseCode() {
+		return responseCode;
+	}
+
+	@Override
+	public InetSocketAddress getLocalAddress() {
+		try {
+			return (InetSocketAddress) connection.channel().getLocalAddress();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public String getProtocol() {
+		return request.protocol();
+	}
+
+	@Override
+	public Object getAttribute(String name) {
+		return attributes == null ? null : attributes.get(name);
+	}
+
+	@Override
+	public void setAttribute(String name, Object value) {
+		if (attributes == null) {
+			attributes = new HashMap<>();
+		}
+		if (value == null) {
+			attributes.remove(name);
+		} else {
+			attributes.put(name, value);
+		}
+	}
+
+	@Override
+	public void setStreams(InputStream i, OutputStream o) {
+		if (i != null) {
+			in = i;
+		}
+		if (o != null) {
+			out = o;
+		}
+	}
+
+	@Override
+	public HttpPrincipal getPrincipal() {
+		return principal;
+	}
+
+	void setPrincipal(HttpPrincipal principal) {
+		this.principal = principal;
+	}
+
+	static String reason(int code) {
+		switch (code) {
+			case 100: return "Continue";
+			case 200: return "OK";
+			case 201: return "Created";
+			case 202: return "Accepted";
+			case 204: return "No Content";
+			case 302: return "Found";
+			case 303: return "See Other";
+			case 304: return "Not Modified";
+			case 400: return "Bad Request";
+			case 401: return "Unauthorized";
+			case 403: return "Forbidden";
+			case 404: return "Not Found";
+			case 405: return "Method Not Allowed";
+			case 409: return "Conflict";
+			case 412: return "Precondition Failed";
+			case 413: return "Content Too Large";
+			case 415: return "Unsupported Media Type";
+			case 429: return "Too Many Requests";
+			case 431: return "Request Header Fields Too Large";
+			case 500: return "Internal Server Error";
+			case 501: return "Not Implemented";
+			case 503: return "Service Unavailable";
+			default: return "";
+		}
+	}
+
+	/**
+	 * Body stream: buffers up to {@link #CHUNK_SIZE} bytes and hands full buffers to the connection, framing them as
+	 * chunks when the length was not known up front and the client understands chunks; otherwise the body ends
+	 * where the connection does.
+	 */
+	private final class ResponseStream extends OutputStream {
+		enum Mode { NONE, FIXED, CHUNKED, UNTIL_CLOSE }
+
+		private Mode mode;
+		private long remaining;
+		private byte[] buf;
+		private int count;
+		private boolean closed;
+		boolean truncated;
+
+		void start(Mode mode, long length) {
+			this.mode = mode;
+			this.remaining = length;
+			if (mode == Mode.NONE) {
+				closed = true;
+			}
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (mode == null) {
+				throw new IOException("response headers not sent yet");
+			}
+			if (closed) {
+				throw new IOException("stream is closed");
+			}
+			if (mode == Mode.FIXED) {
+				if (len > remaining) {
+					throw new IOException("too many bytes to write to stream");
+				}
+				remaining -= len;
+			}
+			if (buf == null) {
+				buf = new byte[CHUNK_SIZE];
+			}
+			while (len > 0) {
+				int take = Math.min(len, buf.length - count);
+				System.arraycopy(b, off, buf, count, take);
+				count += take;
+				off += take;
+				len -= take;
+				if (count == buf.length) {
+					flushBuffer();
+				}
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (mode != null && !closed) {
+				flushBuffer();
+			}
+		}
+
+		private void flushBuffer() throws IOException {
+			if (count == 0) {
+				return;
+			}
+			if (mode == Mode.CHUNKED) {
+				byte[] size = (Integer.toHexString(count) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+				byte[] chunk = new byte[size.length + count + 2];
+				System.arraycopy(size, 0, chunk, 0, size.length);
+				System.arraycopy(buf, 0, chunk, size.length, count);
+				chunk[chunk.length - 2] = '\r';
+				chunk[chunk.length - 1] = '\n';
+				connection.enqueue(chunk, 0, chunk.length);
+				count = 0;
+			} else {
+				// hand the buffer over and start a new one rather than copying it
+				connection.enqueue(buf, 0, count);
+				buf = new byte[CHUNK_SIZE];
+				count = 0;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed || mode == null) {
+				return;
+			}
+			closed = true;
+			flushBuffer();
+			if (mode == Mode.CHUNKED) {
+				byte[] last = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+				connection.enqueue(last, 0, last.length);
+			} else if (mode == Mode.FIXED && remaining > 0) {
+				// fewer bytes than announced: the client can no longer find the next response
+				truncated = true;
+				throw new IOException("insufficient bytes written to stream");
+			}
+		}
+	}
+}
@@ -0,0 +1,403 @@
+package io.github.cqyll.todoapi.adapter.inbound.nio;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selector-based HTTP/1.1 server, usable anywhere a {@link HttpServer} is.
+ *
+ * <p>Compared to the JDK implementation it keeps connections open across requests by default, serves pipelined
+ * requests from a single read, and reads into pooled direct buffers that a connection only holds while it has
+ * unparsed bytes. One selector thread does all socket I/O; handlers run on the executor set with
+ * {@link #setExecutor(Executor)} (a single daemon thread if none is set, mirroring the JDK's dispatcher).</p>
+ *
+ * <p>Not supported: chunked request bodies (answered with 501) and TLS.</p>
+ */
+public class NioHttpServer extends HttpServer {
+	private static final int READ_BUFFER_SIZE = 16 * 1024;
+	private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+	private static final int DEFAULT_MAX_BODY = 1024 * 1024;
+	private static final long IDLE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+	private static final byte[] NOT_FOUND =
+			"<h1>404 Not Found</h1>No context found for request".getBytes(StandardCharsets.UTF_8);
+
+	private final List<NioHttpContext> contexts = new CopyOnWriteArrayList<>();
+	private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+	private final Set<HttpConnection> connections = ConcurrentHashMap.newKeySet();
+	private final BufferPool buffers = new BufferPool(READ_BUFFER_SIZE, 1024);
+	private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+
+	private ServerSocketChannel serverChannel;
+	private Selector selector;
+	private Thread selectorThread;
+	private Executor executor;
+	private Executor activeExecutor;
+	private ExecutorService ownedExecutor;
+	private volatile boolean running;
+	private int maxBodySize = DEFAULT_MAX_BODY;
+
+	public static NioHttpServer create(InetSocketAddress addr, int backlog) throws IOException {
+		NioHttpServer server = new NioHttpServer();
+		if (addr != null) {
+			server.bind(addr, backlog);
+		}
+		return server;
+	}
+
+	@Override
+	public void bind(InetSocketAddress addr, int backlog) throws IOException {
+		if (serverChannel != null) {
+			throw new BindException("NioHttpServer already bound");
+		}
+		ServerSocketChannel ch = ServerSocketChannel.open();
+		try {
+			ch.bind(addr, backlog);
+			ch.configureBlocking(false);
+		} catch (IOException e) {
+			ch.close();
+			throw e;
+		}
+		serverChannel = ch;
+	}
+
+	@Override
+	public synchronized void start() {
+		if (serverChannel == null) {
+			throw new IllegalStateException("server not bound");
+		}
+		if (selectorThread != null) {
+			throw new IllegalStateException("server already started");
+		}
+		try {
+			selector = Selector.open();
+			serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot open selector", e);
+		}
+		if (executor != null) {
+			activeExecutor = executor;
+		} else {
+			ownedExecutor = Executors.newSingleThreadExecutor(
+					Thread.ofPlatform().name("nio-http-dispatcher").daemon(true).factory());
+			activeExecutor = ownedExecutor;
+		}
+		running = true;
+		selectorThread = Thread.ofPlatform().name("nio-http-selector").daemon(true).start(this::runSelector);
+	}
+
+	@Override
+	public void setExecutor(Executor executor) {
+		if (selectorThread != null) {
+			throw new IllegalStateException("server already started");
+		}
+		this.executor = executor;
+	}
+
+	@Override
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	@Override
+	public void stop(int delay) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("negative delay parameter");
+		}
+		running = false;
+		Thread t = selectorThread;
+		if (t == null) {
+			closeQuietly();
+			return;
+		}
+		selector.wakeup();
+		try {
+			t.join(Math.max(1, TimeUnit.SECONDS.toMillis(delay)));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (ownedExecutor != null) {
+			ownedExecutor.shutdownNow();
+		}
+	}
+
+	@Override
+	public HttpContext createContext(String path, HttpHandler handler) {
+		if (path == null || !path.startsWith("/")) {
+			throw new IllegalArgumentException("Illegal value for path");
+		}
+		for (NioHttpContext c : contexts) {
+			if (c.getPath().equals(path)) {
+				throw new IllegalArgumentException("cannot add context to list");
+			}
+		}
+		NioHttpContext ctx = new NioHttpContext(path, handler, this);
+		contexts.add(ctx);
+		return ctx;
+	}
+
+	@Override
+	public HttpContext createContext(String path) {
+		return createContext(path, null);
+	}
+
+	@Override
+	public void removeContext(String path) {
+		if (!contexts.removeIf(c -> c.getPath().equals(path))) {
+			throw new IllegalArgumentException("cannot remove element from list");
+		}
+	}
+
+	@Override
+	public void removeContext(HttpContext context) {
+		if (!contexts.remove(context)) {
+			throw new IllegalArgumentException("cannot remove element from list");
+		}
+	}
+
+	@Override
+	public InetSocketAddress getAddress() {
+		try {
+			return (InetSocketAddress) serverChannel.getLocalAddress();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Largest accepted request body; bigger requests are answered with 413 before the body is read.
+	 */
+	public void setMaxBodySize(int maxBodySize) {
+		this.maxBodySize = maxBodySize;
+	}
+
+	// ------------------------------------------------------------------ selector loop
+
+	private void runSelector() {
+		try {
+			while (running) {
+				selector.select(1000);
+				runSelectorTasks();
+				Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+				while (it.hasNext()) {
+					SelectionKey key = it.next();
+					it.remove();
+					handleKey(key);
+				}
+				closeIdleConnections();
+			}
+		} catch (IOException e) {
+			// selector broken; fall through to shutdown
+		} finally {
+			for (HttpConnection c : connections) {
+				c.close();
+			}
+			closeQuietly();
+		}
+	}
+
+	private void handleKey(SelectionKey key) {
+		if (!key.isValid()) {
+			return;
+		}
+		if (key.isAcceptable()) {
+			accept();
+			return;
+		}
+		HttpConnection c = (HttpConnection) key.attachment();
+		try {
+			if (key.isReadable()) {
+				c.onReadable();
+			}
+			if (key.isValid() && key.isWritable()) {
+				c.onWritable(writeBuffer);
+			}
+		} catch (IOException | CancelledKeyException e) {
+			c.close();
+		} catch (RuntimeException e) {
+			// a bug triggered by one client's bytes costs that client its connection, not everyone the selector
+			c.close();
+		}
+	}
+
+	private void accept() {
+		try {
+			SocketChannel ch;
+			while ((ch = serverChannel.accept()) != null) {
+				ch.configureBlocking(false);
+				ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+				SelectionKey key = ch.register(selector, SelectionKey.OP_READ);
+				HttpConnection c = new HttpConnection(this, ch, key);
+				key.attach(c);
+				connections.add(c);
+			}
+		} catch (IOException e) {
+			// transient accept failure (e.g. too many open files); keep serving existing connections
+		}
+	}
+
+	private void runSelectorTasks() {
+		Runnable task;
+		while ((task = selectorTasks.poll()) != null) {
+			try {
+				task.run();
+			} catch (CancelledKeyException ignored) {
+			}
+		}
+	}
+
+	private void closeIdleConnections() {
+		long now = System.nanoTime();
+		for (HttpConnection c : connections) {
+			if (now - c.lastActive > IDLE_TIMEOUT_NANOS && c.isIdle()) {
+				c.close();
+			}
+		}
+	}
+
+	private void closeQuietly() {
+		try {
+			if (serverChannel != null) {
+				serverChannel.close();
+			}
+			if (selector != null) {
+				selector.close();
+			}
+		} catch (IOException ignored) {
+		}
+	}
+
+	// ------------------------------------------------------------------ used by connections
+
+	void runOnSelector(Runnable task) {
+		selectorTasks.add(task);
+		selector.wakeup();
+	}
+
+	Thread selectorThread() {
+		return selectorThread;
+	}
+
+	BufferPool buffers() {
+		return buffers;
+	}
+
+	Executor executor() {
+		return activeExecutor;
+	}
+
+	int maxBodySize() {
+		return maxBodySize;
+	}
+
+	void forget(HttpConnection c) {
+		connections.remove(c);
+	}
+
+	/**
+	 * Runs one request through its context's authenticator, filters and handler.
+	 *
+	 * @return whether the connection can carry another request
+	 */
+	boolean serve(HttpConnection connection, RawRequest request) {
+		if (request.isError()) {
+			return respondBodyless(connection, request, request.errorStatus());
+		}
+
+		URI uri;
+		try {
+			uri = new URI(request.target());
+		} catch (URISyntaxException e) {
+			return respondBodyless(connection, request, 400);
+		}
+		String path = uri.getPath() == null ? "/" : uri.getPath();
+		NioHttpContext ctx = findContext(path);
+		NioHttpExchange ex = new NioHttpExchange(connection, request, ctx, uri);
+		try {
+			if (ctx == null || ctx.getHandler() == null) {
+				ex.getResponseHeaders().set("Content-Type", "text/html");
+				ex.sendResponseHeaders(404, NOT_FOUND.length);
+				ex.getResponseBody().write(NOT_FOUND);
+				return ex.finish();
+			}
+			if (!authenticate(ctx, ex)) {
+				return ex.finish();
+			}
+			new Filter.Chain(ctx.getFilters(), ctx.getHandler()).doFilter(ex);
+			return ex.finish();
+		} catch (Exception e) {
+			if (!ex.headersSent()) {
+				ex.getResponseHeaders().set("Connection", "close");
+				try {
+					ex.sendResponseHeaders(500, -1);
+				} catch (IOException ignored) {
+				}
+			}
+			return false;
+		}
+	}
+
+	private boolean authenticate(NioHttpContext ctx, NioHttpExchange ex) throws IOException {
+		Authenticator auth = ctx.getAuthenticator();
+		if (auth == null) {
+			return true;
+		}
+		Authenticator.Result result = auth.authenticate(ex);
+		if (result instanceof Authenticator.Success success) {
+			ex.setPrincipal(success.getPrincipal());
+			return true;
+		}
+		int code = result instanceof Authenticator.Failure failure
+				? failure.getResponseCode()
+				: ((Authenticator.Retry) result).getResponseCode();
+		ex.sendResponseHeaders(code, -1);
+		return false;
+	}
+
+	private boolean respondBodyless(HttpConnection connection, RawRequest request, int status) {
+		NioHttpExchange ex = new NioHttpExchange(connection, request, null, null);
+		ex.getResponseHeaders().set("Connection", "close");
+		try {
+			ex.sendResponseHeaders(status, -1);
+		} catch (IOException ignored) {
+		}
+		return false;
+	}
+
+	private NioHttpContext findContext(String path) {
+		NioHttpContext best = null;
+		for (NioHttpContext c : contexts) {
+			if (c.matches(path) && (best == null || c.getPath().length() > best.getPath().length())) {
+				best = c;
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,23 @@
+package io.github.cqyll.todoapi.adapter.inbound.nio;
+
+import com.sun.net.httpserver.Headers;
+
+/**
+ * A fully received request, or a parse failure that must be answered in its place.
+ *
+ * <p>Parse failures travel through the same per-connection queue as real requests so that the error response is
+ * written after the responses of any requests pipelined before it.</p>
+ *
+ * @param errorStatus {@code 0} for a valid request, otherwise the status to answer with before closing
+ */
+record RawRequest(String method, String target, String protocol, Headers headers, byte[] body,
+		boolean keepAlive, int errorStatus) {
+
+	static RawRequest error(int status) {
+		return new RawRequest(null, null, "HTTP/1.1", new Headers(), new byte[0], false, status);
+	}
+
+	boolean isError() {
+		return errorStatus != 0;
+	}
+}
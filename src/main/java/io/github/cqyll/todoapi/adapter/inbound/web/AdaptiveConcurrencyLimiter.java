@@ -0,0 +1,124 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to measured latency (gradient style, after Netflix's Gradient2 limiter).
+ *
+ * <p>Two exponential moving averages of request latency are kept: a short one that follows the current load
+ * and a long one that acts as the "no queueing" baseline. Every completed request updates the limit:</p>
+ *
+ * <pre>{@code
+ * gradient = clamp(TOLERANCE * longRtt / shortRtt, 0.5, 1.0)
+ * newLimit = limit * gradient + sqrt(limit)
+ * limit    = limit * (1 - SMOOTHING) + newLimit * SMOOTHING
+ * }</pre>
+ *
+ * <p>When latency stays at the baseline the gradient is 1 and the limit creeps up by {@code sqrt(limit)} of
+ * head room; when requests start queueing (short latency rises above the baseline) the gradient drops and the
+ * limit shrinks until latency recovers. The limit only grows while at least half of it is actually used, so an
+ * idle server does not inflate it.</p>
+ *
+ * <p>Admission ({@link #tryAcquire(RequestPriority)}) is a single CAS loop on the in-flight counter;
+ * only the latency update takes a lock.</p>
+ */
+public class AdaptiveConcurrencyLimiter {
+	static final long REJECTED = -1L;
+
+	private static final double TOLERANCE = 1.5;
+	private static final double SMOOTHING = 0.2;
+	private static final double SHORT_WINDOW = 10;
+	private static final double LONG_WINDOW = 600;
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private volatile int limit;
+
+	// guarded by this
+	private double estimatedLimit;
+	private double shortRtt;
+	private double longRtt;
+
+	public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+		if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+			throw new IllegalArgumentException("Require 1 <= minLimit <= initialLimit <= maxLimit");
+		}
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.limit = initialLimit;
+		this.estimatedLimit = initialLimit;
+	}
+
+	/**
+	 * Tries to admit one request of the given priority.
+	 *
+	 * @return the admission start time in nanos, to be passed to {@link #release(long)},
+	 * 		or {@link #REJECTED} when the request must be shed
+	 */
+	public long tryAcquire(RequestPriority priority) {
+		int allowed = priority.allowance(limit);
+		while (true) {
+			int current = inFlight.get();
+			if (current >= allowed) {
+				return REJECTED;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return System.nanoTime();
+			}
+		}
+	}
+
+	/**
+	 * Completes a request admitted by {@link #tryAcquire(RequestPriority)} and feeds its latency into the limit.
+	 */
+	public void release(long startNanos) {
+		int inFlightAtCompletion = inFlight.getAndDecrement();
+		onSample(System.nanoTime() - startNanos, inFlightAtCompletion);
+	}
+
+	synchronized void onSample(long rttNanos, int inFlightAtCompletion) {
+		double rtt = Math.max(1, rttNanos);
+		if (longRtt == 0) {
+			shortRtt = rtt;
+			longRtt = rtt;
+			return;
+		}
+		shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+		longRtt += (rtt - longRtt) / LONG_WINDOW;
+
+		// Baseline drifted far above the current latency (e.g. after a slow warm-up): pull it back down
+		// so it keeps describing the unloaded state.
+		if (longRtt / shortRtt > 2) {
+			longRtt = longRtt * 0.95;
+		}
+
+		// App-limited: not enough traffic to learn anything about a larger limit.
+		if (inFlightAtCompletion < estimatedLimit / 2) {
+			return;
+		}
+
+		double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+		double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+		newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+		estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+		limit = (int) estimatedLimit;
+	}
+
+	/**
+	 * Suggested {@code Retry-After} in whole seconds for a shed request: roughly the time for the current
+	 * in-flight work to drain at baseline latency, clamped to [1, 30].
+	 */
+	public int retryAfterSeconds() {
+		double baselineSeconds;
+		synchronized (this) {
+			baselineSeconds = longRtt / 1_000_000_000d;
+		}
+		double drain = baselineSeconds * Math.max(1, inFlight.get()) / Math.max(1, limit);
+		return (int) Math.max(1, Math.min(30, Math.ceil(drain)));
+	}
+
+	public int getLimit() { return limit; }
+	public int getInFlight() { return inFlight.get(); }
+}
@@ -0,0 +1,61 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Admission control in front of a controller.
+ *
+ * <p>Requests are admitted through a shared {@link AdaptiveConcurrencyLimiter} using the priority of the
+ * context this filter is attached to. A refused request is answered immediately with
+ * {@code 503 Service Unavailable} and a {@code Retry-After} header, without reading the body or touching the
+ * controller, so overload costs a few microseconds instead of growing the queue.</p>
+ *
+ * <p>503 (server overloaded) rather than 429 (this client sent too much): the limit is global, the client did
+ * nothing wrong.</p>
+ */
+public class AdmissionFilter extends Filter {
+	private static final byte[] OVERLOADED_BODY =
+			"{\"error\":\"temporarily_unavailable\"}".getBytes(StandardCharsets.UTF_8);
+
+	private final AdaptiveConcurrencyLimiter limiter;
+	private final RequestPriority priority;
+
+	public AdmissionFilter(AdaptiveConcurrencyLimiter limiter, RequestPriority priority) {
+		this.limiter = limiter;
+		this.priority = priority;
+	}
+
+	@Override
+	public void doFilter(HttpExchange ex, Chain chain) throws IOException {
+		long start = limiter.tryAcquire(priority);
+		if (start == AdaptiveConcurrencyLimiter.REJECTED) {
+			reject(ex);
+			return;
+		}
+		try {
+			chain.doFilter(ex);
+		} finally {
+			limiter.release(start);
+		}
+	}
+
+	private void reject(HttpExchange ex) throws IOException {
+		ex.getResponseHeaders().set("Retry-After", Integer.toString(limiter.retryAfterSeconds()));
+		ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		ex.getResponseHeaders().set("Cache-Control", "no-store");
+		ex.sendResponseHeaders(503, OVERLOADED_BODY.length);
+		try (OutputStream os = ex.getResponseBody()) {
+			os.write(OVERLOADED_BODY);
+		}
+	}
+
+	@Override
+	public String description() {
+		return "Adaptive admission control (" + priority + ")";
+	}
+}
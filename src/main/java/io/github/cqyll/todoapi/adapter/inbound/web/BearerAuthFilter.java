@@ -0,0 +1,105 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import io.github.cqyll.todoapi.application.port.inbound.BearerAuthenticationUseCase;
+import io.github.cqyll.todoapi.dto.AuthenticatedPrincipal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Access token authentication in front of a protected controller (RFC 6750).
+ *
+ * <p>The token is taken from the {@code Authorization: Bearer} header only; tokens in query strings end up in
+ * logs. An authenticated request reaches the controller with its {@link AuthenticatedPrincipal} attached to the
+ * exchange, see {@link #principal(HttpExchange)}. Anything else is answered here with {@code 401} and a
+ * {@code WWW-Authenticate} challenge, without reading the body or touching the controller.</p>
+ */
+public class BearerAuthFilter extends Filter {
+	/** Exchange attribute holding the {@link AuthenticatedPrincipal} of an authenticated request. */
+	public static final String PRINCIPAL_ATTRIBUTE = "todo.principal";
+
+	private static final String CHALLENGE = "Bearer realm=\"todo\"";
+	private static final byte[] MISSING_BODY =
+			"{\"error\":\"invalid_request\",\"error_description\":\"bearer token required\"}"
+					.getBytes(StandardCharsets.UTF_8);
+	private static final byte[] INVALID_BODY =
+			"{\"error\":\"invalid_token\"}".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] INSUFFICIENT_SCOPE_BODY =
+			"{\"error\":\"insufficient_scope\"}".getBytes(StandardCharsets.UTF_8);
+
+	private final BearerAuthenticationUseCase authentication;
+
+	public BearerAuthFilter(BearerAuthenticationUseCase authentication) {
+		this.authentication = authentication;
+	}
+
+	@Override
+	public void doFilter(HttpExchange ex, Chain chain) throws IOException {
+		String token = bearerToken(ex.getRequestHeaders().getFirst("Authorization"));
+		if (token == null) {
+			// no credentials at all: a bare challenge, no error code (RFC 6750 section 3.1)
+			reject(ex, 401, CHALLENGE, MISSING_BODY);
+			return;
+		}
+		Optional<AuthenticatedPrincipal> principal = authentication.authenticate(token);
+		if (principal.isEmpty()) {
+			reject(ex, 401, CHALLENGE + ", error=\"invalid_token\"", INVALID_BODY);
+			return;
+		}
+		ex.setAttribute(PRINCIPAL_ATTRIBUTE, principal.get());
+		chain.doFilter(ex);
+	}
+
+	/** The principal this filter attached, or {@code null} if the exchange did not pass through one. */
+	public static AuthenticatedPrincipal principal(HttpExchange ex) {
+		return (AuthenticatedPrincipal) ex.getAttribute(PRINCIPAL_ATTRIBUTE);
+	}
+
+	/**
+	 * Whether the request's token grants {@code scope}. If it does not, answers {@code 403} with an
+	 * {@code insufficient_scope} challenge naming the scope (RFC 6750 section 3.1) and returns {@code false}; the
+	 * caller just returns.
+	 */
+	public static boolean requireScope(HttpExchange ex, String scope) throws IOException {
+		AuthenticatedPrincipal principal = principal(ex);
+		if (principal == null) {
+			// the context is missing this filter; fail closed
+			reject(ex, 401, CHALLENGE, MISSING_BODY);
+			return false;
+		}
+		if (principal.hasScope(scope)) {
+			return true;
+		}
+		reject(ex, 403, CHALLENGE + ", error=\"insufficient_scope\", scope=\"" + scope + "\"",
+				INSUFFICIENT_SCOPE_BODY);
+		return false;
+	}
+
+	/** The credentials of a {@code Bearer} header (scheme matched case-insensitively), or {@code null}. */
+	static String bearerToken(String header) {
+		if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+			return null;
+		}
+		String token = header.substring(7).trim();
+		return token.isEmpty() ? null : token;
+	}
+
+	private static void reject(HttpExchange ex, int status, String challenge, byte[] body) throws IOException {
+		ex.getResponseHeaders().set("WWW-Authenticate", challenge);
+		ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		ex.getResponseHeaders().set("Cache-Control", "no-store");
+		ex.sendResponseHeaders(status, body.length);
+		try (OutputStream os = ex.getResponseBody()) {
+			os.write(body);
+		}
+	}
+
+	@Override
+	public String description() {
+		return "Bearer token authentication";
+	}
+}
@@ -0,0 +1,56 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Client credentials as presented to the OAuth endpoints: the {@code Authorization: Basic} header
+ * (client_secret_basic) if there is one, otherwise {@code client_id}/{@code client_secret} form parameters
+ * (client_secret_post).
+ */
+final class ClientAuth {
+    final String clientId;
+    final String clientSecret;
+
+    private ClientAuth(String clientId, String clientSecret) {
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
+    }
+
+    /** @throws OAuthError {@code invalid_client} if the Basic header is not valid base64 */
+    static ClientAuth from(HttpExchange ex, Map<String, String> form) {
+        String auth = ex.getRequestHeaders().getFirst("Authorization");
+        if (auth != null && auth.startsWith("Basic ")) {
+            String[] credentials = parseBasic(auth);
+            if (credentials == null) {
+                throw OAuthError.invalidClient("client authentication failed");
+            }
+            return new ClientAuth(credentials[0], credentials[1]);
+        }
+
+        // Fallback: client_secret_post
+        return new ClientAuth(form.get("client_id"), form.get("client_secret"));
+    }
+
+    /**
+     * Splits an {@code Authorization: Basic} header value into user-id and password (RFC 7617).
+     *
+     * @return {@code {id, secret}}, or {@code null} if the value is not valid base64
+     */
+    static String[] parseBasic(String header) {
+        String b64 = header.substring("Basic ".length()).trim();
+        String decoded;
+        try {
+            decoded = new String(Base64.getDecoder().decode(b64), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int idx = decoded.indexOf(':');
+        String id = idx >= 0 ? decoded.substring(0, idx) : decoded;
+        String secret = idx >= 0 ? decoded.substring(idx + 1) : "";
+        return new String[] {id, secret};
+    }
+}
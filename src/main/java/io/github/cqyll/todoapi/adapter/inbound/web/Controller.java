@@ -1,207 +1,107 @@
-package io.github.cqyll.todoapi.adapter.inbound.web;
-
-import com.sun.net.httpserver.HttpHandler;
-
-
-import io.github.cqyll.todoapi.application.port.inbound.OAuthTokenUseCase;
-import io.github.cqyll.todoapi.dto.OAuthTokenRequest;
-
-import com.sun.net.httpserver.HttpExchange;
-
-
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
-import java.util.Base64;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.io.IOException;
-
-public class Controller implements HttpHandler {
-	private final OAuthTokenUseCase useCase;
-
-	public Controller(OAuthTokenUseCase useCase) {
-		this.useCase = useCase;
-	}
-
-	public void handle(HttpExchange ex) throws IOException {
-		if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) {
-			// {@code Header getResponseHeaders()} to set any response headers, except content-length
-			// Header implements Map<String,List<String>>
-			// values in the map are a list, one element for each occurrence of header name in request/response
-			// set(String, String) from Header class overwrites any existing values in the entire value list		
-			// HTTP Allow header to handle 405 (Method not Allowed)
-			ex.getResponseHeaders().set("Allow","POST");
-			// {@code void sendResponseHeaders(int responseCode, long responseLength) throws IOException}
-			// responseLength specifies the exact number of bytes to send
-			// responseLength = -1 --> no response body being sent
-			// no response body opened means no OutputStream opened
-			ex.sendResponseHeaders(405, -1); // status only response
-			return;
-		}
-
-		try {
-			/*
-			 * RFC 6749 token endpoint
-			 * OAuth 2.0 specifies that token endpoint parameters are sent using "application/x-www-form-urlencoded" encoding
-			 * (i.e. form-encoded key=value pairs).
-			 * 
-			 * HttpExchange#getRequestBody() provides the request body as an InputStream containing raw bytes, that 
-			 * can only be read once.
-			 * 
-			 * The request body represents UTF-8 text that has been URL-encoded by the client.
-			 * --> must explicitly decode bytes as UTF-8 to avoid platform-dependent behavior.
-			 * 
-			 * application/x-www-form-urlencoded flattens parameters into a single string:
-			 * 		key1=value1&key2=value2
-			 * where reserved characters are percent-encoded (' ' -> '+', '&' -> '%26').
-			 * 
-			 * Parsing involves:
-			 * 1) Reading the full InputStream
-			 * 2) Decoding bytes as UTF-8 text
-			 * 3) Splitting parameters on '&' and key/value on '='
-			 * 4) URL-decoding each key and value
-			 */
-
-			String raw = new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8); // byte to character decoding
-			
-			// client_secret_post --> client credentials in body
-			// client_secret_basic --> client credentials in authorization header (body only contains grant
-			// parameters)
-			Map<String, String> form = parseForm(raw);
-			ClientAuth clientAuth = parseClientAuth(ex, form);
-			
-			OAuthTokenRequest req = OAuthTokenRequest.from(form, clientAuth.clientId, clientAuth.clientSecret);
-			
-			
-			
-			
-		} catch (Exception e) {
-
-		}
-
-	}
-
-	/**
-	 * Parses an {@code application/x-www-form-urlencoded} request body into a map of decoded parameter names to decoded parameter values.
-	 * 
-	 * <p>The input string is expected to be UTF-8 text that has already been read from the HTTP request body. The string may be empty or blank </p>
-	 * 
-	 * <p>The format of the input is a sequence of {@code key=value} pairs separated by {@code '&'} characters. Both keys and values may be URL-encoded.</p>
-	 * 
-	 * <h3>Parsing rules</h3>
-	 * <ul>
-	 * 		<li>Parameters are separated by {@code '&'}.</li>
-	 * 		<li>Each parameter is split on the <em>first</em> {@code '='} only.</li>
-	 * 		<li>If a parameter has no {@code '='}, its value is treated as an empty string.</li>
-	 * 		<li>{@code '+'} is interpreted as a space.</li>
-	 * 		<li>Percent-encoded sequences (e.g. {@code %40}) are decoded using UTF-8.</li>
-	 * </ul>
-	 * 
-	 * returns a {@code Map<String, String>} for form parameters, similar to the Headers Class in com.sun.net.httpserver
-	 * * <h3>Example</h3>
-	 *
-	 * <pre>{@code
-	 * Input:
-	 *   grant_type=password&username=john.doe%40example.com&password=p%40ss+w%3Drd%26123
-	 *
-	 * Output:
-	 *   {
-	 *     "grant_type" : "password",
-	 *     "username"   : "john.doe@example.com",
-	 *     "password"   : "p@ss w=rd&123"
-	 *   }
-	 * }</pre>
-	 *
-	 * <h3>Empty input</h3>
-	 *
-	 * <pre>{@code
-	 * Input:
-	 *   ""
-	 *
-	 * Output:
-	 *   { }
-	 * }</pre>
-	 *
-	 * <p>This method performs no validation of parameter names or values.
-	 * Validation is expected to be handled by higher layers.</p>
-	 *
-	 * @param rawBody the raw UTF-8 request body string
-	 * @return a map containing decoded form parameters
-	 */
-	private Map<String, String> parseForm(String bodyString) {
-		// HashMap is sufficient for correctness since lookup is by key, not position
-		// Preference is given to LinkedHashMap since we can have duplicate keys and deterministic iteration
-		// can help in choosing between duplicate keys
-		// performance difference is negligible these are tiny payloads (OAuth request bodies)
-		// self-note: LinkedHashMap maintains a doubly-linked list running through all of its entries
-		Map<String, String> params = new LinkedHashMap<>();
-		if (bodyString == null || bodyString.isBlank()) return params;
-		
-		for (String pair: bodyString.split("&")) {
-			if(pair.isEmpty()) continue; // skip empty segments
-			
-			int idx = pair.indexOf('=');
-			if (idx < 0) continue; // no '=' to split on -> parameters without values are omitted (adhereing to OAuth spec)
-			String rawKey = pair.substring(0, idx);
-			String rawValue = pair.substring(idx + 1);
-			
-			if (rawKey.isEmpty()) continue; // omit empty keys
-			
-			String key = URLDecoder.decode(rawKey, StandardCharsets.UTF_8);
-			String value = URLDecoder.decode(rawValue, StandardCharsets.UTF_8);
-			
-			// parameters without values must be omitted
-			if (value.isBlank()) continue; // catches "k=", "k= ", "k=%20", etc.
-			
-			// no duplicate request parameters
-			if (params.containsKey(key)) {
-				throw OAuthError.invalidRequest("Duplicate parameter: " + key);
-			}
-			
-			params.put(key, value);
-			
-		}
-		return params;	
-	}
-	
-	private ClientAuth parseClientAuth(HttpExchange ex, Map<String, String> form) {
-		
-		String auth = ex.getRequestHeaders().getFirst("Authorization");
-		
-		boolean hasBasic = auth != null && auth.startsWith("Basic ");
-		boolean hasBodyCreds = form.containsKey("client_id") || form.containsKey("client_secret");
-		
-		// OAuth: client MUST NOT use more than one authentication method per request
-		if (hasBasic && hasBodyCreds) {
-			throw OAuthError.invalidRequest("Multiple client authentication methods used");
-		}
-		
-		// client_secret_basic
-		if (hasBasic) {
-			String b64 = auth.substring("Basic ".length()).trim();
-			String decoded = new String(Base64.getDecoder().decode(b64), StandardCharsets.UTF_8);
-			
-			int idx = decoded.indexOf(':');
-			String clientId = (idx >= 0) ? decoded.substring(0, idx) : decoded;
-			String clientSecret = (idx >= 0) ? decoded.substring(idx + 1) : "";
-			
-			return new ClientAuth(clientId, clientSecret);
-		}
-		
-		// client_secret_post (fallback)
-		return new ClientAuth(form.get("client_id"), form.get("client_secret"));
-	}
-	
-	// local value object to hold resolved client_Id and client_secret as a pair
-	private static final class ClientAuth {
-		final String clientId;
-		final String clientSecret;
-		
-		ClientAuth(String clientId, String clientSecret) {
-			this.clientId = clientId;
-			this.clientSecret = clientSecret;
-		}
-	}
-	
-	
-}
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import com.sun.net.httpserver.HttpHandler;
+
+
+import io.github.cqyll.todoapi.application.port.inbound.OAuthTokenUseCase;
+import io.github.cqyll.todoapi.dto.OAuthTokenRequest;
+
+import com.sun.net.httpserver.HttpExchange;
+
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.io.IOException;
+
+public class Controller implements HttpHandler {
+	private final OAuthTokenUseCase useCase;
+
+	public Controller(OAuthTokenUseCase useCase) {
+		this.useCase = useCase;
+	}
+
+	public void handle(HttpExchange ex) throws IOException {
+		if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) {
+			// {@code Header getResponseHeaders()} to set any response headers, except content-length
+			// Header implements Map<String,List<String>>
+			// values in the map are a list, one element for each occurrence of header name in request/response
+			// set(String, String) from Header class overwrites any existing values in the entire value list		
+			// HTTP Allow header to handle 405 (Method not Allowed)
+			ex.getResponseHeaders().set("Allow","POST");
+			// {@code void sendResponseHeaders(int responseCode, long responseLength) throws IOException}
+			// responseLength specifies the exact number of bytes to send
+			// responseLength = -1 --> no response body being sent
+			// no response body opened means no OutputStream opened
+			ex.sendResponseHeaders(405, -1); // status only response
+			return;
+		}
+
+		try {
+			/*
+			 * RFC 6749 token endpoint
+			 * OAuth 2.0 specifies that token endpoint parameters are sent using "application/x-www-form-urlencoded" encoding
+			 * (i.e. form-encoded key=value pairs).
+			 * 
+			 * HttpExchange#getRequestBody() provides the request body as an InputStream containing raw bytes, that 
+			 * can only be read once. FormParser decodes those bytes directly (see its javadoc for the parsing rules).
+			 */
+			Map<String, String> form = FormParser.read(ex, FormParser.DEFAULT_MAX_BODY_BYTES);
+			
+			// client_secret_post --> client credentials in body
+			// client_secret_basic --> client credentials in authorization header (body only contains grant
+			// parameters)
+			ClientAuth clientAuth = parseClientAuth(ex, form);
+			
+			OAuthTokenRequest req = OAuthTokenRequest.from(form, clientAuth.clientId, clientAuth.clientSecret);
+			
+			
+			
+			
+		} catch (Exception e) {
+
+		}
+
+	}
+
+	private ClientAuth parseClientAuth(HttpExchange ex, Map<String, String> form) {
+		
+		String auth = ex.getRequestHeaders().getFirst("Authorization");
+		
+		boolean hasBasic = auth != null && auth.startsWith("Basic ");
+		boolean hasBodyCreds = form.containsKey("client_id") || form.containsKey("client_secret");
+		
+		// OAuth: client MUST NOT use more than one authentication method per request
+		if (hasBasic && hasBodyCreds) {
+			throw OAuthError.invalidRequest("Multiple client authentication methods used");
+		}
+		
+		// client_secret_basic
+		if (hasBasic) {
+			String b64 = auth.substring("Basic ".length()).trim();
+			String decoded = new String(Base64.getDecoder().decode(b64), StandardCharsets.UTF_8);
+			
+			int idx = decoded.indexOf(':');
+			String clientId = (idx >= 0) ? decoded.substring(0, idx) : decoded;
+			String clientSecret = (idx >= 0) ? decoded.substring(idx + 1) : "";
+			
+			return new ClientAuth(clientId, clientSecret);
+		}
+		
+		// client_secret_post (fallback)
+		return new ClientAuth(form.get("client_id"), form.get("client_secret"));
+	}
+	
+	// local value object to hold resolved client_Id and client_secret as a pair
+	private static final class ClientAuth {
+		final String clientId;
+		final String clientSecret;
+		
+		ClientAuth(String clientId, String clientSecret) {
+			this.clientId = clientId;
+			this.clientSecret = clientSecret;
+		}
+	}
+	
+	
+}
@@ -0,0 +1,84 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Strong entity tags made from version numbers, and {@code If-None-Match} (RFC 9110 section 13.1.2).
+ *
+ * <p>A read that can tell whether the client's copy is current from a version alone answers with
+ * {@link #notModified} before producing its body: a poll that finds nothing changed costs a version lookup and a
+ * header scan, and no serialization.</p>
+ */
+final class ETags {
+
+	private ETags() {
+	}
+
+	/** {@code "<version in hex>"}. */
+	static String of(long version) {
+		return '"' + Long.toHexString(version) + '"';
+	}
+
+	/**
+	 * Tags the response with {@code etag}, and answers {@code 304} without a body if the request's
+	 * {@code If-None-Match} lists it.
+	 *
+	 * <p>The response is also marked {@code private, no-cache}: todos are per user, and a cache holding them
+	 * must ask again each time, which is what the tag makes cheap.</p>
+	 *
+	 * @return whether the response has been sent
+	 */
+	static boolean notModified(HttpExchange ex, String etag) throws IOException {
+		Headers headers = ex.getResponseHeaders();
+		headers.set("ETag", etag);
+		headers.set("Cache-Control", "private, no-cache");
+		List<String> conditions = ex.getRequestHeaders().get("If-None-Match");
+		if (conditions != null) {
+			for (String condition : conditions) {
+				if (matches(condition, etag)) {
+					ex.sendResponseHeaders(304, -1);
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Whether {@code etag} is in the comma-separated list {@code condition}, or the list is {@code *}. The
+	 * comparison is the weak one the header calls for: a {@code W/} prefix is ignored.
+	 */
+	static boolean matches(String condition, String etag) {
+		int n = condition.length();
+		int i = 0;
+		while (i < n) {
+			char c = condition.charAt(i);
+			if (c == ' ' || c == '\t' || c == ',') {
+				i++;
+			} else if (c == '*') {
+				return true;
+			} else {
+				if (condition.startsWith("W/", i)) {
+					i += 2;
+				}
+				if (i >= n || condition.charAt(i) != '"') {
+					return false; // malformed; matching nothing sends the full response, which is always safe
+				}
+				// a tag may contain commas, so it runs to its closing quote
+				int end = condition.indexOf('"', i + 1);
+				if (end < 0) {
+					return false;
+				}
+				if (end + 1 - i == etag.length() && condition.startsWith(etag, i)) {
+					return true;
+				}
+				i = end + 1;
+			}
+		}
+		return false;
+	}
+}
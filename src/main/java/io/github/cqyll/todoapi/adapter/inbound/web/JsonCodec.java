@@ -0,0 +1,502 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import io.github.cqyll.todoapi.dto.BasicAuthRequest;
+import io.github.cqyll.todoapi.dto.RegisterRequest;
+import io.github.cqyll.todoapi.dto.TodoOperation;
+import io.github.cqyll.todoapi.dto.TodoRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The web adapter's JSON codec: the {@link JsonFactory} shared by every controller, and hand-written decoders for
+ * the request DTOs.
+ *
+ * <p>The request DTOs are flat objects of string fields, so they are decoded straight from the body bytes in one
+ * pass: field names are matched against pre-encoded bytes without creating a {@code String}, and values are
+ * turned into their final {@code String} directly (without a copy when they contain no escapes). No
+ * {@code ObjectMapper}, no bean introspection and no Jackson parser, whose per-instance setup alone costs more
+ * than decoding these bodies.</p>
+ *
+ * <h3>Accepted input</h3>
+ * <ul>
+ * 		<li>A single JSON object, optionally surrounded by whitespace, of at most {@link #MAX_BODY_BYTES}; or, for a
+ * 		batch, an array of such objects of at most {@link #MAX_BATCH_BYTES}.</li>
+ * 		<li>Known fields are strings (booleans where noted, ISO-8601 instants such as
+ * 		{@code "2024-05-01T09:00:00Z"} for times) or {@code null}; missing fields are left {@code null}.</li>
+ * 		<li>As with the default Jackson binding this replaces, an unknown field is an error and a repeated field
+ * 		keeps its last value.</li>
+ * </ul>
+ * Anything else is reported as an {@link IllegalArgumentException}, so controllers answer it as a client error.
+ *
+ * <p>Response writing lives in {@link JsonResponseWriter}, on the same factory.</p>
+ */
+public final class JsonCodec {
+	/**
+	 * Bounded, shared recycler pool for Jackson's internal buffers. The default pool is thread-local, which
+	 * recycles nothing when every request runs on a fresh virtual thread.
+	 */
+	static final JsonFactory FACTORY = JsonFactory.builder()
+			.recyclerPool(JsonRecyclerPools.newBoundedPool(256))
+			.build();
+
+	/** Registration, login and todo bodies are a few short fields. */
+	public static final int MAX_BODY_BYTES = 8 * 1024;
+	/** A batch of todo operations: room for the full count with titles of a few hundred bytes each. */
+	public static final int MAX_BATCH_BYTES = 512 * 1024;
+	public static final int MAX_BATCH_OPERATIONS = 1000;
+
+	private static final byte[] NAME = ascii("name");
+	private static final byte[] EMAIL = ascii("email");
+	private static final byte[] PASSWORD = ascii("password");
+	private static final byte[] TITLE = ascii("title");
+	private static final byte[] COMPLETED = ascii("completed");
+	private static final byte[] DUE_AT = ascii("due_at");
+	private static final byte[] OP = ascii("op");
+	private static final byte[] ID = ascii("id");
+
+	private static final byte[][] REGISTER_FIELDS = { NAME, EMAIL, PASSWORD };
+	private static final byte[][] LOGIN_FIELDS = { EMAIL, PASSWORD };
+	private static final byte[][] TODO_FIELDS = { TITLE, COMPLETED, DUE_AT };
+	private static final byte[][] OPERATION_FIELDS = { OP, ID, TITLE, COMPLETED, DUE_AT };
+
+	private JsonCodec() {
+	}
+
+	/**
+	 * Decodes {@code {"name":...,"email":...,"password":...}}.
+	 *
+	 * @throws IllegalArgumentException if the body is not such an object
+	 */
+	public static RegisterRequest readRegisterRequest(InputStream in) throws IOException {
+		Cursor c = readBody(in);
+		RegisterRequest req = new RegisterRequest();
+		c.startObject();
+		while (c.nextField()) {
+			switch (c.fieldName(REGISTER_FIELDS)) {
+				case 0 -> req.setName(c.stringOrNull("name"));
+				case 1 -> req.setEmail(c.stringOrNull("email"));
+				default -> req.setPassword(c.stringOrNull("password"));
+			}
+		}
+		c.end();
+		return req;
+	}
+
+	/**
+	 * Decodes {@code {"email":...,"password":...}}; see {@link BasicAuthRequest#validate()} for required fields.
+	 *
+	 * @throws IllegalArgumentException if the body is not such an object
+	 */
+	public static BasicAuthRequest readBasicAuthRequest(InputStream in) throws IOException {
+		Cursor c = readBody(in);
+		String email = null;
+		String password = null;
+		c.startObject();
+		while (c.nextField()) {
+			if (c.fieldName(LOGIN_FIELDS) == 0) {
+				email = c.stringOrNull("email");
+			} else {
+				password = c.stringOrNull("password");
+			}
+		}
+		c.end();
+		return new BasicAuthRequest(email, password);
+	}
+
+	/**
+	 * Decodes {@code {"title":...,"completed":...,"due_at":...}}, where {@code completed} is a boolean and
+	 * {@code due_at} an instant.
+	 *
+	 * @throws IllegalArgumentException if the body is not such an object
+	 */
+	public static TodoRequest readTodoRequest(InputStream in) throws IOException {
+		Cursor c = readBody(in);
+		String title = null;
+		Boolean completed = null;
+		Instant dueAt = null;
+		c.startObject();
+		while (c.nextField()) {
+			switch (c.fieldName(TODO_FIELDS)) {
+				case 0 -> title = c.stringOrNull("title");
+				case 1 -> completed = c.booleanOrNull("completed");
+				default -> dueAt = c.instantOrNull("due_at");
+			}
+		}
+		c.end();
+		return new TodoRequest(title, completed, dueAt);
+	}
+
+	/**
+	 * Decodes a batch of todo changes: an array of objects with the fields of a todo body plus {@code "op"}, one of
+	 * {@code "create"}, {@code "update"} or {@code "delete"}, and {@code "id"}. A create takes a title and no id;
+	 * an update or delete needs the id of the todo, in canonical form, and a delete takes nothing else.
+	 *
+	 * <p>Each operation is checked as soon as its object has been read, in the same pass that decodes it, so a
+	 * malformed batch is refused as a whole before anything is applied. Title rules are the domain's and are left
+	 * to it, per operation.</p>
+	 *
+	 * @throws IllegalArgumentException if the body is not such an array, or holds more than
+	 *                                  {@link #MAX_BATCH_OPERATIONS}
+	 */
+	public static List<TodoOperation> readTodoOperations(InputStream in) throws IOException {
+		Cursor c = readBody(in, MAX_BATCH_BYTES);
+		List<TodoOperation> ops = new ArrayList<>();
+		c.startArray();
+		while (c.nextElement()) {
+			if (ops.size() == MAX_BATCH_OPERATIONS) {
+				throw new IllegalArgumentException("More than " + MAX_BATCH_OPERATIONS + " operations");
+			}
+			String op = null;
+			String id = null;
+			String title = null;
+			Boolean completed = null;
+			Instant dueAt = null;
+			c.startObject();
+			while (c.nextField()) {
+				switch (c.fieldName(OPERATION_FIELDS)) {
+					case 0 -> op = c.stringOrNull("op");
+					case 1 -> id = c.stringOrNull("id");
+					case 2 -> title = c.stringOrNull("title");
+					case 3 -> completed = c.booleanOrNull("completed");
+					default -> dueAt = c.instantOrNull("due_at");
+				}
+			}
+			ops.add(operation(ops.size(), op, id, title, completed, dueAt));
+		}
+		c.end();
+		return ops;
+	}
+
+	private static TodoOperation operation(int index, String op, String id, String title, Boolean completed,
+			Instant dueAt) {
+		if (op == null) {
+			throw invalidOperation(index, "op is required");
+		}
+		switch (op) {
+			case "create" -> {
+				if (id != null) {
+					throw invalidOperation(index, "a create takes no id");
+				}
+				if (title == null) {
+					throw invalidOperation(index, "a create needs a title");
+				}
+				return TodoOperation.create(title, completed, dueAt);
+			}
+			case "update" -> {
+				return TodoOperation.update(todoId(index, id), title, completed, dueAt);
+			}
+			case "delete" -> {
+				if (title != null || completed != null || dueAt != null) {
+					throw invalidOperation(index, "a delete takes only an id");
+				}
+				return TodoOperation.delete(todoId(index, id));
+			}
+			default -> throw invalidOperation(index, "unknown op " + op);
+		}
+	}
+
+	private static UUID todoId(int index, String id) {
+		if (id == null) {
+			throw invalidOperation(index, "id is required");
+		}
+		UUID uuid = TodoController.parseId(id);
+		if (uuid == null) {
+			throw invalidOperation(index, "malformed id");
+		}
+		return uuid;
+	}
+
+	private static IllegalArgumentException invalidOperation(int index, String detail) {
+		return new IllegalArgumentException("Operation " + index + ": " + detail);
+	}
+
+	private static Cursor readBody(InputStream in) throws IOException {
+		return readBody(in, MAX_BODY_BYTES);
+	}
+
+	/**
+	 * Reads the whole body into an array sized from {@link InputStream#available()}, rather than
+	 * {@code readNBytes}, which allocates a full 8 KiB chunk whatever the body size, and decodes it in place.
+	 */
+	private static Cursor readBody(InputStream in, int maxBytes) throws IOException {
+		// +1 so the end-of-stream read of a fully buffered body does not trigger a resize
+		byte[] buf = new byte[Math.min(Math.max(in.available() + 1, 64), maxBytes + 1)];
+		int n = 0;
+		int r;
+		while ((r = in.read(buf, n, buf.length - n)) > 0) {
+			n += r;
+			if (n > maxBytes) {
+				throw new IllegalArgumentException("Request body too large");
+			}
+			if (n == buf.length) {
+				buf = Arrays.copyOf(buf, Math.min(buf.length * 2, maxBytes + 1));
+			}
+		}
+		return new Cursor(buf, n);
+	}
+
+	private static byte[] ascii(String s) {
+		return s.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static IllegalArgumentException invalid(String detail) {
+		return new IllegalArgumentException("Invalid JSON: " + detail);
+	}
+
+	/** Position in a body holding one flat JSON object, or an array of them. */
+	private static final class Cursor {
+		private final byte[] b;
+		private final int limit;
+		private int pos;
+		/** Whether the current object, or array, has had no field, or element, yet. */
+		private boolean first;
+		private boolean firstElement;
+
+		Cursor(byte[] b, int limit) {
+			this.b = b;
+			this.limit = limit;
+		}
+
+		void startObject() {
+			skipWhitespace();
+			expect('{');
+			first = true;
+		}
+
+		void startArray() {
+			skipWhitespace();
+			expect('[');
+			firstElement = true;
+		}
+
+		/** Moves to the next element, or consumes the closing bracket and returns {@code false}. */
+		boolean nextElement() {
+			skipWhitespace();
+			if (pos < limit && b[pos] == ']') {
+				pos++;
+				return false;
+			}
+			if (!firstElement) {
+				expect(',');
+			}
+			firstElement = false;
+			return true;
+		}
+
+		/** Moves to the next field name, or consumes the closing brace and returns {@code false}. */
+		boolean nextField() {
+			skipWhitespace();
+			if (pos < limit && b[pos] == '}') {
+				pos++;
+				return false;
+			}
+			if (!first) {
+				expect(',');
+				skipWhitespace();
+			}
+			first = false;
+			if (pos >= limit || b[pos] != '"') {
+				throw invalid("expected a field name");
+			}
+			return true;
+		}
+
+		/**
+		 * Reads the field name and the following ':'.
+		 *
+		 * @return the index of the name in {@code known}
+		 * @throws IllegalArgumentException for a name not in {@code known}
+		 */
+		int fieldName(byte[][] known) {
+			int start = pos + 1;
+			int end = closingQuote(start);
+			int index = -1;
+			if (indexOf((byte) '\\', start, end) < 0) {
+				for (int i = 0; i < known.length && index < 0; i++) {
+					if (Arrays.equals(b, start, end, known[i], 0, known[i].length)) {
+						index = i;
+					}
+				}
+				if (index < 0) {
+					throw invalid("unknown field " + new String(b, start, end - start, StandardCharsets.UTF_8));
+				}
+			} else {
+				String name = unescape(start, end);
+				for (int i = 0; i < known.length && index < 0; i++) {
+					if (name.equals(new String(known[i], StandardCharsets.US_ASCII))) {
+						index = i;
+					}
+				}
+				if (index < 0) {
+					throw invalid("unknown field " + name);
+				}
+			}
+			pos = end + 1;
+			skipWhitespace();
+			expect(':');
+			return index;
+		}
+
+		String stringOrNull(String field) {
+			skipWhitespace();
+			if (pos < limit && b[pos] == '"') {
+				int start = pos + 1;
+				int end = closingQuote(start);
+				pos = end + 1;
+				return indexOf((byte) '\\', start, end) < 0
+						? new String(b, start, end - start, StandardCharsets.UTF_8)
+						: unescape(start, end);
+			}
+			if (pos + 4 <= limit && b[pos] == 'n' && b[pos + 1] == 'u' && b[pos + 2] == 'l' && b[pos + 3] == 'l') {
+				pos += 4;
+				return null;
+			}
+			throw invalid(field + " must be a string");
+		}
+
+		Instant instantOrNull(String field) {
+			String s = stringOrNull(field);
+			try {
+				return s == null ? null : Instant.parse(s);
+			} catch (DateTimeParseException e) {
+				throw invalid(field + " must be an ISO-8601 instant");
+			}
+		}
+
+		Boolean booleanOrNull(String field) {
+			skipWhitespace();
+			if (literal("true")) {
+				return Boolean.TRUE;
+			}
+			if (literal("false")) {
+				return Boolean.FALSE;
+			}
+			if (literal("null")) {
+				return null;
+			}
+			throw invalid(field + " must be a boolean");
+		}
+
+		/** Consumes {@code word} if the input continues with it. */
+		private boolean literal(String word) {
+			int n = word.length();
+			if (pos + n > limit) {
+				return false;
+			}
+			for (int i = 0; i < n; i++) {
+				if (b[pos + i] != word.charAt(i)) {
+					return false;
+				}
+			}
+			pos += n;
+			return true;
+		}
+
+		/** Nothing but whitespace may follow the object, or array. */
+		void end() {
+			skipWhitespace();
+			if (pos != limit) {
+				throw invalid("unexpected content after the object");
+			}
+		}
+
+		/** Index of the quote ending a string whose content starts at {@code from}. */
+		private int closingQuote(int from) {
+			for (int i = from; i < limit; i++) {
+				byte c = b[i];
+				if (c == '"') {
+					return i;
+				}
+				if (c == '\\') {
+					i++; // the escaped character cannot end the string
+				} else if (c >= 0 && c < 0x20) {
+					throw invalid("control character in string");
+				}
+			}
+			throw invalid("unterminated string");
+		}
+
+		private String unescape(int from, int to) {
+			StringBuilder sb = new StringBuilder(to - from);
+			int run = from;
+			int i = from;
+			while (i < to) {
+				if (b[i] != '\\') {
+					i++;
+					continue;
+				}
+				if (i > run) {
+					sb.append(new String(b, run, i - run, StandardCharsets.UTF_8));
+				}
+				if (i + 1 >= to) {
+					throw invalid("bad escape");
+				}
+				byte e = b[i + 1];
+				i += 2;
+				switch (e) {
+					case '"' -> sb.append('"');
+					case '\\' -> sb.append('\\');
+					case '/' -> sb.append('/');
+					case 'b' -> sb.append('\b');
+					case 'f' -> sb.append('\f');
+					case 'n' -> sb.append('\n');
+					case 'r' -> sb.append('\r');
+					case 't' -> sb.append('\t');
+					case 'u' -> {
+						if (i + 4 > to) {
+							throw invalid("bad escape");
+						}
+						int cp = 0;
+						for (int k = 0; k < 4; k++) {
+							int d = Character.digit(b[i + k], 16);
+							if (d < 0) {
+								throw invalid("bad escape");
+							}
+							cp = (cp << 4) | d;
+						}
+						sb.append((char) cp); // surrogate pairs arrive as two escapes and recombine here
+						i += 4;
+					}
+					default -> throw invalid("bad escape");
+				}
+				run = i;
+			}
+			if (to > run) {
+				sb.append(new String(b, run, to - run, StandardCharsets.UTF_8));
+			}
+			return sb.toString();
+		}
+
+		private int indexOf(byte target, int from, int to) {
+			for (int i = from; i < to; i++) {
+				if (b[i] == target) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		private void expect(char c) {
+			if (pos >= limit || b[pos] != c) {
+				throw invalid("expected '" + c + "'");
+			}
+			pos++;
+		}
+
+		private void skipWhitespace() {
+			while (pos < limit && (b[pos] == ' ' || b[pos] == '\n' || b[pos] == '\r' || b[pos] == '\t')) {
+				pos++;
+			}
+		}
+	}
+}
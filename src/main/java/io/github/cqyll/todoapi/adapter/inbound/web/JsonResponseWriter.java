@@ -0,0 +1,359 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.sun.net.httpserver.HttpExchange;
+import io.github.cqyll.todoapi.domain.Todo;
+import io.github.cqyll.todoapi.dto.TodoOperationResult;
+import io.github.cqyll.todoapi.dto.TokenResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Writes the controllers' JSON responses with a streaming {@link JsonGenerator} instead of building a
+ * {@code Map} and serializing it through an {@code ObjectMapper}.
+ *
+ * <p>Field names and constant values ({@code "token_type":"Bearer"}, the OAuth error codes) are
+ * {@link SerializedString}s encoded once when the class loads, so the generator copies their UTF-8 bytes instead
+ * of escaping and encoding them per response. Output goes into a pooled buffer so the {@code Content-Length} is
+ * known before the headers are sent, and is then handed to the exchange in a single write. The generator comes
+ * from the shared {@link JsonCodec#FACTORY}.</p>
+ *
+ * <p>Every method sets {@code Content-Type}; other headers ({@code Cache-Control}, {@code WWW-Authenticate})
+ * are the caller's, and must be set before calling.</p>
+ */
+public final class JsonResponseWriter {
+	private static final String CONTENT_TYPE = "application/json; charset=utf-8";
+	private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson; charset=utf-8";
+
+	private static final SerializedString ACCESS_TOKEN = encoded("access_token");
+	private static final SerializedString TOKEN_TYPE = encoded("token_type");
+	private static final SerializedString EXPIRES_IN = encoded("expires_in");
+	private static final SerializedString REFRESH_TOKEN = encoded("refresh_token");
+	private static final SerializedString BEARER = encoded(TokenResponse.BEARER);
+	private static final SerializedString TOKEN = encoded("token");
+	private static final SerializedString ERROR = encoded("error");
+	private static final SerializedString ERROR_DESCRIPTION = encoded("error_description");
+	private static final SerializedString ERROR_URI = encoded("error_uri");
+	private static final SerializedString ID = encoded("id");
+	private static final SerializedString TITLE = encoded("title");
+	private static final SerializedString COMPLETED = encoded("completed");
+	private static final SerializedString DUE_AT = encoded("due_at");
+	private static final SerializedString CREATED_AT = encoded("created_at");
+	private static final SerializedString UPDATED_AT = encoded("updated_at");
+	private static final SerializedString STATUS = encoded("status");
+	private static final SerializedString TODO = encoded("todo");
+	private static final SerializedString NOT_FOUND = encoded("Not found");
+
+	private static final Map<String, SerializedString> ERROR_CODES = new HashMap<>();
+	static {
+		for (String code : Arrays.asList("invalid_request", "invalid_client", "invalid_grant", "unauthorized_client",
+				"unsupported_grant_type", "invalid_scope", "server_error", "temporarily_unavailable", "slow_down")) {
+			ERROR_CODES.put(code, encoded(code));
+		}
+	}
+
+	/**
+	 * Pooled buffers; most responses here are a few hundred bytes, so a buffer that grew past this (for a long
+	 * todo list) is not kept.
+	 */
+	private static final int INITIAL_BUFFER_SIZE = 512;
+	private static final int MAX_POOLED_BUFFER_SIZE = 16 * 1024;
+	private static final ArrayBlockingQueue<Buffer> BUFFERS = new ArrayBlockingQueue<>(256);
+
+	private JsonResponseWriter() {
+	}
+
+	/**
+	 * {@code 200} with {@code {"access_token":...,"token_type":...,"expires_in":...}}, plus {@code refresh_token}
+	 * when one was issued.
+	 */
+	public static void writeTokenResponse(HttpExchange ex, TokenResponse token) throws IOException {
+		Buffer buf = acquire();
+		try {
+			try (JsonGenerator g = JsonCodec.FACTORY.createGenerator(buf)) {
+				g.writeStartObject();
+				g.writeFieldName(ACCESS_TOKEN);
+				g.writeString(token.accessToken());
+				g.writeFieldName(TOKEN_TYPE);
+				if (TokenResponse.BEARER.equals(token.tokenType())) {
+					g.writeString(BEARER);
+				} else {
+					g.writeString(token.tokenType());
+				}
+				g.writeFieldName(EXPIRES_IN);
+				g.writeNumber(token.expiresIn());
+				if (token.refreshToken() != null) {
+					g.writeFieldName(REFRESH_TOKEN);
+					g.writeString(token.refreshToken());
+				}
+				g.writeEndObject();
+			}
+			send(ex, 200, buf);
+		} finally {
+			release(buf);
+		}
+	}
+
+	/**
+	 * The error's status with {@code {"error":...}} plus {@code error_description} and {@code error_uri} when
+	 * present (RFC 6749 section 5.2).
+	 */
+	public static void writeOAuthError(HttpExchange ex, OAuthError err) throws IOException {
+		Buffer buf = acquire();
+		try {
+			try (JsonGenerator g = JsonCodec.FACTORY.createGenerator(buf)) {
+				g.writeStartObject();
+				g.writeFieldName(ERROR);
+				SerializedString code = ERROR_CODES.get(err.getError());
+				if (code != null) {
+					g.writeString(code);
+				} else {
+					g.writeString(err.getError());
+				}
+				if (err.getDescription() != null && !err.getDescription().isBlank()) {
+					g.writeFieldName(ERROR_DESCRIPTION);
+					g.writeString(err.getDescription());
+				}
+				if (err.getUri() != null && !err.getUri().isBlank()) {
+					g.writeFieldName(ERROR_URI);
+					g.writeString(err.getUri());
+				}
+				g.writeEndObject();
+			}
+			send(ex, err.getHttpStatus(), buf);
+		} finally {
+			release(buf);
+		}
+	}
+
+	/**
+	 * {@code {"id":...,"title":...,"completed":...,"due_at":...,"created_at":...,"updated_at":...}}, timestamps in
+	 * ISO-8601; {@code due_at} is {@code null} for a todo without a due date.
+	 */
+	public static void writeTodo(HttpExchange ex, int status, Todo todo) throws IOException {
+		Buffer buf = acquire();
+		try {
+			try (JsonGenerator g = JsonCodec.FACTORY.createGenerator(buf)) {
+				writeTodo(g, todo);
+			}
+			send(ex, status, buf);
+		} finally {
+			release(buf);
+		}
+	}
+
+	/**
+	 * {@code 200} with a JSON array of todos, each as in {@link #writeTodo(HttpExchange, int, Todo)}.
+	 */
+	public static void writeTodos(HttpExchange ex, List<Todo> todos) throws IOException {
+		Buffer buf = acquire();
+		try {
+			try (JsonGenerator g = JsonCodec.FACTORY.createGenerator(buf)) {
+				g.writeStartArray();
+				for (Todo todo : todos) {
+					writeTodo(g, todo);
+				}
+				g.writeEndArray();
+			}
+			send(ex, 200, buf);
+		} finally {
+			release(buf);
+		}
+	}
+
+	/**
+	 * {@code 200} with one todo per line (NDJSON), each as in {@link #writeTodo(HttpExchange, int, Todo)}.
+	 *
+	 * <p>Unlike the other methods this one streams: the body goes out with chunked transfer coding while
+	 * {@code todos} is being consumed, and the generator writes straight into the response body through its own
+	 * recycled buffer, emptied whenever it fills. Memory use is the same for ten todos as for a million. The
+	 * status is committed before the first todo is read, so a failure part-way can only cut the body short.</p>
+	 */
+	public static void writeTodoLines(HttpExchange ex, Iterator<Todo> todos) throws IOException {
+		ex.getResponseHeaders().set("Content-Type", NDJSON_CONTENT_TYPE);
+		ex.sendResponseHeaders(200, 0);
+		// closing the generator flushes it and closes the body, which ends the chunked stream
+		try (JsonGenerator g = JsonCodec.FACTORY.createGenerator(ex.getResponseBody())) {
+			g.setRootValueSeparator(null); // lines are terminated below, not separated by Jackson's default space
+			while (todos.hasNext()) {
+				writeTodo(g, todos.next());
+				g.writeRaw('\n');
+			}
+		}
+	}
+
+	/**
+	 * {@code 200} with a JSON array holding, for each operation of a batch, {@code {"status":...}} with the status
+	 * the operation would have had as a request of its own, plus {@code "todo"} for a create or update, or
+	 * {@code "error"} for a refusal.
+	 */
+	public static void writeOperationResults(HttpExchange ex, List<TodoOperationResult> results) throws IOException {
+		Buffer buf = acquire();
+		try {
+			try (JsonGenerator g = JsonCodec.FACTORY.createGenerator(buf)) {
+				g.writeStartArray();
+				for (TodoOperationResult r : results) {
+					g.writeStartObject();
+					g.writeFieldName(STATUS);
+					switch (r.outcome()) {
+						case CREATED -> {
+							g.writeNumber(201);
+							g.writeFieldName(TODO);
+							writeTodo(g, r.todo());
+						}
+						case UPDATED -> {
+							g.writeNumber(200);
+							g.writeFieldName(TODO);
+							writeTodo(g, r.todo());
+						}
+						case DELETED -> g.writeNumber(204);
+						case NOT_FOUND -> {
+							g.writeNumber(404);
+							g.writeFieldName(ERROR);
+							g.writeString(NOT_FOUND);
+						}
+						case INVALID -> {
+							g.writeNumber(400);
+							g.writeFieldName(ERROR);
+							g.writeString(r.error());
+						}
+					}
+					g.writeEndObject();
+				}
+				g.writeEndArray();
+			}
+			send(ex, 200, buf);
+		} finally {
+			release(buf);
+		}
+	}
+
+	static void writeTodo(JsonGenerator g, Todo todo) throws IOException {
+		g.writeStartObject();
+		g.writeFieldName(ID);
+		g.writeString(todo.getId().toString());
+		g.writeFieldName(TITLE);
+		g.writeString(todo.getTitle());
+		g.writeFieldName(COMPLETED);
+		g.writeBoolean(todo.isCompleted());
+		g.writeFieldName(DUE_AT);
+		if (todo.getDueAt() != null) {
+			g.writeString(todo.getDueAt().toString());
+		} else {
+			g.writeNull();
+		}
+		g.writeFieldName(CREATED_AT);
+		g.writeString(todo.getCreatedAt().toString());
+		g.writeFieldName(UPDATED_AT);
+		g.writeString(todo.getUpdatedAt().toString());
+		g.writeEndObject();
+	}
+
+	/**
+	 * {@code {"token":...}}.
+	 */
+	public static void writeToken(HttpExchange ex, int status, String token) throws IOException {
+		writeField(ex, status, TOKEN, token);
+	}
+
+	/**
+	 * {@code {"error":...}} with a free-form message.
+	 */
+	public static void writeError(HttpExchange ex, int status, String message) throws IOException {
+		writeField(ex, status, ERROR, message);
+	}
+
+	/**
+	 * A bare JSON string, e.g. {@code "abc"}.
+	 */
+	public static void writeString(HttpExchange ex, int status, String value) throws IOException {
+		Buffer buf = acquire();
+		try {
+			try (JsonGenerator g = JsonCodec.FACTORY.createGenerator(buf)) {
+				g.writeString(value);
+			}
+			send(ex, status, buf);
+		} finally {
+			release(buf);
+		}
+	}
+
+	private static void writeField(HttpExchange ex, int status, SerializedString name, String value)
+			throws IOException {
+		Buffer buf = acquire();
+		try {
+			try (JsonGenerator g = JsonCodec.FACTORY.createGenerator(buf)) {
+				g.writeStartObject();
+				g.writeFieldName(name);
+				g.writeString(value);
+				g.writeEndObject();
+			}
+			send(ex, status, buf);
+		} finally {
+			release(buf);
+		}
+	}
+
+	private static void send(HttpExchange ex, int status, Buffer buf) throws IOException {
+		ex.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+		ex.sendResponseHeaders(status, buf.count);
+		try (OutputStream os = ex.getResponseBody()) {
+			os.write(buf.bytes, 0, buf.count);
+		}
+	}
+
+	private static SerializedString encoded(String s) {
+		SerializedString ss = new SerializedString(s);
+		ss.asQuotedUTF8(); // encode now rather than on the first response
+		ss.asUnquotedUTF8();
+		return ss;
+	}
+
+	private static Buffer acquire() {
+		Buffer b = BUFFERS.poll();
+		if (b == null) {
+			return new Buffer();
+		}
+		b.count = 0;
+		return b;
+	}
+
+	private static void release(Buffer b) {
+		if (b.bytes.length <= MAX_POOLED_BUFFER_SIZE) {
+			BUFFERS.offer(b);
+		}
+	}
+
+	/** Unsynchronized growable byte sink; {@code ByteArrayOutputStream} minus the locking and the copy-out. */
+	private static final class Buffer extends OutputStream {
+		byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+		int count;
+
+		@Override
+		public void write(int b) {
+			ensure(1);
+			bytes[count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			ensure(len);
+			System.arraycopy(b, off, bytes, count, len);
+			count += len;
+		}
+
+		private void ensure(int extra) {
+			if (count + extra > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, count + extra));
+			}
+		}
+	}
+}
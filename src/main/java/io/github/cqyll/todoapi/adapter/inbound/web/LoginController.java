@@ -1,51 +1,59 @@
-package io.github.cqyll.todoapi.adapter.inbound.web;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
-import io.github.cqyll.todoapi.application.port.inbound.BasicLoginUseCase;
-import io.github.cqyll.todoapi.dto.BasicAuthRequest;
-
-import java.io.IOException;
-import java.io.OutputStream;
-import java.util.Map;
-
-public class LoginController implements HttpHandler {
-    private static final ObjectMapper mapper = new ObjectMapper();
-    private final BasicLoginUseCase useCase;
-
-    public LoginController(BasicLoginUseCase useCase) {
-        this.useCase = useCase;
-    }
-
-    @Override
-    public void handle(HttpExchange ex) throws IOException {
-        if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) {
-            ex.getResponseHeaders().set("Allow", "POST");
-            ex.sendResponseHeaders(405, -1);
-            return;
-        }
-
-        try {
-            BasicAuthRequest req = mapper.readValue(ex.getRequestBody(), BasicAuthRequest.class);
-            req.validate();
-
-            String token = useCase.login(req.getEmail(), req.getPassword());
-            writeJson(ex, 200, Map.of("token", token));
-
-        } catch (IllegalArgumentException e) {
-            writeJson(ex, 400, Map.of("error", e.getMessage()));
-        } catch (Exception e) {
-            writeJson(ex, 500, Map.of("error", "Internal Server Error"));
-        }
-    }
-
-    private void writeJson(HttpExchange ex, int status, Object body) throws IOException {
-        byte[] bytes = mapper.writeValueAsBytes(body);
-        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
-        ex.sendResponseHeaders(status, bytes.length);
-        try (OutputStream os = ex.getResponseBody()) {
-            os.write(bytes);
-        }
-    }
-}
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import io.github.cqyll.todoapi.application.port.inbound.BasicLoginUseCase;
+import io.github.cqyll.todoapi.dto.BasicAuthRequest;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+
+public class LoginController implements HttpHandler {
+    private final BasicLoginUseCase useCase;
+    private final LoginThrottle throttle;
+
+    public LoginController(BasicLoginUseCase useCase) {
+        this(useCase, null);
+    }
+
+    /** @param throttle rate limits checked before the credentials are verified, or {@code null} for none */
+    public LoginController(BasicLoginUseCase useCase, LoginThrottle throttle) {
+        this.useCase = useCase;
+        this.throttle = throttle;
+    }
+
+    @Override
+    public void handle(HttpExchange ex) throws IOException {
+        if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) {
+            ex.getResponseHeaders().set("Allow", "POST");
+            ex.sendResponseHeaders(405, -1);
+            return;
+        }
+
+        try {
+            BasicAuthRequest req = JsonCodec.readBasicAuthRequest(ex.getRequestBody());
+            req.validate();
+
+            if (throttle != null) {
+                long retryAfter = throttle.check(LoginThrottle.clientIp(ex), req.getEmail(), null);
+                if (retryAfter > 0) {
+                    ex.getResponseHeaders().set("Retry-After", Long.toString(retryAfter));
+                    JsonResponseWriter.writeError(ex, 429, "Too Many Requests");
+                    return;
+                }
+            }
+
+            String token = useCase.login(req.getEmail(), req.getPassword());
+            JsonResponseWriter.writeToken(ex, 200, token);
+
+        } catch (IllegalArgumentException e) {
+            JsonResponseWriter.writeError(ex, 400, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            // password hashing pool is full
+            ex.getResponseHeaders().set("Retry-After", "1");
+            JsonResponseWriter.writeError(ex, 503, "Service Unavailable");
+        } catch (Exception e) {
+            JsonResponseWriter.writeError(ex, 500, "Internal Server Error");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.net.InetSocketAddress;
+import java.util.Locale;
+
+/**
+ * Rate limits for the credential endpoints ({@code /login} and the {@code password} grant), checked after the
+ * body is parsed and before any user lookup or password hashing.
+ *
+ * <p>Three independent {@link TokenBuckets}: per client IP (one host guessing many passwords), per email (many
+ * hosts guessing one account) and per OAuth {@code client_id}. A request needs a token from every bucket that
+ * applies to it. Buckets are checked IP, client, email, and the first refusal wins, so a request refused by IP
+ * does not also drain the account's bucket.</p>
+ */
+public final class LoginThrottle {
+	private final TokenBuckets byIp;
+	private final TokenBuckets byEmail;
+	private final TokenBuckets byClient;
+
+	public LoginThrottle(TokenBuckets byIp, TokenBuckets byEmail, TokenBuckets byClient) {
+		this.byIp = byIp;
+		this.byEmail = byEmail;
+		this.byClient = byClient;
+	}
+
+	/**
+	 * Takes a token for each non-null key.
+	 *
+	 * @return {@code 0} when the request may proceed, otherwise the seconds to put in {@code Retry-After}
+	 */
+	public long check(String ip, String email, String clientId) {
+		long wait = TokenBuckets.ALLOWED;
+		if (ip != null) {
+			wait = byIp.tryAcquire(ip);
+		}
+		if (wait == TokenBuckets.ALLOWED && clientId != null) {
+			wait = byClient.tryAcquire(clientId);
+		}
+		if (wait == TokenBuckets.ALLOWED && email != null) {
+			// same normalisation as the user stores, so case and padding variants of one account share a bucket
+			wait = byEmail.tryAcquire(email.trim().toLowerCase(Locale.ROOT));
+		}
+		return wait == TokenBuckets.ALLOWED ? 0 : Math.max(1, (wait + 999_999_999L) / 1_000_000_000L);
+	}
+
+	/** The peer's address, without port; {@code null} if the server does not know it. */
+	static String clientIp(HttpExchange ex) {
+		InetSocketAddress remote = ex.getRemoteAddress();
+		return remote == null || remote.getAddress() == null ? null : remote.getAddress().getHostAddress();
+	}
+}
@@ -0,0 +1,112 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import io.github.cqyll.todoapi.application.port.inbound.OAuthAuthorizationUseCase;
+import io.github.cqyll.todoapi.dto.AuthorizationRequest;
+import io.github.cqyll.todoapi.dto.AuthorizationResponse;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * RFC 6749 authorization endpoint, {@code response_type=code} only. Parameters come from the query string
+ * ({@code GET}) or a form body ({@code POST}); the resource owner authenticates with HTTP Basic (email and
+ * password). The result goes back to the client as a {@code 302} to its redirect URI.
+ */
+public class OAuthAuthorizeController implements HttpHandler {
+    private final OAuthAuthorizationUseCase useCase;
+    private final LoginThrottle throttle;
+
+    public OAuthAuthorizeController(OAuthAuthorizationUseCase useCase) {
+        this(useCase, null);
+    }
+
+    /** @param throttle rate limits checked before the user's credentials are verified, or {@code null} for none */
+    public OAuthAuthorizeController(OAuthAuthorizationUseCase useCase, LoginThrottle throttle) {
+        this.useCase = useCase;
+        this.throttle = throttle;
+    }
+
+    @Override
+    public void handle(HttpExchange ex) throws IOException {
+        String method = ex.getRequestMethod();
+        if (!"GET".equalsIgnoreCase(method) && !"POST".equalsIgnoreCase(method)) {
+            ex.getResponseHeaders().set("Allow", "GET, POST");
+            ex.sendResponseHeaders(405, -1);
+            return;
+        }
+
+        try {
+            Map<String, String> params;
+            if ("POST".equalsIgnoreCase(method)) {
+                params = FormParser.read(ex, FormParser.DEFAULT_MAX_BODY_BYTES);
+            } else {
+                String query = ex.getRequestURI().getRawQuery();
+                byte[] raw = query == null ? new byte[0] : query.getBytes(StandardCharsets.US_ASCII);
+                params = FormParser.parse(raw, 0, raw.length);
+            }
+
+            String auth = ex.getRequestHeaders().getFirst("Authorization");
+            String[] user = auth != null && auth.startsWith("Basic ") ? ClientAuth.parseBasic(auth) : null;
+            AuthorizationRequest req = AuthorizationRequest.from(params,
+                    user == null ? null : user[0], user == null ? null : user[1]);
+
+            if (throttle != null && req.getUsername() != null) {
+                long retryAfter = throttle.check(LoginThrottle.clientIp(ex), req.getUsername(), req.getClientId());
+                if (retryAfter > 0) {
+                    ex.getResponseHeaders().set("Retry-After", Long.toString(retryAfter));
+                    JsonResponseWriter.writeError(ex, 429, "Too Many Requests");
+                    return;
+                }
+            }
+
+            AuthorizationResponse resp = useCase.authorize(req);
+            ex.getResponseHeaders().set("Cache-Control", "no-store");
+            ex.getResponseHeaders().set("Location", location(resp));
+            ex.sendResponseHeaders(302, -1);
+
+        } catch (OAuthError e) {
+            // no trustworthy redirect URI: tell the user agent directly
+            ex.getResponseHeaders().set("Cache-Control", "no-store");
+            JsonResponseWriter.writeOAuthError(ex, e);
+
+        } catch (IllegalArgumentException e) {
+            ex.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"todo\", charset=\"UTF-8\"");
+            JsonResponseWriter.writeError(ex, 401, "Unauthorized");
+
+        } catch (RejectedExecutionException e) {
+            // password hashing pool is full
+            ex.getResponseHeaders().set("Retry-After", "1");
+            JsonResponseWriter.writeError(ex, 503, "Service Unavailable");
+
+        } catch (Exception e) {
+            JsonResponseWriter.writeError(ex, 500, "Internal Server Error");
+        }
+    }
+
+    /** The redirect URI with the response parameters appended to whatever query it already has. */
+    static String location(AuthorizationResponse resp) {
+        StringBuilder sb = new StringBuilder(resp.redirectUri());
+        char sep = resp.redirectUri().indexOf('?') >= 0 ? '&' : '?';
+        if (resp.code() != null) {
+            sep = append(sb, sep, "code", resp.code());
+        } else {
+            sep = append(sb, sep, "error", resp.error());
+            sep = append(sb, sep, "error_description", resp.errorDescription());
+        }
+        append(sb, sep, "state", resp.state());
+        return sb.toString();
+    }
+
+    private static char append(StringBuilder sb, char sep, String name, String value) {
+        if (value == null) {
+            return sep;
+        }
+        sb.append(sep).append(name).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+        return '&';
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import io.github.cqyll.todoapi.application.port.inbound.OAuthRevocationUseCase;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * RFC 7009 token revocation endpoint. Answers 200 with an empty body whether or not the token was valid, so the
+ * endpoint cannot be used to probe tokens.
+ */
+public class OAuthRevocationController implements HttpHandler {
+    private final OAuthRevocationUseCase useCase;
+    private final LoginThrottle throttle;
+
+    public OAuthRevocationController(OAuthRevocationUseCase useCase) {
+        this(useCase, null);
+    }
+
+    /**
+     * @param throttle rate limits checked before the client is authenticated, or {@code null} for none; every
+     *                 request verifies a client secret, and a wrong one costs a full hash
+     */
+    public OAuthRevocationController(OAuthRevocationUseCase useCase, LoginThrottle throttle) {
+        this.useCase = useCase;
+        this.throttle = throttle;
+    }
+
+    @Override
+    public void handle(HttpExchange ex) throws IOException {
+        if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) {
+            ex.getResponseHeaders().set("Allow", "POST");
+            ex.sendResponseHeaders(405, -1);
+            return;
+        }
+
+        try {
+            Map<String, String> form = FormParser.read(ex, FormParser.DEFAULT_MAX_BODY_BYTES);
+            ClientAuth clientAuth = ClientAuth.from(ex, form);
+
+            if (throttle != null) {
+                long retryAfter = throttle.check(LoginThrottle.clientIp(ex), null, clientAuth.clientId);
+                if (retryAfter > 0) {
+                    ex.getResponseHeaders().set("Retry-After", Long.toString(retryAfter));
+                    throw OAuthError.slowDown("too many requests");
+                }
+            }
+
+            useCase.revoke(clientAuth.clientId, clientAuth.clientSecret, form.get("token"), form.get("token_type_hint"));
+
+            ex.getResponseHeaders().set("Cache-Control", "no-store");
+            ex.sendResponseHeaders(200, -1);
+
+        } catch (OAuthError e) {
+            writeOAuthError(ex, e);
+
+        } catch (RejectedExecutionException e) {
+            // client secret verification needs the hashing pool, which is full
+            ex.getResponseHeaders().set("Retry-After", "1");
+            writeOAuthError(ex, OAuthError.temporarilyUnavailable("server busy, retry later"));
+
+        } catch (Exception e) {
+            writeOAuthError(ex, OAuthError.serverError());
+        }
+    }
+
+    private void writeOAuthError(HttpExchange ex, OAuthError err) throws IOException {
+        ex.getResponseHeaders().set("Cache-Control", "no-store");
+        ex.getResponseHeaders().set("Pragma", "no-cache");
+
+        if (err.getHttpStatus() == 401) {
+            ex.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"oauth\"");
+        }
+
+        JsonResponseWriter.writeOAuthError(ex, err);
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+/**
+ * Admission priority of an endpoint under overload.
+ *
+ * <p>Each tier may only use a share of the current concurrency limit, so when the server saturates the
+ * lower tiers are refused first and the remaining capacity goes to the work that matters most
+ * (issuing and refreshing tokens for clients that are already signed up).</p>
+ */
+public enum RequestPriority {
+	/** Token endpoint: may use the whole limit. */
+	CRITICAL(1.0),
+	/** Interactive login: shed once 80% of the limit is in use. */
+	NORMAL(0.8),
+	/** Registration and other deferrable work: shed once half the limit is in use. */
+	SHEDDABLE(0.5);
+
+	private final double share;
+
+	RequestPriority(double share) {
+		this.share = share;
+	}
+
+	/**
+	 * @return how many requests of this tier may be in flight for the given limit (at least one)
+	 */
+	int allowance(int limit) {
+		return Math.max(1, (int) (limit * share));
+	}
+}
@@ -0,0 +1,361 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import io.github.cqyll.todoapi.application.port.inbound.TodoCommandUseCase;
+import io.github.cqyll.todoapi.application.port.inbound.TodoQueryUseCase;
+import io.github.cqyll.todoapi.application.port.inbound.TodoSearchUseCase;
+import io.github.cqyll.todoapi.domain.Todo;
+import io.github.cqyll.todoapi.dto.TodoOperation;
+import io.github.cqyll.todoapi.dto.TodoRequest;
+
+/**
+ * CRUD on the authenticated user's todos. Must sit behind a {@link BearerAuthFilter}, which supplies the owner.
+ *
+ * <pre>
+ * GET    /todos        list, oldest first           todos:read
+ *        ?due_after=&amp;due_before=  due in the range, soonest first
+ * POST   /todos        create; 201 with Location    todos:write
+ * GET    /todos/export every todo, one per line     todos:read
+ * GET    /todos/search best matches for ?q=, &amp;limit=  todos:read
+ * POST   /todos/batch  creates, updates and deletes todos:write
+ * GET    /todos/{id}   one todo                     todos:read
+ * PUT    /todos/{id}   replace the todo's fields    todos:write
+ * PATCH  /todos/{id}   change the fields sent       todos:write
+ * DELETE /todos/{id}   204                          todos:write
+ * GET    /todos/events changes as they happen         todos:read, see {@link TodoEventsController}
+ * </pre>
+ *
+ * <p>The export is newline-delimited JSON, streamed as the store is read, for clients that sync everything and
+ * for users whose list is too long to build as one array. The batch is for clients catching up after being
+ * offline: one request carries what would have been hundreds, the body is checked in full before anything is
+ * applied, and the result of each operation comes back in order (see
+ * {@link JsonResponseWriter#writeOperationResults}). The search is for a search box that queries as the user
+ * types: every word of {@code q} must start a word of the title, and up to {@code limit} (default 20, at most
+ * 100) todos come back best first, ranked as {@link TodoSearchUseCase#search} describes.</p>
+ *
+ * <p>Either due bound turns the list into the todos due at or after {@code due_after} and before
+ * {@code due_before}, both ISO-8601 instants, read off the store's due-date index rather than filtered out of
+ * the whole list. A PUT without {@code due_at} clears the due date, as it does any field it leaves out; a PATCH
+ * or batch update only sets it.</p>
+ *
+ * <p>Tokens issued without a scope may do everything. A todo id that is malformed or belongs to someone else is
+ * simply not found.</p>
+ *
+ * <p>Reads carry strong {@code ETag}s: a todo's is its version, and the list's, export's and search's the
+ * version of the owner's whole collection, which the store keeps up to date on every write. A client polling with
+ * {@code If-None-Match} gets a bodyless {@code 304} while nothing has changed, decided before the todos are read
+ * (see {@link ETags}). Writes that return a todo tag it too, so a client can poll it without a first GET.</p>
+ */
+public class TodoController implements HttpHandler {
+	public static final String READ_SCOPE = "todos:read";
+	public static final String WRITE_SCOPE = "todos:write";
+
+	private final TodoCommandUseCase commands;
+	private final TodoQueryUseCase queries;
+	private final TodoSearchUseCase search;
+
+	public TodoController(TodoCommandUseCase commands, TodoQueryUseCase queries, TodoSearchUseCase search) {
+		this.commands = commands;
+		this.queries = queries;
+		this.search = search;
+	}
+
+	@Override
+	public void handle(HttpExchange ex) throws IOException {
+		String base = ex.getHttpContext().getPath();
+		String rest = ex.getRequestURI().getPath().substring(base.length());
+		if (rest.isEmpty() || rest.equals("/")) {
+			handleCollection(ex);
+			return;
+		}
+		if (rest.equals("/export")) {
+			handleExport(ex);
+			return;
+		}
+		if (rest.equals("/batch")) {
+			handleBatch(ex);
+			return;
+		}
+		if (rest.equals("/search")) {
+			handleSearch(ex);
+			return;
+		}
+		UUID id = parseId(rest.substring(1));
+		if (id == null) {
+			JsonResponseWriter.writeError(ex, 404, "Not found");
+			return;
+		}
+		handleItem(ex, id);
+	}
+
+	private void handleCollection(HttpExchange ex) throws IOException {
+		String method = ex.getRequestMethod();
+		if ("GET".equals(method)) {
+			if (!BearerAuthFilter.requireScope(ex, READ_SCOPE)) {
+				return;
+			}
+			if (ex.getRequestURI().getRawQuery() != null) {
+				handleDue(ex);
+				return;
+			}
+			UUID owner = owner(ex);
+			// the version is read first: a write racing the listing can only leave the tag older than the body,
+			// which costs the client one more download on its next poll, never a 304 for a list it has not seen
+			if (!ETags.notModified(ex, ETags.of(queries.version(owner)))) {
+				JsonResponseWriter.writeTodos(ex, queries.list(owner));
+			}
+		} else if ("POST".equals(method)) {
+			if (!BearerAuthFilter.requireScope(ex, WRITE_SCOPE)) {
+				return;
+			}
+			TodoRequest req = readRequest(ex);
+			if (req == null) {
+				return;
+			}
+			if (req.title() == null) {
+				JsonResponseWriter.writeError(ex, 400, "Missing fields");
+				return;
+			}
+			try {
+				Todo todo = commands.create(owner(ex), req.title(), Boolean.TRUE.equals(req.completed()), req.dueAt());
+				ex.getResponseHeaders().set("Location", ex.getHttpContext().getPath() + "/" + todo.getId());
+				ex.getResponseHeaders().set("ETag", ETags.of(todo.getVersion()));
+				JsonResponseWriter.writeTodo(ex, 201, todo);
+			} catch (IllegalArgumentException e) {
+				JsonResponseWriter.writeError(ex, 400, e.getMessage());
+			}
+		} else {
+			methodNotAllowed(ex, "GET, POST");
+		}
+	}
+
+	private void handleItem(HttpExchange ex, UUID id) throws IOException {
+		String method = ex.getRequestMethod();
+		switch (method) {
+			case "GET" -> {
+				if (!BearerAuthFilter.requireScope(ex, READ_SCOPE)) {
+					return;
+				}
+				Optional<Todo> todo = queries.get(owner(ex), id);
+				if (todo.isEmpty() || !ETags.notModified(ex, ETags.of(todo.get().getVersion()))) {
+					writeTodoOrNotFound(ex, todo);
+				}
+			}
+			case "PUT", "PATCH" -> {
+				if (!BearerAuthFilter.requireScope(ex, WRITE_SCOPE)) {
+					return;
+				}
+				TodoRequest req = readRequest(ex);
+				if (req == null) {
+					return;
+				}
+				Boolean completed = req.completed();
+				Optional<Instant> dueAt = req.dueAt() == null ? null : Optional.of(req.dueAt());
+				if ("PUT".equals(method)) {
+					// a replacement: the title is required, an absent flag means not completed and an absent due
+					// date means none
+					if (req.title() == null) {
+						JsonResponseWriter.writeError(ex, 400, "Missing fields");
+						return;
+					}
+					completed = Boolean.TRUE.equals(completed);
+					dueAt = Optional.ofNullable(req.dueAt());
+				}
+				try {
+					writeTodoOrNotFound(ex, commands.update(owner(ex), id, req.title(), completed, dueAt));
+				} catch (IllegalArgumentException e) {
+					JsonResponseWriter.writeError(ex, 400, e.getMessage());
+				}
+			}
+			case "DELETE" -> {
+				if (!BearerAuthFilter.requireScope(ex, WRITE_SCOPE)) {
+					return;
+				}
+				if (commands.delete(owner(ex), id)) {
+					ex.sendResponseHeaders(204, -1);
+				} else {
+					JsonResponseWriter.writeError(ex, 404, "Not found");
+				}
+			}
+			default -> methodNotAllowed(ex, "GET, PUT, PATCH, DELETE");
+		}
+	}
+
+	private void handleExport(HttpExchange ex) throws IOException {
+		if (!"GET".equals(ex.getRequestMethod())) {
+			methodNotAllowed(ex, "GET");
+			return;
+		}
+		if (!BearerAuthFilter.requireScope(ex, READ_SCOPE)) {
+			return;
+		}
+		UUID owner = owner(ex);
+		if (ETags.notModified(ex, ETags.of(queries.version(owner)))) {
+			return;
+		}
+		try (Stream<Todo> todos = queries.export(owner)) {
+			JsonResponseWriter.writeTodoLines(ex, todos.iterator());
+		}
+	}
+
+	private void handleBatch(HttpExchange ex) throws IOException {
+		if (!"POST".equals(ex.getRequestMethod())) {
+			methodNotAllowed(ex, "POST");
+			return;
+		}
+		if (!BearerAuthFilter.requireScope(ex, WRITE_SCOPE)) {
+			return;
+		}
+		List<TodoOperation> operations;
+		try (InputStream is = ex.getRequestBody()) {
+			operations = JsonCodec.readTodoOperations(is);
+		} catch (IllegalArgumentException e) {
+			JsonResponseWriter.writeError(ex, 400, e.getMessage());
+			return;
+		}
+		JsonResponseWriter.writeOperationResults(ex, commands.applyAll(owner(ex), operations));
+	}
+
+	private void handleSearch(HttpExchange ex) throws IOException {
+		if (!"GET".equals(ex.getRequestMethod())) {
+			methodNotAllowed(ex, "GET");
+			return;
+		}
+		if (!BearerAuthFilter.requireScope(ex, READ_SCOPE)) {
+			return;
+		}
+		Map<String, String> params = readQuery(ex);
+		if (params == null) {
+			return;
+		}
+		String q = params.get("q");
+		if (q == null) {
+			JsonResponseWriter.writeError(ex, 400, "Missing q");
+			return;
+		}
+		int limit = TodoSearchUseCase.DEFAULT_LIMIT;
+		if (params.containsKey("limit")) {
+			try {
+				limit = Integer.parseInt(params.get("limit"));
+			} catch (NumberFormatException e) {
+				JsonResponseWriter.writeError(ex, 400, "Invalid limit");
+				return;
+			}
+		}
+		UUID owner = owner(ex);
+		try {
+			// searched before the tag is checked, so a malformed query is refused even with a matching tag
+			long version = queries.version(owner);
+			List<Todo> found = search.search(owner, q, limit);
+			if (!ETags.notModified(ex, ETags.of(version))) {
+				JsonResponseWriter.writeTodos(ex, found);
+			}
+		} catch (IllegalArgumentException e) {
+			JsonResponseWriter.writeError(ex, 400, e.getMessage());
+		}
+	}
+
+	/** {@code GET /todos} with a query string; without due bounds, the plain list. */
+	private void handleDue(HttpExchange ex) throws IOException {
+		Map<String, String> params = readQuery(ex);
+		if (params == null) {
+			return;
+		}
+		Instant from;
+		Instant to;
+		try {
+			from = instant(params, "due_after");
+		} catch (DateTimeParseException e) {
+			JsonResponseWriter.writeError(ex, 400, "Invalid due_after");
+			return;
+		}
+		try {
+			to = instant(params, "due_before");
+		} catch (DateTimeParseException e) {
+			JsonResponseWriter.writeError(ex, 400, "Invalid due_before");
+			return;
+		}
+		UUID owner = owner(ex);
+		try {
+			// read before the tag is checked, as a search is, so a reversed range is refused even with a matching tag
+			long version = queries.version(owner);
+			List<Todo> todos = from == null && to == null ? queries.list(owner) : queries.listDue(owner, from, to);
+			if (!ETags.notModified(ex, ETags.of(version))) {
+				JsonResponseWriter.writeTodos(ex, todos);
+			}
+		} catch (IllegalArgumentException e) {
+			JsonResponseWriter.writeError(ex, 400, e.getMessage());
+		}
+	}
+
+	/** @return {@code null} if the parameter is absent */
+	private static Instant instant(Map<String, String> params, String name) {
+		String value = params.get(name);
+		return value == null ? null : Instant.parse(value);
+	}
+
+	/** The decoded query string, or {@code null} after answering {@code 400}. */
+	static Map<String, String> readQuery(HttpExchange ex) throws IOException {
+		String query = ex.getRequestURI().getRawQuery();
+		byte[] raw = query == null ? new byte[0] : query.getBytes(StandardCharsets.US_ASCII);
+		try {
+			return FormParser.parse(raw, 0, raw.length);
+		} catch (OAuthError e) {
+			JsonResponseWriter.writeError(ex, 400, e.getDescription());
+			return null;
+		}
+	}
+
+	/** The decoded body, or {@code null} after answering {@code 400}. */
+	private static TodoRequest readRequest(HttpExchange ex) throws IOException {
+		try (InputStream is = ex.getRequestBody()) {
+			return JsonCodec.readTodoRequest(is);
+		} catch (IllegalArgumentException e) {
+			JsonResponseWriter.writeError(ex, 400, e.getMessage());
+			return null;
+		}
+	}
+
+	private static void writeTodoOrNotFound(HttpExchange ex, Optional<Todo> todo) throws IOException {
+		if (todo.isPresent()) {
+			ex.getResponseHeaders().set("ETag", ETags.of(todo.get().getVersion()));
+			JsonResponseWriter.writeTodo(ex, 200, todo.get());
+		} else {
+			JsonResponseWriter.writeError(ex, 404, "Not found");
+		}
+	}
+
+	private static void methodNotAllowed(HttpExchange ex, String allowed) throws IOException {
+		ex.getResponseHeaders().set("Allow", allowed);
+		ex.sendResponseHeaders(405, -1);
+	}
+
+	private static UUID owner(HttpExchange ex) {
+		return BearerAuthFilter.principal(ex).userId();
+	}
+
+	/** Canonical 36-character form only; {@code UUID.fromString} also accepts shortened groups. */
+	static UUID parseId(String s) {
+		if (s.length() != 36) {
+			return null;
+		}
+		try {
+			return UUID.fromString(s);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import io.github.cqyll.todoapi.application.port.inbound.TodoEventsUseCase;
+import io.github.cqyll.todoapi.application.port.inbound.TodoEventsUseCase.Subscription;
+import io.github.cqyll.todoapi.dto.TodoEvent;
+
+/**
+ * {@code GET /todos/events}: the authenticated user's todo changes as server-sent events, for clients that would
+ * otherwise poll. Needs {@code todos:read}, and a {@link BearerAuthFilter} in front to supply the owner.
+ *
+ * <pre>
+ * event: created | updated | deleted
+ * id: &lt;version of the user's todos after the change, in hex&gt;
+ * data: &lt;the todo, as GET /todos/{id} returns it; for a delete, as it was&gt;
+ * </pre>
+ *
+ * <p>An event's id is the version a listing's {@code ETag} carries, so a client lists its todos, then follows
+ * the changes after that listing by sending the tag (quoted or not) as {@code Last-Event-ID}, or as
+ * {@code ?since=}; a client that reconnects sends the id of the last event it applied. A client that has missed
+ * changes, because it fell too far behind or reconnected too late, gets {@code event: resync}: it should list
+ * its todos again and apply the events after it. Without a starting point the stream starts from now.</p>
+ *
+ * <p>A comment goes out every {@value #HEARTBEAT_SECONDS} seconds while nothing happens, so proxies keep the
+ * connection and a closed one is noticed. A stream ends after at most {@code maxStreamSeconds}, normally an
+ * access token's lifetime, so it does not outlive the token it was opened with; the client reconnects with a
+ * current token and misses nothing.</p>
+ *
+ * <p>Each open stream holds its request thread while it waits, which is only cheap on virtual threads; it also
+ * must not sit behind admission control or compression, which would count it as one endless request and
+ * buffer its events.</p>
+ */
+public class TodoEventsController implements HttpHandler {
+	static final long HEARTBEAT_SECONDS = 15;
+
+	private static final String CONTENT_TYPE = "text/event-stream; charset=utf-8";
+
+	private final TodoEventsUseCase events;
+	private final long maxStreamNanos;
+
+	public TodoEventsController(TodoEventsUseCase events, long maxStreamSeconds) {
+		this.events = events;
+		this.maxStreamNanos = TimeUnit.SECONDS.toNanos(maxStreamSeconds);
+	}
+
+	@Override
+	public void handle(HttpExchange ex) throws IOException {
+		String base = ex.getHttpContext().getPath();
+		String rest = ex.getRequestURI().getPath().substring(base.length());
+		if (!rest.isEmpty() && !rest.equals("/")) {
+			JsonResponseWriter.writeError(ex, 404, "Not found");
+			return;
+		}
+		if (!"GET".equals(ex.getRequestMethod())) {
+			ex.getResponseHeaders().set("Allow", "GET");
+			ex.sendResponseHeaders(405, -1);
+			return;
+		}
+		if (!BearerAuthFilter.requireScope(ex, TodoController.READ_SCOPE)) {
+			return;
+		}
+		String since = ex.getRequestHeaders().getFirst("Last-Event-ID");
+		if (since == null) {
+			Map<String, String> params = TodoController.readQuery(ex);
+			if (params == null) {
+				return;
+			}
+			since = params.get("since");
+		}
+		Long lastEventId = null;
+		if (since != null) {
+			lastEventId = parseId(since);
+			if (lastEventId == null) {
+				JsonResponseWriter.writeError(ex, 400, "Invalid Last-Event-ID");
+				return;
+			}
+		}
+
+		UUID owner = BearerAuthFilter.principal(ex).userId();
+		try (Subscription subscription = events.subscribe(owner, lastEventId)) {
+			ex.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			ex.getResponseHeaders().set("Cache-Control", "no-cache");
+			ex.sendResponseHeaders(200, 0);
+			// closing the generator flushes it and closes the body, which ends the chunked stream
+			try (JsonGenerator g = JsonCodec.FACTORY.createGenerator(ex.getResponseBody())) {
+				g.setRootValueSeparator(null);
+				g.writeRaw(": subscribed\n\n");
+				g.flush();
+				long end = System.nanoTime() + maxStreamNanos;
+				for (long left = maxStreamNanos; left > 0; left = end - System.nanoTime()) {
+					List<TodoEvent> batch = subscription.next(
+							Math.min(left, TimeUnit.SECONDS.toNanos(HEARTBEAT_SECONDS)), TimeUnit.NANOSECONDS);
+					if (batch == null) {
+						break;
+					}
+					if (batch.isEmpty()) {
+						g.writeRaw(": keep-alive\n\n");
+					}
+					for (TodoEvent e : batch) {
+						writeEvent(g, e);
+					}
+					g.flush();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void writeEvent(JsonGenerator g, TodoEvent e) throws IOException {
+		g.writeRaw(switch (e.type()) {
+			case CREATED -> "event: created\nid: ";
+			case UPDATED -> "event: updated\nid: ";
+			case DELETED -> "event: deleted\nid: ";
+			case RESYNC -> "event: resync\nid: ";
+		});
+		g.writeRaw(Long.toHexString(e.id()));
+		g.writeRaw("\ndata:");
+		if (e.todo() != null) {
+			g.writeRaw(' ');
+			JsonResponseWriter.writeTodo(g, e.todo());
+		}
+		g.writeRaw("\n\n");
+	}
+
+	/** Hex, as in an {@code ETag}, quotes optional; {@code null} if malformed. */
+	static Long parseId(String s) {
+		if (s.length() >= 2 && s.startsWith("\"") && s.endsWith("\"")) {
+			s = s.substring(1, s.length() - 1);
+		}
+		try {
+			return s.isEmpty() || s.length() > 16 ? null : Long.parseUnsignedLong(s, 16);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token buckets: each key may spend {@code burst} requests at once and earns one back every
+ * {@code refillNanos}.
+ *
+ * <p>A bucket is a single {@code long}, the time at which it will be full again ("theoretical arrival time",
+ * the GCRA form of a token bucket). Refill is lazy: nothing runs between requests, the next request simply
+ * compares that time with the clock. Taking a token is one CAS:</p>
+ *
+ * <pre>{@code
+ * tat  = max(stored, now)
+ * deny   if tat - now > (burst - 1) * refill     // bucket empty; retry after the excess
+ * accept and store tat + refill
+ * }</pre>
+ *
+ * <p>Keys are spread over power-of-two shards, each a {@link ConcurrentHashMap}, so lookups never lock and the
+ * housekeeping below only ever walks one shard.</p>
+ *
+ * <h3>Eviction</h3>
+ * <p>A bucket whose full-again time has passed holds no state that a brand-new bucket would not, so it can be
+ * dropped at any time. Each shard sweeps those out once the keys it created since its last sweep reach half its
+ * size, which keeps the cost amortised O(1) per new key. A shard that is still at its key cap after a sweep stops
+ * tracking new keys and lets them through: someone cycling through unique keys (invented emails, say) cannot grow
+ * the map or lock anyone out, and other buckets, such as the caller's IP, still apply.</p>
+ *
+ * <p>A request racing with the sweep that removes its bucket may be counted against the discarded bucket; at
+ * most one token is lost that way, and only for a key that was idle.</p>
+ */
+public final class TokenBuckets {
+	/** Returned by {@link #tryAcquire} when the request may proceed. */
+	public static final long ALLOWED = 0L;
+
+	private static final int MIN_SWEEP_INTERVAL = 64;
+
+	private final long refillNanos;
+	private final long burstNanos;
+	private final int maxKeysPerShard;
+	private final LongSupplier clock;
+	private final Shard[] shards;
+	private final int mask;
+
+	/**
+	 * @param burst     requests a key may make back to back
+	 * @param perMinute steady-state requests per key and minute
+	 * @param maxKeys   upper bound on tracked keys
+	 */
+	public TokenBuckets(int burst, int perMinute, int maxKeys) {
+		this(burst, 60_000_000_000L / perMinute, maxKeys, System::nanoTime);
+	}
+
+	TokenBuckets(int burst, long refillNanos, int maxKeys, LongSupplier clock) {
+		if (burst < 1 || refillNanos < 1 || maxKeys < 1) {
+			throw new IllegalArgumentException("burst, rate and maxKeys must be positive");
+		}
+		// a few shards per core, rounded up to a power of two, but never more shards than keys
+		int target = Runtime.getRuntime().availableProcessors() * 4;
+		int shardCount = Math.min(Integer.highestOneBit(target - 1) << 1, Integer.highestOneBit(maxKeys));
+		this.refillNanos = refillNanos;
+		this.burstNanos = Math.multiplyExact(burst - 1L, refillNanos);
+		this.maxKeysPerShard = Math.max(1, maxKeys / shardCount);
+		this.clock = clock;
+		this.shards = new Shard[shardCount];
+		for (int i = 0; i < shardCount; i++) {
+			shards[i] = new Shard();
+		}
+		this.mask = shardCount - 1;
+	}
+
+	/**
+	 * Takes one token from {@code key}'s bucket.
+	 *
+	 * @return {@link #ALLOWED}, or the nanoseconds until a token will be available
+	 */
+	public long tryAcquire(String key) {
+		long now = clock.getAsLong();
+		Shard shard = shardFor(key);
+		AtomicLong bucket = shard.map.get(key);
+		if (bucket == null) {
+			bucket = shard.create(key, now);
+			if (bucket == null) {
+				return ALLOWED; // shard full of active keys: untracked
+			}
+		}
+		while (true) {
+			long stored = bucket.get();
+			long tat = stored - now > 0 ? stored : now;
+			long excess = tat - now - burstNanos;
+			if (excess > 0) {
+				return excess;
+			}
+			if (bucket.compareAndSet(stored, tat + refillNanos)) {
+				return ALLOWED;
+			}
+		}
+	}
+
+	/** Number of keys currently tracked. */
+	public int size() {
+		int n = 0;
+		for (Shard shard : shards) {
+			n += shard.map.size();
+		}
+		return n;
+	}
+
+	private Shard shardFor(String key) {
+		int h = key.hashCode();
+		return shards[(h ^ (h >>> 16)) & mask];
+	}
+
+	private final class Shard {
+		final ConcurrentHashMap<String, AtomicLong> map = new ConcurrentHashMap<>();
+		final AtomicInteger createdSinceSweep = new AtomicInteger();
+		final AtomicBoolean sweeping = new AtomicBoolean();
+
+		/** @return the key's bucket, or {@code null} if the shard is at its cap */
+		AtomicLong create(String key, long now) {
+			int created = createdSinceSweep.incrementAndGet();
+			int size = map.size();
+			if (created >= Math.max(MIN_SWEEP_INTERVAL, size / 2)) {
+				sweep(now);
+			}
+			if (map.size() >= maxKeysPerShard) {
+				// not swept on every miss: a flood of unique keys must not turn each request into a full scan
+				return map.get(key);
+			}
+			AtomicLong fresh = new AtomicLong(now);
+			AtomicLong raced = map.putIfAbsent(key, fresh);
+			return raced != null ? raced : fresh;
+		}
+
+		void sweep(long now) {
+			if (!sweeping.compareAndSet(false, true)) {
+				return; // someone else is on it
+			}
+			try {
+				createdSinceSweep.set(0);
+				Iterator<AtomicLong> it = map.values().iterator();
+				while (it.hasNext()) {
+					if (it.next().get() - now <= 0) {
+						it.remove();
+					}
+				}
+			} finally {
+				sweeping.set(false);
+			}
+		}
+	}
+}
@@ -0,0 +1,524 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.domain.Password;
+import io.github.cqyll.todoapi.domain.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * User store for millions of accounts: users live as packed byte records off-heap, found through two primitive
+ * open-addressing hash tables, and become {@link User} objects only when looked up.
+ *
+ * <p>An {@link InMemoryUserAdapter} entry is a {@code User}, a {@code UUID}, name, email and hex hash
+ * {@code String}s, a {@code Password} and two map nodes: several hundred bytes of heap per account, all of it
+ * traced by every full GC. Here an account costs one record in a direct buffer plus one {@code long} slot in each
+ * index, and the heap holds a few large arrays regardless of the number of users.</p>
+ *
+ * <h3>Record layout</h3>
+ * Records are appended to 16 MiB direct buffer chunks and never span two of them:
+ * <pre>
+ * id msb (8) | id lsb (8) | flags (1) | name len (2) | email len (2) | hash len (2) | name | email | hash
+ * </pre>
+ * Strings are UTF-8. A password hash that is lower-case hex (the SHA-256 hasher's format) is stored as its raw
+ * bytes, halving it; any other format is stored as text. A user is addressed by
+ * {@code chunk << 24 | offset}.
+ *
+ * <h3>Indexes</h3>
+ * Two linear-probing {@code long[]} tables map id and lower-cased email to a record. Each slot packs the record
+ * address (plus one, so {@code 0} means empty) with 16 bits of the key's hash, so most probes that do not match
+ * are rejected without touching the record. Tables double at 70% load. Users are never deleted; re-saving a user
+ * appends a new record and repoints both indexes, which is rare enough that the old record is left in place.
+ *
+ * <h3>Concurrency</h3>
+ * Writers hold a {@link StampedLock} write lock. Readers first try an optimistic read with no shared write at all,
+ * copying what they need out of the record before validating the stamp; only when a writer interfered do they
+ * retry under the read lock.
+ */
+public class CompactUserAdapter implements MemoryUserStore {
+	private static final int CHUNK_SHIFT = 24;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private static final int HEADER = 8 + 8 + 1 + 2 + 2 + 2;
+	private static final int FLAGS = 16;
+	private static final int NAME_LEN = 17;
+	private static final int EMAIL_LEN = 19;
+	private static final int HASH_LEN = 21;
+
+	private static final int ACTIVE = 1;
+	private static final int EMAIL_VERIFIED = 2;
+	private static final int HAS_PASSWORD = 4;
+	private static final int HEX_HASH = 8;
+
+	private static final int INITIAL_CAPACITY = 1 << 10;
+	private static final double MAX_LOAD = 0.7;
+
+	private final StampedLock lock = new StampedLock();
+
+	private ByteBuffer[] chunks = new ByteBuffer[4];
+	private int chunkCount;
+	private int tail = CHUNK_SIZE; // write offset in the last chunk; "full" until the first one exists
+
+	private long[] idTable = new long[INITIAL_CAPACITY];
+	private long[] emailTable = new long[INITIAL_CAPACITY];
+	private int size;
+	private int emailCount;
+	private long recordBytes;
+
+	@Override
+	public void save(User user) {
+		byte[] email = emailKey(user.getEmail());
+		long stamp = lock.writeLock();
+		try {
+			long addr = append(user, email);
+			putId(addr, user.getId().getMostSignificantBits(), user.getId().getLeastSignificantBits());
+			putEmail(addr, email);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	@Override
+	public boolean saveIfEmailAbsent(User user) {
+		byte[] email = emailKey(user.getEmail());
+		long hash = hashBytes(email);
+		long stamp = lock.writeLock();
+		try {
+			if (findEmail(email, hash) >= 0) {
+				return false;
+			}
+			long addr = append(user, email);
+			putId(addr, user.getId().getMostSignificantBits(), user.getId().getLeastSignificantBits());
+			putEmail(addr, email);
+			return true;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	@Override
+	public boolean existsByEmail(String email) {
+		byte[] key = emailKey(email);
+		long hash = hashBytes(key);
+		long stamp = lock.tryOptimisticRead();
+		try {
+			boolean found = findEmail(key, hash) >= 0;
+			if (lock.validate(stamp)) {
+				return found;
+			}
+		} catch (RuntimeException e) {
+			// a writer moved things under us; fall through to the locked read
+		}
+		stamp = lock.readLock();
+		try {
+			return findEmail(key, hash) >= 0;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	@Override
+	public Optional<User> findByEmail(String email) {
+		byte[] key = emailKey(email);
+		long hash = hashBytes(key);
+		long stamp = lock.tryOptimisticRead();
+		try {
+			long addr = findEmail(key, hash);
+			RawUser raw = addr < 0 ? null : read(chunks, addr);
+			if (lock.validate(stamp)) {
+				return Optional.ofNullable(raw).map(RawUser::toUser);
+			}
+		} catch (RuntimeException e) {
+			// a writer moved things under us; fall through to the locked read
+		}
+		stamp = lock.readLock();
+		try {
+			long addr = findEmail(key, hash);
+			return addr < 0 ? Optional.empty() : Optional.of(read(chunks, addr).toUser());
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	@Override
+	public Optional<User> findById(UUID id) {
+		long msb = id.getMostSignificantBits();
+		long lsb = id.getLeastSignificantBits();
+		long stamp = lock.tryOptimisticRead();
+		try {
+			long addr = findId(msb, lsb);
+			RawUser raw = addr < 0 ? null : read(chunks, addr);
+			if (lock.validate(stamp)) {
+				return Optional.ofNullable(raw).map(RawUser::toUser);
+			}
+		} catch (RuntimeException e) {
+			// a writer moved things under us; fall through to the locked read
+		}
+		stamp = lock.readLock();
+		try {
+			long addr = findId(msb, lsb);
+			return addr < 0 ? Optional.empty() : Optional.of(read(chunks, addr).toUser());
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Walks a copy of the id index, taken under the read lock, so writers are only held up for the copy and not
+	 * for the walk. Records are immutable once written, so the addresses in the copy stay valid.
+	 */
+	@Override
+	public void forEach(Consumer<? super User> action) {
+		long[] slots;
+		ByteBuffer[] records;
+		long stamp = lock.readLock();
+		try {
+			slots = idTable.clone();
+			records = chunks.clone();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+		for (long slot : slots) {
+			if (slot != 0) {
+				action.accept(read(records, address(slot)).toUser());
+			}
+		}
+	}
+
+	/** Number of distinct users stored. */
+	public int size() {
+		long stamp = lock.readLock();
+		try {
+			return size;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/** Direct memory reserved for records, including the unused tail of the last chunk. */
+	public long offHeapBytes() {
+		long stamp = lock.readLock();
+		try {
+			return (long) chunkCount * CHUNK_SIZE;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/** Bytes of records written so far, superseded ones included. */
+	public long recordBytes() {
+		long stamp = lock.readLock();
+		try {
+			return recordBytes;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/** Heap held by the two index tables. */
+	public long indexBytes() {
+		long stamp = lock.readLock();
+		try {
+			return 8L * (idTable.length + emailTable.length);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	// ---- records ----
+
+	private long append(User user, byte[] email) {
+		byte[] name = user.getName().getBytes(StandardCharsets.UTF_8);
+		Password password = user.getPassword();
+		int flags = (user.isActive() ? ACTIVE : 0) | (user.isEmailVerified() ? EMAIL_VERIFIED : 0);
+		byte[] hash = new byte[0];
+		if (password != null) {
+			flags |= HAS_PASSWORD;
+			hash = hexToBytes(password.getHash());
+			if (hash != null) {
+				flags |= HEX_HASH;
+			} else {
+				hash = password.getHash().getBytes(StandardCharsets.UTF_8);
+			}
+		}
+		checkLength(name.length, "name");
+		checkLength(email.length, "email");
+		checkLength(hash.length, "password hash");
+
+		int length = HEADER + name.length + email.length + hash.length;
+		if (tail + length > CHUNK_SIZE) {
+			if (chunkCount == chunks.length) {
+				chunks = Arrays.copyOf(chunks, chunks.length * 2);
+			}
+			chunks[chunkCount++] = ByteBuffer.allocateDirect(CHUNK_SIZE);
+			tail = 0;
+		}
+		ByteBuffer chunk = chunks[chunkCount - 1];
+		int off = tail;
+		chunk.putLong(off, user.getId().getMostSignificantBits());
+		chunk.putLong(off + 8, user.getId().getLeastSignificantBits());
+		chunk.put(off + FLAGS, (byte) flags);
+		chunk.putShort(off + NAME_LEN, (short) name.length);
+		chunk.putShort(off + EMAIL_LEN, (short) email.length);
+		chunk.putShort(off + HASH_LEN, (short) hash.length);
+		chunk.put(off + HEADER, name);
+		chunk.put(off + HEADER + name.length, email);
+		chunk.put(off + HEADER + name.length + email.length, hash);
+		tail += length;
+		recordBytes += length;
+		return ((long) (chunkCount - 1) << CHUNK_SHIFT) | off;
+	}
+
+	private static RawUser read(ByteBuffer[] chunks, long addr) {
+		ByteBuffer chunk = chunks[(int) (addr >>> CHUNK_SHIFT)];
+		int off = (int) (addr & CHUNK_MASK);
+		int nameLen = chunk.getShort(off + NAME_LEN) & 0xFFFF;
+		int emailLen = chunk.getShort(off + EMAIL_LEN) & 0xFFFF;
+		int hashLen = chunk.getShort(off + HASH_LEN) & 0xFFFF;
+		byte[] bytes = new byte[nameLen + emailLen + hashLen];
+		chunk.get(off + HEADER, bytes);
+		return new RawUser(chunk.getLong(off), chunk.getLong(off + 8), chunk.get(off + FLAGS), bytes, nameLen,
+				emailLen);
+	}
+
+	/** A record copied out of the chunk, decoded into a {@link User} once the read is known to be consistent. */
+	private record RawUser(long msb, long lsb, int flags, byte[] bytes, int nameLen, int emailLen) {
+		User toUser() {
+			String name = new String(bytes, 0, nameLen, StandardCharsets.UTF_8);
+			String email = new String(bytes, nameLen, emailLen, StandardCharsets.UTF_8);
+			Password password = null;
+			if ((flags & HAS_PASSWORD) != 0) {
+				int from = nameLen + emailLen;
+				password = Password.fromHash((flags & HEX_HASH) != 0
+						? bytesToHex(bytes, from, bytes.length - from)
+						: new String(bytes, from, bytes.length - from, StandardCharsets.UTF_8));
+			}
+			return User.restore(new UUID(msb, lsb), name, email, password,
+					(flags & ACTIVE) != 0, (flags & EMAIL_VERIFIED) != 0);
+		}
+	}
+
+	private boolean idMatches(long addr, long msb, long lsb) {
+		ByteBuffer chunk = chunks[(int) (addr >>> CHUNK_SHIFT)];
+		int off = (int) (addr & CHUNK_MASK);
+		return chunk.getLong(off) == msb && chunk.getLong(off + 8) == lsb;
+	}
+
+	private boolean emailMatches(long addr, byte[] email) {
+		ByteBuffer chunk = chunks[(int) (addr >>> CHUNK_SHIFT)];
+		int off = (int) (addr & CHUNK_MASK);
+		if ((chunk.getShort(off + EMAIL_LEN) & 0xFFFF) != email.length) {
+			return false;
+		}
+		int from = off + HEADER + (chunk.getShort(off + NAME_LEN) & 0xFFFF);
+		for (int i = 0; i < email.length; i++) {
+			if (chunk.get(from + i) != email[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private byte[] storedEmail(long addr) {
+		ByteBuffer chunk = chunks[(int) (addr >>> CHUNK_SHIFT)];
+		int off = (int) (addr & CHUNK_MASK);
+		byte[] email = new byte[chunk.getShort(off + EMAIL_LEN) & 0xFFFF];
+		chunk.get(off + HEADER + (chunk.getShort(off + NAME_LEN) & 0xFFFF), email);
+		return email;
+	}
+
+	// ---- indexes ----
+
+	/** @return the record address, or {@code -1} */
+	private long findId(long msb, long lsb) {
+		long hash = hashId(msb, lsb);
+		long[] table = idTable;
+		int mask = table.length - 1;
+		for (int i = (int) hash & mask, probes = 0; probes < table.length; i = (i + 1) & mask, probes++) {
+			long slot = table[i];
+			if (slot == 0) {
+				return -1;
+			}
+			if ((slot & 0xFFFF) == fingerprint(hash) && idMatches(address(slot), msb, lsb)) {
+				return address(slot);
+			}
+		}
+		return -1;
+	}
+
+	/** @return the record address, or {@code -1} */
+	private long findEmail(byte[] email, long hash) {
+		long[] table = emailTable;
+		int mask = table.length - 1;
+		for (int i = (int) hash & mask, probes = 0; probes < table.length; i = (i + 1) & mask, probes++) {
+			long slot = table[i];
+			if (slot == 0) {
+				return -1;
+			}
+			if ((slot & 0xFFFF) == fingerprint(hash) && emailMatches(address(slot), email)) {
+				return address(slot);
+			}
+		}
+		return -1;
+	}
+
+	private void putId(long addr, long msb, long lsb) {
+		long hash = hashId(msb, lsb);
+		int mask = idTable.length - 1;
+		int i = (int) hash & mask;
+		while (idTable[i] != 0) {
+			long slot = idTable[i];
+			if ((slot & 0xFFFF) == fingerprint(hash) && idMatches(address(slot), msb, lsb)) {
+				idTable[i] = slot(addr, hash); // re-save: point at the new record
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		idTable[i] = slot(addr, hash);
+		size++;
+		if (size > idTable.length * MAX_LOAD) {
+			idTable = rehashIds(idTable.length * 2);
+		}
+	}
+
+	private void putEmail(long addr, byte[] email) {
+		long hash = hashBytes(email);
+		int mask = emailTable.length - 1;
+		int i = (int) hash & mask;
+		while (emailTable[i] != 0) {
+			long slot = emailTable[i];
+			if ((slot & 0xFFFF) == fingerprint(hash) && emailMatches(address(slot), email)) {
+				emailTable[i] = slot(addr, hash);
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		emailTable[i] = slot(addr, hash);
+		emailCount++;
+		if (emailCount > emailTable.length * MAX_LOAD) {
+			emailTable = rehashEmails(emailTable.length * 2);
+		}
+	}
+
+	private long[] rehashIds(int capacity) {
+		long[] table = new long[capacity];
+		int mask = capacity - 1;
+		for (long slot : idTable) {
+			if (slot != 0) {
+				long addr = address(slot);
+				ByteBuffer chunk = chunks[(int) (addr >>> CHUNK_SHIFT)];
+				int off = (int) (addr & CHUNK_MASK);
+				int i = (int) hashId(chunk.getLong(off), chunk.getLong(off + 8)) & mask;
+				while (table[i] != 0) {
+					i = (i + 1) & mask;
+				}
+				table[i] = slot;
+			}
+		}
+		return table;
+	}
+
+	private long[] rehashEmails(int capacity) {
+		long[] table = new long[capacity];
+		int mask = capacity - 1;
+		for (long slot : emailTable) {
+			if (slot != 0) {
+				int i = (int) hashBytes(storedEmail(address(slot))) & mask;
+				while (table[i] != 0) {
+					i = (i + 1) & mask;
+				}
+				table[i] = slot;
+			}
+		}
+		return table;
+	}
+
+	private static long slot(long addr, long hash) {
+		return ((addr + 1) << 16) | fingerprint(hash);
+	}
+
+	private static long address(long slot) {
+		return (slot >>> 16) - 1;
+	}
+
+	/** Top bits of the hash: the low bits already chose the slot. */
+	private static long fingerprint(long hash) {
+		return hash >>> 48;
+	}
+
+	private static long hashId(long msb, long lsb) {
+		return mix(msb ^ Long.rotateLeft(lsb, 32));
+	}
+
+	private static long hashBytes(byte[] b) {
+		long h = 0xcbf29ce484222325L;
+		for (byte x : b) {
+			h = (h ^ x) * 0x100000001b3L;
+		}
+		return mix(h);
+	}
+
+	/** MurmurHash3 finalizer. */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	// ---- encoding ----
+
+	/** Same normalization as {@link User}'s own email handling. */
+	private static byte[] emailKey(String email) {
+		return email.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static void checkLength(int length, String what) {
+		if (length > 0xFFFF) {
+			throw new IllegalArgumentException("User " + what + " too long");
+		}
+	}
+
+	/** @return the decoded bytes, or {@code null} if {@code s} is not even-length lower-case hex */
+	private static byte[] hexToBytes(String s) {
+		if ((s.length() & 1) != 0) {
+			return null;
+		}
+		byte[] out = new byte[s.length() / 2];
+		for (int i = 0; i < out.length; i++) {
+			int hi = hexDigit(s.charAt(2 * i));
+			int lo = hexDigit(s.charAt(2 * i + 1));
+			if (hi < 0 || lo < 0) {
+				return null;
+			}
+			out[i] = (byte) ((hi << 4) | lo);
+		}
+		return out;
+	}
+
+	private static int hexDigit(char c) {
+		if (c >= '0' && c <= '9') return c - '0';
+		if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+		return -1;
+	}
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private static String bytesToHex(byte[] b, int from, int len) {
+		char[] out = new char[len * 2];
+		for (int i = 0; i < len; i++) {
+			out[2 * i] = HEX[(b[from + i] >> 4) & 0xF];
+			out[2 * i + 1] = HEX[b[from + i] & 0xF];
+		}
+		return new String(out);
+	}
+}
@@ -0,0 +1,125 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.application.port.outbound.ClientRepositoryPort;
+import io.github.cqyll.todoapi.domain.OAuthClient;
+import io.github.cqyll.todoapi.domain.Password;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Client registry kept in a small text file, one client per line:
+ *
+ * <pre>
+ * # client_id &lt;TAB&gt; secret hash &lt;TAB&gt; grant types &lt;TAB&gt; scope &lt;TAB&gt; redirect URIs
+ * todo-web	pbkdf2-sha256$600000$...	password,refresh_token,authorization_code		https://app.example/cb
+ * </pre>
+ *
+ * <p>Grant types and redirect URIs are comma-separated; the last two columns are optional and an empty scope
+ * means no restriction. The file is read once when the adapter is created and every lookup is served from an
+ * {@link InMemoryClientAdapter}. Clients are registered rarely, so a save simply rewrites the whole file to a
+ * temporary one, {@code fsync}s it and renames it over the original; readers never see a half-written file, and a
+ * client only becomes visible to lookups once the rename has succeeded.
+ * Secret hashes are whatever {@code PasswordHasherPort.hash} produced, so the file can be edited by hand.</p>
+ */
+public class FileClientAdapter implements ClientRepositoryPort {
+	private final Path file;
+	private final InMemoryClientAdapter memory = new InMemoryClientAdapter();
+	private final Object writeLock = new Object();
+
+	public FileClientAdapter(Path file) throws IOException {
+		this.file = file;
+		if (Files.exists(file)) {
+			load();
+		}
+	}
+
+	@Override
+	public void save(OAuthClient client) {
+		synchronized (writeLock) {
+			try {
+				write(client);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			memory.save(client);
+		}
+	}
+
+	@Override
+	public Optional<OAuthClient> findById(String clientId) {
+		return memory.findById(clientId);
+	}
+
+	private void load() throws IOException {
+		int lineNo = 0;
+		for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+			lineNo++;
+			if (line.isBlank() || line.startsWith("#")) {
+				continue;
+			}
+			String[] f = line.split("\t");
+			if (f.length < 3) {
+				throw new IOException(file + ":" + lineNo + ": expected client_id, secret hash and grant types");
+			}
+			try {
+				memory.save(OAuthClient.create(f[0], Password.fromHash(f[1]), list(f[2]), f.length > 3 ? f[3] : null,
+						f.length > 4 ? list(f[4]) : Set.of()));
+			} catch (IllegalArgumentException e) {
+				throw new IOException(file + ":" + lineNo + ": " + e.getMessage(), e);
+			}
+		}
+	}
+
+	private static Set<String> list(String field) {
+		Set<String> values = new LinkedHashSet<>();
+		for (String v : field.split(",")) {
+			if (!v.isBlank()) {
+				values.add(v.trim());
+			}
+		}
+		return values;
+	}
+
+	/** Rewrites the file as the current registry with {@code saved} added or replacing the entry for its id. */
+	private void write(OAuthClient saved) throws IOException {
+		Map<String, OAuthClient> clients = new LinkedHashMap<>();
+		memory.forEach(c -> clients.put(c.getClientId(), c));
+		clients.put(saved.getClientId(), saved);
+
+		List<String> lines = new ArrayList<>();
+		lines.add("# client_id\tsecret hash\tgrant types\tscope\tredirect URIs");
+		for (OAuthClient c : clients.values()) {
+			lines.add(c.getClientId() + "\t" + c.getSecret().getHash() + "\t"
+					+ String.join(",", c.getGrantTypes()) + "\t" + (c.getScope() == null ? "" : c.getScope()) + "\t"
+					+ String.join(",", c.getRedirectUris()));
+		}
+
+		Path parent = file.toAbsolutePath().getParent();
+		Files.createDirectories(parent);
+		Path tmp = parent.resolve(file.getFileName() + ".tmp");
+		Files.write(tmp, lines, StandardCharsets.UTF_8);
+		try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+			ch.force(true);
+		}
+		try {
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+}
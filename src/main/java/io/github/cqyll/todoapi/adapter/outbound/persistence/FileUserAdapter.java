@@ -0,0 +1,558 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.application.port.outbound.UserRepositoryPort;
+import io.github.cqyll.todoapi.domain.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Durable {@link UserRepositoryPort}: every write goes to an append-only log on disk, reads are served by an
+ * in-memory store that is rebuilt from disk on startup.
+ *
+ * <h3>Files</h3>
+ * <ul>
+ * 		<li>{@code users-<seq>.log}: log segments, a sequence of {@link UserRecords} frames. Only the newest
+ * 		segment is appended to.</li>
+ * 		<li>{@code users.snapshot}: the sequence number of the first segment that still has to be replayed on top
+ * 		of it, a user count, then every user as of that segment boundary, in the same frames.</li>
+ * </ul>
+ *
+ * <h3>Writes</h3>
+ * A save is queued for the log and the caller waits for its frame to be on disk. A single flusher thread drains
+ * whatever has queued up, writes it in one gathering write and {@code fsync}s once for the whole batch (group
+ * commit): under load, one {@code fsync} covers many saves, and a lone save is not delayed by any timer. Only then
+ * does the flusher apply the batch to the memory store, in log order, so readers never see a user the log does
+ * not have, and a save that fails leaves nothing behind. A registration reserves its email under the queueing
+ * lock until it is applied, so two registrations of one email cannot both be queued.
+ *
+ * <h3>Snapshots</h3>
+ * After {@code snapshotEvery} logged saves, a background thread rotates the log to a new segment, writes every
+ * user from the memory store to a temporary file, {@code fsync}s it, renames it over {@code users.snapshot} and
+ * deletes the segments the snapshot covers. The walk runs while saves continue; anything it misses was logged
+ * to the new segment and is replayed after the snapshot, and replaying a save is idempotent.
+ *
+ * <h3>Recovery</h3>
+ * The snapshot is memory-mapped and decoded in place, then the remaining segments are replayed in order. A
+ * frame that is cut short or fails its checksum at the end of the newest segment is a write that never
+ * completed, and is truncated away; anywhere else it means the files are damaged, and startup fails.
+ */
+public class FileUserAdapter implements UserRepositoryPort, Closeable {
+	private static final String SNAPSHOT = "users.snapshot";
+	private static final byte[] SNAPSHOT_MAGIC = "TODOUSR1".getBytes(StandardCharsets.US_ASCII);
+	private static final int SNAPSHOT_HEADER = 8 + 8 + 8;
+	private static final int MAX_BATCH = 4096;
+	/** Mapped window for reading; frames are tiny, windows are remapped at frame boundaries. */
+	private static final long MAP_WINDOW = 256L << 20;
+
+	private final Path directory;
+	private final MemoryUserStore memory;
+	private final long snapshotEvery;
+
+	private final ReentrantLock appendLock = new ReentrantLock();
+	private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+	/** Emails of registrations queued but not yet applied; added under {@link #appendLock}. */
+	private final Set<String> reserved = ConcurrentHashMap.newKeySet();
+	private final Thread flusher;
+	private final ExecutorService snapshotter;
+	private final ReentrantLock snapshotLock = new ReentrantLock();
+	private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+	private final AtomicLong sinceSnapshot = new AtomicLong();
+	private final AtomicLong flushes = new AtomicLong();
+	private final AtomicLong framesWritten = new AtomicLong();
+	private volatile boolean closed;
+	private volatile IOException failure;
+
+	// flusher thread only
+	private FileChannel segment;
+	private long segmentSeq;
+	// set by the flusher before it completes a rotation, read by the rotating thread after
+	private volatile long rotatedTo;
+
+	/**
+	 * Opens (or creates) the store in {@code directory}, loading everything on disk into {@code memory}.
+	 *
+	 * @param memory an empty store that will hold the users and serve all reads
+	 * @param snapshotEvery logged saves between two snapshots
+	 */
+	public FileUserAdapter(Path directory, MemoryUserStore memory, long snapshotEvery) throws IOException {
+		this.directory = directory;
+		this.memory = memory;
+		this.snapshotEvery = snapshotEvery;
+
+		Files.createDirectories(directory);
+		Files.deleteIfExists(directory.resolve(SNAPSHOT + ".tmp"));
+		segmentSeq = recover();
+		segment = openSegment(segmentSeq);
+
+		flusher = Thread.ofPlatform().name("user-log-flusher").daemon(true).start(this::flushLoop);
+		snapshotter = Executors.newSingleThreadExecutor(
+				Thread.ofPlatform().name("user-snapshot").daemon(true).factory());
+	}
+
+	@Override
+	public void save(User user) {
+		byte[] frame = UserRecords.frame(user);
+		CompletableFuture<Void> done;
+		appendLock.lock();
+		try {
+			checkOpen();
+			done = enqueue(frame, user, false);
+		} finally {
+			appendLock.unlock();
+		}
+		await(done);
+		afterWrite();
+	}
+
+	@Override
+	public boolean saveIfEmailAbsent(User user) {
+		byte[] frame = UserRecords.frame(user);
+		CompletableFuture<Void> done;
+		appendLock.lock();
+		try {
+			checkOpen();
+			// reserve first: the flusher applies a registration before lifting its reservation, so once ours is
+			// in, an earlier one for this email is either still reserved or already in memory
+			if (!reserved.add(user.getEmail())) {
+				return false;
+			}
+			if (memory.existsByEmail(user.getEmail())) {
+				reserved.remove(user.getEmail());
+				return false;
+			}
+			done = enqueue(frame, user, true);
+		} finally {
+			appendLock.unlock();
+		}
+		await(done);
+		afterWrite();
+		return true;
+	}
+
+	@Override
+	public boolean existsByEmail(String email) {
+		return memory.existsByEmail(email);
+	}
+
+	@Override
+	public Optional<User> findByEmail(String email) {
+		return memory.findByEmail(email);
+	}
+
+	@Override
+	public Optional<User> findById(UUID id) {
+		return memory.findById(id);
+	}
+
+	/**
+	 * Writes a snapshot now and drops the log segments it covers. Normally triggered in the background; public for
+	 * shutdown hooks and tests.
+	 */
+	public void snapshot() throws IOException {
+		snapshotLock.lock();
+		try {
+			long replayFrom = rotate();
+			sinceSnapshot.set(0);
+
+			Path tmp = directory.resolve(SNAPSHOT + ".tmp");
+			try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer out = ByteBuffer.allocate(1 << 20);
+				out.put(SNAPSHOT_MAGIC).putLong(replayFrom).putLong(0); // count patched below
+				long[] count = new long[1];
+				memory.forEach(user -> {
+					byte[] frame = UserRecords.frame(user);
+					try {
+						if (out.remaining() < frame.length) {
+							drain(ch, out);
+						}
+						if (frame.length > out.capacity()) {
+							writeFully(ch, ByteBuffer.wrap(frame));
+						} else {
+							out.put(frame);
+						}
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+					count[0]++;
+				});
+				drain(ch, out);
+				ch.write(ByteBuffer.allocate(8).putLong(0, count[0]), 16);
+				ch.force(true);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			Path target = directory.resolve(SNAPSHOT);
+			try {
+				Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			syncDirectory();
+
+			for (long seq : segments().headMap(replayFrom).keySet()) {
+				Files.deleteIfExists(segmentPath(seq));
+			}
+		} finally {
+			snapshotLock.unlock();
+		}
+	}
+
+	/** Number of {@code fsync}s of the log so far; with {@link #getFramesWritten()}, the average batch size. */
+	public long getFlushCount() {
+		return flushes.get();
+	}
+
+	public long getFramesWritten() {
+		return framesWritten.get();
+	}
+
+	/**
+	 * Waits for queued saves to reach the disk and stops the background threads. Does not snapshot: the log is
+	 * complete, so the next start recovers everything either way.
+	 */
+	@Override
+	public void close() throws IOException {
+		appendLock.lock();
+		try {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			queue.add(Pending.STOP);
+		} finally {
+			appendLock.unlock();
+		}
+		snapshotter.shutdown();
+		try {
+			snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+			flusher.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	// ---- write path ----
+
+	/**
+	 * A queued log frame and the save it records, or a control message for the flusher.
+	 *
+	 * @param registration whether {@code user}'s email is {@link #reserved}
+	 */
+	private record Pending(byte[] frame, User user, boolean registration, CompletableFuture<Void> done) {
+		static final Pending STOP = new Pending(null, null, false, null);
+	}
+
+	private CompletableFuture<Void> enqueue(byte[] frame, User user, boolean registration) {
+		CompletableFuture<Void> done = new CompletableFuture<>();
+		queue.add(new Pending(frame, user, registration, done));
+		return done;
+	}
+
+	/**
+	 * Switches the log to a new segment once everything queued before has been written.
+	 *
+	 * @return the new segment's sequence number: every save applied before this call is in an older segment
+	 */
+	private long rotate() throws IOException {
+		CompletableFuture<Void> done = new CompletableFuture<>();
+		appendLock.lock();
+		try {
+			checkOpen();
+			queue.add(new Pending(null, null, false, done));
+		} finally {
+			appendLock.unlock();
+		}
+		await(done);
+		return rotatedTo;
+	}
+
+	private void flushLoop() {
+		List<Pending> batch = new ArrayList<>();
+		boolean stop = false;
+		while (!stop) {
+			try {
+				batch.add(queue.take());
+				queue.drainTo(batch, MAX_BATCH - 1);
+			} catch (InterruptedException e) {
+				continue; // only close() stops the flusher, after everything queued is written
+			}
+			int from = 0;
+			for (int i = 0; i < batch.size(); i++) {
+				Pending p = batch.get(i);
+				if (p.frame() == null) {
+					write(batch.subList(from, i));
+					from = i + 1;
+					if (p == Pending.STOP) {
+						stop = true;
+					} else {
+						rotateSegment(p.done());
+					}
+				}
+			}
+			write(batch.subList(from, batch.size()));
+			batch.clear();
+		}
+		try {
+			segment.close();
+		} catch (IOException e) {
+			failure = e;
+		}
+	}
+
+	private void write(List<Pending> frames) {
+		if (frames.isEmpty()) {
+			return;
+		}
+		try {
+			if (failure != null) {
+				throw failure;
+			}
+			ByteBuffer[] buffers = new ByteBuffer[frames.size()];
+			for (int i = 0; i < buffers.length; i++) {
+				buffers[i] = ByteBuffer.wrap(frames.get(i).frame());
+			}
+			ByteBuffer last = buffers[buffers.length - 1];
+			while (last.hasRemaining()) {
+				segment.write(buffers);
+			}
+			segment.force(false);
+			flushes.incrementAndGet();
+			framesWritten.addAndGet(frames.size());
+			for (Pending p : frames) {
+				memory.save(p.user());
+				release(p);
+				p.done().complete(null);
+			}
+		} catch (IOException e) {
+			// nothing after a failed write may be acknowledged or applied: the log would have a hole
+			failure = e;
+			for (Pending p : frames) {
+				release(p);
+				p.done().completeExceptionally(e);
+			}
+		}
+	}
+
+	private void release(Pending p) {
+		if (p.registration()) {
+			reserved.remove(p.user().getEmail());
+		}
+	}
+
+	private void rotateSegment(CompletableFuture<Void> done) {
+		try {
+			if (failure != null) {
+				throw failure;
+			}
+			segment.close();
+			segment = openSegment(++segmentSeq);
+			syncDirectory();
+			rotatedTo = segmentSeq;
+			done.complete(null);
+		} catch (IOException e) {
+			failure = e;
+			done.completeExceptionally(e);
+		}
+	}
+
+	private void afterWrite() {
+		if (sinceSnapshot.incrementAndGet() >= snapshotEvery && snapshotScheduled.compareAndSet(false, true)) {
+			snapshotter.execute(() -> {
+				try {
+					snapshot();
+				} catch (IOException | RuntimeException e) {
+					// the log still has everything; the next attempt starts over
+				} finally {
+					snapshotScheduled.set(false);
+				}
+			});
+		}
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("User store is closed");
+		}
+		if (failure != null) {
+			throw new UncheckedIOException("User log is unusable", failure);
+		}
+	}
+
+	private static void await(CompletableFuture<Void> done) {
+		try {
+			done.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			throw cause instanceof IOException io
+					? new UncheckedIOException("Could not persist user", io)
+					: new IllegalStateException("Could not persist user", cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while persisting user", e);
+		}
+	}
+
+	// ---- recovery ----
+
+	/**
+	 * Loads the snapshot and replays the log into {@link #memory}.
+	 *
+	 * @return the sequence number for the new segment to append to
+	 */
+	private long recover() throws IOException {
+		long replayFrom = 0;
+		Path snapshot = directory.resolve(SNAPSHOT);
+		if (Files.exists(snapshot)) {
+			replayFrom = loadSnapshot(snapshot);
+		}
+		TreeMap<Long, Path> segments = segments();
+		for (Path stale : segments.headMap(replayFrom).values()) {
+			Files.deleteIfExists(stale); // covered by the snapshot; left over from a crash mid-snapshot
+		}
+		long next = replayFrom;
+		for (var e : segments.tailMap(replayFrom, true).entrySet()) {
+			boolean newest = e.getKey().equals(segments.lastKey());
+			replay(e.getValue(), newest);
+			next = e.getKey() + 1;
+		}
+		return next;
+	}
+
+	private long loadSnapshot(Path file) throws IOException {
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, SNAPSHOT_HEADER);
+			byte[] magic = new byte[SNAPSHOT_MAGIC.length];
+			header.get(0, magic);
+			if (!Arrays.equals(magic, SNAPSHOT_MAGIC)) {
+				throw new IOException("Not a user snapshot: " + file);
+			}
+			long replayFrom = header.getLong(8);
+			long count = header.getLong(16);
+			long read = readFrames(ch, SNAPSHOT_HEADER, false);
+			if (read != count) {
+				throw new IOException("User snapshot is damaged: expected " + count + " users, found " + read);
+			}
+			return replayFrom;
+		}
+	}
+
+	private void replay(Path file, boolean newest) throws IOException {
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			readFrames(ch, 0, newest);
+		}
+	}
+
+	/**
+	 * Applies every frame from {@code start} to the end of {@code ch} to {@link #memory}, mapping the file a window
+	 * at a time.
+	 *
+	 * @param truncateTail whether a bad frame ends the file (a torn write) rather than being an error
+	 * @return the number of frames applied
+	 */
+	private long readFrames(FileChannel ch, long start, boolean truncateTail) throws IOException {
+		long size = ch.size();
+		long pos = start;
+		long frames = 0;
+		while (pos < size) {
+			long window = Math.min(MAP_WINDOW, size - pos);
+			ByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, pos, window);
+			int off = 0;
+			while (off < window) {
+				int length = UserRecords.check(map, off);
+				if (length < 0) {
+					break;
+				}
+				memory.save(UserRecords.decode(map, off));
+				off += UserRecords.FRAME_HEADER + length;
+				frames++;
+			}
+			if (off == 0 || (off < window && pos + window == size)) {
+				// no progress, or a bad frame before the end of the file
+				if (!truncateTail) {
+					throw new IOException("User data is damaged at offset " + (pos + off));
+				}
+				ch.truncate(pos + off);
+				ch.force(true);
+				return frames;
+			}
+			pos += off;
+		}
+		return frames;
+	}
+
+	// ---- files ----
+
+	private FileChannel openSegment(long seq) throws IOException {
+		FileChannel ch = FileChannel.open(segmentPath(seq), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		ch.position(ch.size());
+		return ch;
+	}
+
+	private Path segmentPath(long seq) {
+		return directory.resolve(String.format("users-%016d.log", seq));
+	}
+
+	private TreeMap<Long, Path> segments() throws IOException {
+		TreeMap<Long, Path> segments = new TreeMap<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "users-*.log")) {
+			for (Path f : files) {
+				String name = f.getFileName().toString();
+				segments.put(Long.parseLong(name.substring("users-".length(), name.length() - ".log".length())), f);
+			}
+		}
+		return segments;
+	}
+
+	/** Makes renames and newly created files in the directory durable. Not supported on every platform. */
+	private void syncDirectory() {
+		try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+			dir.force(true);
+		} catch (IOException e) {
+			// e.g. Windows cannot open directories; the rename itself is still atomic
+		}
+	}
+
+	private static void drain(FileChannel ch, ByteBuffer out) throws IOException {
+		out.flip();
+		writeFully(ch, out);
+		out.clear();
+	}
+
+	private static void writeFully(FileChannel ch, ByteBuffer b) throws IOException {
+		while (b.hasRemaining()) {
+			ch.write(b);
+		}
+	}
+}
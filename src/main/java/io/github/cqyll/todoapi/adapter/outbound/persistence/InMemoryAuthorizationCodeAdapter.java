@@ -0,0 +1,99 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.application.port.outbound.AuthorizationCodeStorePort;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free in-memory authorization code store.
+ *
+ * <p>Redemption is a single {@link ConcurrentHashMap#remove}: whichever thread removes the entry owns the grant,
+ * and every later or concurrent attempt finds nothing. No lock is taken and no entry is ever updated in place.</p>
+ *
+ * <p>Every code lives for the same {@code ttl}, so issue order is expiry order, and a FIFO queue of issued codes
+ * is also an expiry schedule. Each issue pops a couple of entries off its head if they have expired, which keeps
+ * up with any issue rate without a sweeper thread or a scan; a code that was redeemed long ago is simply not in
+ * the map any more when its turn comes. Its queue entry does stay until then, so memory is about one TTL's worth
+ * of logins, which password hashing keeps modest. The expiry time is also checked on redemption, as the queue may
+ * lag behind by however many codes were issued before the last lull.</p>
+ */
+public class InMemoryAuthorizationCodeAdapter implements AuthorizationCodeStorePort {
+	/** RFC 6749 section 4.1.2 recommends at most ten minutes; a browser redirect takes a few seconds. */
+	public static final long DEFAULT_TTL_MILLIS = 60_000;
+	/** Expired entries reclaimed per issue; more than one, so a backlog shrinks while codes keep coming. */
+	private static final int EXPIRE_PER_ISSUE = 2;
+
+	private static final SecureRandom RANDOM = new SecureRandom();
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	private final long ttlMillis;
+	private final LongSupplier clock;
+	private final ConcurrentHashMap<String, Entry> codes = new ConcurrentHashMap<>();
+	private final ConcurrentLinkedQueue<Entry> fifo = new ConcurrentLinkedQueue<>();
+
+	public InMemoryAuthorizationCodeAdapter() {
+		this(DEFAULT_TTL_MILLIS, System::currentTimeMillis);
+	}
+
+	InMemoryAuthorizationCodeAdapter(long ttlMillis, LongSupplier clock) {
+		if (ttlMillis < 1) {
+			throw new IllegalArgumentException("ttlMillis must be positive");
+		}
+		this.ttlMillis = ttlMillis;
+		this.clock = clock;
+	}
+
+	@Override
+	public String issue(Grant grant) {
+		long now = clock.getAsLong();
+		expire(now);
+		byte[] random = new byte[32];
+		RANDOM.nextBytes(random);
+		Entry entry = new Entry(ENCODER.encodeToString(random), grant, now + ttlMillis);
+		codes.put(entry.code, entry);
+		fifo.add(entry);
+		return entry.code;
+	}
+
+	@Override
+	public Optional<Grant> consume(String code) {
+		Entry entry = code == null ? null : codes.remove(code);
+		if (entry == null || entry.expiresAt <= clock.getAsLong()) {
+			return Optional.empty();
+		}
+		return Optional.of(entry.grant);
+	}
+
+	/** Codes issued and not yet redeemed or reclaimed. */
+	public int size() {
+		return codes.size();
+	}
+
+	private void expire(long now) {
+		for (int i = 0; i < EXPIRE_PER_ISSUE; i++) {
+			Entry head = fifo.peek();
+			if (head == null || head.expiresAt > now) {
+				return;
+			}
+			// a concurrent issuer may have taken that head first; an entry that is not due yet goes back, to be
+			// reclaimed a little late (consume checks expiry itself)
+			Entry polled = fifo.poll();
+			if (polled == null) {
+				return;
+			}
+			if (polled.expiresAt > now) {
+				fifo.add(polled);
+				return;
+			}
+			codes.remove(polled.code, polled);
+		}
+	}
+
+	private record Entry(String code, Grant grant, long expiresAt) {
+	}
+}
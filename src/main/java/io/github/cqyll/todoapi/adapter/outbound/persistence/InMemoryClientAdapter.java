@@ -0,0 +1,28 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.application.port.outbound.ClientRepositoryPort;
+import io.github.cqyll.todoapi.domain.OAuthClient;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/** In-memory client registry, safe for concurrent use; lookups are a single lock-free read. */
+public class InMemoryClientAdapter implements ClientRepositoryPort {
+	private final Map<String, OAuthClient> clients = new ConcurrentHashMap<>();
+
+	@Override
+	public void save(OAuthClient client) {
+		clients.put(client.getClientId(), client);
+	}
+
+	@Override
+	public Optional<OAuthClient> findById(String clientId) {
+		return clientId == null ? Optional.empty() : Optional.ofNullable(clients.get(clientId));
+	}
+
+	void forEach(Consumer<? super OAuthClient> action) {
+		clients.values().forEach(action);
+	}
+}
@@ -0,0 +1,205 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.application.port.outbound.RefreshTokenStorePort;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory refresh token store, split into independently locked shards by token hash.
+ *
+ * <p>Each shard is a plain {@link HashMap} plus a {@link TimingWheel} of one-second ticks holding the same entries
+ * by expiry. Expiry costs nothing per entry until it is due: the shard's wheel is advanced to the current second
+ * on every access under the shard lock, and unlinks whatever has expired since, so there is neither a timer
+ * thread nor a scan over live tokens. A token is also checked against its own expiry on lookup, so the one-second
+ * granularity never lets an expired token through.</p>
+ *
+ * <p>Redeemed tokens stay in their shard until they would have expired, which is how a replayed token is
+ * recognised. The family they point to is shared across shards and carries the rotation counter: a token is
+ * current only while its generation equals the family's, and the first redemption to bump it wins, so of two
+ * concurrent redemptions of the same token one succeeds and the other revokes the family.</p>
+ *
+ * <p>Each successor gets a full lifetime of its own, so a client that keeps refreshing stays signed in. Tokens
+ * are 256 random bits; everything is lost on restart, which only forces users to log in again.</p>
+ */
+public class InMemoryRefreshTokenAdapter implements RefreshTokenStorePort {
+	public static final long DEFAULT_TTL_SECONDS = 30L * 24 * 3600;
+
+	private static final SecureRandom RANDOM = new SecureRandom();
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	private final long ttlSeconds;
+	private final LongSupplier epochSeconds;
+	private final Shard[] shards;
+
+	public InMemoryRefreshTokenAdapter() {
+		this(DEFAULT_TTL_SECONDS);
+	}
+
+	public InMemoryRefreshTokenAdapter(long ttlSeconds) {
+		this(ttlSeconds, Runtime.getRuntime().availableProcessors() * 4, () -> System.currentTimeMillis() / 1000);
+	}
+
+	/** @param shards rounded up to a power of two */
+	InMemoryRefreshTokenAdapter(long ttlSeconds, int shards, LongSupplier epochSeconds) {
+		if (ttlSeconds < 1 || shards < 1) {
+			throw new IllegalArgumentException("ttlSeconds and shards must be positive");
+		}
+		this.ttlSeconds = ttlSeconds;
+		this.epochSeconds = epochSeconds;
+		this.shards = new Shard[shards == 1 ? 1 : Integer.highestOneBit(shards - 1) << 1];
+		long now = epochSeconds.getAsLong();
+		for (int i = 0; i < this.shards.length; i++) {
+			this.shards[i] = new Shard(now);
+		}
+	}
+
+	@Override
+	public String issue(UUID userId, String clientId, String scope) {
+		String token = newToken();
+		add(new Family(userId, clientId, scope), token, 0, epochSeconds.getAsLong());
+		return token;
+	}
+
+	@Override
+	public <T> Optional<T> rotate(String refreshToken, String clientId, Function<Rotation, T> issue) {
+		long now = epochSeconds.getAsLong();
+		Entry entry = lookup(refreshToken, now);
+		if (entry == null || !entry.family.clientId.equals(clientId)) {
+			return Optional.empty();
+		}
+		Family family = entry.family;
+		String successor = newToken();
+		T issued;
+		synchronized (family) {
+			if (family.revoked) {
+				return Optional.empty();
+			}
+			if (entry.generation != family.generation) {
+				// redeemed before: whoever presents it now or next may be the thief
+				family.revoked = true;
+				return Optional.empty();
+			}
+			// may throw, leaving the token current
+			issued = issue.apply(new Rotation(family.userId, family.scope, successor));
+			family.generation++;
+		}
+		add(family, successor, entry.generation + 1, now);
+		return Optional.of(issued);
+	}
+
+	@Override
+	public boolean revoke(String refreshToken) {
+		Entry entry = lookup(refreshToken, epochSeconds.getAsLong());
+		if (entry == null) {
+			return false;
+		}
+		synchronized (entry.family) {
+			boolean wasLive = !entry.family.revoked;
+			entry.family.revoked = true;
+			return wasLive;
+		}
+	}
+
+	/** Tokens held, redeemed ones included, until their expiry has been processed. */
+	public int size() {
+		int n = 0;
+		for (Shard shard : shards) {
+			shard.lock.lock();
+			try {
+				n += shard.tokens.size();
+			} finally {
+				shard.lock.unlock();
+			}
+		}
+		return n;
+	}
+
+	private static String newToken() {
+		byte[] random = new byte[32];
+		RANDOM.nextBytes(random);
+		return ENCODER.encodeToString(random);
+	}
+
+	private void add(Family family, String token, int generation, long now) {
+		Entry entry = new Entry(token, family, generation);
+		Shard shard = shardFor(token);
+		shard.lock.lock();
+		try {
+			shard.wheel.advance(now);
+			shard.tokens.put(token, entry);
+			shard.wheel.schedule(entry, now + ttlSeconds);
+		} finally {
+			shard.lock.unlock();
+		}
+	}
+
+	private Entry lookup(String token, long now) {
+		if (token == null) {
+			return null;
+		}
+		Shard shard = shardFor(token);
+		shard.lock.lock();
+		try {
+			shard.wheel.advance(now);
+			Entry entry = shard.tokens.get(token);
+			return entry != null && entry.deadline > now ? entry : null;
+		} finally {
+			shard.lock.unlock();
+		}
+	}
+
+	/**
+	 * Picks the shard from the top half of a multiplicative hash, not from the low bits the shard's own
+	 * {@link HashMap} indexes by; otherwise every key in a shard would agree on those bits and crowd into a
+	 * fraction of its buckets.
+	 */
+	private Shard shardFor(String token) {
+		long h = token.hashCode() * 0x9E3779B97F4A7C15L;
+		return shards[(int) (h >>> 32) & (shards.length - 1)];
+	}
+
+	private static final class Shard {
+		final ReentrantLock lock = new ReentrantLock();
+		final HashMap<String, Entry> tokens = new HashMap<>();
+		final TimingWheel<Entry> wheel;
+
+		Shard(long now) {
+			wheel = new TimingWheel<>(now, e -> tokens.remove(e.token));
+		}
+	}
+
+	/** One refresh token; {@code deadline} is its expiry in epoch seconds. */
+	private static final class Entry extends TimingWheel.Timeout {
+		final String token;
+		final Family family;
+		final int generation;
+
+		Entry(String token, Family family, int generation) {
+			this.token = token;
+			this.family = family;
+			this.generation = generation;
+		}
+	}
+
+	/** The chain of tokens rotated from one grant. Mutable state is guarded by the instance's monitor. */
+	private static final class Family {
+		final UUID userId;
+		final String clientId;
+		final String scope;
+		int generation;
+		boolean revoked;
+
+		Family(UUID userId, String clientId, String scope) {
+			this.userId = userId;
+			this.clientId = clientId;
+			this.scope = scope;
+		}
+	}
+}
@@ -0,0 +1,407 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.application.port.outbound.TodoRepositoryPort;
+import io.github.cqyll.todoapi.domain.Todo;
+import io.github.cqyll.todoapi.dto.TodoEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * In-memory todo store, partitioned by owner.
+ *
+ * <p>The top-level map only goes from owner id to that owner's {@link OwnerTodos}; every lookup, listing and
+ * write touches the one partition, so a user's requests cost the same whether the store holds ten other users
+ * or a million, and listing never scans anyone else's todos. A partition is created on the owner's first write
+ * and kept for as long as the store lives, even once empty.</p>
+ *
+ * <p>Within a partition, todos are indexed twice: by id in a {@link ConcurrentHashMap} for single lookups, and by
+ * creation time in a {@link ConcurrentSkipListMap} so a listing comes out in order without sorting. Both indexes
+ * point at the same {@link Slot}, which holds the current version of the todo. An update only swaps the slot's
+ * content, so it costs a hash lookup and a volatile write; neither map changes, and the skip list, whose
+ * traversal is a chain of cache misses in a heavy user's partition, is only walked on create and delete.</p>
+ *
+ * <p>Readers use neither lock nor copy-on-write: both maps allow lock-free reads, and {@link Todo}s are
+ * immutable. Writers of one owner are serialised by the partition's lock, which keeps the indexes in step
+ * and makes {@link #update} atomic; writers of different owners never contend. The lock is a
+ * {@link ReentrantLock} rather than a monitor so a virtual thread waiting for it does not pin its carrier.</p>
+ *
+ * <p>A reader that races a writer of the same owner may see a listing that already holds one change and not yet
+ * another; each todo in it is always a complete version.</p>
+ *
+ * <p>Each partition counts its writes in a volatile {@link OwnerTodos#version}, bumped after the change it
+ * stands for, so {@link #version} is one map lookup and one read however many todos the owner has. A partition's
+ * count starts at a random value rather than zero: the store is memory only, and a version handed out before a
+ * restart must not match a different collection that happens to have seen as many writes since.</p>
+ *
+ * <p>Each partition also keeps a {@link TodoSearchIndex} of its titles, updated with the other indexes under the
+ * partition lock, so {@link #search} looks up words instead of reading every todo. The store can be built
+ * without it, for stores too small for it to pay off and as the baseline it is measured against; searches then
+ * read the owner's todos one by one, with the same results.</p>
+ *
+ * <p>Todos with a due date are indexed by it as well, in a skip list per partition for {@link #findDue} and in
+ * one for the whole store for {@link #streamDue}, both keyed by due date and id. A range of either is a seek and
+ * a walk over just the todos in it, and todos without a due date, usually most of them, are in neither. When a
+ * due date changes, the new key goes in before the slot takes the new version and the old one comes out after,
+ * and readers only take a todo under the key matching its current due date; so a reader finds each todo once,
+ * at the due date of the version it returns.</p>
+ *
+ * <p>A {@link TodoRepositoryPort.Listener}, if given, hears of every write under the partition lock, right
+ * after the version moves, with the new version as the event's id.</p>
+ */
+public class InMemoryTodoAdapter implements TodoRepositoryPort {
+	private static final UUID LOWEST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+	private final ConcurrentHashMap<UUID, OwnerTodos> owners = new ConcurrentHashMap<>();
+	/** Every owner's todos that have a due date. */
+	private final ConcurrentSkipListMap<DueKey, Slot> due = new ConcurrentSkipListMap<>();
+	private final boolean indexTitles;
+	private final Listener listener;
+
+	public InMemoryTodoAdapter() {
+		this(true);
+	}
+
+	/** @param indexTitles whether to keep a search index of each owner's titles */
+	public InMemoryTodoAdapter(boolean indexTitles) {
+		this(indexTitles, null);
+	}
+
+	/** @param listener told of every write; {@code null} for none */
+	public InMemoryTodoAdapter(boolean indexTitles, Listener listener) {
+		this.indexTitles = indexTitles;
+		this.listener = listener;
+	}
+
+	@Override
+	public void save(Todo todo) {
+		OwnerTodos o = owners.computeIfAbsent(todo.getOwnerId(), k -> new OwnerTodos(indexTitles, due, listener));
+		o.lock.lock();
+		try {
+			o.put(todo);
+		} finally {
+			o.lock.unlock();
+		}
+	}
+
+	@Override
+	public Optional<Todo> findById(UUID ownerId, UUID id) {
+		OwnerTodos o = owners.get(ownerId);
+		Slot slot = o == null ? null : o.byId.get(id);
+		return slot == null ? Optional.empty() : Optional.of(slot.todo);
+	}
+
+	@Override
+	public List<Todo> findByOwner(UUID ownerId) {
+		OwnerTodos o = owners.get(ownerId);
+		if (o == null) {
+			return List.of();
+		}
+		List<Todo> todos = new ArrayList<>(o.byId.size());
+		for (Slot slot : o.byCreation.values()) {
+			todos.add(slot.todo);
+		}
+		return todos;
+	}
+
+	/** Walks the skip list in place; nothing is copied and no lock is held, however long the consumer takes. */
+	@Override
+	public Stream<Todo> streamByOwner(UUID ownerId) {
+		OwnerTodos o = owners.get(ownerId);
+		return o == null ? Stream.empty() : o.byCreation.values().stream().map(slot -> slot.todo);
+	}
+
+	@Override
+	public int countByOwner(UUID ownerId) {
+		OwnerTodos o = owners.get(ownerId);
+		return o == null ? 0 : o.byId.size();
+	}
+
+	@Override
+	public long version(UUID ownerId) {
+		OwnerTodos o = owners.get(ownerId);
+		return o == null ? 0 : o.version;
+	}
+
+	@Override
+	public List<Todo> search(UUID ownerId, String query, int limit) {
+		if (limit < 1) {
+			throw new IllegalArgumentException("limit must be positive");
+		}
+		OwnerTodos o = owners.get(ownerId);
+		String[] words = TodoSearchIndex.words(query);
+		if (o == null || words.length == 0) {
+			return List.of();
+		}
+		if (o.titles != null) {
+			return o.titles.search(words, limit);
+		}
+		TodoSearchIndex.Ranking ranking = new TodoSearchIndex.Ranking(words, limit);
+		for (Slot slot : o.byCreation.values()) {
+			Todo todo = slot.todo;
+			ranking.offer(todo, TodoSearchIndex.words(todo.getTitle()));
+		}
+		return ranking.results();
+	}
+
+	@Override
+	public List<Todo> findDue(UUID ownerId, Instant from, Instant to) {
+		OwnerTodos o = owners.get(ownerId);
+		if (o == null) {
+			return List.of();
+		}
+		List<Todo> todos = new ArrayList<>();
+		for (var e : range(o.byDue, from, to).entrySet()) {
+			Todo todo = e.getValue().todo;
+			if (e.getKey().dueAt().equals(todo.getDueAt())) {
+				todos.add(todo);
+			}
+		}
+		return todos;
+	}
+
+	/** Walks the store-wide due index in place, like {@link #streamByOwner}. */
+	@Override
+	public Stream<Todo> streamDue(Instant from, Instant to) {
+		return range(due, from, to).entrySet().stream()
+				.filter(e -> e.getKey().dueAt().equals(e.getValue().todo.getDueAt()))
+				.map(e -> e.getValue().todo);
+	}
+
+	private static ConcurrentNavigableMap<DueKey, Slot> range(ConcurrentSkipListMap<DueKey, Slot> index,
+			Instant from, Instant to) {
+		if (from != null && to != null) {
+			return index.subMap(new DueKey(from, LOWEST_ID), new DueKey(to, LOWEST_ID));
+		}
+		if (from != null) {
+			return index.tailMap(new DueKey(from, LOWEST_ID));
+		}
+		return to != null ? index.headMap(new DueKey(to, LOWEST_ID)) : index;
+	}
+
+	@Override
+	public Optional<Todo> update(UUID ownerId, UUID id, UnaryOperator<Todo> change) {
+		OwnerTodos o = owners.get(ownerId);
+		if (o == null) {
+			return Optional.empty();
+		}
+		o.lock.lock();
+		try {
+			return o.update(id, change);
+		} finally {
+			o.lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean delete(UUID ownerId, UUID id) {
+		OwnerTodos o = owners.get(ownerId);
+		if (o == null) {
+			return false;
+		}
+		o.lock.lock();
+		try {
+			return o.remove(id).isPresent();
+		} finally {
+			o.lock.unlock();
+		}
+	}
+
+	/**
+	 * Takes the partition lock once for the whole batch rather than once per write, so a sync of hundreds of
+	 * changes neither pays for hundreds of lock handoffs nor lets other writers of the owner interleave.
+	 */
+	@Override
+	public List<Optional<Todo>> writeAll(UUID ownerId, List<Write> writes) {
+		for (Write w : writes) {
+			if (w instanceof Write.Save save && !save.todo().getOwnerId().equals(ownerId)) {
+				throw new IllegalArgumentException("Todo belongs to another owner");
+			}
+		}
+		OwnerTodos o = owners.computeIfAbsent(ownerId, k -> new OwnerTodos(indexTitles, due, listener));
+		List<Optional<Todo>> results = new ArrayList<>(writes.size());
+		o.lock.lock();
+		try {
+			// an instanceof chain rather than a pattern switch, whose type-switch bootstrap costs more per write on
+			// Java 21 than the write itself
+			for (Write w : writes) {
+				if (w instanceof Write.Update update) {
+					results.add(o.update(update.id(), update.change()));
+				} else if (w instanceof Write.Save save) {
+					o.put(save.todo());
+					results.add(Optional.of(save.todo()));
+				} else {
+					results.add(o.remove(((Write.Delete) w).id()));
+				}
+			}
+		} finally {
+			o.lock.unlock();
+		}
+		return results;
+	}
+
+	/** One owner's todos. Writes hold {@link #lock}, and the methods here expect it held; reads need nothing. */
+	private static final class OwnerTodos {
+		final ReentrantLock lock = new ReentrantLock();
+		final ConcurrentHashMap<UUID, Slot> byId = new ConcurrentHashMap<>();
+		final ConcurrentSkipListMap<CreationKey, Slot> byCreation = new ConcurrentSkipListMap<>();
+		final ConcurrentSkipListMap<DueKey, Slot> byDue = new ConcurrentSkipListMap<>();
+		/** The store-wide due index, kept in step with {@link #byDue}. */
+		final ConcurrentSkipListMap<DueKey, Slot> due;
+		/** Null if nobody listens. */
+		final Listener listener;
+		/** Null if the store does not index titles. */
+		final TodoSearchIndex titles;
+		/** Todos stored so far; the tie-breaker of their creation keys. */
+		long stored;
+		/** Bumped by every write once its change is in place; see {@link TodoRepositoryPort#version}. */
+		volatile long version = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE / 2);
+
+		OwnerTodos(boolean indexTitles, ConcurrentSkipListMap<DueKey, Slot> due, Listener listener) {
+			this.titles = indexTitles ? new TodoSearchIndex() : null;
+			this.due = due;
+			this.listener = listener;
+		}
+
+		/** Inserts or replaces. */
+		void put(Todo todo) {
+			Slot slot = byId.get(todo.getId());
+			if (slot == null) {
+				slot = new Slot(todo, new CreationKey(todo.getCreatedAt(), stored++));
+				byId.put(todo.getId(), slot);
+				byCreation.put(slot.key, slot);
+				if (titles != null) {
+					titles.add(slot, todo.getTitle());
+				}
+				indexDue(slot, todo);
+				written(TodoEvent.Type.CREATED, todo);
+				return;
+			}
+			// domain updates keep the creation time; only a restored todo can come back with another one
+			if (!slot.key.createdAt().equals(todo.getCreatedAt())) {
+				byCreation.remove(slot.key);
+				slot.key = new CreationKey(todo.getCreatedAt(), stored++);
+				byCreation.put(slot.key, slot);
+			}
+			if (titles != null && !slot.todo.getTitle().equals(todo.getTitle())) {
+				titles.change(slot, todo.getTitle());
+			}
+			DueKey old = slot.dueKey;
+			if (!Objects.equals(old == null ? null : old.dueAt(), todo.getDueAt())) {
+				indexDue(slot, todo);
+				slot.todo = todo;
+				unindexDue(old);
+			} else {
+				slot.todo = todo;
+			}
+			written(TodoEvent.Type.UPDATED, todo);
+		}
+
+		Optional<Todo> update(UUID id, UnaryOperator<Todo> change) {
+			Slot slot = byId.get(id);
+			if (slot == null) {
+				return Optional.empty();
+			}
+			Todo updated = change.apply(slot.todo);
+			if (updated != slot.todo) {
+				put(updated);
+			}
+			return Optional.of(updated);
+		}
+
+		/** @return the removed todo */
+		Optional<Todo> remove(UUID id) {
+			Slot removed = byId.remove(id);
+			if (removed == null) {
+				return Optional.empty();
+			}
+			byCreation.remove(removed.key);
+			if (titles != null) {
+				titles.remove(removed);
+			}
+			unindexDue(removed.dueKey);
+			written(TodoEvent.Type.DELETED, removed.todo);
+			return Optional.of(removed.todo);
+		}
+
+		/** Moves the version past a write that is now in place, and tells the listener. */
+		private void written(TodoEvent.Type type, Todo todo) {
+			long v = version + 1;
+			version = v;
+			if (listener != null) {
+				listener.written(new TodoEvent(v, type, todo));
+			}
+		}
+
+		/** Files {@code slot} under {@code todo}'s due date, if it has one. */
+		private void indexDue(Slot slot, Todo todo) {
+			if (todo.getDueAt() == null) {
+				slot.dueKey = null;
+				return;
+			}
+			slot.dueKey = new DueKey(todo.getDueAt(), todo.getId());
+			byDue.put(slot.dueKey, slot);
+			due.put(slot.dueKey, slot);
+		}
+
+		private void unindexDue(DueKey key) {
+			if (key != null) {
+				byDue.remove(key);
+				due.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * The current version of one todo, shared by all indexes, and its keys in the creation and due indexes.
+	 * Written under the partition lock; readers only follow {@link #todo}.
+	 */
+	private static final class Slot extends TodoSearchIndex.Entry {
+		volatile Todo todo;
+		CreationKey key;
+		/** Null if the todo has no due date. */
+		DueKey dueKey;
+
+		Slot(Todo todo, CreationKey key) {
+			this.todo = todo;
+			this.key = key;
+		}
+
+		@Override
+		Todo current() {
+			return todo;
+		}
+	}
+
+	/**
+	 * Creation order. Todos created in the same millisecond, as every todo of one batch is, keep the order they
+	 * were stored in.
+	 */
+	private record CreationKey(Instant createdAt, long seq) implements Comparable<CreationKey> {
+		@Override
+		public int compareTo(CreationKey o) {
+			int c = createdAt.compareTo(o.createdAt);
+			return c != 0 ? c : Long.compare(seq, o.seq);
+		}
+	}
+
+	/** Due order; the id keeps todos due at the same instant apart. */
+	private record DueKey(Instant dueAt, UUID id) implements Comparable<DueKey> {
+		@Override
+		public int compareTo(DueKey o) {
+			int c = dueAt.compareTo(o.dueAt);
+			return c != 0 ? c : id.compareTo(o.id);
+		}
+	}
+}
@@ -1,36 +1,62 @@
-package io.github.cqyll.todoapi.adapter.outbound.persistence;
-
-import io.github.cqyll.todoapi.application.port.outbound.UserRepositoryPort;
-import io.github.cqyll.todoapi.domain.User;
-import java.util.*;
-
-public class InMemoryUserAdapter implements UserRepositoryPort {
-    private final Map<UUID, User> users = new HashMap<>();
-    private final Map<String, UUID> emailIndex = new HashMap<>();
-    
-    @Override
-    public void save(User user) {
-        users.put(user.getId(), user);
-        emailIndex.put(user.getEmail().toLowerCase(), user.getId());
-    }
-    
-    @Override
-    public Optional<User> findByEmail(String email) {
-        return Optional.ofNullable(emailIndex.get(email.toLowerCase()))
-            .map(users::get);
-    }
-    
-    @Override
-    public boolean existsByEmail(String email) {
-        return emailIndex.containsKey(email.toLowerCase());
-    }
-    
-    @Override
-    public Optional<User> findById(UUID id) {
-        return Optional.ofNullable(users.get(id));
-    }
-
-	public Map<UUID,User> getUsersRepo() {
-		return users;
-	}
-}
\ No newline at end of file
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.domain.User;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory user store, safe for concurrent use.
+ *
+ * <p>Both indexes are {@link ConcurrentHashMap}s holding the {@link User} itself, so a lookup is a single
+ * lock-free read and writers only contend on the same hash bin. Email uniqueness is enforced by
+ * {@code putIfAbsent} on the email index, which is the one step every registration of a given email has to
+ * pass through; the id index is filled in afterwards, by the winner only.</p>
+ */
+public class InMemoryUserAdapter implements MemoryUserStore {
+    private final Map<UUID, User> users = new ConcurrentHashMap<>();
+    private final Map<String, User> emailIndex = new ConcurrentHashMap<>();
+    
+    @Override
+    public void save(User user) {
+        emailIndex.put(key(user.getEmail()), user);
+        users.put(user.getId(), user);
+    }
+
+    @Override
+    public boolean saveIfEmailAbsent(User user) {
+        if (emailIndex.putIfAbsent(key(user.getEmail()), user) != null) {
+            return false;
+        }
+        users.put(user.getId(), user);
+        return true;
+    }
+    
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return Optional.ofNullable(emailIndex.get(key(email)));
+    }
+    
+    @Override
+    public boolean existsByEmail(String email) {
+        return emailIndex.containsKey(key(email));
+    }
+    
+    @Override
+    public Optional<User> findById(UUID id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+	@Override
+	public void forEach(Consumer<? super User> action) {
+		users.values().forEach(action);
+	}
+
+	public Map<UUID,User> getUsersRepo() {
+		return users;
+	}
+
+	private static String key(String email) {
+		return email.toLowerCase(Locale.ROOT);
+	}
+}
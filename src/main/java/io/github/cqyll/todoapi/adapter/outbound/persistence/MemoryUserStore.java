@@ -0,0 +1,18 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.application.port.outbound.UserRepositoryPort;
+import io.github.cqyll.todoapi.domain.User;
+
+import java.util.function.Consumer;
+
+/**
+ * An in-memory {@link UserRepositoryPort} that can also list its users, so that {@link FileUserAdapter} can keep
+ * its indexes in one and write snapshots from it.
+ */
+public interface MemoryUserStore extends UserRepositoryPort {
+
+	/**
+	 * Visits every stored user once. Users saved while the walk is in progress may or may not be visited.
+	 */
+	void forEach(Consumer<? super User> action);
+}
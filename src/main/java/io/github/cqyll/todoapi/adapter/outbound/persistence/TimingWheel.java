@@ -0,0 +1,107 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: four levels of 64 slots, each level's slot as wide as the whole level below, so
+ * deadlines up to 64<sup>4</sup> ticks ahead are scheduled in O(1) and none is looked at more than once per level
+ * before it fires. Later deadlines wait in the top level and are placed again each time it turns.
+ *
+ * <p>Entries are {@link Timeout} subclasses linked through their own field, so scheduling allocates nothing. There
+ * is no timer thread: the owner calls {@link #advance} with the current tick, typically on each access. Not
+ * thread-safe; callers hold their own lock.</p>
+ */
+final class TimingWheel<T extends TimingWheel.Timeout> {
+	private static final int LEVELS = 4;
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	/** Furthest ahead a deadline can be placed, counted from the current tick. */
+	private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+	/** Base class of everything scheduled on a wheel. */
+	abstract static class Timeout {
+		long deadline;
+		Timeout next;
+	}
+
+	private final Timeout[][] wheel = new Timeout[LEVELS][SLOTS];
+	private final Consumer<? super T> onExpiry;
+	private long currentTick;
+	private int size;
+
+	TimingWheel(long startTick, Consumer<? super T> onExpiry) {
+		this.currentTick = startTick;
+		this.onExpiry = onExpiry;
+	}
+
+	/** Schedules {@code t} to expire once the wheel has advanced to {@code deadlineTick}. */
+	void schedule(T t, long deadlineTick) {
+		t.deadline = deadlineTick;
+		// the current slot has been visited already, so an overdue entry goes into the next one
+		place(t, currentTick + 1);
+		size++;
+	}
+
+	/**
+	 * Moves the wheel to {@code nowTick}, handing every entry whose deadline has been reached to the expiry
+	 * callback. Cost is proportional to the ticks passed plus the entries moved; an empty wheel jumps.
+	 */
+	@SuppressWarnings("unchecked")
+	void advance(long nowTick) {
+		while (currentTick < nowTick) {
+			if (size == 0) {
+				currentTick = nowTick;
+				return;
+			}
+			currentTick++;
+			// on each wrap of a level, spread the matching slot of the level above over the ones below
+			for (int level = 1; level < LEVELS; level++) {
+				if (((currentTick >>> (SLOT_BITS * (level - 1))) & SLOT_MASK) != 0) {
+					break;
+				}
+				int slot = (int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+				Timeout t = wheel[level][slot];
+				wheel[level][slot] = null;
+				while (t != null) {
+					Timeout next = t.next;
+					place(t, currentTick);
+					t = next;
+				}
+			}
+			int slot = (int) currentTick & SLOT_MASK;
+			Timeout t = wheel[0][slot];
+			wheel[0][slot] = null;
+			while (t != null) {
+				Timeout next = t.next;
+				t.next = null;
+				if (t.deadline <= currentTick) {
+					size--;
+					onExpiry.accept((T) t);
+				} else {
+					place(t, currentTick + 1);
+				}
+				t = next;
+			}
+		}
+	}
+
+	/** Entries scheduled and not yet expired. */
+	int size() {
+		return size;
+	}
+
+	/** Files {@code t} under its deadline, or under {@code earliest} if that is later. */
+	private void place(Timeout t, long earliest) {
+		long at = Math.max(t.deadline, earliest);
+		long delta = Math.min(at - currentTick, SPAN - 1);
+		int level = 0;
+		while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+			level++;
+		}
+		long slotTick = currentTick + delta;
+		int slot = (int) (slotTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+		t.next = wheel[level][slot];
+		wheel[level][slot] = t;
+	}
+}
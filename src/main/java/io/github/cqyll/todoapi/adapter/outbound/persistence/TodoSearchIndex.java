@@ -0,0 +1,365 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.domain.Todo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Inverted index over the titles of one owner's todos: each word of a title maps to the todos whose title has
+ * it. {@link InMemoryTodoAdapter} keeps one per partition, updated under the partition lock on every write that
+ * changes a title; searches take no lock.
+ *
+ * <p>Words sit in a {@link ConcurrentSkipListMap}, so the words starting with a prefix are one contiguous range
+ * of it. An indexed todo holds a document number, its place in {@link #docs}, for as long as it is stored, and a
+ * word's postings are an append-only array of such numbers. Postings are never edited in place: a todo whose
+ * title loses a word, or that is deleted (its number then going to the next new todo), leaves a stale posting
+ * behind. A search checks every candidate against the words its entry holds now, which it does anyway to rank
+ * it, so a stale posting costs only that check. Once stale postings outnumber live ones, the postings that have
+ * any are rebuilt.</p>
+ *
+ * <p>A search starts from the query word whose prefix range holds the fewest postings, so one rare word keeps
+ * the candidates few however common the others are, and keeps the best {@code limit} of those that match every
+ * query word (see {@link Ranking}).</p>
+ *
+ * <p>Publication is ordered for lock-free readers: a writer fills a todo's slot in {@link #docs} before it
+ * appends the todo's number to any postings, and writes a postings element before publishing the larger size,
+ * so a reader that sees a number finds its entry. A search racing a title change may judge the todo by its old
+ * words or its new ones; each todo it returns is a complete version.</p>
+ */
+final class TodoSearchIndex {
+	/** Words are indexed and matched by at most their first this many characters. */
+	static final int MAX_WORD_LENGTH = 32;
+	/** Stale postings are only cleared once there are at least this many, so small indexes never rebuild. */
+	private static final int MIN_STALE = 1024;
+	private static final String[] NO_WORDS = {};
+
+	/** Base class of what the index points at: the adapter's slots, each the current version of one todo. */
+	abstract static class Entry {
+		/** The indexed title's words, as {@link #words} returns them; shares its strings with the dictionary. */
+		volatile String[] words = NO_WORDS;
+		/** Written and read under the writer lock only. */
+		int doc = -1;
+
+		abstract Todo current();
+	}
+
+	private final ConcurrentSkipListMap<String, Postings> dictionary = new ConcurrentSkipListMap<>();
+	private volatile Entry[] docs = new Entry[16];
+	/** Numbers of deleted todos, handed out again before {@link #nextDoc}. Writer only, as are the counts below. */
+	private int[] free = new int[16];
+	private int freeCount;
+	private int nextDoc;
+	private long livePostings;
+	private long stalePostings;
+
+	/**
+	 * The distinct words of {@code text}, sorted: runs of letters and digits, lower-cased, each cut to
+	 * {@link #MAX_WORD_LENGTH} characters.
+	 */
+	static String[] words(String text) {
+		List<String> words = new ArrayList<>();
+		StringBuilder word = new StringBuilder();
+		for (int i = 0; i <= text.length(); ) {
+			int cp = i < text.length() ? text.codePointAt(i) : ' ';
+			if (Character.isLetterOrDigit(cp)) {
+				if (word.length() < MAX_WORD_LENGTH) {
+					word.appendCodePoint(Character.toLowerCase(cp));
+				}
+			} else if (!word.isEmpty()) {
+				words.add(word.toString());
+				word.setLength(0);
+			}
+			i += Character.charCount(cp);
+		}
+		if (words.isEmpty()) {
+			return NO_WORDS;
+		}
+		String[] sorted = words.toArray(NO_WORDS);
+		Arrays.sort(sorted);
+		int n = 1;
+		for (int i = 1; i < sorted.length; i++) {
+			if (!sorted[i].equals(sorted[n - 1])) {
+				sorted[n++] = sorted[i];
+			}
+		}
+		return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+	}
+
+	/** Indexes a newly stored todo under {@code title}. */
+	void add(Entry e, String title) {
+		int d;
+		if (freeCount > 0) {
+			d = free[--freeCount];
+		} else {
+			d = nextDoc++;
+			if (d == docs.length) {
+				docs = Arrays.copyOf(docs, d * 2);
+			}
+		}
+		docs[d] = e;
+		e.doc = d;
+		e.words = post(d, words(title), NO_WORDS);
+	}
+
+	/** Re-indexes a stored todo whose title is now {@code title}. */
+	void change(Entry e, String title) {
+		String[] old = e.words;
+		String[] words = words(title);
+		if (Arrays.equals(old, words)) {
+			return;
+		}
+		// new words are posted before the entry shows them, and old ones dropped after
+		e.words = post(e.doc, words, old);
+		unpost(old, words);
+		compactIfStale();
+	}
+
+	/** Drops a deleted todo; its number may go to the next todo added. */
+	void remove(Entry e) {
+		int d = e.doc;
+		docs[d] = null;
+		unpost(e.words, NO_WORDS);
+		e.words = NO_WORDS;
+		e.doc = -1;
+		if (freeCount == free.length) {
+			free = Arrays.copyOf(free, freeCount * 2);
+		}
+		free[freeCount++] = d;
+		compactIfStale();
+	}
+
+	/**
+	 * The best {@code limit} of the indexed todos matching every one of {@code query}'s words, best first.
+	 *
+	 * @param query as {@link #words} returns it; not empty
+	 */
+	List<Todo> search(String[] query, int limit) {
+		List<Postings> driver = null;
+		long driverSize = Long.MAX_VALUE;
+		for (String q : query) {
+			List<Postings> range = new ArrayList<>();
+			long size = 0;
+			for (Postings p : dictionary.tailMap(q).values()) {
+				if (!p.word.startsWith(q) || size >= driverSize) {
+					break;
+				}
+				range.add(p);
+				size += p.size;
+			}
+			if (range.isEmpty()) {
+				return List.of();
+			}
+			if (size < driverSize) {
+				driver = range;
+				driverSize = size;
+			}
+		}
+
+		BitSet seen = new BitSet();
+		Ranking ranking = new Ranking(query, limit);
+		for (Postings p : driver) {
+			int size = p.size;
+			int[] postings = p.docs;
+			// newest first, more or less: numbers are handed out in order but for reuse, and ties go to new todos,
+			// so once the best are found the rest are turned away cheaply
+			for (int i = size - 1; i >= 0; i--) {
+				int d = postings[i];
+				if (seen.get(d)) {
+					continue;
+				}
+				seen.set(d);
+				// the field, not a copy taken earlier: it is read after the size, so it holds the entry
+				Entry e = docs[d];
+				if (e != null) {
+					ranking.offer(e.current(), e.words);
+				}
+			}
+		}
+		return ranking.results();
+	}
+
+	/**
+	 * Appends {@code d} to the postings of each of {@code words} not in {@code old}.
+	 *
+	 * @return {@code words} with each string replaced by the dictionary's own copy
+	 */
+	private String[] post(int d, String[] words, String[] old) {
+		for (int i = 0; i < words.length; i++) {
+			int o = Arrays.binarySearch(old, words[i]);
+			if (o >= 0) {
+				words[i] = old[o];
+				continue;
+			}
+			Postings p = dictionary.get(words[i]);
+			if (p == null) {
+				p = new Postings(words[i]);
+				dictionary.put(p.word, p);
+			}
+			p.append(d);
+			p.live++;
+			livePostings++;
+			words[i] = p.word;
+		}
+		return words;
+	}
+
+	/** Marks the postings of each of {@code old} not in {@code words} stale, dropping words no todo has left. */
+	private void unpost(String[] old, String[] words) {
+		for (String w : old) {
+			if (Arrays.binarySearch(words, w) >= 0) {
+				continue;
+			}
+			Postings p = dictionary.get(w);
+			livePostings--;
+			if (--p.live == 0) {
+				dictionary.remove(w);
+				stalePostings -= p.size - 1;
+			} else {
+				stalePostings++;
+			}
+		}
+	}
+
+	/**
+	 * Rebuilds every postings array holding stale numbers once they outnumber the live ones. Each replaces the
+	 * old in the dictionary as a whole, and both hold every live posting, so a concurrent search finds the same
+	 * todos in either.
+	 */
+	private void compactIfStale() {
+		if (stalePostings < MIN_STALE || stalePostings <= livePostings) {
+			return;
+		}
+		for (Postings p : dictionary.values()) {
+			if (p.size == p.live) {
+				continue;
+			}
+			int[] kept = new int[p.size];
+			int n = 0;
+			for (int i = 0; i < p.size; i++) {
+				int d = p.docs[i];
+				Entry e = docs[d];
+				if (e != null && Arrays.binarySearch(e.words, p.word) >= 0) {
+					kept[n++] = d;
+				}
+			}
+			// a number can be there twice, once stale from an earlier todo or title
+			Arrays.sort(kept, 0, n);
+			int unique = n == 0 ? 0 : 1;
+			for (int i = 1; i < n; i++) {
+				if (kept[i] != kept[unique - 1]) {
+					kept[unique++] = kept[i];
+				}
+			}
+			dictionary.put(p.word, new Postings(p.word, Arrays.copyOf(kept, Math.max(2, unique)), unique));
+		}
+		stalePostings = 0;
+	}
+
+	/** One word's postings. {@link #docs} is filled below {@link #size} and only ever replaced by a larger copy. */
+	private static final class Postings {
+		final String word;
+		volatile int[] docs;
+		volatile int size;
+		/** Postings whose todo still has the word; writer only. */
+		int live;
+
+		Postings(String word) {
+			this(word, new int[2], 0);
+		}
+
+		Postings(String word, int[] docs, int size) {
+			this.word = word;
+			this.docs = docs;
+			this.size = size;
+			this.live = size;
+		}
+
+		void append(int d) {
+			int[] a = docs;
+			if (size == a.length) {
+				a = Arrays.copyOf(a, a.length * 2);
+				docs = a;
+			}
+			a[size] = d;
+			size = size + 1;
+		}
+	}
+
+	/**
+	 * Keeps the best {@code limit} of the todos offered that match every query word. A query word matches the
+	 * title word it is a prefix of; of several, the closest. A todo scores the sum, over the query words, of how
+	 * much of its matched word each one covers, so whole-word matches come before partial ones. Equal scores go
+	 * to the title with fewer words, where the match is more of what the todo is about, then to the newest todo.
+	 * The todo id settles the rest, so the order is the same however the todos were found.
+	 */
+	static final class Ranking {
+		private static final Comparator<Hit> BEST_FIRST = (a, b) -> compare(a, b.score, b.words, b.todo);
+
+		private final String[] query;
+		private final int limit;
+		private final PriorityQueue<Hit> worstFirst;
+
+		/** @param query as {@link #words} returns it; {@code limit} positive */
+		Ranking(String[] query, int limit) {
+			this.query = query;
+			this.limit = limit;
+			this.worstFirst = new PriorityQueue<>(Math.min(limit, 1024), BEST_FIRST.reversed());
+		}
+
+		/** @param words {@code todo}'s title words, as {@link #words} returns them */
+		void offer(Todo todo, String[] words) {
+			double score = 0;
+			for (String q : query) {
+				// the words with the prefix are a run of the sorted words; the closest is the shortest of them
+				int i = Arrays.binarySearch(words, q);
+				int closest = Integer.MAX_VALUE;
+				for (i = i < 0 ? -i - 1 : i; i < words.length && words[i].startsWith(q); i++) {
+					closest = Math.min(closest, words[i].length());
+				}
+				if (closest == Integer.MAX_VALUE) {
+					return;
+				}
+				score += (double) q.length() / closest;
+			}
+			// most candidates of a common word lose to the worst kept; they are turned away before any allocation
+			if (worstFirst.size() == limit) {
+				if (compare(worstFirst.peek(), score, words.length, todo) <= 0) {
+					return;
+				}
+				worstFirst.poll();
+			}
+			worstFirst.offer(new Hit(todo, score, words.length));
+		}
+
+		/** Positive if the todo described by the last three arguments ranks above {@code h}. */
+		private static int compare(Hit h, double score, int words, Todo todo) {
+			int c = Double.compare(score, h.score);
+			if (c == 0) {
+				c = Integer.compare(h.words, words);
+			}
+			if (c == 0) {
+				c = todo.getCreatedAt().compareTo(h.todo.getCreatedAt());
+			}
+			return c != 0 ? c : todo.getId().compareTo(h.todo.getId());
+		}
+
+		List<Todo> results() {
+			Hit[] hits = worstFirst.toArray(new Hit[0]);
+			Arrays.sort(hits, BEST_FIRST);
+			List<Todo> todos = new ArrayList<>(hits.length);
+			for (Hit h : hits) {
+				todos.add(h.todo());
+			}
+			return todos;
+		}
+
+		private record Hit(Todo todo, double score, int words) {
+		}
+	}
+}
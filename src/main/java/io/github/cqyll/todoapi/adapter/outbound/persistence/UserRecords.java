@@ -0,0 +1,100 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.domain.Password;
+import io.github.cqyll.todoapi.domain.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary form of a {@link User} in {@link FileUserAdapter}'s log segments and snapshots.
+ *
+ * <p>Each user is one frame:</p>
+ * <pre>
+ * length (4) | crc32c of payload (4) | payload
+ * payload = id msb (8) | id lsb (8) | flags (1) | name len (2) | name | email len (2) | email | hash len (2) | hash
+ * </pre>
+ * Strings are UTF-8; the hash is absent ({@code hash len 0}, no password flag) for users without a password.
+ */
+final class UserRecords {
+	static final int FRAME_HEADER = 8;
+
+	private static final int ACTIVE = 1;
+	private static final int EMAIL_VERIFIED = 2;
+	private static final int HAS_PASSWORD = 4;
+
+	private UserRecords() {
+	}
+
+	static byte[] frame(User user) {
+		byte[] name = user.getName().getBytes(StandardCharsets.UTF_8);
+		byte[] email = user.getEmail().getBytes(StandardCharsets.UTF_8);
+		Password password = user.getPassword();
+		byte[] hash = password == null ? new byte[0] : password.getHash().getBytes(StandardCharsets.UTF_8);
+		checkLength(name.length, "name");
+		checkLength(email.length, "email");
+		checkLength(hash.length, "password hash");
+
+		int flags = (user.isActive() ? ACTIVE : 0) | (user.isEmailVerified() ? EMAIL_VERIFIED : 0)
+				| (password != null ? HAS_PASSWORD : 0);
+		int payload = 8 + 8 + 1 + 2 + name.length + 2 + email.length + 2 + hash.length;
+		ByteBuffer b = ByteBuffer.allocate(FRAME_HEADER + payload);
+		b.putInt(payload).putInt(0);
+		b.putLong(user.getId().getMostSignificantBits()).putLong(user.getId().getLeastSignificantBits());
+		b.put((byte) flags);
+		b.putShort((short) name.length).put(name);
+		b.putShort((short) email.length).put(email);
+		b.putShort((short) hash.length).put(hash);
+
+		CRC32C crc = new CRC32C();
+		crc.update(b.array(), FRAME_HEADER, payload);
+		b.putInt(4, (int) crc.getValue());
+		return b.array();
+	}
+
+	/**
+	 * Checks the frame starting at {@code off}.
+	 *
+	 * @return the payload length, or {@code -1} if the buffer holds no complete, intact frame at {@code off}
+	 */
+	static int check(ByteBuffer buf, int off) {
+		if (off + FRAME_HEADER > buf.limit()) {
+			return -1;
+		}
+		int length = buf.getInt(off);
+		if (length <= 0 || length > buf.limit() - off - FRAME_HEADER) {
+			return -1;
+		}
+		CRC32C crc = new CRC32C();
+		crc.update(buf.slice(off + FRAME_HEADER, length));
+		return (int) crc.getValue() == buf.getInt(off + 4) ? length : -1;
+	}
+
+	/** Decodes the payload of a frame that passed {@link #check}. */
+	static User decode(ByteBuffer buf, int off) {
+		int p = off + FRAME_HEADER;
+		UUID id = new UUID(buf.getLong(p), buf.getLong(p + 8));
+		int flags = buf.get(p + 16);
+		p += 17;
+		String name = string(buf, p);
+		p += 2 + (buf.getShort(p) & 0xFFFF);
+		String email = string(buf, p);
+		p += 2 + (buf.getShort(p) & 0xFFFF);
+		Password password = (flags & HAS_PASSWORD) != 0 ? Password.fromHash(string(buf, p)) : null;
+		return User.restore(id, name, email, password, (flags & ACTIVE) != 0, (flags & EMAIL_VERIFIED) != 0);
+	}
+
+	private static String string(ByteBuffer buf, int at) {
+		byte[] bytes = new byte[buf.getShort(at) & 0xFFFF];
+		buf.get(at + 2, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void checkLength(int length, String what) {
+		if (length > 0xFFFF) {
+			throw new IllegalArgumentException("User " + what + " too long");
+		}
+	}
+}
@@ -0,0 +1,375 @@
+package io.github.cqyll.todoapi.adapter.outbound.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import io.github.cqyll.todoapi.application.port.outbound.TokenProviderPort;
+
+/**
+ * Stateless access tokens: a small binary payload and its HMAC-SHA256, base64url-encoded without padding.
+ *
+ * <pre>
+ * offset  size  field
+ *      0     1  version (1)
+ *      1    16  user id (msb, lsb)
+ *     17     8  expiry, epoch seconds
+ *     25     8  token id (random, tells apart tokens issued in the same second)
+ *     33     1  scope length n (0..255)
+ *     34     n  scope, ASCII
+ *   34+n    32  HMAC-SHA256 over bytes [0, 34+n)
+ * </pre>
+ *
+ * <p>Validation needs nothing but the key: base64url is decoded straight from the token's chars into a pooled
+ * scratch buffer, the MAC is recomputed into a second one and compared in constant time, then the expiry is
+ * read in place. No {@code String}s or {@code UUID}s are created unless the caller asks for a field; the only
+ * allocation is the MAC result that {@code Mac.doFinal} copies out internally.</p>
+ *
+ * <p>Revoked tokens are recorded by id in a {@link RevocationSet} until they expire. Validation consults it after
+ * the signature and expiry checks, which for a token that was never revoked is a Bloom filter probe.</p>
+ *
+ * <p>A {@link Mac} is neither thread-safe nor cheap to set up, so keyed instances are recycled. They live in a
+ * bounded pool rather than a {@code ThreadLocal}: request handlers run on virtual threads, and a per-thread
+ * instance would be built for every request and thrown away with its thread.</p>
+ */
+public class HmacTokenProviderAdapter implements TokenProviderPort {
+	public static final long DEFAULT_TTL_SECONDS = 3600;
+
+	private static final String ALGORITHM = "HmacSHA256";
+	private static final byte VERSION = 1;
+	private static final int HEADER_BYTES = 34;
+	private static final int MAC_BYTES = 32;
+	private static final int MAX_SCOPE_BYTES = 255;
+	private static final int MAX_TOKEN_BYTES = HEADER_BYTES + MAX_SCOPE_BYTES + MAC_BYTES;
+	private static final int MIN_TOKEN_CHARS = encodedLength(HEADER_BYTES + MAC_BYTES);
+	private static final int MAX_TOKEN_CHARS = encodedLength(MAX_TOKEN_BYTES);
+
+	private static final byte[] ALPHABET =
+			"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] DECODE = new byte[128];
+	static {
+		Arrays.fill(DECODE, (byte) -1);
+		for (int i = 0; i < ALPHABET.length; i++) {
+			DECODE[ALPHABET[i]] = (byte) i;
+		}
+	}
+
+	private final SecretKeySpec key;
+	private final long ttlSeconds;
+	private final LongSupplier epochSeconds;
+	private final RevocationSet revocations;
+	private final ArrayBlockingQueue<Signer> signers = new ArrayBlockingQueue<>(256);
+
+	/**
+	 * @param secret     HMAC key, at least 32 bytes
+	 * @param ttlSeconds lifetime of issued tokens
+	 */
+	public HmacTokenProviderAdapter(byte[] secret, long ttlSeconds) {
+		this(secret, ttlSeconds, new RevocationSet(ttlSeconds), () -> System.currentTimeMillis() / 1000);
+	}
+
+	HmacTokenProviderAdapter(byte[] secret, long ttlSeconds, RevocationSet revocations, LongSupplier epochSeconds) {
+		if (secret == null || secret.length < 32) {
+			throw new IllegalArgumentException("Token secret must be at least 32 bytes");
+		}
+		if (ttlSeconds < 1) {
+			throw new IllegalArgumentException("ttlSeconds must be positive");
+		}
+		this.key = new SecretKeySpec(secret, ALGORITHM);
+		this.ttlSeconds = ttlSeconds;
+		this.epochSeconds = epochSeconds;
+		this.revocations = revocations;
+		release(newSigner()); // fail at startup, not on the first request, if HmacSHA256 is unavailable
+	}
+
+	/** A fresh random 256-bit key, for deployments that accept tokens dying with the process. */
+	public static byte[] randomSecret() {
+		byte[] secret = new byte[32];
+		new SecureRandom().nextBytes(secret);
+		return secret;
+	}
+
+	@Override
+	public long getTokenTtlSeconds() {
+		return ttlSeconds;
+	}
+
+	@Override
+	public String createToken(UUID userId) {
+		return createToken(userId, null);
+	}
+
+	/** @throws IllegalArgumentException if {@code scope} is longer than 255 chars or not printable ASCII */
+	@Override
+	public String createToken(UUID userId, String scope) {
+		int scopeLength = scope == null ? 0 : scope.length();
+		if (scopeLength > MAX_SCOPE_BYTES) {
+			throw new IllegalArgumentException("Scope too long");
+		}
+		Signer s = acquire();
+		try {
+			byte[] b = s.bytes;
+			b[0] = VERSION;
+			putLong(b, 1, userId.getMostSignificantBits());
+			putLong(b, 9, userId.getLeastSignificantBits());
+			putLong(b, 17, epochSeconds.getAsLong() + ttlSeconds);
+			putLong(b, 25, ThreadLocalRandom.current().nextLong());
+			b[33] = (byte) scopeLength;
+			for (int i = 0; i < scopeLength; i++) {
+				char c = scope.charAt(i);
+				if (c < 0x20 || c > 0x7e) {
+					throw new IllegalArgumentException("Scope must be printable ASCII");
+				}
+				b[HEADER_BYTES + i] = (byte) c;
+			}
+			int payload = HEADER_BYTES + scopeLength;
+			s.mac.update(b, 0, payload);
+			s.mac.doFinal(b, payload);
+			return encode(b, payload + MAC_BYTES, s.chars);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Token signing failed", e);
+		} finally {
+			release(s);
+		}
+	}
+
+	@Override
+	public boolean validateToken(String token) {
+		Signer s = acquire();
+		try {
+			return verify(token, s) >= 0;
+		} finally {
+			release(s);
+		}
+	}
+
+	/** @throws IllegalArgumentException if the token is malformed, forged or expired */
+	@Override
+	public UUID extractUserId(String token) {
+		Signer s = acquire();
+		try {
+			if (verify(token, s) < 0) {
+				throw new IllegalArgumentException("Invalid token!");
+			}
+			return new UUID(getLong(s.bytes, 1), getLong(s.bytes, 9));
+		} finally {
+			release(s);
+		}
+	}
+
+	/**
+	 * Revokes a valid token for the rest of its lifetime. Malformed, forged, expired and already revoked tokens
+	 * are ignored.
+	 *
+	 * @return whether the token was valid until now
+	 */
+	@Override
+	public boolean revoke(String token) {
+		Signer s = acquire();
+		try {
+			if (verify(token, s) < 0) {
+				return false;
+			}
+			revocations.add(getLong(s.bytes, 25), getLong(s.bytes, 17));
+			return true;
+		} finally {
+			release(s);
+		}
+	}
+
+	/** Reads user id, scope and expiry with a single signature check. */
+	@Override
+	public Optional<Claims> verify(String token) {
+		Signer s = acquire();
+		try {
+			if (verify(token, s) < 0) {
+				return Optional.empty();
+			}
+			byte[] b = s.bytes;
+			int n = b[33] & 0xFF;
+			return Optional.of(new Claims(new UUID(getLong(b, 1), getLong(b, 9)),
+					n == 0 ? null : new String(b, HEADER_BYTES, n, StandardCharsets.US_ASCII), getLong(b, 17)));
+		} finally {
+			release(s);
+		}
+	}
+
+	@Override
+	public long revocationVersion() {
+		return revocations.version();
+	}
+
+	/**
+	 * The scope the token was issued with, or {@code null} if it was issued without one.
+	 *
+	 * @throws IllegalArgumentException if the token is malformed, forged or expired
+	 */
+	public String extractScope(String token) {
+		Signer s = acquire();
+		try {
+			if (verify(token, s) < 0) {
+				throw new IllegalArgumentException("Invalid token!");
+			}
+			int n = s.bytes[33] & 0xFF;
+			return n == 0 ? null : new String(s.bytes, HEADER_BYTES, n, StandardCharsets.US_ASCII);
+		} finally {
+			release(s);
+		}
+	}
+
+	/** Expiry of a valid token in epoch seconds; {@code -1} if it is not valid. */
+	public long expiresAt(String token) {
+		Signer s = acquire();
+		try {
+			return verify(token, s) < 0 ? -1 : getLong(s.bytes, 17);
+		} finally {
+			release(s);
+		}
+	}
+
+	/**
+	 * Decodes {@code token} into {@code s.bytes} and checks signature, version, expiry and revocation.
+	 *
+	 * @return the decoded length, or {@code -1} if the token is not valid
+	 */
+	private int verify(String token, Signer s) {
+		if (token == null || token.length() < MIN_TOKEN_CHARS || token.length() > MAX_TOKEN_CHARS) {
+			return -1;
+		}
+		byte[] b = s.bytes;
+		int n = decode(token, b);
+		if (n < 0) {
+			return -1;
+		}
+		int payload = n - MAC_BYTES;
+		if (b[0] != VERSION || payload != HEADER_BYTES + (b[33] & 0xFF)) {
+			return -1;
+		}
+		try {
+			s.mac.update(b, 0, payload);
+			s.mac.doFinal(s.expected, 0);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Token verification failed", e);
+		}
+		int diff = 0;
+		for (int i = 0; i < MAC_BYTES; i++) {
+			diff |= s.expected[i] ^ b[payload + i];
+		}
+		if (diff != 0) {
+			return -1;
+		}
+		long expiresAt = getLong(b, 17);
+		if (expiresAt <= epochSeconds.getAsLong() || revocations.contains(getLong(b, 25), expiresAt)) {
+			return -1;
+		}
+		return n;
+	}
+
+	/** @return bytes written to {@code out}, or {@code -1} for characters outside the url-safe alphabet */
+	private static int decode(String s, byte[] out) {
+		int len = s.length();
+		if (len % 4 == 1) {
+			return -1;
+		}
+		int o = 0;
+		int i = 0;
+		int bits = 0;
+		int acc = 0;
+		while (i < len) {
+			char c = s.charAt(i++);
+			int v = c < 128 ? DECODE[c] : -1;
+			if (v < 0) {
+				return -1;
+			}
+			acc = (acc << 6) | v;
+			bits += 6;
+			if (bits >= 8) {
+				bits -= 8;
+				out[o++] = (byte) (acc >> bits);
+			}
+		}
+		// leftover bits must be zero, or two strings would decode to the same token
+		return (acc & ((1 << bits) - 1)) == 0 ? o : -1;
+	}
+
+	private static String encode(byte[] src, int len, byte[] out) {
+		int o = 0;
+		int i = 0;
+		for (; i + 3 <= len; i += 3) {
+			int v = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+			out[o++] = ALPHABET[v >>> 18];
+			out[o++] = ALPHABET[(v >>> 12) & 63];
+			out[o++] = ALPHABET[(v >>> 6) & 63];
+			out[o++] = ALPHABET[v & 63];
+		}
+		int rest = len - i;
+		if (rest > 0) {
+			int v = (src[i] & 0xFF) << 16 | (rest == 2 ? (src[i + 1] & 0xFF) << 8 : 0);
+			out[o++] = ALPHABET[v >>> 18];
+			out[o++] = ALPHABET[(v >>> 12) & 63];
+			if (rest == 2) {
+				out[o++] = ALPHABET[(v >>> 6) & 63];
+			}
+		}
+		return new String(out, 0, o, StandardCharsets.ISO_8859_1);
+	}
+
+	private static int encodedLength(int bytes) {
+		return (bytes * 4 + 2) / 3;
+	}
+
+	private static void putLong(byte[] b, int off, long v) {
+		for (int i = 7; i >= 0; i--) {
+			b[off + i] = (byte) v;
+			v >>>= 8;
+		}
+	}
+
+	private static long getLong(byte[] b, int off) {
+		long v = 0;
+		for (int i = 0; i < 8; i++) {
+			v = (v << 8) | (b[off + i] & 0xFF);
+		}
+		return v;
+	}
+
+	private Signer acquire() {
+		Signer s = signers.poll();
+		return s != null ? s : newSigner();
+	}
+
+	private void release(Signer s) {
+		signers.offer(s);
+	}
+
+	private Signer newSigner() {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			return new Signer(mac);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("HMAC algorithm not available.", e);
+		}
+	}
+
+	/** A keyed {@code Mac} with scratch space for one token. */
+	private static final class Signer {
+		final Mac mac;
+		final byte[] bytes = new byte[MAX_TOKEN_BYTES];
+		final byte[] expected = new byte[MAC_BYTES];
+		final byte[] chars = new byte[MAX_TOKEN_CHARS];
+
+		Signer(Mac mac) {
+			this.mac = mac;
+		}
+	}
+}
@@ -0,0 +1,214 @@
+package io.github.cqyll.todoapi.adapter.outbound.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import io.github.cqyll.todoapi.application.port.outbound.PasswordHasherPort;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 hasher running on its own bounded pool.
+ *
+ * <p>Hashes are stored as {@code pbkdf2-sha256$<iterations>$<salt>$<hash>} (base64, no padding), so every hash
+ * carries the cost it was made with and raising the iteration count never breaks existing users: old hashes still
+ * verify and {@link #needsRehash} reports them for an upgrade on the next login. Unsalted hex SHA-256 hashes from
+ * {@link SimplePasswordHasherAdapter} are verified the same way, so a store written by it keeps working.</p>
+ *
+ * <h3>Executor</h3>
+ * <p>A hash costs tens to hundreds of milliseconds of pure CPU. Running it on request threads lets a login flood
+ * occupy every carrier or worker thread, and with it every cheap request behind them. Instead the work goes to
+ * {@code threads} dedicated platform threads (one per core is enough; more only adds context switches) behind
+ * a queue of {@code queueCapacity} tasks. When the queue is full the call fails fast with
+ * {@link RejectedExecutionException} rather than queueing work whose caller will have given up by the time it
+ * runs; controllers answer that with 503.</p>
+ *
+ * <p>The blocking {@link #hash}/{@link #matches} wait for the pool, which costs nothing on a virtual thread.
+ * {@link #hashAsync}/{@link #matchesAsync} hand back the pool's future instead. With {@code threads == 0}
+ * everything runs inline on the caller.</p>
+ */
+public class Pbkdf2PasswordHasherAdapter implements PasswordHasherPort, AutoCloseable {
+	/** OWASP's figure for PBKDF2-HMAC-SHA256. */
+	public static final int DEFAULT_ITERATIONS = 600_000;
+
+	private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+	private static final String PREFIX = "pbkdf2-sha256$";
+	private static final int SALT_BYTES = 16;
+	private static final int HASH_BYTES = 32;
+
+	private static final Base64.Encoder B64 = Base64.getEncoder().withoutPadding();
+	private static final Base64.Decoder B64_DECODER = Base64.getDecoder();
+
+	private final int iterations;
+	private final ThreadPoolExecutor executor;
+	private final SecureRandom random = new SecureRandom();
+
+	/** Inline hashing with the default cost; for tests and tools. */
+	public Pbkdf2PasswordHasherAdapter() {
+		this(DEFAULT_ITERATIONS, 0, 0);
+	}
+
+	/**
+	 * @param iterations    PBKDF2 iteration count for new hashes
+	 * @param threads       hashing threads, or {@code 0} to hash on the calling thread
+	 * @param queueCapacity hash requests allowed to wait for a thread before new ones are rejected
+	 */
+	public Pbkdf2PasswordHasherAdapter(int iterations, int threads, int queueCapacity) {
+		if (iterations < 1) {
+			throw new IllegalArgumentException("iterations must be positive");
+		}
+		if (threads < 0 || (threads > 0 && queueCapacity < 1)) {
+			throw new IllegalArgumentException("threads must be >= 0 and queueCapacity >= 1");
+		}
+		this.iterations = iterations;
+		this.executor = threads == 0 ? null : new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity),
+				Thread.ofPlatform().name("password-hasher-", 0).daemon(true).factory(),
+				new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	@Override
+	public String hash(String rawPassword) {
+		return await(hashAsync(rawPassword));
+	}
+
+	@Override
+	public boolean matches(String rawPassword, String hashedPassword) {
+		return await(matchesAsync(rawPassword, hashedPassword));
+	}
+
+	/** @throws RejectedExecutionException if the hashing queue is full */
+	@Override
+	public CompletableFuture<String> hashAsync(String rawPassword) {
+		return submit(() -> {
+			byte[] salt = new byte[SALT_BYTES];
+			random.nextBytes(salt);
+			byte[] hash = pbkdf2(rawPassword, salt, iterations, HASH_BYTES);
+			return PREFIX + iterations + '$' + B64.encodeToString(salt) + '$' + B64.encodeToString(hash);
+		});
+	}
+
+	/** @throws RejectedExecutionException if the hashing queue is full */
+	@Override
+	public CompletableFuture<Boolean> matchesAsync(String rawPassword, String hashedPassword) {
+		if (isLegacy(hashedPassword)) {
+			// a single SHA-256 is cheaper than the hand-off
+			return CompletableFuture.completedFuture(matchesLegacy(rawPassword, hashedPassword));
+		}
+		Parsed parsed = Parsed.of(hashedPassword);
+		if (parsed == null) {
+			return CompletableFuture.completedFuture(false);
+		}
+		return submit(() -> MessageDigest.isEqual(
+				pbkdf2(rawPassword, parsed.salt, parsed.iterations, parsed.hash.length), parsed.hash));
+	}
+
+	@Override
+	public boolean needsRehash(String hashedPassword) {
+		Parsed parsed = Parsed.of(hashedPassword);
+		return parsed == null || parsed.iterations < iterations;
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	/** Hash requests waiting for a thread; always {@code 0} when hashing inline. */
+	public int getQueuedCount() {
+		return executor == null ? 0 : executor.getQueue().size();
+	}
+
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	private <T> CompletableFuture<T> submit(Supplier<T> task) {
+		if (executor == null) {
+			return CompletableFuture.completedFuture(task.get());
+		}
+		// supplyAsync hands the task straight to execute(), so a full queue throws here, in the caller
+		return CompletableFuture.supplyAsync(task, executor);
+	}
+
+	private static <T> T await(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	private static byte[] pbkdf2(String rawPassword, byte[] salt, int iterations, int bytes) {
+		PBEKeySpec spec = new PBEKeySpec(rawPassword.toCharArray(), salt, iterations, bytes * 8);
+		try {
+			return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Hashing algorithm not available.", e);
+		} finally {
+			spec.clearPassword();
+		}
+	}
+
+	private static boolean isLegacy(String hashedPassword) {
+		return hashedPassword.length() == 2 * HASH_BYTES && HexFormat.isHexDigit(hashedPassword.charAt(0))
+				&& !hashedPassword.startsWith(PREFIX);
+	}
+
+	private static boolean matchesLegacy(String rawPassword, String hashedPassword) {
+		byte[] expected;
+		try {
+			expected = HexFormat.of().parseHex(hashedPassword);
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+		try {
+			byte[] actual = MessageDigest.getInstance("SHA-256").digest(rawPassword.getBytes(StandardCharsets.UTF_8));
+			return MessageDigest.isEqual(actual, expected);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Hashing algorithm not available.", e);
+		}
+	}
+
+	private record Parsed(int iterations, byte[] salt, byte[] hash) {
+		/** @return the decoded parts, or {@code null} if {@code s} is not one of our hashes */
+		static Parsed of(String s) {
+			if (!s.startsWith(PREFIX)) {
+				return null;
+			}
+			String[] parts = s.substring(PREFIX.length()).split("\\$", -1);
+			if (parts.length != 3) {
+				return null;
+			}
+			try {
+				int iterations = Integer.parseInt(parts[0]);
+				byte[] salt = B64_DECODER.decode(parts[1]);
+				byte[] hash = B64_DECODER.decode(parts[2]);
+				if (iterations < 1 || salt.length == 0 || hash.length == 0) {
+					return null;
+				}
+				return new Parsed(iterations, salt, hash);
+			} catch (IllegalArgumentException e) {
+				return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package io.github.cqyll.todoapi.adapter.outbound.security;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Ids of revoked tokens that have not expired yet, checked on every token validation.
+ *
+ * <p>Entries are grouped into generations by expiry time ({@code bucketSeconds} wide) held in a ring that spans
+ * the longest token lifetime. A revoked token is filed under the generation of its own expiry, so it is dropped
+ * together with that generation once the last token in it has expired anyway; nothing is ever removed one by
+ * one. The ring slot a generation occupies is simply reused when its time comes round again.</p>
+ *
+ * <p>Each generation has a Bloom filter (three bits per id) in front of an exact set. The validation path only
+ * needs the single generation its token's expiry points at, and almost always stops at the filter: three bit
+ * tests, no locks, no allocation. Only a filter hit, which is either a real revocation or a rare false positive,
+ * pays for the exact lookup. A revocation is added to the exact set before its filter bits are published, so a
+ * reader that sees the bits also sees the entry.</p>
+ *
+ * <p>Revocations live in memory only; a restart forgets them, as it forgets tokens signed with a random key.</p>
+ */
+public final class RevocationSet {
+	public static final int DEFAULT_BUCKET_SECONDS = 60;
+	/**
+	 * Revocations per generation for which the filter starts out sized, at about 0.5% false positives. A fuller
+	 * generation is rebuilt with a filter four times the size.
+	 */
+	public static final int DEFAULT_EXPECTED_PER_BUCKET = 1024;
+
+	private static final int BITS_PER_ENTRY = 16;
+	private static final VarHandle BITS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	private final int bucketSeconds;
+	private final int bloomBits;
+	private final LongSupplier epochSeconds;
+	private final AtomicReferenceArray<Generation> ring;
+	/** Revocations recorded so far; written under the writer lock. */
+	private volatile long version;
+
+	/** @param maxTtlSeconds longest lifetime of the tokens whose ids are added */
+	public RevocationSet(long maxTtlSeconds) {
+		this(maxTtlSeconds, DEFAULT_BUCKET_SECONDS, DEFAULT_EXPECTED_PER_BUCKET,
+				() -> System.currentTimeMillis() / 1000);
+	}
+
+	RevocationSet(long maxTtlSeconds, int bucketSeconds, int expectedPerBucket, LongSupplier epochSeconds) {
+		if (maxTtlSeconds < 1 || bucketSeconds < 1 || expectedPerBucket < 1) {
+			throw new IllegalArgumentException("maxTtlSeconds, bucketSeconds and expectedPerBucket must be positive");
+		}
+		this.bucketSeconds = bucketSeconds;
+		// BITS_PER_ENTRY per expected entry, at least one long, rounded up to a power of two for masking
+		this.bloomBits = Math.max(64, Integer.highestOneBit(expectedPerBucket * BITS_PER_ENTRY - 1) << 1);
+		this.epochSeconds = epochSeconds;
+		// a lifetime of maxTtl spans at most maxTtl / bucketSeconds + 2 distinct buckets, counting the current one
+		this.ring = new AtomicReferenceArray<>(Math.toIntExact(maxTtlSeconds / bucketSeconds + 2));
+	}
+
+	/**
+	 * Records {@code tokenId} as revoked until {@code expiresAt}. Already expired tokens are not recorded.
+	 *
+	 * <p>Writers are serialised; revocations are rare next to validations, and it lets a generation whose filter
+	 * has filled up be replaced by a larger copy without losing a concurrent add.</p>
+	 *
+	 * @throws IllegalArgumentException if {@code expiresAt} is further ahead than the set's maximum lifetime
+	 */
+	public synchronized void add(long tokenId, long expiresAt) {
+		long now = epochSeconds.getAsLong();
+		if (expiresAt <= now) {
+			return;
+		}
+		long bucket = expiresAt / bucketSeconds;
+		if (bucket - now / bucketSeconds >= ring.length()) {
+			throw new IllegalArgumentException("Token outlives the revocation window");
+		}
+		dropExpired(now);
+
+		int slot = (int) (bucket % ring.length());
+		Generation gen = ring.get(slot);
+		if (gen == null || gen.bucket != bucket) {
+			// anything else in the slot is a bucket that has already gone by
+			gen = new Generation(bucket, bloomBits);
+			ring.set(slot, gen);
+		} else if (gen.exact.size() * BITS_PER_ENTRY >= gen.bloom.length * 64L) {
+			// past its sizing the filter would start passing most misses on to the exact set
+			Generation larger = new Generation(bucket, gen.bloom.length * 64 * 4);
+			for (long id : gen.exact) {
+				larger.put(id);
+			}
+			ring.set(slot, larger);
+			gen = larger;
+		}
+		gen.put(tokenId);
+		version++;
+	}
+
+	/** Whether {@code tokenId}, expiring at {@code expiresAt}, has been revoked. */
+	public boolean contains(long tokenId, long expiresAt) {
+		long bucket = expiresAt / bucketSeconds;
+		Generation gen = ring.get((int) (bucket % ring.length()));
+		if (gen == null || gen.bucket != bucket) {
+			return false;
+		}
+		long h = mix(tokenId);
+		int mask = (gen.bloom.length << 6) - 1;
+		if (!testBit(gen.bloom, (int) h & mask)
+				|| !testBit(gen.bloom, (int) (h >>> 21) & mask)
+				|| !testBit(gen.bloom, (int) (h >>> 42) & mask)) {
+			return false;
+		}
+		return gen.exact.contains(tokenId);
+	}
+
+	/** Grows with every recorded revocation, so a reader can tell that something was revoked since it last looked. */
+	public long version() {
+		return version;
+	}
+
+	/** Revocations currently held, expired generations not yet reclaimed included. */
+	public int size() {
+		int n = 0;
+		for (int i = 0; i < ring.length(); i++) {
+			Generation gen = ring.get(i);
+			if (gen != null) {
+				n += gen.exact.size();
+			}
+		}
+		return n;
+	}
+
+	/** Unlinks generations whose every token has expired; cheap enough to run on each (rare) revocation. Called under the writer lock. */
+	private void dropExpired(long now) {
+		long current = now / bucketSeconds;
+		for (int i = 0; i < ring.length(); i++) {
+			Generation gen = ring.get(i);
+			if (gen != null && gen.bucket < current) {
+				ring.set(i, null);
+			}
+		}
+	}
+
+	private static void setBit(long[] bits, int index) {
+		BITS.getAndBitwiseOrRelease(bits, index >>> 6, 1L << index);
+	}
+
+	private static boolean testBit(long[] bits, int index) {
+		return ((long) BITS.getAcquire(bits, index >>> 6) & (1L << index)) != 0;
+	}
+
+	/** Token ids are random already; the mix only decorrelates the three bit positions taken from one long. */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return z ^ (z >>> 33);
+	}
+
+	private static final class Generation {
+		final long bucket;
+		final long[] bloom;
+		final Set<Long> exact = ConcurrentHashMap.newKeySet();
+
+		Generation(long bucket, int bits) {
+			this.bucket = bucket;
+			this.bloom = new long[bits >>> 6];
+		}
+
+		/** Adds to the exact set before publishing the filter bits, so a reader that sees the bits sees the id. */
+		void put(long tokenId) {
+			exact.add(tokenId);
+			long h = mix(tokenId);
+			int mask = (bloom.length << 6) - 1;
+			setBit(bloom, (int) h & mask);
+			setBit(bloom, (int) (h >>> 21) & mask);
+			setBit(bloom, (int) (h >>> 42) & mask);
+		}
+	}
+}
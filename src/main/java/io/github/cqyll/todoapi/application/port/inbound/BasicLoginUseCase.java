@@ -1,5 +1,5 @@
-package io.github.cqyll.todoapi.application.port.inbound;
-
-public interface BasicLoginUseCase {
-    String login(String email, String password);
-}
+package io.github.cqyll.todoapi.application.port.inbound;
+
+public interface BasicLoginUseCase {
+    String login(String email, String password);
+}
@@ -0,0 +1,14 @@
+package io.github.cqyll.todoapi.application.port.inbound;
+
+import java.util.Optional;
+
+import io.github.cqyll.todoapi.dto.AuthenticatedPrincipal;
+
+public interface BearerAuthenticationUseCase {
+	/**
+	 * Resolves the access token of an {@code Authorization: Bearer} header to the active user it was issued to.
+	 *
+	 * @return empty if the token is malformed, forged, expired or revoked, or its user is unknown or inactive
+	 */
+	Optional<AuthenticatedPrincipal> authenticate(String token);
+}
@@ -0,0 +1,13 @@
+package io.github.cqyll.todoapi.application.port.inbound;
+
+import io.github.cqyll.todoapi.dto.AuthorizationRequest;
+import io.github.cqyll.todoapi.dto.AuthorizationResponse;
+
+public interface OAuthAuthorizationUseCase {
+	/**
+	 * @throws io.github.cqyll.todoapi.adapter.inbound.web.OAuthError if the client or redirect URI is invalid,
+	 *         so there is nowhere safe to redirect to
+	 * @throws IllegalArgumentException if the resource owner's credentials are missing or wrong
+	 */
+	AuthorizationResponse authorize(AuthorizationRequest request);
+}
@@ -0,0 +1,9 @@
+package io.github.cqyll.todoapi.application.port.inbound;
+
+public interface OAuthRevocationUseCase {
+	/**
+	 * Revokes {@code token} on behalf of an authenticated client (RFC 7009). Unknown and invalid tokens are not an
+	 * error.
+	 */
+	void revoke(String clientId, String clientSecret, String token, String tokenTypeHint);
+}
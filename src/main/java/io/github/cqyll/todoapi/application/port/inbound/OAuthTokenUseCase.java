@@ -1,9 +1,8 @@
-package io.github.cqyll.todoapi.application.port.inbound;
-
-import java.util.Map;
-
-import io.github.cqyll.todoapi.dto.OAuthTokenRequest;
-
-public interface OAuthTokenUseCase {
-	Map<String, Object> token(OAuthTokenRequest request);
-}
+package io.github.cqyll.todoapi.application.port.inbound;
+
+import io.github.cqyll.todoapi.dto.OAuthTokenRequest;
+import io.github.cqyll.todoapi.dto.TokenResponse;
+
+public interface OAuthTokenUseCase {
+	TokenResponse token(OAuthTokenRequest request);
+}
@@ -0,0 +1,39 @@
+package io.github.cqyll.todoapi.application.port.inbound;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import io.github.cqyll.todoapi.domain.Todo;
+import io.github.cqyll.todoapi.dto.TodoOperation;
+import io.github.cqyll.todoapi.dto.TodoOperationResult;
+
+public interface TodoCommandUseCase {
+	/**
+	 * @param dueAt when it is due, or {@code null}
+	 * @throws IllegalArgumentException if the title is empty or too long
+	 */
+	Todo create(UUID ownerId, String title, boolean completed, Instant dueAt);
+
+	/**
+	 * Changes the fields that are not {@code null}.
+	 *
+	 * @param dueAt the new due date, or empty to clear it
+	 * @return the updated todo, or empty if the owner has no such todo
+	 * @throws IllegalArgumentException if the new title is empty or too long
+	 */
+	Optional<Todo> update(UUID ownerId, UUID id, String title, Boolean completed, Optional<Instant> dueAt);
+
+	/** @return whether the owner had such a todo */
+	boolean delete(UUID ownerId, UUID id);
+
+	/**
+	 * Applies {@code operations} in order, each as {@link #create}, {@link #update} or {@link #delete} would, with
+	 * no other change to the owner's todos in between. An operation that is invalid or finds no todo is reported
+	 * and skipped; the others still apply.
+	 *
+	 * @return one result per operation, in order
+	 */
+	List<TodoOperationResult> applyAll(UUID ownerId, List<TodoOperation> operations);
+}
@@ -0,0 +1,33 @@
+package io.github.cqyll.todoapi.application.port.inbound;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import io.github.cqyll.todoapi.dto.TodoEvent;
+
+public interface TodoEventsUseCase {
+	/**
+	 * Follows the changes to the owner's todos made after {@code lastEventId}.
+	 *
+	 * @param lastEventId the id of the last event the subscriber has applied, or the version of the listing it
+	 *                    holds (see {@link TodoQueryUseCase#version}); {@code null} to start from now
+	 */
+	Subscription subscribe(UUID ownerId, Long lastEventId);
+
+	/** One subscriber's place in an owner's changes. Used by one thread at a time; close it when done. */
+	interface Subscription extends AutoCloseable {
+		/**
+		 * The events after those already returned, oldest first, waiting up to {@code timeout} for there to be
+		 * any. A subscriber that has missed events gets a single {@link TodoEvent.Type#RESYNC} instead, and
+		 * carries on from there.
+		 *
+		 * @return empty if nothing happened in time; {@code null} once the subscription is closed, which may
+		 *         also happen from elsewhere when a newer subscriber of the owner takes its place
+		 */
+		List<TodoEvent> next(long timeout, TimeUnit unit) throws InterruptedException;
+
+		@Override
+		void close();
+	}
+}
@@ -0,0 +1,33 @@
+package io.github.cqyll.todoapi.application.port.inbound;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import io.github.cqyll.todoapi.domain.Todo;
+
+public interface TodoQueryUseCase {
+	Optional<Todo> get(UUID ownerId, UUID id);
+
+	/** The owner's todos, oldest first. */
+	List<Todo> list(UUID ownerId);
+
+	/**
+	 * The owner's todos due at or after {@code from} and before {@code to}, soonest first; either bound may be
+	 * {@code null} for none. Todos without a due date are left out.
+	 *
+	 * @throws IllegalArgumentException if {@code from} is after {@code to}
+	 */
+	List<Todo> listDue(UUID ownerId, Instant from, Instant to);
+
+	/** The owner's todos, oldest first, read lazily for streaming out; close the stream when done. */
+	Stream<Todo> export(UUID ownerId);
+
+	/**
+	 * Changes whenever the owner's todos do, and is never newer than a listing read after it; for telling a
+	 * client that its copy is current without reading the todos.
+	 */
+	long version(UUID ownerId);
+}
@@ -0,0 +1,22 @@
+package io.github.cqyll.todoapi.application.port.inbound;
+
+import java.util.List;
+import java.util.UUID;
+
+import io.github.cqyll.todoapi.domain.Todo;
+
+public interface TodoSearchUseCase {
+	int DEFAULT_LIMIT = 20;
+	int MAX_LIMIT = 100;
+	int MAX_QUERY_LENGTH = 200;
+
+	/**
+	 * The owner's todos whose titles have, for each word of {@code query}, a word starting with it; best match
+	 * first, at most {@code limit} of them. Meant to be called on every keystroke, so the last word may be cut
+	 * short.
+	 *
+	 * @throws IllegalArgumentException if {@code query} is blank or longer than {@link #MAX_QUERY_LENGTH}, or
+	 *                                  {@code limit} is not between 1 and {@link #MAX_LIMIT}
+	 */
+	List<Todo> search(UUID ownerId, String query, int limit);
+}
@@ -0,0 +1,28 @@
+package io.github.cqyll.todoapi.application.port.outbound;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/** Short-lived, single-use authorization codes (RFC 6749 section 4.1). */
+public interface AuthorizationCodeStorePort {
+
+	/** Stores {@code grant} under a fresh unguessable code and returns the code. */
+	String issue(Grant grant);
+
+	/**
+	 * Takes the grant stored under {@code code}, which can never be redeemed again. Of any number of concurrent
+	 * calls with the same code, at most one gets the grant.
+	 *
+	 * @return empty if the code is unknown, expired or already redeemed
+	 */
+	Optional<Grant> consume(String code);
+
+	/**
+	 * What the resource owner approved.
+	 *
+	 * @param redirectUri the redirect URI given in the authorization request, or {@code null} if it was omitted
+	 * @param codeChallenge the PKCE S256 challenge, or {@code null} without PKCE
+	 */
+	record Grant(UUID userId, String clientId, String redirectUri, String scope, String codeChallenge) {
+	}
+}
@@ -0,0 +1,13 @@
+package io.github.cqyll.todoapi.application.port.outbound;
+
+import io.github.cqyll.todoapi.domain.OAuthClient;
+
+import java.util.Optional;
+
+public interface ClientRepositoryPort {
+
+	/** Registers {@code client}, replacing any client with the same id. */
+	void save(OAuthClient client);
+
+	Optional<OAuthClient> findById(String clientId);
+}
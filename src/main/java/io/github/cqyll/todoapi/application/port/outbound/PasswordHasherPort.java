@@ -1,6 +1,29 @@
-package io.github.cqyll.todoapi.application.port.outbound;
-
-public interface PasswordHasherPort {
-	String hash(String rawPassword);
-	boolean matches(String rawPassword, String hashedPassword);
-}
+package io.github.cqyll.todoapi.application.port.outbound;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface PasswordHasherPort {
+	String hash(String rawPassword);
+	boolean matches(String rawPassword, String hashedPassword);
+
+	/**
+	 * Whether {@code hashedPassword} was produced with weaker parameters (or an older scheme) than this hasher
+	 * currently uses, so that it should be replaced after the next successful {@link #matches}.
+	 */
+	default boolean needsRehash(String hashedPassword) {
+		return false;
+	}
+
+	/**
+	 * {@link #hash} without blocking the caller. Implementations that do the work on their own executor
+	 * complete the future there; the default just runs it inline.
+	 */
+	default CompletableFuture<String> hashAsync(String rawPassword) {
+		return CompletableFuture.completedFuture(hash(rawPassword));
+	}
+
+	/** {@link #matches} without blocking the caller; see {@link #hashAsync}. */
+	default CompletableFuture<Boolean> matchesAsync(String rawPassword, String hashedPassword) {
+		return CompletableFuture.completedFuture(matches(rawPassword, hashedPassword));
+	}
+}
@@ -0,0 +1,52 @@
+package io.github.cqyll.todoapi.application.port.outbound;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Opaque, single-use refresh tokens (RFC 6749 section 6).
+ *
+ * <p>Every refresh token belongs to a family started by {@link #issue}. Redeeming one with {@link #rotate}
+ * invalidates it and hands out its successor; presenting an already redeemed token again means it was copied,
+ * and revokes the whole family, the legitimate holder's current token included.</p>
+ */
+public interface RefreshTokenStorePort {
+
+	/** Starts a new family for {@code userId}, bound to {@code clientId}, and returns its first token. */
+	String issue(UUID userId, String clientId, String scope);
+
+	/**
+	 * Redeems {@code refreshToken} for its successor.
+	 *
+	 * @return empty if the token is unknown, expired, revoked, issued to another client or already redeemed
+	 */
+	default Optional<Rotation> rotate(String refreshToken, String clientId) {
+		return rotate(refreshToken, clientId, Function.identity());
+	}
+
+	/**
+	 * Redeems {@code refreshToken} for its successor, once {@code issue} has turned the rotation into a response.
+	 * {@code issue} runs after a replay has been recognised and before the token is used up: if it throws, the
+	 * exception propagates and the token stays current, so a request refused for other reasons costs the client
+	 * nothing. It runs while the family is locked, so it should be quick and must not rotate the same family.
+	 *
+	 * @return empty if the token is unknown, expired, revoked, issued to another client or already redeemed
+	 */
+	<T> Optional<T> rotate(String refreshToken, String clientId, Function<Rotation, T> issue);
+
+	/**
+	 * Revokes the family of {@code refreshToken}.
+	 *
+	 * @return whether the token was known and its family not yet revoked
+	 */
+	boolean revoke(String refreshToken);
+
+	/**
+	 * @param userId the resource owner the family was issued for
+	 * @param scope the scope the family was issued with, or {@code null}
+	 * @param refreshToken the successor token
+	 */
+	record Rotation(UUID userId, String scope, String refreshToken) {
+	}
+}
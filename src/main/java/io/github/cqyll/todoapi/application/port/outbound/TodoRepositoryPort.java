@@ -0,0 +1,110 @@
+package io.github.cqyll.todoapi.application.port.outbound;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import io.github.cqyll.todoapi.domain.Todo;
+import io.github.cqyll.todoapi.dto.TodoEvent;
+
+/**
+ * Todos, always addressed through their owner: a todo id presented with someone else's owner id is not found.
+ */
+public interface TodoRepositoryPort {
+
+	/** Stores a new todo, or replaces the stored one with the same id. */
+	void save(Todo todo);
+
+	Optional<Todo> findById(UUID ownerId, UUID id);
+
+	/** Every todo of {@code ownerId}, oldest first. */
+	List<Todo> findByOwner(UUID ownerId);
+
+	/**
+	 * Every todo of {@code ownerId}, oldest first, produced as the stream is consumed rather than collected up
+	 * front. Writes made while it is read may or may not show; each todo in it is a complete version. Close it
+	 * when done.
+	 */
+	Stream<Todo> streamByOwner(UUID ownerId);
+
+	int countByOwner(UUID ownerId);
+
+	/**
+	 * The best {@code limit} of {@code ownerId}'s todos whose title has, for every word of {@code query}, a word
+	 * starting with it; best match first. Words are runs of letters and digits, compared without regard to case.
+	 * A todo ranks higher the more of its matched words the query covers, so whole-word matches come before
+	 * partial ones, then the fewer words its title has, then the newer it is.
+	 *
+	 * @return empty if {@code query} has no words
+	 * @throws IllegalArgumentException if {@code limit} is not positive
+	 */
+	List<Todo> search(UUID ownerId, String query, int limit);
+
+	/**
+	 * {@code ownerId}'s todos due at or after {@code from} and before {@code to}, soonest first; todos without a
+	 * due date are never among them.
+	 *
+	 * @param from {@code null} for no lower bound
+	 * @param to   {@code null} for no upper bound
+	 */
+	List<Todo> findDue(UUID ownerId, Instant from, Instant to);
+
+	/**
+	 * Every owner's todos due at or after {@code from} and before {@code to}, soonest first, as
+	 * {@link #findDue} bounds them; for sweeps such as sending reminders, which should cost what is due rather than
+	 * what is stored. Lazy like {@link #streamByOwner}; close it when done.
+	 */
+	Stream<Todo> streamDue(Instant from, Instant to);
+
+	/**
+	 * A number that changes with every write to {@code ownerId}'s todos and, for as long as the store keeps them,
+	 * never comes back, so equal versions mean an unchanged collection. Moves only once a write is visible to
+	 * readers: a version read before a listing is never newer than the listing.
+	 */
+	long version(UUID ownerId);
+
+	/**
+	 * Replaces a todo with {@code change} applied to it, as one atomic step: concurrent updates of the same todo
+	 * each see the result of the one before.
+	 *
+	 * @return the stored result, or empty if there is no such todo
+	 */
+	Optional<Todo> update(UUID ownerId, UUID id, UnaryOperator<Todo> change);
+
+	/** @return whether the todo existed */
+	boolean delete(UUID ownerId, UUID id);
+
+	/**
+	 * Applies {@code writes} to {@code ownerId}'s todos in order, as one step: no other write of the owner's comes
+	 * between them. A write that finds no todo to change is skipped and the rest still apply; nothing is undone.
+	 *
+	 * @return for each write, in order, the todo as stored after a save or update, or as it was before a
+	 *         delete; empty if there was no such todo
+	 * @throws IllegalArgumentException if a saved todo belongs to someone else
+	 */
+	List<Optional<Todo>> writeAll(UUID ownerId, List<Write> writes);
+
+	/**
+	 * Told of every write a store makes, as a {@link TodoEvent} numbered with the owner's {@link #version} after
+	 * it. A store calls it while the owner's other writers wait, so an owner's events arrive in the order their
+	 * writes took effect; it must be quick and must not call back into the store.
+	 */
+	interface Listener {
+		void written(TodoEvent event);
+	}
+
+	/** One change of a {@link #writeAll} batch, with the meaning of the single-write method of the same name. */
+	sealed interface Write {
+		record Save(Todo todo) implements Write {
+		}
+
+		record Update(UUID id, UnaryOperator<Todo> change) implements Write {
+		}
+
+		record Delete(UUID id) implements Write {
+		}
+	}
+}
@@ -1,9 +1,63 @@
-package io.github.cqyll.todoapi.application.port.outbound;
-
-import java.util.UUID;
-
-public interface TokenProviderPort {
-	String createToken(UUID userId);
-	boolean validateToken(String token);
-	UUID extractUserId(String token);
-}
+package io.github.cqyll.todoapi.application.port.outbound;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface TokenProviderPort {
+	String createToken(UUID userId);
+	boolean validateToken(String token);
+	UUID extractUserId(String token);
+
+	/** Lifetime of issued tokens, reported to OAuth clients as {@code expires_in}. */
+	default long getTokenTtlSeconds() {
+		return 3600;
+	}
+
+	/**
+	 * Makes {@code token} fail validation from now on (RFC 7009). Invalid tokens are silently ignored, as the
+	 * revocation endpoint must answer the same either way.
+	 *
+	 * @return whether a valid token was revoked; providers that cannot revoke always return {@code false}
+	 */
+	default boolean revoke(String token) {
+		return false;
+	}
+
+	/**
+	 * Issues a token limited to {@code scope} (space-separated, as in OAuth). Providers whose tokens cannot carry
+	 * a scope ignore it.
+	 */
+	default String createToken(UUID userId, String scope) {
+		return createToken(userId);
+	}
+
+	/**
+	 * Validates {@code token} and reads everything it carries in one step. Providers that do not know a token's
+	 * scope or expiry report it as unscoped and never expiring.
+	 *
+	 * @return the token's claims, or empty if it is not valid
+	 */
+	default Optional<Claims> verify(String token) {
+		return validateToken(token)
+				? Optional.of(new Claims(extractUserId(token), null, Long.MAX_VALUE))
+				: Optional.empty();
+	}
+
+	/**
+	 * A number that changes whenever a token is revoked. Whoever remembers validation results compares it to tell
+	 * whether they may still be trusted; providers that cannot revoke keep it at zero.
+	 */
+	default long revocationVersion() {
+		return 0;
+	}
+
+	/**
+	 * What a valid token says about its bearer.
+	 *
+	 * @param userId    the subject the token was issued to
+	 * @param scope     the space-separated scope, or {@code null} if the token was issued without one
+	 * @param expiresAt expiry in epoch seconds
+	 */
+	record Claims(UUID userId, String scope, long expiresAt) {
+	}
+}
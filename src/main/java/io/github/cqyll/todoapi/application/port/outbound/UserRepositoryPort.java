@@ -1,13 +1,22 @@
-package io.github.cqyll.todoapi.application.port.outbound;
-
-import io.github.cqyll.todoapi.domain.User;
-import java.util.Optional;
-import java.util.UUID;
-
-public interface UserRepositoryPort {
-	
-	void save(User user);
-	boolean existsByEmail(String email);
-	Optional<User> findByEmail(String email);
-	Optional<User> findById(UUID id);
-}
+package io.github.cqyll.todoapi.application.port.outbound;
+
+import io.github.cqyll.todoapi.domain.User;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface UserRepositoryPort {
+	
+	void save(User user);
+
+	/**
+	 * Stores {@code user} unless a user with the same email (case-insensitive) already exists, as one atomic
+	 * step: of any number of concurrent calls for the same email, exactly one succeeds.
+	 *
+	 * @return {@code true} if the user was stored, {@code false} if the email was taken
+	 */
+	boolean saveIfEmailAbsent(User user);
+
+	boolean existsByEmail(String email);
+	Optional<User> findByEmail(String email);
+	Optional<User> findById(UUID id);
+}
@@ -1,30 +1,57 @@
-package io.github.cqyll.todoapi.application.service;
-
-import java.util.Map;
-
-import io.github.cqyll.todoapi.application.port.outbound.PasswordHasherPort;
-import io.github.cqyll.todoapi.application.port.outbound.UserRepositoryPort;
-import io.github.cqyll.todoapi.domain.User;
-
-public class BasicCredentialsAuthenticator {
-    private final UserRepositoryPort userRepo;
-    private final PasswordHasherPort hasher;
-
-    public BasicCredentialsAuthenticator(UserRepositoryPort userRepo, PasswordHasherPort hasher) {
-        this.hasher = hasher;
-        this.userRepo = userRepo;
-    }
-
-    public User authenticate(Map<String, String> credentials) {
-        String email = credentials.get("email");
-        String rawPassword = credentials.get("password");
-
-        User user = this.userRepo.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("Invalid credentials"));
-
-        if (!user.verifyPassword(rawPassword, hasher)) {
-            throw new IllegalArgumentException("Invalid credentials");
-        }
-        return user;
-    }
-}
+package io.github.cqyll.todoapi.application.service;
+
+import java.util.Map;
+import java.util.Optional;
+
+import io.github.cqyll.todoapi.application.port.outbound.PasswordHasherPort;
+import io.github.cqyll.todoapi.application.port.outbound.UserRepositoryPort;
+import io.github.cqyll.todoapi.domain.Password;
+import io.github.cqyll.todoapi.domain.User;
+
+public class BasicCredentialsAuthenticator {
+    private final UserRepositoryPort userRepo;
+    private final PasswordHasherPort hasher;
+    // verified against when the email is unknown, so both failures cost one hash
+    private final String dummyHash;
+
+    public BasicCredentialsAuthenticator(UserRepositoryPort userRepo, PasswordHasherPort hasher) {
+        this.hasher = hasher;
+        this.userRepo = userRepo;
+        this.dummyHash = hasher.hash("dummy-password-for-unknown-users");
+    }
+
+    /**
+     * @throws IllegalArgumentException for an unknown email or a wrong password
+     * @throws java.util.concurrent.RejectedExecutionException if the hasher is saturated
+     */
+    public User authenticate(Map<String, String> credentials) {
+        String email = credentials.get("email");
+        String rawPassword = credentials.get("password");
+
+        Optional<User> found = this.userRepo.findByEmail(email);
+        if (found.isEmpty()) {
+            hasher.matches(rawPassword, dummyHash);
+            throw new IllegalArgumentException("Invalid credentials");
+        }
+        User user = found.get();
+
+        if (!user.verifyPassword(rawPassword, hasher)) {
+            throw new IllegalArgumentException("Invalid credentials");
+        }
+        rehashIfOutdated(user, rawPassword);
+        return user;
+    }
+
+    /**
+     * Moves a user onto the hasher's current parameters. This is the only moment the raw password is known,
+     * so raising the cost (or retiring the legacy SHA-256 hashes) happens one login at a time.
+     */
+    private void rehashIfOutdated(User user, String rawPassword) {
+        if (!hasher.needsRehash(user.getPassword().getHash())) {
+            return;
+        }
+        Password upgraded = Password.fromHash(hasher.hash(rawPassword));
+        userRepo.save(User.restore(user.getId(), user.getName(), user.getEmail(), upgraded,
+                user.isActive(), user.isEmailVerified()));
+    }
+}
@@ -0,0 +1,187 @@
+package io.github.cqyll.todoapi.application.service;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import io.github.cqyll.todoapi.application.port.inbound.BearerAuthenticationUseCase;
+import io.github.cqyll.todoapi.application.port.outbound.TokenProviderPort;
+import io.github.cqyll.todoapi.application.port.outbound.UserRepositoryPort;
+import io.github.cqyll.todoapi.domain.OAuthClient;
+import io.github.cqyll.todoapi.domain.User;
+import io.github.cqyll.todoapi.dto.AuthenticatedPrincipal;
+
+/**
+ * Authenticates access tokens for protected contexts, remembering recent successes.
+ *
+ * <p>A full check verifies the token's signature and looks its user up to make sure the account still exists and
+ * is active. A client typically sends the same token with every request for an hour, so successful results are
+ * kept in a small two-way set-associative cache: each token hash picks a pair of slots, and a third token in the
+ * same pair replaces the one verified longer ago. A hit needs the exact same token string, so nothing about the token is trusted that was not verified once.</p>
+ *
+ * <p>An entry is trusted until the earliest of: the token's own expiry, {@code maxAgeSeconds} after it was
+ * verified (a user deactivated in the meantime keeps access for at most that long), and the next revocation.
+ * Revocations are rare, so any of them simply invalidates every entry rather than tracking which token it hit.
+ * Failures are not cached; a bad token costs a full check every time, as it did before.</p>
+ *
+ * <p>Tokens from the {@code client_credentials} grant are issued to a client, not a user, and are rejected here:
+ * protected contexts serve a user's own data.</p>
+ */
+public class BearerAuthenticationService implements BearerAuthenticationUseCase {
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+    public static final long DEFAULT_CACHE_SECONDS = 30;
+
+    private static final int TIMING_SAMPLE = 16;
+
+    private final TokenProviderPort tokens;
+    private final UserRepositoryPort users;
+    private final AtomicReferenceArray<Entry> cache;
+    private final long maxAgeSeconds;
+    private final LongSupplier epochSeconds;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder timed = new LongAdder();
+
+    public BearerAuthenticationService(TokenProviderPort tokens, UserRepositoryPort users) {
+        this(tokens, users, DEFAULT_CACHE_SIZE, DEFAULT_CACHE_SECONDS);
+    }
+
+    /**
+     * @param cacheSize     slots in the cache, rounded up to a power of two (at least two); {@code 0} checks every
+     *                      token in full
+     * @param maxAgeSeconds longest time a verified token is served from the cache
+     */
+    public BearerAuthenticationService(TokenProviderPort tokens, UserRepositoryPort users, int cacheSize,
+                                       long maxAgeSeconds) {
+        this(tokens, users, cacheSize, maxAgeSeconds, () -> System.currentTimeMillis() / 1000);
+    }
+
+    BearerAuthenticationService(TokenProviderPort tokens, UserRepositoryPort users, int cacheSize,
+                                long maxAgeSeconds, LongSupplier epochSeconds) {
+        if (cacheSize < 0 || maxAgeSeconds < 1) {
+            throw new IllegalArgumentException("cacheSize must not be negative and maxAgeSeconds must be positive");
+        }
+        this.tokens = tokens;
+        this.users = users;
+        this.cache = cacheSize == 0 ? null
+                : new AtomicReferenceArray<>(Math.max(2, Integer.highestOneBit(cacheSize - 1) << 1));
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.epochSeconds = epochSeconds;
+    }
+
+    /**
+     * Times one request in {@code TIMING_SAMPLE}: two clock reads cost as much as a cache hit itself, and a sample
+     * is enough for an average.
+     */
+    @Override
+    public Optional<AuthenticatedPrincipal> authenticate(String token) {
+        if ((ThreadLocalRandom.current().nextInt() & (TIMING_SAMPLE - 1)) != 0) {
+            return lookup(token);
+        }
+        long start = System.nanoTime();
+        try {
+            return lookup(token);
+        } finally {
+            nanos.add(System.nanoTime() - start);
+            timed.increment();
+        }
+    }
+
+    private Optional<AuthenticatedPrincipal> lookup(String token) {
+        if (token == null || token.isEmpty()) {
+            misses.increment();
+            rejected.increment();
+            return Optional.empty();
+        }
+        long now = epochSeconds.getAsLong();
+        // read before verifying: a revocation that races with the check below leaves the new entry already stale
+        long version = tokens.revocationVersion();
+        int slot = cache == null ? -1 : spread(token.hashCode()) & (cache.length() - 2);
+        if (slot >= 0) {
+            Entry e = cache.get(slot);
+            if (e == null || !e.token.equals(token)) {
+                e = cache.get(slot + 1);
+            }
+            if (e != null && e.token.equals(token) && e.isValid(now, version)) {
+                hits.increment();
+                return e.principal;
+            }
+        }
+        misses.increment();
+
+        Optional<TokenProviderPort.Claims> claims = tokens.verify(token);
+        if (claims.isEmpty() || !users.findById(claims.get().userId()).map(User::isActive).orElse(false)) {
+            rejected.increment();
+            return Optional.empty();
+        }
+        TokenProviderPort.Claims c = claims.get();
+        Optional<AuthenticatedPrincipal> principal = Optional.of(new AuthenticatedPrincipal(c.userId(),
+                c.scope() == null ? null : Set.copyOf(OAuthClient.scopeTokens(c.scope()))));
+        if (slot >= 0) {
+            store(slot, new Entry(token, principal, Math.min(c.expiresAt(), now + maxAgeSeconds), version), now);
+        }
+        return principal;
+    }
+
+    /**
+     * Files {@code e} in the first free or stale way of its set; when both ways are live, the one in front moves
+     * back over the other, so the older of the two is dropped. Racing writers may lose an entry, which costs no
+     * more than a later miss.
+     */
+    private void store(int slot, Entry e, long now) {
+        Entry first = cache.get(slot);
+        if (first == null || !first.isValid(now, e.revocationVersion) || first.token.equals(e.token)) {
+            cache.set(slot, e);
+            return;
+        }
+        Entry second = cache.get(slot + 1);
+        if (second != null && second.isValid(now, e.revocationVersion) && !second.token.equals(e.token)) {
+            cache.set(slot + 1, first);
+            cache.set(slot, e);
+        } else {
+            cache.set(slot + 1, e);
+        }
+    }
+
+    /** Mixes the high half of the hash into the low bits the slot index is taken from. */
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /** Counters since startup. */
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), rejected.sum(), timed.sum(), nanos.sum());
+    }
+
+    /**
+     * @param hits     requests answered from the cache
+     * @param misses   requests that needed a full check, rejected ones included
+     * @param rejected requests whose token was refused
+     * @param timed    requests whose authentication was timed, a random sample of all of them
+     * @param nanos    total time the timed requests spent authenticating
+     */
+    public record Stats(long hits, long misses, long rejected, long timed, long nanos) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        /** Mean cost of one authentication, cache hits and misses alike. */
+        public double averageNanos() {
+            return timed == 0 ? 0 : (double) nanos / timed;
+        }
+    }
+
+    private record Entry(String token, Optional<AuthenticatedPrincipal> principal, long validUntil,
+                         long revocationVersion) {
+        boolean isValid(long now, long currentVersion) {
+            return now < validUntil && revocationVersion == currentVersion;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.cqyll.todoapi.application.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.github.cqyll.todoapi.adapter.inbound.web.OAuthError;
+import io.github.cqyll.todoapi.application.port.outbound.ClientRepositoryPort;
+import io.github.cqyll.todoapi.application.port.outbound.PasswordHasherPort;
+import io.github.cqyll.todoapi.domain.OAuthClient;
+
+/**
+ * Authenticates the OAuth client of a token or revocation request against the {@link ClientRepositoryPort}.
+ *
+ * <p>Client secrets are hashed with the (deliberately slow) password hasher, but a confidential client presents
+ * the same secret on every request. So once a secret has verified, its SHA-256 is remembered per client, and
+ * later requests only compare digests, in constant time. The entry is tied to the stored hash it was verified
+ * against: registering a new secret invalidates it, and a wrong secret still pays for a full verification. Only
+ * registered clients get an entry, so the cache is bounded by the registry.</p>
+ *
+ * <p>Client ids are public, so an unknown id is rejected without a dummy verification.</p>
+ */
+public class ClientAuthenticator {
+    private final ClientRepositoryPort clients;
+    private final PasswordHasherPort hasher;
+    private final ConcurrentHashMap<String, Verified> verified = new ConcurrentHashMap<>();
+
+    public ClientAuthenticator(ClientRepositoryPort clients, PasswordHasherPort hasher) {
+        this.clients = clients;
+        this.hasher = hasher;
+    }
+
+    /**
+     * @return the authenticated client
+     * @throws OAuthError {@code invalid_client} if the id is missing or unknown, or the secret does not match
+     * @throws java.util.concurrent.RejectedExecutionException if the hasher is saturated
+     */
+    public OAuthClient authenticate(String clientId, String clientSecret) {
+        if (clientId == null || clientId.isBlank()) {
+            throw OAuthError.invalidClient("client authentication failed");
+        }
+        OAuthClient client = clients.findById(clientId)
+                .orElseThrow(() -> OAuthError.invalidClient("client authentication failed"));
+        String secret = clientSecret == null ? "" : clientSecret;
+        String storedHash = client.getSecret().getHash();
+        byte[] digest = sha256(secret);
+
+        Verified cached = verified.get(clientId);
+        if (cached != null && cached.storedHash.equals(storedHash) && MessageDigest.isEqual(cached.digest, digest)) {
+            return client;
+        }
+        if (!client.getSecret().correspondsTo(secret, hasher)) {
+            throw OAuthError.invalidClient("client authentication failed");
+        }
+        verified.put(clientId, new Verified(storedHash, digest));
+        return client;
+    }
+
+    private static byte[] sha256(String secret) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Verified(String storedHash, byte[] digest) {
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.cqyll.todoapi.application.service;
+
+import io.github.cqyll.todoapi.adapter.inbound.web.OAuthError;
+import io.github.cqyll.todoapi.application.port.inbound.OAuthAuthorizationUseCase;
+import io.github.cqyll.todoapi.application.port.outbound.AuthorizationCodeStorePort;
+import io.github.cqyll.todoapi.application.port.outbound.ClientRepositoryPort;
+import io.github.cqyll.todoapi.domain.OAuthClient;
+import io.github.cqyll.todoapi.domain.User;
+import io.github.cqyll.todoapi.dto.AuthorizationRequest;
+import io.github.cqyll.todoapi.dto.AuthorizationResponse;
+
+import java.util.Map;
+
+/**
+ * Authorization endpoint of the authorization code flow. There is no login page: the resource owner
+ * authenticates on the request itself, and approval is implied.
+ */
+public class OAuthAuthorizationService implements OAuthAuthorizationUseCase {
+    /** Length of a base64url SHA-256 digest, the only challenge method supported. */
+    private static final int S256_CHALLENGE_LENGTH = 43;
+
+    private final BasicCredentialsAuthenticator basicAuth;
+    private final ClientRepositoryPort clients;
+    private final AuthorizationCodeStorePort codes;
+
+    public OAuthAuthorizationService(BasicCredentialsAuthenticator basicAuth, ClientRepositoryPort clients,
+            AuthorizationCodeStorePort codes) {
+        this.basicAuth = basicAuth;
+        this.clients = clients;
+        this.codes = codes;
+    }
+
+    @Override
+    public AuthorizationResponse authorize(AuthorizationRequest req) {
+        // RFC 6749 4.1.2.1: without a known client and a registered redirect URI, do not redirect anywhere
+        OAuthClient client = clients.findById(req.getClientId())
+                .orElseThrow(() -> OAuthError.invalidRequest("unknown client_id"));
+        String redirect = client.resolveRedirectUri(req.getRedirectUri());
+        if (redirect == null) {
+            throw OAuthError.invalidRequest("redirect_uri is missing or not registered for this client");
+        }
+
+        String state = req.getState();
+        if (!"code".equals(req.getResponseType())) {
+            return AuthorizationResponse.error(redirect, "unsupported_response_type", "only response_type=code is supported", state);
+        }
+        if (!client.allowsGrantType("authorization_code")) {
+            return AuthorizationResponse.error(redirect, "unauthorized_client", "client is not registered for the authorization_code grant", state);
+        }
+        if (!client.allowsScope(req.getScope())) {
+            return AuthorizationResponse.error(redirect, "invalid_scope", "scope exceeds the client's registered scope", state);
+        }
+        String challenge = req.getCodeChallenge();
+        if (challenge != null || req.getCodeChallengeMethod() != null) {
+            // plain is optional in RFC 7636 and only exists for clients that cannot hash; S256 only
+            if (!"S256".equals(req.getCodeChallengeMethod())) {
+                return AuthorizationResponse.error(redirect, "invalid_request", "code_challenge_method must be S256", state);
+            }
+            if (challenge == null || challenge.length() != S256_CHALLENGE_LENGTH) {
+                return AuthorizationResponse.error(redirect, "invalid_request", "malformed code_challenge", state);
+            }
+        }
+
+        if (isBlank(req.getUsername()) || isBlank(req.getPassword())) {
+            throw new IllegalArgumentException("Credentials required");
+        }
+        User user = basicAuth.authenticate(Map.of("email", req.getUsername(), "password", req.getPassword()));
+        if (!user.isActive()) {
+            return AuthorizationResponse.error(redirect, "access_denied", null, state);
+        }
+
+        String code = codes.issue(new AuthorizationCodeStorePort.Grant(
+                user.getId(), client.getClientId(), req.getRedirectUri(), client.grantedScope(req.getScope()), challenge));
+        return AuthorizationResponse.code(redirect, code, state);
+    }
+
+    private static boolean isBlank(String s) { return s == null || s.isBlank(); }
+}
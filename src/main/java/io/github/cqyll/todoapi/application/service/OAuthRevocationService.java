@@ -0,0 +1,45 @@
+package io.github.cqyll.todoapi.application.service;
+
+import io.github.cqyll.todoapi.adapter.inbound.web.OAuthError;
+import io.github.cqyll.todoapi.application.port.inbound.OAuthRevocationUseCase;
+import io.github.cqyll.todoapi.application.port.outbound.RefreshTokenStorePort;
+import io.github.cqyll.todoapi.application.port.outbound.TokenProviderPort;
+
+public class OAuthRevocationService implements OAuthRevocationUseCase {
+    private final TokenProviderPort tokenProvider;
+    private final ClientAuthenticator clientAuth;
+    private final RefreshTokenStorePort refreshTokens;
+
+    public OAuthRevocationService(TokenProviderPort tokenProvider, ClientAuthenticator clientAuth) {
+        this(tokenProvider, clientAuth, null);
+    }
+
+    /** @param refreshTokens also revoked through this endpoint, or {@code null} if none are issued */
+    public OAuthRevocationService(TokenProviderPort tokenProvider, ClientAuthenticator clientAuth,
+            RefreshTokenStorePort refreshTokens) {
+        this.tokenProvider = tokenProvider;
+        this.clientAuth = clientAuth;
+        this.refreshTokens = refreshTokens;
+    }
+
+    @Override
+    public void revoke(String clientId, String clientSecret, String token, String tokenTypeHint) {
+        clientAuth.authenticate(clientId, clientSecret);
+
+        if (token == null || token.isBlank()) {
+            throw OAuthError.invalidRequest("token is required");
+        }
+
+        // RFC 7009 2.2: invalid, expired and already revoked tokens get the same 200 as a successful revocation,
+        // so results only decide whether the other token type is worth trying. The hint just picks the first.
+        if (refreshTokens == null) {
+            tokenProvider.revoke(token);
+        } else if ("refresh_token".equals(tokenTypeHint)) {
+            if (!refreshTokens.revoke(token)) {
+                tokenProvider.revoke(token);
+            }
+        } else if (!tokenProvider.revoke(token)) {
+            refreshTokens.revoke(token);
+        }
+    }
+}
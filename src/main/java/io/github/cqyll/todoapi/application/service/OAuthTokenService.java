@@ -1,86 +1,232 @@
-package io.github.cqyll.todoapi.application.service;
-
-import io.github.cqyll.todoapi.application.port.inbound.OAuthTokenUseCase;
-import io.github.cqyll.todoapi.application.port.outbound.TokenProviderPort;
-import io.github.cqyll.todoapi.domain.User;
-import io.github.cqyll.todoapi.dto.OAuthTokenRequest;
-import io.github.cqyll.todoapi.adapter.inbound.web.OAuthError;
-
-import java.util.Map;
-
-public class OAuthTokenService implements OAuthTokenUseCase {
-    private final BasicCredentialsAuthenticator basicAuth;
-    private final TokenProviderPort tokenProvider;
-
-    // Replace with ClientRepositoryPort later
-    private final String expectedClientId;
-    private final String expectedClientSecret;
-
-    public OAuthTokenService(
-            BasicCredentialsAuthenticator basicAuth,
-            TokenProviderPort tokenProvider,
-            String expectedClientId,
-            String expectedClientSecret
-    ) {
-        this.basicAuth = basicAuth;
-        this.tokenProvider = tokenProvider;
-        this.expectedClientId = expectedClientId;
-        this.expectedClientSecret = expectedClientSecret;
-    }
-
-    @Override
-    public Map<String, Object> token(OAuthTokenRequest req) {
-        // RFC 6749 required params
-        if (isBlank(req.getGrantType())) {
-            throw OAuthError.invalidRequest("grant_type is required");
-        }
-
-        // Validate client (token endpoint may require confidential client auth in many deployments).
-        if (isBlank(req.getClientId())) {
-            throw OAuthError.invalidClient("client authentication failed");
-        }
-        
-        // hard-coded clientId & clientSecret for demo purposes
-        // Constants set in `MainTest.java` must match `AppConfig.java` constructor args
-        if (!expectedClientId.equals(req.getClientId())
-                || !expectedClientSecret.equals(nullToEmpty(req.getClientSecret()))) {
-            throw OAuthError.invalidClient("client authentication failed");
-        }
-
-        // route by grant type
-        String grant = req.getGrantType();
-        if (!"password".equals(grant)) {
-            // currently only support password grants
-            throw OAuthError.unsupportedGrantType("grant_type not supported");
-        }
-
-        if (isBlank(req.getUsername()) || isBlank(req.getPassword())) {
-            throw OAuthError.invalidRequest("username and password are required for password grant");
-        }
-
-        final User user;
-        try {
-        	 user = basicAuth.authenticate(Map.of(
-                     "email", req.getUsername(),
-                     "password", req.getPassword()
-             ));
-        } catch (RuntimeException e) {
-        	throw OAuthError.invalidGrant("invalid resource owner credentials");
-        }
-       
-        if (!user.isActive()) {
-            throw OAuthError.invalidGrant("invalid resource owner credentials"); // invalid_grant for bad user creds / invalid grant usage.
-        }
-
-        String access = tokenProvider.createToken(user.getId());
-
-        return Map.of(
-                "access_token", access,
-                "token_type", "Bearer",
-                "expires_in", 3600
-        );
-    }
-
-    private static boolean isBlank(String s) { return s == null || s.isBlank(); }
-    private static String nullToEmpty(String s) { return s == null ? "" : s; }
-}
+package io.github.cqyll.todoapi.application.service;
+
+import io.github.cqyll.todoapi.application.port.inbound.OAuthTokenUseCase;
+import io.github.cqyll.todoapi.application.port.outbound.AuthorizationCodeStorePort;
+import io.github.cqyll.todoapi.application.port.outbound.RefreshTokenStorePort;
+import io.github.cqyll.todoapi.application.port.outbound.TokenProviderPort;
+import io.github.cqyll.todoapi.application.port.outbound.UserRepositoryPort;
+import io.github.cqyll.todoapi.domain.OAuthClient;
+import io.github.cqyll.todoapi.domain.User;
+import io.github.cqyll.todoapi.dto.OAuthTokenRequest;
+import io.github.cqyll.todoapi.dto.TokenResponse;
+import io.github.cqyll.todoapi.adapter.inbound.web.OAuthError;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+
+public class OAuthTokenService implements OAuthTokenUseCase {
+    private final BasicCredentialsAuthenticator basicAuth;
+    private final TokenProviderPort tokenProvider;
+    private final ClientAuthenticator clientAuth;
+    private final UserRepositoryPort users;
+    private final RefreshTokenStorePort refreshTokens;
+    private final AuthorizationCodeStorePort codes;
+
+    /** Password grant only, without refresh tokens. */
+    public OAuthTokenService(
+            BasicCredentialsAuthenticator basicAuth,
+            TokenProviderPort tokenProvider,
+            ClientAuthenticator clientAuth
+    ) {
+        this(basicAuth, tokenProvider, clientAuth, null, null, null);
+    }
+
+    /**
+     * @param users re-read on each refresh, so a deactivated user cannot keep refreshing
+     * @param refreshTokens issues refresh tokens to clients registered for them and serves the refresh_token
+     *        grant, or {@code null} for none
+     * @param codes serves the authorization_code grant, or {@code null} if it is not offered
+     */
+    public OAuthTokenService(
+            BasicCredentialsAuthenticator basicAuth,
+            TokenProviderPort tokenProvider,
+            ClientAuthenticator clientAuth,
+            UserRepositoryPort users,
+            RefreshTokenStorePort refreshTokens,
+            AuthorizationCodeStorePort codes
+    ) {
+        this.basicAuth = basicAuth;
+        this.tokenProvider = tokenProvider;
+        this.clientAuth = clientAuth;
+        this.users = users;
+        this.refreshTokens = refreshTokens;
+        this.codes = codes;
+    }
+
+    @Override
+    public TokenResponse token(OAuthTokenRequest req) {
+        // RFC 6749 required params
+        if (isBlank(req.getGrantType())) {
+            throw OAuthError.invalidRequest("grant_type is required");
+        }
+
+        // Validate client (token endpoint may require confidential client auth in many deployments).
+        OAuthClient client = clientAuth.authenticate(req.getClientId(), req.getClientSecret());
+
+        // route by grant type
+        String grant = req.getGrantType();
+        boolean supported = "password".equals(grant) || "client_credentials".equals(grant)
+                || ("refresh_token".equals(grant) && refreshTokens != null)
+                || ("authorization_code".equals(grant) && codes != null);
+        if (!supported) {
+            throw OAuthError.unsupportedGrantType("grant_type not supported");
+        }
+        if (!client.allowsGrantType(grant)) {
+            throw OAuthError.unauthorizedClient("client is not registered for this grant_type");
+        }
+
+        switch (grant) {
+            case "password":
+                return passwordGrant(req, client);
+            case "client_credentials":
+                return clientCredentialsGrant(req, client);
+            case "authorization_code":
+                return authorizationCodeGrant(req, client);
+            default:
+                return refreshTokenGrant(req);
+        }
+    }
+
+    private TokenResponse passwordGrant(OAuthTokenRequest req, OAuthClient client) {
+        if (isBlank(req.getUsername()) || isBlank(req.getPassword())) {
+            throw OAuthError.invalidRequest("username and password are required for password grant");
+        }
+        // checked before the password, so a bad request does not cost a hash
+        if (!client.allowsScope(req.getScope())) {
+            throw OAuthError.invalidScope("scope exceeds the client's registered scope");
+        }
+
+        final User user;
+        try {
+        	 user = basicAuth.authenticate(Map.of(
+                     "email", req.getUsername(),
+                     "password", req.getPassword()
+             ));
+        } catch (IllegalArgumentException e) {
+        	// anything else (e.g. a saturated hasher) is not the client's fault and must not read as a bad password
+        	throw OAuthError.invalidGrant("invalid resource owner credentials");
+        }
+       
+        if (!user.isActive()) {
+            throw OAuthError.invalidGrant("invalid resource owner credentials"); // invalid_grant for bad user creds / invalid grant usage.
+        }
+
+        return userTokens(user.getId(), client, client.grantedScope(req.getScope()));
+    }
+
+    /**
+     * RFC 6749 section 4.1.3. The code is consumed before anything else is checked, so a code presented with a
+     * wrong redirect URI or verifier is gone for good, like any other redeemed code.
+     */
+    private TokenResponse authorizationCodeGrant(OAuthTokenRequest req, OAuthClient client) {
+        if (isBlank(req.getCode())) {
+            throw OAuthError.invalidRequest("code is required for authorization_code grant");
+        }
+
+        AuthorizationCodeStorePort.Grant grant = codes.consume(req.getCode())
+                .orElseThrow(() -> OAuthError.invalidGrant("invalid authorization code"));
+
+        if (!grant.clientId().equals(client.getClientId())) {
+            throw OAuthError.invalidGrant("invalid authorization code");
+        }
+        // must repeat the redirect_uri of the authorization request, if that had one
+        if (grant.redirectUri() != null && !grant.redirectUri().equals(req.getRedirectUri())) {
+            throw OAuthError.invalidGrant("redirect_uri does not match the authorization request");
+        }
+        if (grant.codeChallenge() != null && !verifierMatches(req.getCodeVerifier(), grant.codeChallenge())) {
+            throw OAuthError.invalidGrant("code_verifier does not match the code_challenge");
+        }
+
+        boolean active = users.findById(grant.userId()).map(User::isActive).orElse(false);
+        if (!active) {
+            throw OAuthError.invalidGrant("invalid authorization code");
+        }
+        return userTokens(grant.userId(), client, client.grantedScope(grant.scope()));
+    }
+
+    /** An access token for a user, plus a refresh token if the client may use one. */
+    private TokenResponse userTokens(UUID userId, OAuthClient client, String scope) {
+        String access = createAccessToken(userId, scope);
+        if (refreshTokens == null || !client.allowsGrantType("refresh_token")) {
+            return TokenResponse.bearer(access, tokenProvider.getTokenTtlSeconds());
+        }
+        String refresh = refreshTokens.issue(userId, client.getClientId(), scope);
+        return TokenResponse.bearer(access, tokenProvider.getTokenTtlSeconds(), refresh);
+    }
+
+    /**
+     * RFC 6749 section 4.4: the client acts on its own behalf, so no user is looked up and no password hashed.
+     * The token's subject is the client's own id, its scope the requested one or else everything the client is
+     * registered for. No refresh token: the client can simply authenticate again.
+     */
+    private TokenResponse clientCredentialsGrant(OAuthTokenRequest req, OAuthClient client) {
+        if (!client.allowsScope(req.getScope())) {
+            throw OAuthError.invalidScope("scope exceeds the client's registered scope");
+        }
+        String scope = client.grantedScope(req.getScope());
+        String access = createAccessToken(client.getSubjectId(), scope);
+        return TokenResponse.bearer(access, tokenProvider.getTokenTtlSeconds());
+    }
+
+    /**
+     * RFC 6749 section 6. The presented token is used up and its successor returned; a replayed one revokes its
+     * whole family (see {@link RefreshTokenStorePort}). The access token is built before the presented token is
+     * used up, so a request refused for its scope leaves the client's token current rather than turning its
+     * retry into a replay.
+     */
+    private TokenResponse refreshTokenGrant(OAuthTokenRequest req) {
+        if (isBlank(req.getRefreshToken())) {
+            throw OAuthError.invalidRequest("refresh_token is required for refresh_token grant");
+        }
+
+        return refreshTokens.rotate(req.getRefreshToken(), req.getClientId(), rotation -> {
+            boolean active = users.findById(rotation.userId()).map(User::isActive).orElse(false);
+            if (!active) {
+                refreshTokens.revoke(req.getRefreshToken());
+                throw OAuthError.invalidGrant("invalid refresh token");
+            }
+
+            // a refresh may narrow the original scope for this access token, never widen it
+            String scope = rotation.scope();
+            if (!isBlank(req.getScope())) {
+                if (!OAuthClient.scopeTokens(rotation.scope()).containsAll(OAuthClient.scopeTokens(req.getScope()))) {
+                    throw OAuthError.invalidScope("scope exceeds the scope originally granted");
+                }
+                scope = req.getScope();
+            }
+
+            String access = createAccessToken(rotation.userId(), scope);
+            return TokenResponse.bearer(access, tokenProvider.getTokenTtlSeconds(), rotation.refreshToken());
+        }).orElseThrow(() -> OAuthError.invalidGrant("invalid refresh token"));
+    }
+
+    private String createAccessToken(UUID userId, String scope) {
+        try {
+            return tokenProvider.createToken(userId, scope);
+        } catch (IllegalArgumentException e) {
+            throw OAuthError.invalidScope(e.getMessage());
+        }
+    }
+
+    /** RFC 7636 section 4.6, S256: {@code BASE64URL(SHA256(ASCII(code_verifier))) == code_challenge}. */
+    private static boolean verifierMatches(String verifier, String challenge) {
+        // 43 to 128 unreserved characters
+        if (verifier == null || verifier.length() < 43 || verifier.length() > 128
+                || !verifier.chars().allMatch(c -> c < 128 && (Character.isLetterOrDigit(c) || "-._~".indexOf(c) >= 0))) {
+            return false;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(verifier.getBytes(StandardCharsets.US_ASCII));
+            byte[] computed = Base64.getUrlEncoder().withoutPadding().encode(digest);
+            return MessageDigest.isEqual(computed, challenge.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static boolean isBlank(String s) { return s == null || s.isBlank(); }
+}
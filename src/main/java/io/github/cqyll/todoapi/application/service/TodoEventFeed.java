@@ -0,0 +1,255 @@
+package io.github.cqyll.todoapi.application.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import io.github.cqyll.todoapi.application.port.inbound.TodoEventsUseCase.Subscription;
+import io.github.cqyll.todoapi.application.port.outbound.TodoRepositoryPort;
+import io.github.cqyll.todoapi.dto.TodoEvent;
+
+/**
+ * Fans the todo store's writes out to the subscribers of each owner. Listens to the store (see
+ * {@link TodoRepositoryPort.Listener}); {@link TodoService} hands out the subscriptions.
+ *
+ * <p>Each owner being followed has a {@link Channel}: the last {@code capacity} events in a ring, and a cursor
+ * per subscriber into it. Publishing stores the event in its slot and wakes the waiting subscribers, which copy
+ * out what they have not seen; it costs the same for one subscriber as for many, and it never waits for one. A
+ * subscriber that stops reading, because its client is slow or gone, just falls behind; once the ring has moved
+ * past its cursor it is told to resync rather than holding anything up. At most {@code maxSubscribers} follow
+ * one owner; a newer one closes the oldest, which is most likely a connection its client has already given
+ * up on.</p>
+ *
+ * <p>Only owners someone follows have a channel, so writes by everyone else cost a map lookup. A channel
+ * outlives its last subscriber by {@code resumeNanos}, so a client that reconnects within that time picks up
+ * where it left off instead of resyncing; after that it is dropped, by the next write of its owner or the next
+ * sweep, whichever comes first.</p>
+ */
+public class TodoEventFeed implements TodoRepositoryPort.Listener {
+	public static final int DEFAULT_CAPACITY = 256;
+	public static final int DEFAULT_MAX_SUBSCRIBERS = 8;
+	public static final long DEFAULT_RESUME_SECONDS = 60;
+
+	/** Sentinel {@link Channel#newest} of a channel that has neither seen an event nor been told a version. */
+	private static final long NONE = Long.MIN_VALUE;
+
+	private final ConcurrentHashMap<UUID, Channel> channels = new ConcurrentHashMap<>();
+	private final int capacity;
+	private final int maxSubscribers;
+	private final long resumeNanos;
+	private final LongSupplier nanoTime;
+	private volatile long lastSweep;
+
+	public TodoEventFeed() {
+		this(DEFAULT_CAPACITY, DEFAULT_MAX_SUBSCRIBERS);
+	}
+
+	/**
+	 * @param capacity       events remembered per followed owner: how far a subscriber may fall behind, or how
+	 *                       many changes a reconnecting one may have missed, before it has to resync
+	 * @param maxSubscribers subscribers per owner
+	 */
+	public TodoEventFeed(int capacity, int maxSubscribers) {
+		this(capacity, maxSubscribers, TimeUnit.SECONDS.toNanos(DEFAULT_RESUME_SECONDS), System::nanoTime);
+	}
+
+	TodoEventFeed(int capacity, int maxSubscribers, long resumeNanos, LongSupplier nanoTime) {
+		if (capacity < 1 || maxSubscribers < 1) {
+			throw new IllegalArgumentException("capacity and maxSubscribers must be positive");
+		}
+		this.capacity = capacity;
+		this.maxSubscribers = maxSubscribers;
+		this.resumeNanos = resumeNanos;
+		this.nanoTime = nanoTime;
+		this.lastSweep = nanoTime.getAsLong();
+	}
+
+	@Override
+	public void written(TodoEvent event) {
+		UUID owner = event.todo().getOwnerId();
+		Channel c = channels.get(owner);
+		if (c == null) {
+			return;
+		}
+		c.lock.lock();
+		try {
+			if (c.subscribers.isEmpty() && nanoTime.getAsLong() - c.idleSince > resumeNanos) {
+				c.dropped = true;
+				channels.remove(owner, c);
+				return;
+			}
+			c.append(event);
+		} finally {
+			c.lock.unlock();
+		}
+	}
+
+	/**
+	 * @param version the owner's current version, as a starting point for an owner nobody follows yet; read
+	 *                before subscribing, so a write racing it shows up as an event or is already counted
+	 */
+	Subscription subscribe(UUID ownerId, Long lastEventId, long version) {
+		sweepIfDue();
+		while (true) {
+			Channel c = channels.computeIfAbsent(ownerId, k -> new Channel(k, capacity, nanoTime.getAsLong()));
+			c.lock.lock();
+			try {
+				if (c.dropped) {
+					continue;
+				}
+				if (c.newest == NONE) {
+					c.newest = version;
+					c.floor = version + 1;
+				}
+				Sub sub = new Sub(c);
+				// an id the channel has not reached is from before a restart, or made up; resync either way
+				long last = lastEventId == null ? c.newest : lastEventId;
+				sub.cursor = last > c.newest ? c.floor - 1 : last + 1;
+				c.subscribers.addLast(sub);
+				if (c.subscribers.size() > maxSubscribers) {
+					c.subscribers.pollFirst().closed = true;
+					c.changed.signalAll();
+				}
+				return sub;
+			} finally {
+				c.lock.unlock();
+			}
+		}
+	}
+
+	/** Owners followed right now or recently; for tests and monitoring. */
+	int channels() {
+		return channels.size();
+	}
+
+	/** Drops channels whose resume window has passed, at most once per window. */
+	private void sweepIfDue() {
+		long now = nanoTime.getAsLong();
+		if (now - lastSweep < resumeNanos) {
+			return;
+		}
+		lastSweep = now;
+		for (Channel c : channels.values()) {
+			c.lock.lock();
+			try {
+				if (c.subscribers.isEmpty() && now - c.idleSince > resumeNanos) {
+					c.dropped = true;
+					channels.remove(c.owner, c);
+				}
+			} finally {
+				c.lock.unlock();
+			}
+		}
+	}
+
+	/** One followed owner. Everything is guarded by {@link #lock}. */
+	private static final class Channel {
+		final UUID owner;
+		final ReentrantLock lock = new ReentrantLock();
+		final Condition changed = lock.newCondition();
+		final TodoEvent[] ring;
+		final ArrayDeque<Sub> subscribers = new ArrayDeque<>();
+		/** Id of the latest event, or the version the channel started from; {@link #NONE} until either. */
+		long newest = NONE;
+		/** Oldest id still in the ring; {@code newest + 1} if it is empty. */
+		long floor;
+		long idleSince;
+		/** Removed from the map; a subscriber that finds it so creates a new one. */
+		boolean dropped;
+
+		Channel(UUID owner, int capacity, long now) {
+			this.owner = owner;
+			this.ring = new TodoEvent[capacity];
+			this.idleSince = now;
+		}
+
+		void append(TodoEvent e) {
+			if (newest == NONE) {
+				newest = e.id() - 1;
+				floor = e.id();
+			}
+			if (e.id() <= newest) {
+				return; // counted in the version the channel started from
+			}
+			if (e.id() != newest + 1) {
+				// versions jump when an owner with no todos stores one; nobody waiting for the next event missed
+				// anything, but nothing before it can be replayed
+				for (Sub s : subscribers) {
+					if (s.cursor == newest + 1) {
+						s.cursor = e.id();
+					}
+				}
+				floor = e.id();
+			}
+			ring[Math.floorMod(e.id(), ring.length)] = e;
+			newest = e.id();
+			floor = Math.max(floor, newest - ring.length + 1);
+			if (!subscribers.isEmpty()) {
+				changed.signalAll();
+			}
+		}
+	}
+
+	private final class Sub implements Subscription {
+		final Channel channel;
+		/** Id of the next event to hand out. */
+		long cursor;
+		boolean closed;
+
+		Sub(Channel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public List<TodoEvent> next(long timeout, TimeUnit unit) throws InterruptedException {
+			Channel c = channel;
+			long nanos = unit.toNanos(timeout);
+			c.lock.lock();
+			try {
+				while (!closed && cursor > c.newest) {
+					if (nanos <= 0) {
+						return List.of();
+					}
+					nanos = c.changed.awaitNanos(nanos);
+				}
+				if (closed) {
+					return null;
+				}
+				if (cursor < c.floor) {
+					cursor = c.newest + 1;
+					return List.of(TodoEvent.resync(c.newest));
+				}
+				List<TodoEvent> events = new ArrayList<>((int) (c.newest - cursor + 1));
+				for (; cursor <= c.newest; cursor++) {
+					events.add(c.ring[Math.floorMod(cursor, c.ring.length)]);
+				}
+				return events;
+			} finally {
+				c.lock.unlock();
+			}
+		}
+
+		@Override
+		public void close() {
+			Channel c = channel;
+			c.lock.lock();
+			try {
+				if (!closed) {
+					closed = true;
+					c.subscribers.remove(this);
+				}
+				if (c.subscribers.isEmpty()) {
+					c.idleSince = nanoTime.getAsLong();
+				}
+			} finally {
+				c.lock.unlock();
+			}
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package io.github.cqyll.todoapi.application.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import io.github.cqyll.todoapi.application.port.inbound.TodoCommandUseCase;
+import io.github.cqyll.todoapi.application.port.inbound.TodoEventsUseCase;
+import io.github.cqyll.todoapi.application.port.inbound.TodoQueryUseCase;
+import io.github.cqyll.todoapi.application.port.inbound.TodoSearchUseCase;
+import io.github.cqyll.todoapi.application.port.outbound.TodoRepositoryPort;
+import io.github.cqyll.todoapi.application.port.outbound.TodoRepositoryPort.Write;
+import io.github.cqyll.todoapi.domain.Todo;
+import io.github.cqyll.todoapi.dto.TodoOperation;
+import io.github.cqyll.todoapi.dto.TodoOperationResult;
+import io.github.cqyll.todoapi.dto.TodoOperationResult.Outcome;
+
+/**
+ * A user's todos. The owner id always comes from the authenticated caller, never from the request, so nobody can
+ * reach another user's todos.
+ */
+public class TodoService implements TodoCommandUseCase, TodoQueryUseCase, TodoSearchUseCase, TodoEventsUseCase {
+	private final TodoRepositoryPort todos;
+	private final Clock clock;
+	private final TodoEventFeed events;
+
+	public TodoService(TodoRepositoryPort todos) {
+		this(todos, Clock.systemUTC());
+	}
+
+	public TodoService(TodoRepositoryPort todos, Clock clock) {
+		this(todos, clock, null);
+	}
+
+	/** @param events the feed {@code todos} reports its writes to; {@code null} if there is none to subscribe to */
+	public TodoService(TodoRepositoryPort todos, Clock clock, TodoEventFeed events) {
+		this.todos = todos;
+		this.clock = clock;
+		this.events = events;
+	}
+
+	@Override
+	public Todo create(UUID ownerId, String title, boolean completed, Instant dueAt) {
+		Todo todo = Todo.create(ownerId, title, completed, dueAt, now());
+		todos.save(todo);
+		return todo;
+	}
+
+	@Override
+	public Optional<Todo> update(UUID ownerId, UUID id, String title, Boolean completed, Optional<Instant> dueAt) {
+		Instant now = now();
+		return todos.update(ownerId, id, todo -> todo.update(title, completed, dueAt, now));
+	}
+
+	@Override
+	public boolean delete(UUID ownerId, UUID id) {
+		return todos.delete(ownerId, id);
+	}
+
+	/**
+	 * Checks every operation first, so that whatever can be refused without looking at the store is refused
+	 * before the owner's todos are locked, then hands the rest to the repository as one batch.
+	 */
+	@Override
+	public List<TodoOperationResult> applyAll(UUID ownerId, List<TodoOperation> operations) {
+		Instant now = now();
+		TodoOperationResult[] results = new TodoOperationResult[operations.size()];
+		List<Write> writes = new ArrayList<>(operations.size());
+		for (int i = 0; i < results.length; i++) {
+			TodoOperation op = operations.get(i);
+			try {
+				writes.add(switch (op.kind()) {
+					case CREATE -> new Write.Save(
+							Todo.create(ownerId, op.title(), Boolean.TRUE.equals(op.completed()), op.dueAt(), now));
+					case UPDATE -> {
+						if (op.title() != null) {
+							Todo.validateTitle(op.title());
+						}
+						// a batch update, like a PATCH, only sets a due date; it has no way to clear one
+						Optional<Instant> dueAt = op.dueAt() == null ? null : Optional.of(op.dueAt());
+						yield new Write.Update(op.id(), todo -> todo.update(op.title(), op.completed(), dueAt, now));
+					}
+					case DELETE -> new Write.Delete(op.id());
+				});
+			} catch (IllegalArgumentException e) {
+				results[i] = TodoOperationResult.invalid(e.getMessage());
+			}
+		}
+
+		List<Optional<Todo>> written = writes.isEmpty() ? List.of() : todos.writeAll(ownerId, writes);
+		int w = 0;
+		for (int i = 0; i < results.length; i++) {
+			if (results[i] != null) {
+				continue;
+			}
+			Optional<Todo> todo = written.get(w++);
+			results[i] = todo.isEmpty()
+					? TodoOperationResult.notFound()
+					: TodoOperationResult.of(switch (operations.get(i).kind()) {
+						case CREATE -> Outcome.CREATED;
+						case UPDATE -> Outcome.UPDATED;
+						case DELETE -> Outcome.DELETED;
+					}, todo.get());
+		}
+		return Arrays.asList(results);
+	}
+
+	@Override
+	public Optional<Todo> get(UUID ownerId, UUID id) {
+		return todos.findById(ownerId, id);
+	}
+
+	@Override
+	public List<Todo> list(UUID ownerId) {
+		return todos.findByOwner(ownerId);
+	}
+
+	@Override
+	public List<Todo> listDue(UUID ownerId, Instant from, Instant to) {
+		if (from != null && to != null && from.isAfter(to)) {
+			throw new IllegalArgumentException("Range starts after it ends");
+		}
+		return todos.findDue(ownerId, from, to);
+	}
+
+	@Override
+	public Stream<Todo> export(UUID ownerId) {
+		return todos.streamByOwner(ownerId);
+	}
+
+	@Override
+	public long version(UUID ownerId) {
+		return todos.version(ownerId);
+	}
+
+	@Override
+	public List<Todo> search(UUID ownerId, String query, int limit) {
+		if (query == null || query.isBlank()) {
+			throw new IllegalArgumentException("Query cannot be empty");
+		}
+		if (query.length() > MAX_QUERY_LENGTH) {
+			throw new IllegalArgumentException("Query longer than " + MAX_QUERY_LENGTH + " characters");
+		}
+		if (limit < 1 || limit > MAX_LIMIT) {
+			throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+		}
+		return todos.search(ownerId, query, limit);
+	}
+
+	/** @throws IllegalStateException if the service was built without an event feed */
+	@Override
+	public Subscription subscribe(UUID ownerId, Long lastEventId) {
+		if (events == null) {
+			throw new IllegalStateException("No event feed");
+		}
+		return events.subscribe(ownerId, lastEventId, todos.version(ownerId));
+	}
+
+	/** Millisecond precision, which is what clients get to see. */
+	private Instant now() {
+		return Instant.ofEpochMilli(clock.millis());
+	}
+}
@@ -1,56 +1,322 @@
-package io.github.cqyll.todoapi.config;
-
-import com.sun.net.httpserver.HttpServer;
-import io.github.cqyll.todoapi.adapter.inbound.web.LoginController;
-import io.github.cqyll.todoapi.adapter.inbound.web.OAuthTokenController;
-import io.github.cqyll.todoapi.adapter.inbound.web.UserController;
-import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryUserAdapter;
-import io.github.cqyll.todoapi.adapter.outbound.security.FakeTokenProviderAdapter;
-import io.github.cqyll.todoapi.adapter.outbound.security.SimplePasswordHasherAdapter;
-import io.github.cqyll.todoapi.application.port.outbound.PasswordHasherPort;
-import io.github.cqyll.todoapi.application.port.outbound.TokenProviderPort;
-import io.github.cqyll.todoapi.application.port.outbound.UserRepositoryPort;
-import io.github.cqyll.todoapi.application.service.BasicCredentialsAuthenticator;
-import io.github.cqyll.todoapi.application.service.BasicLoginService;
-import io.github.cqyll.todoapi.application.service.OAuthTokenService;
-import io.github.cqyll.todoapi.application.service.UserRegistrationService;
-
-import java.io.IOException;
-import java.net.InetSocketAddress;
-
-public class AppConfig {
-    private UserController userController;
-    private LoginController loginController;
-    private OAuthTokenController oauthTokenController;
-
-    public AppConfig() { initialize(); }
-
-    private void initialize() {
-        UserRepositoryPort userRepo = new InMemoryUserAdapter();
-        PasswordHasherPort hasher = new SimplePasswordHasherAdapter();
-        TokenProviderPort tokenProvider = new FakeTokenProviderAdapter();
-
-        UserRegistrationService reg = new UserRegistrationService(userRepo, hasher, tokenProvider);
-        userController = new UserController(reg);
-
-        BasicCredentialsAuthenticator basicAuth = new BasicCredentialsAuthenticator(userRepo, hasher);
-
-        loginController = new LoginController(new BasicLoginService(basicAuth, tokenProvider));
-
-        oauthTokenController = new OAuthTokenController(
-                new OAuthTokenService(basicAuth, tokenProvider, "todo-web", "todo-secret")
-        );
-    }
-
-    public HttpServer createHttpServer() {
-        try {
-            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 8080), 0);
-            server.createContext("/register", userController);
-            server.createContext("/login", loginController);
-            server.createContext("/oauth/token", oauthTokenController);
-            return server;
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-    }
-}
+package io.github.cqyll.todoapi.config;
+
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.github.cqyll.todoapi.adapter.inbound.nio.NioHttpServer;
+import io.github.cqyll.todoapi.adapter.inbound.web.AdaptiveConcurrencyLimiter;
+import io.github.cqyll.todoapi.adapter.inbound.web.AdmissionFilter;
+import io.github.cqyll.todoapi.adapter.inbound.web.BearerAuthFilter;
+import io.github.cqyll.todoapi.adapter.inbound.web.CompressionFilter;
+import io.github.cqyll.todoapi.adapter.inbound.web.LoginController;
+import io.github.cqyll.todoapi.adapter.inbound.web.LoginThrottle;
+import io.github.cqyll.todoapi.adapter.inbound.web.OAuthAuthorizeController;
+import io.github.cqyll.todoapi.adapter.inbound.web.OAuthRevocationController;
+import io.github.cqyll.todoapi.adapter.inbound.web.OAuthTokenController;
+import io.github.cqyll.todoapi.adapter.inbound.web.RequestPriority;
+import io.github.cqyll.todoapi.adapter.inbound.web.TodoController;
+import io.github.cqyll.todoapi.adapter.inbound.web.TodoEventsController;
+import io.github.cqyll.todoapi.adapter.inbound.web.TokenBuckets;
+import io.github.cqyll.todoapi.adapter.inbound.web.UserController;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.CompactUserAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.FileClientAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryAuthorizationCodeAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryClientAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.FileUserAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryRefreshTokenAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryTodoAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryUserAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.security.HmacTokenProviderAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.security.Pbkdf2PasswordHasherAdapter;
+import io.github.cqyll.todoapi.application.port.outbound.AuthorizationCodeStorePort;
+import io.github.cqyll.todoapi.application.port.outbound.ClientRepositoryPort;
+import io.github.cqyll.todoapi.application.port.outbound.PasswordHasherPort;
+import io.github.cqyll.todoapi.application.port.outbound.RefreshTokenStorePort;
+import io.github.cqyll.todoapi.application.port.outbound.TokenProviderPort;
+import io.github.cqyll.todoapi.application.port.outbound.UserRepositoryPort;
+import io.github.cqyll.todoapi.application.service.BasicCredentialsAuthenticator;
+import io.github.cqyll.todoapi.application.service.BasicLoginService;
+import io.github.cqyll.todoapi.application.service.BearerAuthenticationService;
+import io.github.cqyll.todoapi.application.service.ClientAuthenticator;
+import io.github.cqyll.todoapi.application.service.OAuthAuthorizationService;
+import io.github.cqyll.todoapi.application.service.OAuthRevocationService;
+import io.github.cqyll.todoapi.application.service.OAuthTokenService;
+import io.github.cqyll.todoapi.application.service.TodoEventFeed;
+import io.github.cqyll.todoapi.application.service.TodoService;
+import io.github.cqyll.todoapi.application.service.UserRegistrationService;
+import io.github.cqyll.todoapi.domain.OAuthClient;
+import io.github.cqyll.todoapi.domain.Password;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class AppConfig implements AutoCloseable {
+    /** Keys tracked per throttle dimension; past this, new keys go unthrottled rather than growing the heap. */
+    private static final int THROTTLE_MAX_KEYS = 100_000;
+    /** Where the built-in client receives authorization codes; a local development callback. */
+    public static final String DEFAULT_REDIRECT_URI = "http://localhost/callback";
+
+    private final AppSettings settings;
+    private UserRepositoryPort userRepo;
+    /** Shared by every server built here; {@code null} in {@link ExecutionMode#DISPATCHER} mode. */
+    private ExecutorService executor;
+    private final List<HttpServer> servers = new ArrayList<>();
+    private boolean closed;
+
+    private UserController userController;
+    private LoginController loginController;
+    private OAuthTokenController oauthTokenController;
+    private OAuthRevocationController oauthRevocationController;
+    private OAuthAuthorizeController oauthAuthorizeController;
+    private TodoController todoController;
+    private TodoEventsController todoEventsController;
+    private AdaptiveConcurrencyLimiter limiter;
+    private CompressionFilter compression;
+    private BearerAuthenticationService bearerAuthentication;
+
+    public AppConfig() { this(new AppSettings()); }
+
+    public AppConfig(AppSettings settings) {
+        this.settings = settings;
+        initialize();
+    }
+
+    private void initialize() {
+        userRepo = createUserRepository();
+        PasswordHasherPort hasher = new Pbkdf2PasswordHasherAdapter(settings.getPasswordHashIterations(),
+                settings.getHashingThreads(), settings.getHashingQueueCapacity());
+        TokenProviderPort tokenProvider = createTokenProvider();
+
+        UserRegistrationService reg = new UserRegistrationService(userRepo, hasher, tokenProvider);
+        userController = new UserController(reg);
+
+        BasicCredentialsAuthenticator basicAuth = new BasicCredentialsAuthenticator(userRepo, hasher);
+
+        LoginThrottle throttle = settings.isLoginThrottling() ? createLoginThrottle() : null;
+
+        loginController = new LoginController(new BasicLoginService(basicAuth, tokenProvider), throttle);
+
+        ClientRepositoryPort clients = createClientRepository(hasher);
+        ClientAuthenticator clientAuth = new ClientAuthenticator(clients, hasher);
+        AuthorizationCodeStorePort codes = new InMemoryAuthorizationCodeAdapter();
+
+        RefreshTokenStorePort refreshTokens = settings.isRefreshTokens()
+                ? new InMemoryRefreshTokenAdapter(settings.getRefreshTokenTtlSeconds())
+                : null;
+
+        oauthTokenController = new OAuthTokenController(
+                new OAuthTokenService(basicAuth, tokenProvider, clientAuth, userRepo, refreshTokens, codes),
+                throttle
+        );
+        oauthRevocationController = new OAuthRevocationController(
+                new OAuthRevocationService(tokenProvider, clientAuth, refreshTokens), throttle);
+        oauthAuthorizeController = new OAuthAuthorizeController(
+                new OAuthAuthorizationService(basicAuth, clients, codes), throttle);
+
+        bearerAuthentication = new BearerAuthenticationService(tokenProvider, userRepo,
+                settings.getBearerCacheSize(), settings.getBearerCacheSeconds());
+        // event streams each hold a request thread for as long as they are open, so they are only offered where
+        // that thread is a virtual one; otherwise nothing listens to the store and /todos/events is not found
+        TodoEventFeed events = settings.getExecutionMode() == ExecutionMode.VIRTUAL_THREADS
+                ? new TodoEventFeed(settings.getEventBufferSize(), settings.getEventStreamsPerUser())
+                : null;
+        TodoService todos = new TodoService(new InMemoryTodoAdapter(true, events), Clock.systemUTC(), events);
+        todoController = new TodoController(todos, todos, todos);
+        if (events != null) {
+            todoEventsController = new TodoEventsController(todos, settings.getTokenTtlSeconds());
+        }
+
+        if (settings.isAdmissionControl()) {
+            limiter = new AdaptiveConcurrencyLimiter(
+                    settings.getInitialConcurrencyLimit(), 1, settings.getMaxConcurrencyLimit());
+        }
+        if (settings.isCompression()) {
+            compression = new CompressionFilter(settings.getCompressionMinBytes());
+        }
+        executor = createExecutor();
+    }
+
+    private TokenProviderPort createTokenProvider() {
+        byte[] secret = settings.getTokenSecret() == null
+                ? HmacTokenProviderAdapter.randomSecret()
+                : Base64.getDecoder().decode(settings.getTokenSecret());
+        return new HmacTokenProviderAdapter(secret, settings.getTokenTtlSeconds());
+    }
+
+    /**
+     * The clients file when one is configured; otherwise an in-memory registry holding the built-in
+     * {@code todo-web} client (MainTest and ApiFlowTest log in with its credentials), whose authorization codes
+     * go to {@link #DEFAULT_REDIRECT_URI}.
+     */
+    private ClientRepositoryPort createClientRepository(PasswordHasherPort hasher) {
+        if (settings.getClientsFile() != null) {
+            try {
+                return new FileClientAdapter(Path.of(settings.getClientsFile()));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        ClientRepositoryPort clients = new InMemoryClientAdapter();
+        clients.save(OAuthClient.create("todo-web", Password.fromHash(hasher.hash("todo-secret")),
+                Set.of("password", "refresh_token", "client_credentials", "authorization_code"), null,
+                Set.of(DEFAULT_REDIRECT_URI)));
+        return clients;
+    }
+
+    private LoginThrottle createLoginThrottle() {
+        return new LoginThrottle(
+                new TokenBuckets(settings.getThrottleIpPerMinute(), settings.getThrottleIpPerMinute(), THROTTLE_MAX_KEYS),
+                new TokenBuckets(settings.getThrottleEmailPerMinute(), settings.getThrottleEmailPerMinute(),
+                        THROTTLE_MAX_KEYS),
+                new TokenBuckets(settings.getThrottleClientPerMinute(), settings.getThrottleClientPerMinute(),
+                        THROTTLE_MAX_KEYS));
+    }
+
+    private UserRepositoryPort createUserRepository() {
+        switch (settings.getUserStore()) {
+            case COMPACT:
+                return new CompactUserAdapter();
+            case FILE:
+                try {
+                    return new FileUserAdapter(Path.of(settings.getDataDirectory()), new CompactUserAdapter(),
+                            settings.getSnapshotEvery());
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            case IN_MEMORY:
+            default:
+                return new InMemoryUserAdapter();
+        }
+    }
+
+    /** Builds a server on the configured address; {@link #close()} stops it. */
+    public synchronized HttpServer createHttpServer() {
+        if (closed) {
+            throw new IllegalStateException("AppConfig is closed");
+        }
+        try {
+            InetSocketAddress address = new InetSocketAddress(settings.getHost(), settings.getPort());
+            HttpServer server = settings.getServerType() == ServerType.NIO
+                    ? NioHttpServer.create(address, 0)
+                    : HttpServer.create(address, 0);
+            createContext(server, "/register", userController, RequestPriority.SHEDDABLE);
+            createContext(server, "/login", loginController, RequestPriority.NORMAL);
+            createContext(server, "/oauth/token", oauthTokenController, RequestPriority.CRITICAL);
+            createContext(server, "/oauth/revoke", oauthRevocationController, RequestPriority.CRITICAL);
+            createContext(server, "/oauth/authorize", oauthAuthorizeController, RequestPriority.NORMAL);
+            createProtectedContext(server, "/todos", todoController, RequestPriority.NORMAL);
+            if (todoEventsController != null) {
+                createEventContext(server, "/todos/events", todoEventsController);
+            }
+            server.setExecutor(executor);
+            servers.add(server);
+            return server;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Registers a controller and, when admission control is enabled, puts it behind the shared limiter
+     * with the given priority. Compression comes after admission, so a shed request is not wrapped for nothing.
+     */
+    private HttpContext createContext(HttpServer server, String path, HttpHandler handler, RequestPriority priority) {
+        HttpContext ctx = server.createContext(path, handler);
+        if (limiter != null) {
+            ctx.getFilters().add(new AdmissionFilter(limiter, priority));
+        }
+        if (compression != null) {
+            ctx.getFilters().add(compression);
+        }
+        return ctx;
+    }
+
+    /**
+     * Like {@link #createContext}, and only lets requests with a valid bearer token through; admission runs first,
+     * so shed requests cost no token check.
+     */
+    private HttpContext createProtectedContext(HttpServer server, String path, HttpHandler handler,
+                                               RequestPriority priority) {
+        HttpContext ctx = createContext(server, path, handler, priority);
+        ctx.getFilters().add(new BearerAuthFilter(bearerAuthentication));
+        return ctx;
+    }
+
+    /**
+     * Registers a controller of long-lived streams: bearer authentication only. A stream would hold an admission
+     * slot for as long as it is open and feed the limiter one endless latency sample, and compression would hold
+     * back its events until a buffer filled.
+     */
+    private HttpContext createEventContext(HttpServer server, String path, HttpHandler handler) {
+        HttpContext ctx = server.createContext(path, handler);
+        ctx.getFilters().add(new BearerAuthFilter(bearerAuthentication));
+        return ctx;
+    }
+
+    /**
+     * Stops the servers built here, then releases what the configuration holds open: their request executor, and
+     * the user store's log, whose background threads would otherwise die with the JVM mid-write. Safe to call
+     * more than once.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (HttpServer server : servers) {
+            server.stop(0);
+        }
+        servers.clear();
+        if (executor != null) {
+            // handlers still running, such as event streams, are interrupted
+            executor.shutdownNow();
+        }
+        if (userRepo instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    /** Authenticates the bearer tokens of protected contexts; its stats report cache hit rate and cost. */
+    public BearerAuthenticationService getBearerAuthentication() {
+        return bearerAuthentication;
+    }
+
+    /**
+     * Builds the request executor for the configured {@link ExecutionMode}, once, for every server built here.
+     *
+     * <p>{@code HttpServer.stop} does not shut the executor down; {@link #close()} does. Pool threads are still
+     * daemons, so they never keep the JVM alive on their own. A {@code null} executor means the JDK dispatcher
+     * thread runs every handler itself.</p>
+     */
+    private ExecutorService createExecutor() {
+        switch (settings.getExecutionMode()) {
+            case VIRTUAL_THREADS:
+                return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-vt-", 0).factory());
+            case PLATFORM_POOL:
+                return Executors.newFixedThreadPool(settings.getPlatformPoolSize(),
+                        Thread.ofPlatform().name("http-worker-", 0).daemon(true).factory());
+            case DISPATCHER:
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package io.github.cqyll.todoapi.config;
+
+import java.util.Locale;
+
+import io.github.cqyll.todoapi.adapter.inbound.web.CompressionFilter;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryRefreshTokenAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.security.HmacTokenProviderAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.security.Pbkdf2PasswordHasherAdapter;
+import io.github.cqyll.todoapi.application.service.BearerAuthenticationService;
+import io.github.cqyll.todoapi.application.service.TodoEventFeed;
+
+/**
+ * Tunables for {@link AppConfig}.
+ *
+ * <p>Defaults match the previous hard-coded setup (localhost:8080) so {@code new AppConfig()} keeps working unchanged.
+ * Every value can be overridden with a {@code todo.*} system property via {@link #fromSystemProperties()}.</p>
+ */
+public class AppSettings {
+	private String host = "localhost";
+	private int port = 8080;
+	private ServerType serverType = ServerType.JDK;
+	private ExecutionMode executionMode = ExecutionMode.VIRTUAL_THREADS;
+	private int platformPoolSize = Runtime.getRuntime().availableProcessors() * 2;
+	private boolean admissionControl = true;
+	private int initialConcurrencyLimit = 32;
+	private int maxConcurrencyLimit = 1024;
+	private UserStoreType userStore = UserStoreType.IN_MEMORY;
+	private String dataDirectory = "data";
+	private long snapshotEvery = 100_000;
+	private int passwordHashIterations = Pbkdf2PasswordHasherAdapter.DEFAULT_ITERATIONS;
+	private int hashingThreads = Runtime.getRuntime().availableProcessors();
+	private int hashingQueueCapacity = Runtime.getRuntime().availableProcessors() * 16;
+	private boolean loginThrottling = true;
+	private int throttleIpPerMinute = 60;
+	private int throttleEmailPerMinute = 10;
+	private int throttleClientPerMinute = 6_000;
+	private String tokenSecret;
+	private long tokenTtlSeconds = HmacTokenProviderAdapter.DEFAULT_TTL_SECONDS;
+	private boolean refreshTokens = true;
+	private long refreshTokenTtlSeconds = InMemoryRefreshTokenAdapter.DEFAULT_TTL_SECONDS;
+	private String clientsFile;
+	private int bearerCacheSize = BearerAuthenticationService.DEFAULT_CACHE_SIZE;
+	private long bearerCacheSeconds = BearerAuthenticationService.DEFAULT_CACHE_SECONDS;
+	private boolean compression = true;
+	private int compressionMinBytes = CompressionFilter.DEFAULT_MIN_BYTES;
+	private int eventBufferSize = TodoEventFeed.DEFAULT_CAPACITY;
+	private int eventStreamsPerUser = TodoEventFeed.DEFAULT_MAX_SUBSCRIBERS;
+
+	public AppSettings() {
+	}
+
+	/**
+	 * Reads overrides from system properties, e.g. {@code -Dtodo.port=9090 -Dtodo.executionMode=platform_pool}.
+	 */
+	public static AppSettings fromSystemProperties() {
+		AppSettings s = new AppSettings();
+		s.setHost(System.getProperty("todo.host", s.getHost()));
+		s.setPort(Integer.getInteger("todo.port", s.getPort()));
+		String server = System.getProperty("todo.serverType");
+		if (server != null && !server.isBlank()) {
+			s.setServerType(ServerType.valueOf(server.trim().toUpperCase(Locale.ROOT)));
+		}
+		String mode = System.getProperty("todo.executionMode");
+		if (mode != null && !mode.isBlank()) {
+			s.setExecutionMode(ExecutionMode.valueOf(mode.trim().toUpperCase(Locale.ROOT)));
+		}
+		s.setPlatformPoolSize(Integer.getInteger("todo.platformPoolSize", s.getPlatformPoolSize()));
+		s.setAdmissionControl(Boolean.parseBoolean(
+				System.getProperty("todo.admissionControl", Boolean.toString(s.isAdmissionControl()))));
+		s.setInitialConcurrencyLimit(Integer.getInteger("todo.initialConcurrencyLimit", s.getInitialConcurrencyLimit()));
+		s.setMaxConcurrencyLimit(Integer.getInteger("todo.maxConcurrencyLimit", s.getMaxConcurrencyLimit()));
+		String store = System.getProperty("todo.userStore");
+		if (store != null && !store.isBlank()) {
+			s.setUserStore(UserStoreType.valueOf(store.trim().toUpperCase(Locale.ROOT)));
+		}
+		s.setDataDirectory(System.getProperty("todo.dataDirectory", s.getDataDirectory()));
+		s.setSnapshotEvery(Long.getLong("todo.snapshotEvery", s.getSnapshotEvery()));
+		s.setPasswordHashIterations(Integer.getInteger("todo.passwordHashIterations", s.getPasswordHashIterations()));
+		s.setHashingThreads(Integer.getInteger("todo.hashingThreads", s.getHashingThreads()));
+		s.setHashingQueueCapacity(Integer.getInteger("todo.hashingQueueCapacity", s.getHashingQueueCapacity()));
+		s.setLoginThrottling(Boolean.parseBoolean(
+				System.getProperty("todo.loginThrottling", Boolean.toString(s.isLoginThrottling()))));
+		s.setThrottleIpPerMinute(Integer.getInteger("todo.throttleIpPerMinute", s.getThrottleIpPerMinute()));
+		s.setThrottleEmailPerMinute(Integer.getInteger("todo.throttleEmailPerMinute", s.getThrottleEmailPerMinute()));
+		s.setThrottleClientPerMinute(Integer.getInteger("todo.throttleClientPerMinute", s.getThrottleClientPerMinute()));
+		s.setTokenSecret(System.getProperty("todo.tokenSecret", s.getTokenSecret()));
+		s.setTokenTtlSeconds(Long.getLong("todo.tokenTtlSeconds", s.getTokenTtlSeconds()));
+		s.setRefreshTokens(Boolean.parseBoolean(
+				System.getProperty("todo.refreshTokens", Boolean.toString(s.isRefreshTokens()))));
+		s.setRefreshTokenTtlSeconds(Long.getLong("todo.refreshTokenTtlSeconds", s.getRefreshTokenTtlSeconds()));
+		s.setClientsFile(System.getProperty("todo.clientsFile", s.getClientsFile()));
+		s.setBearerCacheSize(Integer.getInteger("todo.bearerCacheSize", s.getBearerCacheSize()));
+		s.setBearerCacheSeconds(Long.getLong("todo.bearerCacheSeconds", s.getBearerCacheSeconds()));
+		s.setCompression(Boolean.parseBoolean(
+				System.getProperty("todo.compression", Boolean.toString(s.isCompression()))));
+		s.setCompressionMinBytes(Integer.getInteger("todo.compressionMinBytes", s.getCompressionMinBytes()));
+		s.setEventBufferSize(Integer.getInteger("todo.eventBufferSize", s.getEventBufferSize()));
+		s.setEventStreamsPerUser(Integer.getInteger("todo.eventStreamsPerUser", s.getEventStreamsPerUser()));
+		return s;
+	}
+
+	public String getHost() { return host; }
+	public void setHost(String host) { this.host = host; }
+
+	public int getPort() { return port; }
+	public void setPort(int port) { this.port = port; }
+
+	public ServerType getServerType() { return serverType; }
+	public void setServerType(ServerType serverType) { this.serverType = serverType; }
+
+	public ExecutionMode getExecutionMode() { return executionMode; }
+	public void setExecutionMode(ExecutionMode executionMode) { this.executionMode = executionMode; }
+
+	public int getPlatformPoolSize() { return platformPoolSize; }
+	public void setPlatformPoolSize(int platformPoolSize) {
+		if (platformPoolSize < 1) {
+			throw new IllegalArgumentException("platformPoolSize must be >= 1");
+		}
+		this.platformPoolSize = platformPoolSize;
+	}
+
+	public boolean isAdmissionControl() { return admissionControl; }
+	public void setAdmissionControl(boolean admissionControl) { this.admissionControl = admissionControl; }
+
+	public int getInitialConcurrencyLimit() { return initialConcurrencyLimit; }
+	public void setInitialConcurrencyLimit(int initialConcurrencyLimit) { this.initialConcurrencyLimit = initialConcurrencyLimit; }
+
+	public int getMaxConcurrencyLimit() { return maxConcurrencyLimit; }
+	public void setMaxConcurrencyLimit(int maxConcurrencyLimit) { this.maxConcurrencyLimit = maxConcurrencyLimit; }
+
+	public UserStoreType getUserStore() { return userStore; }
+	public void setUserStore(UserStoreType userStore) { this.userStore = userStore; }
+
+	/** Where {@link UserStoreType#FILE} keeps its log and snapshot. */
+	public String getDataDirectory() { return dataDirectory; }
+	public void setDataDirectory(String dataDirectory) { this.dataDirectory = dataDirectory; }
+
+	/** Saves logged between two snapshots of the {@link UserStoreType#FILE} store. */
+	public long getSnapshotEvery() { return snapshotEvery; }
+	public void setSnapshotEvery(long snapshotEvery) {
+		if (snapshotEvery < 1) {
+			throw new IllegalArgumentException("snapshotEvery must be positive");
+		}
+		this.snapshotEvery = snapshotEvery;
+	}
+
+	/** PBKDF2 cost for new password hashes; older hashes are upgraded on the user's next login. */
+	public int getPasswordHashIterations() { return passwordHashIterations; }
+	public void setPasswordHashIterations(int passwordHashIterations) {
+		if (passwordHashIterations < 1) {
+			throw new IllegalArgumentException("passwordHashIterations must be positive");
+		}
+		this.passwordHashIterations = passwordHashIterations;
+	}
+
+	/** Threads dedicated to password hashing; {@code 0} hashes on the request thread. */
+	public int getHashingThreads() { return hashingThreads; }
+	public void setHashingThreads(int hashingThreads) {
+		if (hashingThreads < 0) {
+			throw new IllegalArgumentException("hashingThreads must be >= 0");
+		}
+		this.hashingThreads = hashingThreads;
+	}
+
+	/** Hash requests allowed to wait for a hashing thread before logins and registrations get 503. */
+	public int getHashingQueueCapacity() { return hashingQueueCapacity; }
+	public void setHashingQueueCapacity(int hashingQueueCapacity) {
+		if (hashingQueueCapacity < 1) {
+			throw new IllegalArgumentException("hashingQueueCapacity must be positive");
+		}
+		this.hashingQueueCapacity = hashingQueueCapacity;
+	}
+
+	/** Per-IP, per-email and per-client rate limits on {@code /login} and {@code /oauth/token}. */
+	public boolean isLoginThrottling() { return loginThrottling; }
+	public void setLoginThrottling(boolean loginThrottling) { this.loginThrottling = loginThrottling; }
+
+	/**
+	 * Credential requests allowed per client IP and minute. A full minute's allowance may be spent at once;
+	 * the same holds for the two limits below.
+	 */
+	public int getThrottleIpPerMinute() { return throttleIpPerMinute; }
+	public void setThrottleIpPerMinute(int throttleIpPerMinute) {
+		this.throttleIpPerMinute = requirePositive(throttleIpPerMinute, "throttleIpPerMinute");
+	}
+
+	/** Credential requests allowed per email (case-insensitive) and minute. */
+	public int getThrottleEmailPerMinute() { return throttleEmailPerMinute; }
+	public void setThrottleEmailPerMinute(int throttleEmailPerMinute) {
+		this.throttleEmailPerMinute = requirePositive(throttleEmailPerMinute, "throttleEmailPerMinute");
+	}
+
+	/** Token requests allowed per OAuth {@code client_id} and minute. */
+	public int getThrottleClientPerMinute() { return throttleClientPerMinute; }
+	public void setThrottleClientPerMinute(int throttleClientPerMinute) {
+		this.throttleClientPerMinute = requirePositive(throttleClientPerMinute, "throttleClientPerMinute");
+	}
+
+	/**
+	 * Base64 HMAC key (at least 32 bytes decoded) for access tokens. {@code null} generates one at startup,
+	 * so tokens stop validating when the process restarts.
+	 */
+	public String getTokenSecret() { return tokenSecret; }
+	public void setTokenSecret(String tokenSecret) { this.tokenSecret = tokenSecret; }
+
+	public long getTokenTtlSeconds() { return tokenTtlSeconds; }
+	public void setTokenTtlSeconds(long tokenTtlSeconds) {
+		if (tokenTtlSeconds < 1) {
+			throw new IllegalArgumentException("tokenTtlSeconds must be positive");
+		}
+		this.tokenTtlSeconds = tokenTtlSeconds;
+	}
+
+	/** Whether the password grant issues refresh tokens and the {@code refresh_token} grant is served. */
+	public boolean isRefreshTokens() { return refreshTokens; }
+	public void setRefreshTokens(boolean refreshTokens) { this.refreshTokens = refreshTokens; }
+
+	/** Lifetime of each refresh token; every rotation starts a new one. */
+	public long getRefreshTokenTtlSeconds() { return refreshTokenTtlSeconds; }
+	public void setRefreshTokenTtlSeconds(long refreshTokenTtlSeconds) {
+		if (refreshTokenTtlSeconds < 1) {
+			throw new IllegalArgumentException("refreshTokenTtlSeconds must be positive");
+		}
+		this.refreshTokenTtlSeconds = refreshTokenTtlSeconds;
+	}
+
+	/**
+	 * Registered OAuth clients, one per line (see {@code FileClientAdapter}). {@code null} registers only the
+	 * built-in {@code todo-web} client, in memory.
+	 */
+	public String getClientsFile() { return clientsFile; }
+	public void setClientsFile(String clientsFile) { this.clientsFile = clientsFile; }
+
+	/** Recently verified access tokens remembered by the bearer authentication of protected contexts; 0 disables. */
+	public int getBearerCacheSize() { return bearerCacheSize; }
+	public void setBearerCacheSize(int bearerCacheSize) {
+		if (bearerCacheSize < 0) {
+			throw new IllegalArgumentException("bearerCacheSize must not be negative");
+		}
+		this.bearerCacheSize = bearerCacheSize;
+	}
+
+	/** How long a verified token is trusted without looking at its user again. */
+	public long getBearerCacheSeconds() { return bearerCacheSeconds; }
+	public void setBearerCacheSeconds(long bearerCacheSeconds) {
+		if (bearerCacheSeconds < 1) {
+			throw new IllegalArgumentException("bearerCacheSeconds must be positive");
+		}
+		this.bearerCacheSeconds = bearerCacheSeconds;
+	}
+
+	/** Whether response bodies are compressed for clients that accept gzip or deflate. */
+	public boolean isCompression() { return compression; }
+	public void setCompression(boolean compression) { this.compression = compression; }
+
+	/** Smallest response body worth compressing; anything shorter is sent as it is. */
+	public int getCompressionMinBytes() { return compressionMinBytes; }
+	public void setCompressionMinBytes(int compressionMinBytes) {
+		this.compressionMinBytes = requirePositive(compressionMinBytes, "compressionMinBytes");
+	}
+
+	/** Todo changes kept per user with an open event stream; a stream further behind has to resync. */
+	public int getEventBufferSize() { return eventBufferSize; }
+	public void setEventBufferSize(int eventBufferSize) {
+		this.eventBufferSize = requirePositive(eventBufferSize, "eventBufferSize");
+	}
+
+	/** Event streams one user may hold open; opening another closes the oldest. */
+	public int getEventStreamsPerUser() { return eventStreamsPerUser; }
+	public void setEventStreamsPerUser(int eventStreamsPerUser) {
+		this.eventStreamsPerUser = requirePositive(eventStreamsPerUser, "eventStreamsPerUser");
+	}
+
+	private static int requirePositive(int value, String name) {
+		if (value < 1) {
+			throw new IllegalArgumentException(name + " must be positive");
+		}
+		return value;
+	}
+}
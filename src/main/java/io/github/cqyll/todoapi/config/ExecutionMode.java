@@ -0,0 +1,19 @@
+package io.github.cqyll.todoapi.config;
+
+/**
+ * How the HTTP server runs request handlers.
+ *
+ * <ul>
+ * 		<li>{@link #VIRTUAL_THREADS}: one virtual thread per request. Blocking work (password checks, I/O)
+ * 		parks the virtual thread instead of holding a carrier thread.</li>
+ * 		<li>{@link #PLATFORM_POOL}: a fixed pool of platform threads, sized by
+ * 		{@link AppSettings#getPlatformPoolSize()}.</li>
+ * 		<li>{@link #DISPATCHER}: no executor; every request runs on the JDK's single dispatcher thread.
+ * 		Kept for comparison only.</li>
+ * </ul>
+ */
+public enum ExecutionMode {
+	VIRTUAL_THREADS,
+	PLATFORM_POOL,
+	DISPATCHER
+}
@@ -0,0 +1,15 @@
+package io.github.cqyll.todoapi.config;
+
+/**
+ * Which HTTP server implementation {@link AppConfig#createHttpServer()} builds. Both run the same controllers.
+ *
+ * <ul>
+ * 		<li>{@link #JDK}: {@code com.sun.net.httpserver.HttpServer.create}.</li>
+ * 		<li>{@link #NIO}: {@link io.github.cqyll.todoapi.adapter.inbound.nio.NioHttpServer}, a selector-based
+ * 		server with persistent connections, pipelining and pooled direct buffers.</li>
+ * </ul>
+ */
+public enum ServerType {
+	JDK,
+	NIO
+}
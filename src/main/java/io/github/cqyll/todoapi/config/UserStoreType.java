@@ -0,0 +1,20 @@
+package io.github.cqyll.todoapi.config;
+
+/**
+ * Which {@link io.github.cqyll.todoapi.application.port.outbound.UserRepositoryPort} implementation
+ * {@link AppConfig} wires in.
+ *
+ * <ul>
+ * 		<li>{@link #IN_MEMORY}: {@link io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryUserAdapter},
+ * 		one {@code User} object graph per account.</li>
+ * 		<li>{@link #COMPACT}: {@link io.github.cqyll.todoapi.adapter.outbound.persistence.CompactUserAdapter},
+ * 		off-heap records behind primitive hash indexes, for millions of accounts.</li>
+ * 		<li>{@link #FILE}: {@link io.github.cqyll.todoapi.adapter.outbound.persistence.FileUserAdapter} over a
+ * 		compact store, so accounts survive restarts.</li>
+ * </ul>
+ */
+public enum UserStoreType {
+	IN_MEMORY,
+	COMPACT,
+	FILE
+}
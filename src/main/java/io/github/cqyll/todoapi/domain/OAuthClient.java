@@ -0,0 +1,134 @@
+package io.github.cqyll.todoapi.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * OAuth client Entity
+ * - Identified by its client_id
+ * - Confidential: authenticates with a secret, stored hashed like a user password
+ * - Registered for a fixed set of grant types, a maximum scope and the redirect URIs it may receive codes at
+ */
+public class OAuthClient {
+	private final String clientId;
+	private final Password secret;
+	private final Set<String> grantTypes;
+	private final String scope;
+	private final Set<String> redirectUris;
+
+	private OAuthClient(String clientId, Password secret, Set<String> grantTypes, String scope,
+			Set<String> redirectUris) {
+		if (clientId == null || clientId.isBlank() || clientId.indexOf(':') >= 0) {
+			throw new IllegalArgumentException("client_id must be non-empty and free of ':'");
+		}
+		if (grantTypes.isEmpty()) {
+			throw new IllegalArgumentException("A client needs at least one grant type");
+		}
+		this.clientId = clientId;
+		this.secret = Objects.requireNonNull(secret, "secret");
+		this.grantTypes = Set.copyOf(grantTypes);
+		this.scope = scope == null || scope.isBlank() ? null : scope.trim();
+		this.redirectUris = Set.copyOf(redirectUris);
+		if (this.grantTypes.contains("authorization_code") && this.redirectUris.isEmpty()) {
+			throw new IllegalArgumentException("The authorization_code grant needs a registered redirect URI");
+		}
+	}
+
+	/**
+	 * @param scope the widest scope the client may ask for, space-separated; {@code null} for no restriction
+	 */
+	public static OAuthClient create(String clientId, Password secret, Set<String> grantTypes, String scope) {
+		return new OAuthClient(clientId, secret, grantTypes, scope, Set.of());
+	}
+
+	/** @param redirectUris exact URIs authorization codes may be sent to */
+	public static OAuthClient create(String clientId, Password secret, Set<String> grantTypes, String scope,
+			Set<String> redirectUris) {
+		return new OAuthClient(clientId, secret, grantTypes, scope, redirectUris);
+	}
+
+	public boolean allowsGrantType(String grantType) {
+		return grantTypes.contains(grantType);
+	}
+
+	/**
+	 * The scope a grant carries: {@code requested}, or everything the client is registered for when nothing was
+	 * requested. Never widens a restricted client to an unscoped token, which would allow everything.
+	 */
+	public String grantedScope(String requested) {
+		return requested == null || requested.isBlank() ? scope : requested;
+	}
+
+	/** Whether every scope token in {@code requested} is within the client's registered scope. */
+	public boolean allowsScope(String requested) {
+		return scope == null || scopeTokens(scope).containsAll(scopeTokens(requested));
+	}
+
+	/**
+	 * The redirect URI to send an authorization response to: {@code requested} if it is registered (compared
+	 * exactly, as RFC 6749 section 3.1.2 recommends), or the only registered one when none was requested.
+	 *
+	 * @return {@code null} if there is no acceptable redirect URI
+	 */
+	public String resolveRedirectUri(String requested) {
+		if (requested == null || requested.isEmpty()) {
+			return redirectUris.size() == 1 ? redirectUris.iterator().next() : null;
+		}
+		return redirectUris.contains(requested) ? requested : null;
+	}
+
+	/**
+	 * The subject of tokens the client obtains for itself (client_credentials), stable across restarts and
+	 * distinct from any user's random id.
+	 */
+	public UUID getSubjectId() {
+		return UUID.nameUUIDFromBytes(("client:" + clientId).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/** Space-separated scope tokens, duplicates dropped; empty for {@code null} or blank. */
+	public static Set<String> scopeTokens(String scope) {
+		if (scope == null || scope.isBlank()) {
+			return Set.of();
+		}
+		return new LinkedHashSet<>(Arrays.asList(scope.trim().split(" +")));
+	}
+
+	// getters
+	public String getClientId() {
+		return clientId;
+	}
+
+	// exposed for persistence adapters and authentication
+	public Password getSecret() {
+		return secret;
+	}
+
+	public Set<String> getGrantTypes() {
+		return grantTypes;
+	}
+
+	// null when unrestricted
+	public String getScope() {
+		return scope;
+	}
+
+	public Set<String> getRedirectUris() {
+		return redirectUris;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null || getClass() != obj.getClass()) return false;
+		return clientId.equals(((OAuthClient) obj).clientId); // equal by id
+	}
+
+	@Override
+	public int hashCode() {
+		return clientId.hashCode();
+	}
+}
@@ -0,0 +1,143 @@
+package io.github.cqyll.todoapi.domain;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Todo Entity
+ * - Has identity (ID) and belongs to one owner (a user id) for its whole life
+ * - May be due at an instant; most todos are not
+ * - Immutable: a change yields a new instance, so stores can hand todos to readers without copying
+ * - Versioned: every change yields the next version number, so two versions of one todo with the same number
+ *   are the same
+ * - Equal by identity (ID), not values
+ */
+public final class Todo {
+	public static final int MAX_TITLE_LENGTH = 500;
+
+	private final UUID id;
+	private final UUID ownerId;
+	private final String title;
+	private final boolean completed;
+	private final Instant dueAt;
+	private final Instant createdAt;
+	private final Instant updatedAt;
+	private final long version;
+
+	private Todo(UUID id, UUID ownerId, String title, boolean completed, Instant dueAt, Instant createdAt,
+			Instant updatedAt, long version) {
+		this.id = Objects.requireNonNull(id, "id");
+		this.ownerId = Objects.requireNonNull(ownerId, "ownerId");
+		this.title = validateTitle(title);
+		this.completed = completed;
+		this.dueAt = dueAt;
+		this.createdAt = Objects.requireNonNull(createdAt, "createdAt");
+		this.updatedAt = Objects.requireNonNull(updatedAt, "updatedAt");
+		if (version < 1) {
+			throw new IllegalArgumentException("version must be positive");
+		}
+		this.version = version;
+	}
+
+	// factories for new todos
+	public static Todo create(UUID ownerId, String title, boolean completed, Instant now) {
+		return create(ownerId, title, completed, null, now);
+	}
+
+	/** @param dueAt when it is due, or {@code null} */
+	public static Todo create(UUID ownerId, String title, boolean completed, Instant dueAt, Instant now) {
+		return new Todo(UUID.randomUUID(), ownerId, title, completed, dueAt, now, now, 1);
+	}
+
+	// factory for persistence adapters rebuilding a stored todo
+	public static Todo restore(UUID id, UUID ownerId, String title, boolean completed, Instant dueAt,
+			Instant createdAt, Instant updatedAt, long version) {
+		return new Todo(id, ownerId, title, completed, dueAt, createdAt, updatedAt, version);
+	}
+
+	/** As {@link #update(String, Boolean, Optional, Instant)}, leaving the due date as it is. */
+	public Todo update(String newTitle, Boolean newCompleted, Instant now) {
+		return update(newTitle, newCompleted, null, now);
+	}
+
+	/**
+	 * This todo with the given changes applied; {@code null} leaves a field as it is.
+	 *
+	 * @param newDueAt the new due date, or empty to clear it
+	 * @return {@code this} if nothing changes, so an empty update moves neither {@code updatedAt} nor the version
+	 */
+	public Todo update(String newTitle, Boolean newCompleted, Optional<Instant> newDueAt, Instant now) {
+		String t = newTitle != null ? newTitle.strip() : title;
+		boolean c = newCompleted != null ? newCompleted : completed;
+		Instant d = newDueAt != null ? newDueAt.orElse(null) : dueAt;
+		if (t.equals(title) && c == completed && Objects.equals(d, dueAt)) {
+			return this;
+		}
+		return new Todo(id, ownerId, t, c, d, createdAt, now, version + 1);
+	}
+
+	/**
+	 * The title as a todo would store it, for checking input before there is a todo to apply it to.
+	 *
+	 * @throws IllegalArgumentException if it is empty or too long
+	 */
+	public static String validateTitle(String title) {
+		if (title == null || title.isBlank()) {
+			throw new IllegalArgumentException("Title cannot be empty");
+		}
+		if (title.length() > MAX_TITLE_LENGTH) {
+			throw new IllegalArgumentException("Title longer than " + MAX_TITLE_LENGTH + " characters");
+		}
+		return title.strip();
+	}
+
+
+	// getters
+	public UUID getId() {
+		return id;
+	}
+
+	public UUID getOwnerId() {
+		return ownerId;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public boolean isCompleted() {
+		return completed;
+	}
+
+	/** @return when it is due, or {@code null} if it has no due date */
+	public Instant getDueAt() {
+		return dueAt;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null || getClass() != obj.getClass()) return false;
+		Todo todo = (Todo) obj;
+		return id.equals(todo.id); // equal by id
+	}
+
+	@Override
+	public int hashCode() {
+		return id.hashCode();
+	}
+}
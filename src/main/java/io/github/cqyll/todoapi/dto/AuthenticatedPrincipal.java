@@ -0,0 +1,19 @@
+package io.github.cqyll.todoapi.dto;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The bearer of a verified access token, as handed to the controllers of protected contexts.
+ *
+ * @param userId the authenticated user
+ * @param scopes the scopes the token was issued with, or {@code null} if it was issued without a scope and so is
+ *               not restricted
+ */
+public record AuthenticatedPrincipal(UUID userId, Set<String> scopes) {
+
+	/** Whether the token grants {@code scope}; an unscoped token grants every scope. */
+	public boolean hasScope(String scope) {
+		return scopes == null || scopes.contains(scope);
+	}
+}
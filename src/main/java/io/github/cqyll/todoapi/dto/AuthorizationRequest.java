@@ -0,0 +1,67 @@
+package io.github.cqyll.todoapi.dto;
+
+import java.util.Map;
+
+/**
+ * Authorization endpoint request (RFC 6749 section 4.1.1, RFC 7636 section 4.3), plus the resource owner's
+ * credentials as presented to the endpoint.
+ */
+public class AuthorizationRequest {
+    private String responseType;
+    private String clientId;
+    private String redirectUri;
+    private String scope;
+    private String state;
+    private String codeChallenge;
+    private String codeChallengeMethod;
+    private String username;
+    private String password;
+
+    public AuthorizationRequest() {
+    }
+
+    /**
+     * Creates an {@code AuthorizationRequest} from the parsed query (or form) parameters and the user's
+     * credentials.
+     */
+    public static AuthorizationRequest from(Map<String, String> params, String username, String password) {
+        AuthorizationRequest req = new AuthorizationRequest();
+        req.setResponseType(params.get("response_type"));
+        req.setClientId(params.get("client_id"));
+        req.setRedirectUri(params.get("redirect_uri"));
+        req.setScope(params.get("scope"));
+        req.setState(params.get("state"));
+        req.setCodeChallenge(params.get("code_challenge"));
+        req.setCodeChallengeMethod(params.get("code_challenge_method"));
+        req.setUsername(username);
+        req.setPassword(password);
+        return req;
+    }
+
+    public String getResponseType() { return responseType; }
+    public void setResponseType(String responseType) { this.responseType = responseType; }
+
+    public String getClientId() { return clientId; }
+    public void setClientId(String clientId) { this.clientId = clientId; }
+
+    public String getRedirectUri() { return redirectUri; }
+    public void setRedirectUri(String redirectUri) { this.redirectUri = redirectUri; }
+
+    public String getScope() { return scope; }
+    public void setScope(String scope) { this.scope = scope; }
+
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+
+    public String getCodeChallenge() { return codeChallenge; }
+    public void setCodeChallenge(String codeChallenge) { this.codeChallenge = codeChallenge; }
+
+    public String getCodeChallengeMethod() { return codeChallengeMethod; }
+    public void setCodeChallengeMethod(String codeChallengeMethod) { this.codeChallengeMethod = codeChallengeMethod; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+}
@@ -0,0 +1,24 @@
+package io.github.cqyll.todoapi.dto;
+
+/**
+ * Outcome of an authorization request that can be reported back to the client through its redirect URI: either a
+ * code (RFC 6749 section 4.1.2) or an error (section 4.1.2.1). Errors that must not be redirected, such as an
+ * unknown client or redirect URI, are thrown instead.
+ *
+ * @param redirectUri the validated redirect URI
+ * @param code the authorization code, or {@code null} for an error
+ * @param error the error code, or {@code null} on success
+ * @param errorDescription optional human-readable detail of the error
+ * @param state the client's {@code state}, echoed back unchanged, or {@code null}
+ */
+public record AuthorizationResponse(String redirectUri, String code, String error, String errorDescription,
+		String state) {
+
+	public static AuthorizationResponse code(String redirectUri, String code, String state) {
+		return new AuthorizationResponse(redirectUri, code, null, null, state);
+	}
+
+	public static AuthorizationResponse error(String redirectUri, String error, String description, String state) {
+		return new AuthorizationResponse(redirectUri, null, error, description, state);
+	}
+}
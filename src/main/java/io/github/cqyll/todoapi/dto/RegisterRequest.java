@@ -1,34 +1,34 @@
-package io.github.cqyll.todoapi.dto;
-
-public class RegisterRequest {
-	private String name;
-	private String email;
-	private String password;
-	
-	public RegisterRequest() {	
-	}
-	
-	public String getName() {
-		return name;
-	}
-	
-	public void setName(String name) {
-		this.name = name;
-	}
-	
-	public String getEmail() {
-		return email;
-	}
-	
-	public void setEmail(String email) {
-		this.email = email;
-	}
-	
-	public String getPassword() {
-		return password;
-	}
-	
-	public void setPassword(String password) {
-		this.password = password;
-	}
-}
+package io.github.cqyll.todoapi.dto;
+
+public class RegisterRequest {
+	private String name;
+	private String email;
+	private String password;
+	
+	public RegisterRequest() {	
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public void setName(String name) {
+		this.name = name;
+	}
+	
+	public String getEmail() {
+		return email;
+	}
+	
+	public void setEmail(String email) {
+		this.email = email;
+	}
+	
+	public String getPassword() {
+		return password;
+	}
+	
+	public void setPassword(String password) {
+		this.password = password;
+	}
+}
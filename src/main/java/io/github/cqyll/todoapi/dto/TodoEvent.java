@@ -0,0 +1,28 @@
+package io.github.cqyll.todoapi.dto;
+
+import io.github.cqyll.todoapi.domain.Todo;
+
+/**
+ * A change to one owner's todos, as subscribers to the owner's changes receive it.
+ *
+ * @param id   the version of the owner's todos once the change was made, the same number a listing read right
+ *             after it is tagged with; an owner's changes are numbered one after the other
+ * @param type what happened
+ * @param todo the todo as stored after a create or update, or as it was before a delete; {@code null} for
+ *             {@link Type#RESYNC}
+ */
+public record TodoEvent(long id, Type type, Todo todo) {
+
+	public enum Type {
+		CREATED, UPDATED, DELETED,
+		/**
+		 * Changes were missed: the subscriber fell further behind than the feed remembers, or asked to resume from
+		 * a point it no longer has. Reload the todos and apply the events after this one.
+		 */
+		RESYNC
+	}
+
+	public static TodoEvent resync(long id) {
+		return new TodoEvent(id, Type.RESYNC, null);
+	}
+}
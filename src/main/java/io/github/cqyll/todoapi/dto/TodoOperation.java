@@ -0,0 +1,32 @@
+package io.github.cqyll.todoapi.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One entry of a batch of todo changes. A {@code null} field was absent (or explicitly {@code null}).
+ *
+ * @param kind      what to do
+ * @param id        the todo to update or delete; always {@code null} for a create
+ * @param title     the title of a new todo, or the new title of an updated one
+ * @param completed whether it is done; on an update, {@code null} leaves it as it is
+ * @param dueAt     when it is due; on an update, {@code null} leaves it as it is
+ */
+public record TodoOperation(Kind kind, UUID id, String title, Boolean completed, Instant dueAt) {
+
+	public enum Kind {
+		CREATE, UPDATE, DELETE
+	}
+
+	public static TodoOperation create(String title, Boolean completed, Instant dueAt) {
+		return new TodoOperation(Kind.CREATE, null, title, completed, dueAt);
+	}
+
+	public static TodoOperation update(UUID id, String title, Boolean completed, Instant dueAt) {
+		return new TodoOperation(Kind.UPDATE, id, title, completed, dueAt);
+	}
+
+	public static TodoOperation delete(UUID id) {
+		return new TodoOperation(Kind.DELETE, id, null, null, null);
+	}
+}
@@ -0,0 +1,29 @@
+package io.github.cqyll.todoapi.dto;
+
+import io.github.cqyll.todoapi.domain.Todo;
+
+/**
+ * What became of one {@link TodoOperation} of a batch.
+ *
+ * @param outcome what happened
+ * @param todo    the todo as stored after a create or update, or as it was before a delete; {@code null} otherwise
+ * @param error   why the operation was refused, for {@link Outcome#INVALID}; {@code null} otherwise
+ */
+public record TodoOperationResult(Outcome outcome, Todo todo, String error) {
+
+	public enum Outcome {
+		CREATED, UPDATED, DELETED, NOT_FOUND, INVALID
+	}
+
+	public static TodoOperationResult of(Outcome outcome, Todo todo) {
+		return new TodoOperationResult(outcome, todo, null);
+	}
+
+	public static TodoOperationResult notFound() {
+		return new TodoOperationResult(Outcome.NOT_FOUND, null, null);
+	}
+
+	public static TodoOperationResult invalid(String error) {
+		return new TodoOperationResult(Outcome.INVALID, null, error);
+	}
+}
@@ -0,0 +1,13 @@
+package io.github.cqyll.todoapi.dto;
+
+import java.time.Instant;
+
+/**
+ * Body of a todo create or update; a {@code null} field was absent (or explicitly {@code null}).
+ *
+ * @param title     the todo's title
+ * @param completed whether it is done
+ * @param dueAt     when it is due
+ */
+public record TodoRequest(String title, Boolean completed, Instant dueAt) {
+}
@@ -0,0 +1,21 @@
+package io.github.cqyll.todoapi.dto;
+
+/**
+ * Successful token endpoint response (RFC 6749 section 5.1).
+ *
+ * @param accessToken the issued access token
+ * @param tokenType the token type, {@link #BEARER} for every token this server issues
+ * @param expiresIn lifetime of the access token in seconds
+ * @param refreshToken a refresh token to get the next access token with, or {@code null} if none was issued
+ */
+public record TokenResponse(String accessToken, String tokenType, long expiresIn, String refreshToken) {
+	public static final String BEARER = "Bearer";
+
+	public static TokenResponse bearer(String accessToken, long expiresIn) {
+		return new TokenResponse(accessToken, BEARER, expiresIn, null);
+	}
+
+	public static TokenResponse bearer(String accessToken, long expiresIn, String refreshToken) {
+		return new TokenResponse(accessToken, BEARER, expiresIn, refreshToken);
+	}
+}
@@ -1,360 +1,988 @@
-package io.github.cqyll.todoapi;
-
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.sun.net.httpserver.HttpServer;
-import io.github.cqyll.todoapi.config.AppConfig;
-import org.junit.jupiter.api.*;
-
-import java.net.URI;
-import java.net.URLEncoder;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
-import java.time.Duration;
-import java.util.Base64;
-import java.util.LinkedHashMap;
-import java.util.Locale;
-import java.util.Map;
-
-import static org.junit.jupiter.api.Assertions.*;
-
-@TestInstance(TestInstance.Lifecycle.PER_CLASS)
-public class ApiFlowTest {
-
-	private static final ObjectMapper MAPPER = new ObjectMapper();
-	private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
-
-	private static final String CLIENT_ID = "todo-web";
-	private static final String CLIENT_SECRET = "todo-secret";
-
-	private HttpServer server;
-
-	private String baseUrl;
-
-	@BeforeAll
-	void startServer() {
-		server = new AppConfig().createHttpServer();
-		server.start();
-
-		baseUrl = "http://localhost:" + server.getAddress().getPort();
-	}
-
-	@AfterAll
-	void stopServer() {
-		if (server != null)
-			server.stop(0);
-	}
-
-	/**
-	 * Verifies server can bind to an ephemeral port, to avoid port conflicts.
-	 */
-	@Test
-	void usesEphemeralPort() {
-		assertTrue(server.getAddress().getPort() > 0);
-	}
-
-	/**
-	 * Happy-path flow:
-	 * <ol>
-	 * 		<li>Register a new user.</li>
-	 *  	<li>Assert both return a usable token string.</li>
-	 *  	<li>Assert both tokens are equal for the same user (based on a deterministic token provider)</li>
-	 * </ol>
-	 * 
-	 * <p>Token extraction is shape-agnostic (supports "token", "access_token", or raw JSON string).</p>
-	 */
-	@Test
-	void register_then_login() throws Exception {
-		String email = "user" + System.currentTimeMillis() + "@example.com";
-		String password = "Passw0rd!";
-
-		String registrationToken = register(email, "JUnit", password);
-
-		assertNotNull(registrationToken);
-		assertFalse(registrationToken.isBlank());
-		assertTrue(registrationToken.length() >= 10);
-		assertFalse(registrationToken.chars().anyMatch(Character::isWhitespace));
-
-		String loginToken = login(email, password);
-
-		assertNotNull(loginToken);
-		assertFalse(loginToken.isBlank());
-		assertTrue(loginToken.length() >= 10);
-		assertFalse(loginToken.chars().anyMatch(Character::isWhitespace));
-
-		// current token generation implementation is deterministic
-		// any token provider adapter changes will affect the following assertion
-		assertEquals(registrationToken, loginToken);
-	}
-
-
-	/**
-	 * Verifies password grant works when the client authenticates via HTTP Basic
-	 * 
-	 * <p>This test exists to cover the controller branch that parses client credentials from the Authorization header.
-	 */
-	@Test
-	void passwordGrantWithBasicAuth() throws Exception {
-		String email = "user" + System.currentTimeMillis() + "@example.com";
-		String password = "Passw0rd!";
-		register(email, "OAuth", password);
-
-		HttpResponse<String> r = requestTokenBasicClient(email, password);
-		assertEquals(200, r.statusCode(), "Token request failed: HTTP " + r.statusCode() + " body=" + r.body());
-
-		Map<String, Object> body = parseJsonObject(r.body());
-
-		String tokenType = String.valueOf(body.get("token_type"));
-		assertNotNull(tokenType);
-		assertEquals("bearer", tokenType.toLowerCase(Locale.ROOT));
-
-		String accessToken = String.valueOf(body.get("access_token"));
-		assertNotNull(accessToken);
-		assertFalse(accessToken.isBlank());
-		assertTrue(accessToken.length() >= 10);
-		assertFalse(accessToken.chars().anyMatch(Character::isWhitespace));
-	}
-
-
-	/**
-	 * Verifies password grant works when the client 
-	 */
-	@Test
-	void passwordGrantWithClientCredentialsInBody() throws Exception {
-		String email = "user" + System.currentTimeMillis() + "@example.com";
-		String password = "Passw0rd!";
-		register(email, "OAuth", password);
-
-		HttpResponse<String> r = requestTokenBodyClient(email, password);
-		assertEquals(200, r.statusCode(), "Token request failed: HTTP " + r.statusCode() + " body=" + r.body());
-
-		Map<String, Object> body = parseJsonObject(r.body());
-
-		String tokenType = String.valueOf(body.get("token_type"));
-		assertNotNull(tokenType);
-		assertEquals("bearer", tokenType.toLowerCase(Locale.ROOT));
-
-		String accessToken = String.valueOf(body.get("access_token"));
-		assertNotNull(accessToken);
-		assertFalse(accessToken.isBlank());
-		assertTrue(accessToken.length() >= 10);
-		assertFalse(accessToken.chars().anyMatch(Character::isWhitespace));
-	}
-
-
-	private String login(String email, String password) throws
-	Exception {
-		Map<String, Object> payload = new LinkedHashMap<>();
-		payload.put("email", email);
-		payload.put("password", password);
-
-		HttpResponse<String> r = sendJsonPost(baseUrl + "/login", payload);
-		assertEquals(200, r.statusCode(), "Login failed: " + r.body());
-
-		return extractToken(r.body());
-	}
-
-	/**
-	 * Registers a new user via {@code POST /register}
-	 * 
-	 * <p>This is a happy-path helper: expects the request to succeed
-	 * If the response status code is {@code >= 400}, throws exception.
-	 * 
-	 * <p>The response body is passed to {@link #extractToken(String)},
-	 * which intentionally absorbs parsing or format errors and attempts to
-	 * extract a token from multiple possible response shapes.
-	 * 
-	 * <p>This way the test harness remains resilient while the registration
-	 * endpoint's response format evolves.
-	 * 
-	 * @param email user email address
-	 * @param name user display name
-	 * @param password plaintext password
-	 * @return an authentication token issued after registration
-	 * @throws Exception if the HTTP request fails or returns an error status
-	 */
-	private String register(String email, String name, String password)
-			throws Exception {
-		Map<String, Object> payload = new LinkedHashMap<>();
-		payload.put("email", email);
-		payload.put("name", name);
-		payload.put("password", password);
-
-		HttpResponse<String> r = sendJsonPost(baseUrl + "/register", payload);
-		printResponse(r);
-
-		if (r.statusCode() >= 400) {
-			throw new RuntimeException("Register failed: " + r.body());
-		}
-
-		return extractToken(r.body());
-	}
-
-
-
-
-	/**
-	 * Requests an access token using client authentication via HTTP Basic.
-	 * 
-	 * <p>Client credentials are provided via the Authorization header; user credentials are provided in the form body.</p>
-	 */
-	private HttpResponse<String> requestTokenBasicClient(String username, String password) throws Exception {
-		String form = form(Map.of(
-				"grant_type", "password",
-				"username", username,
-				"password", password));
-		String basic = Base64.getEncoder().encodeToString((CLIENT_ID + ":" + CLIENT_SECRET).getBytes(StandardCharsets.UTF_8));
-
-		HttpRequest req = HttpRequest.newBuilder()
-				.uri(URI.create(baseUrl + "/oauth/token"))
-				.header("Authorization", "Basic " + basic)
-				.header("Content-Type", "application/x-www-form-urlencoded")
-				.POST(HttpRequest.BodyPublishers.ofString(form))
-				.build();
-		return HTTP.send(req, HttpResponse.BodyHandlers.ofString());
-	}
-
-	/**
-	 * Requests an access token using client credentials supplied in the request body.
-	 * 
-	 * <p>Client credentials are included as form parameters; user credentials are also provided in the same form body.</p>
-	 */
-	private HttpResponse<String> requestTokenBodyClient(String username, String password) throws Exception {
-		String form = form(Map.of(
-				"grant_type", "password",
-				"client_id", CLIENT_ID,
-				"client_secret", CLIENT_SECRET,
-				"username", username,
-				"password", password));
-
-		HttpRequest req = HttpRequest.newBuilder()
-				.uri(URI.create(baseUrl + "/oauth/token"))
-				.header("Content-Type", "application/x-www-form-urlencoded")
-				.POST(HttpRequest.BodyPublishers.ofString(form))
-				.build();
-		return HTTP.send(req, HttpResponse.BodyHandlers.ofString());
-	}
-
-	private HttpResponse<String> requestTokenInvalidClient(String username, String password) throws Exception {
-		
-		
-		HttpRequest req = HttpRequest.newBuilder()
-				.uri(URI.create(baseUrl + "/oauth/token"))
-				.header("Content-Type", "application/json")
-				.POST(HttpRequest.BodyPublishers.ofString())
-				.build();
-	}
-
-	// Non-static by design: I/O helper and is considered part of the test instance lifecycle
-	/**
-	 * Sends an HTTP POST request with a JSON body.
-	 * 
-	 * <p>This is the base helper for all JSON-based endpoints such as
-	 * {@code /register} and {@code /login}. The payload object is serialized 
-	 * using Jackson and sent with {@code Content-Type: application/json}.
-	 * 
-	 * <p>This method does NOT assert on the response status code.
-	 * Callers are responsible for validating success or failure.
-	 * 
-	 * @param url the full endpoint URL
-	 * @param payload a Java object or Map to serialize as JSON
-	 * @return the raw HTTP response containing status code and body
-	 * @throws Exception
-	 */
-	private HttpResponse<String> sendJsonPost(String url, Object payload) throws Exception {
-		String json = MAPPER.writeValueAsString(payload);
-		HttpRequest req = HttpRequest.newBuilder().uri(URI.create(url))
-				.header("Content-Type", "application/json; charset=utf-8")
-				.POST(HttpRequest.BodyPublishers.ofString(json)).build();
-		return HTTP.send(req, HttpResponse.BodyHandlers.ofString());
-	}
-
-	private static String form(Map<String, String> params) {
-		StringBuilder sb = new StringBuilder();
-		boolean first = true;
-		for (Map.Entry<String, String> e: params.entrySet()) {
-			if (!first) sb.append('&');
-			first = false;
-			sb.append(enc(e.getKey())).append('=').append(enc(e.getValue()));
-		}
-		return sb.toString();
-	}
-
-	private static String enc(String s) {
-		return URLEncoder.encode(s == null ? "": s, StandardCharsets.UTF_8);
-	}
-
-	/**
-	 * Prints HTTP response status and body to standard output.
-	 * 
-	 * <p>This is a debugging aid used to inspect raw responses during tests.
-	 * 
-	 * @param response the HTTP response to print
-	 */
-	private static void printResponse(HttpResponse<String> response) {
-		System.out.println("HTTP " + response.statusCode());
-		if (response.body() == null || response.body().isBlank()) {
-			System.out.println("(empty body)");
-		} else {
-			System.out.println(response.body());
-		}
-	}
-
-	/**
-	 * Extracts an authentication token from a response body, regardless
-	 * of response shape.
-	 * 
-	 * <p>This helper supports multiple token formats:
-	 * <ul>
-	 * 		<li>{@code { "token": "..."}}</li>
-	 * 		<li>{@code { "access_token": "..."}}</li>
-	 * 		<li>{@code { "raw-token-string"}}</li>
-	 * </ul>
-	 * 
-	 * <p>This exists because different endpoints in the system return
-	 * tokens in different formats, and the test should remain resilient
-	 * while API evolves.
-	 * 
-	 * @param body the raw response body
-	 * @return the extracted token, or the raw body if no known format matches
-	 */
-	private static String extractToken(String body) {
-		if (body == null)
-			return null;
-
-		try {
-			Map<String, Object> obj = MAPPER.readValue(body, new TypeReference<Map<String, Object>>() {});
-			Object t = obj.get("token");
-			if (t != null) return String.valueOf(t);
-			Object at = obj.get("access_token");
-			if (at != null) return String.valueOf(at);
-		} catch (Exception ignored) {}
-
-		try {
-			return MAPPER.readValue(body, String.class);
-		} catch (Exception ignored) {}
-
-		return body;
-	}
-	/**
-	 * Attempts to parse a response body as a JSON object.
-	 * 
-	 * <p>If the body is not valid JSON or is not a JSON object,
-	 * this method returns an empty map instead of throwing.
-	 * 
-	 * <p>This allows negative test cases to safely inspect error responses
-	 * without crashing the test harness.
-	 * 
-	 * @param body the raw response body
-	 * @return a map representing the JSON object, or an empty map on failure
-	 */
-	private static Map<String, Object> parseJsonObject(String body) {
-		try {
-			return MAPPER.readValue(body, new TypeReference<Map<String, Object>>() {});
-		} catch (Exception ignored) {
-			return Map.of();
-		}
-	}
-}
+package io.github.cqyll.todoapi;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.github.cqyll.todoapi.config.AppConfig;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ApiFlowTest {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+	private static final String CLIENT_ID = "todo-web";
+	private static final String CLIENT_SECRET = "todo-secret";
+
+	private AppConfig config;
+	private HttpServer server;
+
+	private String baseUrl;
+
+	@BeforeAll
+	void startServer() {
+		config = new AppConfig();
+		server = config.createHttpServer();
+		server.start();
+
+		baseUrl = "http://localhost:" + server.getAddress().getPort();
+	}
+
+	@AfterAll
+	void stopServer() {
+		if (config != null)
+			config.close();
+	}
+
+	/**
+	 * Verifies server can bind to an ephemeral port, to avoid port conflicts.
+	 */
+	@Test
+	void usesEphemeralPort() {
+		assertTrue(server.getAddress().getPort() > 0);
+	}
+
+	/**
+	 * Happy-path flow:
+	 * <ol>
+	 * 		<li>Register a new user.</li>
+	 *  	<li>Assert both return a usable token string.</li>
+	 *  	<li>Assert the tokens differ: each one is signed with its own id and expiry</li>
+	 * </ol>
+	 * 
+	 * <p>Token extraction is shape-agnostic (supports "token", "access_token", or raw JSON string).</p>
+	 */
+	@Test
+	void register_then_login() throws Exception {
+		String email = "user" + System.currentTimeMillis() + "@example.com";
+		String password = "Passw0rd!";
+
+		String registrationToken = register(email, "JUnit", password);
+
+		assertNotNull(registrationToken);
+		assertFalse(registrationToken.isBlank());
+		assertTrue(registrationToken.length() >= 10);
+		assertFalse(registrationToken.chars().anyMatch(Character::isWhitespace));
+
+		String loginToken = login(email, password);
+
+		assertNotNull(loginToken);
+		assertFalse(loginToken.isBlank());
+		assertTrue(loginToken.length() >= 10);
+		assertFalse(loginToken.chars().anyMatch(Character::isWhitespace));
+
+		// tokens are no longer derived from the user id alone; every issue is a distinct signed token
+		assertNotEquals(registrationToken, loginToken);
+	}
+
+
+	/**
+	 * Verifies password grant works when the client authenticates via HTTP Basic
+	 * 
+	 * <p>This test exists to cover the controller branch that parses client credentials from the Authorization header.
+	 */
+	@Test
+	void passwordGrantWithBasicAuth() throws Exception {
+		String email = "user" + System.currentTimeMillis() + "@example.com";
+		String password = "Passw0rd!";
+		register(email, "OAuth", password);
+
+		HttpResponse<String> r = requestTokenBasicClient(email, password);
+		assertEquals(200, r.statusCode(), "Token request failed: HTTP " + r.statusCode() + " body=" + r.body());
+
+		Map<String, Object> body = parseJsonObject(r.body());
+
+		String tokenType = String.valueOf(body.get("token_type"));
+		assertNotNull(tokenType);
+		assertEquals("bearer", tokenType.toLowerCase(Locale.ROOT));
+
+		String accessToken = String.valueOf(body.get("access_token"));
+		assertNotNull(accessToken);
+		assertFalse(accessToken.isBlank());
+		assertTrue(accessToken.length() >= 10);
+		assertFalse(accessToken.chars().anyMatch(Character::isWhitespace));
+	}
+
+
+	/**
+	 * Verifies password grant works when the client 
+	 */
+	@Test
+	void passwordGrantWithClientCredentialsInBody() throws Exception {
+		String email = "user" + System.currentTimeMillis() + "@example.com";
+		String password = "Passw0rd!";
+		register(email, "OAuth", password);
+
+		HttpResponse<String> r = requestTokenBodyClient(email, password);
+		assertEquals(200, r.statusCode(), "Token request failed: HTTP " + r.statusCode() + " body=" + r.body());
+
+		Map<String, Object> body = parseJsonObject(r.body());
+
+		String tokenType = String.valueOf(body.get("token_type"));
+		assertNotNull(tokenType);
+		assertEquals("bearer", tokenType.toLowerCase(Locale.ROOT));
+
+		String accessToken = String.valueOf(body.get("access_token"));
+		assertNotNull(accessToken);
+		assertFalse(accessToken.isBlank());
+		assertTrue(accessToken.length() >= 10);
+		assertFalse(accessToken.chars().anyMatch(Character::isWhitespace));
+	}
+
+
+	/**
+	 * Verifies a wrong client secret is rejected with {@code 401 invalid_client}, regardless of valid user credentials.
+	 */
+	@Test
+	void invalidClientIsRejected() throws Exception {
+		String email = "user" + System.currentTimeMillis() + "@example.com";
+		String password = "Passw0rd!";
+		register(email, "OAuth", password);
+
+		HttpResponse<String> r = requestTokenInvalidClient(email, password);
+		assertEquals(401, r.statusCode(), "Expected invalid_client: body=" + r.body());
+		assertEquals("invalid_client", String.valueOf(parseJsonObject(r.body()).get("error")));
+	}
+
+
+	/**
+	 * Verifies the refresh_token grant: the password grant hands out a refresh token, each refresh returns a new
+	 * one, and replaying a used token is refused and also invalidates its successor.
+	 */
+	@Test
+	void refreshTokenRotationAndReuse() throws Exception {
+		String email = "user" + System.currentTimeMillis() + "@example.com";
+		String password = "Passw0rd!";
+		register(email, "OAuth", password);
+
+		Map<String, Object> issued = parseJsonObject(requestTokenBodyClient(email, password).body());
+		String first = String.valueOf(issued.get("refresh_token"));
+		assertNotNull(issued.get("refresh_token"));
+
+		HttpResponse<String> r = refresh(first);
+		assertEquals(200, r.statusCode(), "Refresh failed: body=" + r.body());
+		Map<String, Object> refreshed = parseJsonObject(r.body());
+		assertNotNull(refreshed.get("access_token"));
+		String second = String.valueOf(refreshed.get("refresh_token"));
+		assertNotEquals(first, second);
+
+		r = refresh(first);
+		assertEquals(400, r.statusCode());
+		assertEquals("invalid_grant", String.valueOf(parseJsonObject(r.body()).get("error")));
+		assertEquals(400, refresh(second).statusCode(), "successor must die with the replayed token");
+	}
+
+	/**
+	 * Verifies a refresh asking for more than the original scope is refused without using the token up: the
+	 * client's retry with the same token succeeds instead of counting as a replay.
+	 */
+	@Test
+	void refreshWithWidenedScopeKeepsTheToken() throws Exception {
+		String email = "user" + System.nanoTime() + "@example.com";
+		register(email, "OAuth", "Passw0rd!");
+		String token = String.valueOf(parseJsonObject(requestTokenBodyClient(email, "Passw0rd!").body()).get("refresh_token"));
+
+		HttpResponse<String> r = refresh(token, "todos:read todos:write admin");
+		assertEquals(400, r.statusCode());
+		assertEquals("invalid_scope", String.valueOf(parseJsonObject(r.body()).get("error")));
+
+		r = refresh(token);
+		assertEquals(200, r.statusCode(), "Refresh failed: body=" + r.body());
+		assertEquals(200, refresh(String.valueOf(parseJsonObject(r.body()).get("refresh_token"))).statusCode());
+	}
+
+
+	private HttpResponse<String> refresh(String refreshToken) throws Exception {
+		return refresh(refreshToken, null);
+	}
+
+	private HttpResponse<String> refresh(String refreshToken, String scope) throws Exception {
+		Map<String, String> params = new LinkedHashMap<>(Map.of(
+				"grant_type", "refresh_token",
+				"client_id", CLIENT_ID,
+				"client_secret", CLIENT_SECRET,
+				"refresh_token", refreshToken));
+		if (scope != null) {
+			params.put("scope", scope);
+		}
+		String form = form(params);
+
+		HttpRequest req = HttpRequest.newBuilder()
+				.uri(URI.create(baseUrl + "/oauth/token"))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form))
+				.build();
+		return HTTP.send(req, HttpResponse.BodyHandlers.ofString());
+	}
+
+	/**
+	 * Verifies the client_credentials grant issues an access token from client authentication alone, without a
+	 * refresh token.
+	 */
+	@Test
+	void clientCredentialsGrant() throws Exception {
+		String basic = Base64.getEncoder().encodeToString((CLIENT_ID + ":" + CLIENT_SECRET).getBytes(StandardCharsets.UTF_8));
+
+		HttpRequest req = HttpRequest.newBuilder()
+				.uri(URI.create(baseUrl + "/oauth/token"))
+				.header("Authorization", "Basic " + basic)
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form(Map.of("grant_type", "client_credentials"))))
+				.build();
+		HttpResponse<String> r = HTTP.send(req, HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, r.statusCode(), "Token request failed: HTTP " + r.statusCode() + " body=" + r.body());
+
+		Map<String, Object> body = parseJsonObject(r.body());
+		assertNotNull(body.get("access_token"));
+		assertNull(body.get("refresh_token"));
+	}
+
+
+	/**
+	 * Verifies the authorization code flow with PKCE: {@code /oauth/authorize} redirects back with a code and
+	 * the state, the code plus verifier buys tokens once, and a second redemption fails.
+	 */
+	@Test
+	void authorizationCodeWithPkce() throws Exception {
+		String email = "user" + System.currentTimeMillis() + "@example.com";
+		String password = "Passw0rd!";
+		register(email, "OAuth", password);
+
+		String verifier = "dBjftJeZ4CVP-mB92K27uhbUJU1p1r_wW1gFWFOEjXk";
+		String challenge = Base64.getUrlEncoder().withoutPadding().encodeToString(
+				MessageDigest.getInstance("SHA-256").digest(verifier.getBytes(StandardCharsets.US_ASCII)));
+		String query = form(Map.of(
+				"response_type", "code",
+				"client_id", CLIENT_ID,
+				"redirect_uri", AppConfig.DEFAULT_REDIRECT_URI,
+				"state", "xyz",
+				"code_challenge", challenge,
+				"code_challenge_method", "S256"));
+		String user = Base64.getEncoder().encodeToString((email + ":" + password).getBytes(StandardCharsets.UTF_8));
+
+		HttpResponse<String> r = HTTP.send(HttpRequest.newBuilder()
+				.uri(URI.create(baseUrl + "/oauth/authorize?" + query))
+				.header("Authorization", "Basic " + user)
+				.GET().build(), HttpResponse.BodyHandlers.ofString());
+		assertEquals(302, r.statusCode(), "Authorize failed: body=" + r.body());
+		String location = r.headers().firstValue("Location").orElseThrow();
+		assertTrue(location.startsWith(AppConfig.DEFAULT_REDIRECT_URI + "?code="), location);
+		assertTrue(location.endsWith("&state=xyz"), location);
+		String code = location.substring(location.indexOf("code=") + 5, location.indexOf('&'));
+
+		Map<String, String> exchange = new LinkedHashMap<>();
+		exchange.put("grant_type", "authorization_code");
+		exchange.put("client_id", CLIENT_ID);
+		exchange.put("client_secret", CLIENT_SECRET);
+		exchange.put("code", code);
+		exchange.put("redirect_uri", AppConfig.DEFAULT_REDIRECT_URI);
+		exchange.put("code_verifier", verifier);
+		HttpRequest tokenRequest = HttpRequest.newBuilder()
+				.uri(URI.create(baseUrl + "/oauth/token"))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form(exchange)))
+				.build();
+
+		r = HTTP.send(tokenRequest, HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, r.statusCode(), "Code exchange failed: body=" + r.body());
+		assertNotNull(parseJsonObject(r.body()).get("access_token"));
+		assertNotNull(parseJsonObject(r.body()).get("refresh_token"));
+
+		r = HTTP.send(tokenRequest, HttpResponse.BodyHandlers.ofString());
+		assertEquals(400, r.statusCode());
+		assertEquals("invalid_grant", String.valueOf(parseJsonObject(r.body()).get("error")));
+	}
+
+	/**
+	 * Verifies {@code /oauth/authorize} asks for credentials, and never redirects to an unregistered URI.
+	 */
+	@Test
+	void authorizeRejectsMissingCredentialsAndForeignRedirects() throws Exception {
+		String query = form(Map.of("response_type", "code", "client_id", CLIENT_ID));
+		HttpResponse<String> r = HTTP.send(HttpRequest.newBuilder()
+				.uri(URI.create(baseUrl + "/oauth/authorize?" + query)).GET().build(),
+				HttpResponse.BodyHandlers.ofString());
+		assertEquals(401, r.statusCode());
+		assertTrue(r.headers().firstValue("WWW-Authenticate").isPresent());
+
+		query = form(Map.of("response_type", "code", "client_id", CLIENT_ID, "redirect_uri", "https://evil.example/"));
+		r = HTTP.send(HttpRequest.newBuilder()
+				.uri(URI.create(baseUrl + "/oauth/authorize?" + query)).GET().build(),
+				HttpResponse.BodyHandlers.ofString());
+		assertEquals(400, r.statusCode());
+		assertTrue(r.headers().firstValue("Location").isEmpty());
+	}
+
+
+	/**
+	 * Verifies {@code POST /oauth/revoke} answers 200 for a real token and for garbage alike (RFC 7009), and still
+	 * requires client authentication.
+	 */
+	@Test
+	void revocationEndpoint() throws Exception {
+		String email = "user" + System.currentTimeMillis() + "@example.com";
+		String token = register(email, "OAuth", "Passw0rd!");
+
+		assertEquals(200, revoke(token, CLIENT_SECRET).statusCode());
+		assertEquals(200, revoke(token, CLIENT_SECRET).statusCode());
+		assertEquals(200, revoke("garbage", CLIENT_SECRET).statusCode());
+
+		HttpResponse<String> r = revoke(token, "WRONG_SECRET");
+		assertEquals(401, r.statusCode());
+		assertEquals("invalid_client", String.valueOf(parseJsonObject(r.body()).get("error")));
+	}
+
+
+	/**
+	 * Verifies CRUD under {@code /todos} with a bearer token: create, read, list, patch, replace and delete, and
+	 * that another user sees none of it.
+	 */
+	@Test
+	void todoCrud() throws Exception {
+		String token = register("user" + System.nanoTime() + "@example.com", "Todo", "Passw0rd!");
+		String other = register("user" + System.nanoTime() + "@example.com", "Other", "Passw0rd!");
+
+		HttpResponse<String> r = todoRequest(token, "POST", "/todos", "{\"title\":\"Buy milk\"}");
+		assertEquals(201, r.statusCode(), "Create failed: body=" + r.body());
+		Map<String, Object> created = parseJsonObject(r.body());
+		String id = String.valueOf(created.get("id"));
+		assertEquals("Buy milk", created.get("title"));
+		assertEquals(false, created.get("completed"));
+		assertEquals("/todos/" + id, r.headers().firstValue("Location").orElseThrow());
+
+		r = todoRequest(token, "PATCH", "/todos/" + id, "{\"completed\":true}");
+		assertEquals(200, r.statusCode(), "Patch failed: body=" + r.body());
+		assertEquals("Buy milk", parseJsonObject(r.body()).get("title"));
+		assertEquals(true, parseJsonObject(r.body()).get("completed"));
+
+		r = todoRequest(token, "PUT", "/todos/" + id, "{\"title\":\"Buy oat milk\"}");
+		assertEquals(200, r.statusCode());
+		assertEquals(false, parseJsonObject(r.body()).get("completed"), "PUT replaces: absent means not completed");
+
+		todoRequest(token, "POST", "/todos", "{\"title\":\"Call mum\",\"completed\":true}");
+		r = todoRequest(token, "GET", "/todos", null);
+		assertEquals(200, r.statusCode());
+		List<Map<String, Object>> list = MAPPER.readValue(r.body(), new TypeReference<List<Map<String, Object>>>() {});
+		assertEquals(List.of("Buy oat milk", "Call mum"), list.stream().map(t -> t.get("title")).toList());
+
+		assertEquals(404, todoRequest(other, "GET", "/todos/" + id, null).statusCode());
+		assertEquals(404, todoRequest(other, "DELETE", "/todos/" + id, null).statusCode());
+		assertEquals("[]", todoRequest(other, "GET", "/todos", null).body());
+
+		assertEquals(400, todoRequest(token, "POST", "/todos", "{\"title\":\"  \"}").statusCode());
+		assertEquals(400, todoRequest(token, "POST", "/todos", "{\"completed\":true}").statusCode());
+		assertEquals(404, todoRequest(token, "GET", "/todos/not-an-id", null).statusCode());
+		assertEquals(405, todoRequest(token, "DELETE", "/todos", null).statusCode());
+
+		assertEquals(204, todoRequest(token, "DELETE", "/todos/" + id, null).statusCode());
+		assertEquals(404, todoRequest(token, "GET", "/todos/" + id, null).statusCode());
+	}
+
+	/**
+	 * Verifies {@code GET /todos/export} streams every todo as one JSON object per line, with chunked transfer
+	 * coding, oldest first.
+	 */
+	@Test
+	void todoExportStreamsNdjson() throws Exception {
+		String token = register("user" + System.nanoTime() + "@example.com", "Export", "Passw0rd!");
+		StringBuilder batch = new StringBuilder("[");
+		for (int i = 0; i < 500; i++) {
+			batch.append(i == 0 ? "" : ",").append("{\"op\":\"create\",\"title\":\"todo ").append(i).append("\"}");
+		}
+		assertEquals(200, todoRequest(token, "POST", "/todos/batch", batch.append(']').toString()).statusCode());
+
+		HttpResponse<String> r = todoRequest(token, "GET", "/todos/export", null);
+		assertEquals(200, r.statusCode());
+		assertEquals("application/x-ndjson; charset=utf-8", r.headers().firstValue("Content-Type").orElseThrow());
+		assertTrue(r.headers().firstValue("Content-Length").isEmpty(), "streamed, so no length up front");
+		assertTrue(r.body().endsWith("}\n"), "every line is terminated");
+		String[] lines = r.body().split("\n");
+		assertEquals(500, lines.length);
+		for (int i = 0; i < lines.length; i++) {
+			assertEquals("todo " + i, MAPPER.readValue(lines[i], new TypeReference<Map<String, Object>>() {}).get("title"));
+		}
+
+		String empty = register("user" + System.nanoTime() + "@example.com", "Empty", "Passw0rd!");
+		r = todoRequest(empty, "GET", "/todos/export", null);
+		assertEquals(200, r.statusCode());
+		assertEquals("", r.body());
+		assertEquals(405, todoRequest(token, "POST", "/todos/export", "{}").statusCode());
+	}
+
+	/**
+	 * Verifies {@code POST /todos/batch} applies each operation in order and reports each one's own status, and
+	 * that a malformed batch is refused before anything is applied.
+	 */
+	@Test
+	void todoBatch() throws Exception {
+		String token = register("user" + System.nanoTime() + "@example.com", "Batch", "Passw0rd!");
+		String other = register("user" + System.nanoTime() + "@example.com", "Other", "Passw0rd!");
+		String existing = String.valueOf(parseJsonObject(
+				todoRequest(token, "POST", "/todos", "{\"title\":\"Call mum\"}").body()).get("id"));
+		String foreign = String.valueOf(parseJsonObject(
+				todoRequest(other, "POST", "/todos", "{\"title\":\"Not yours\"}").body()).get("id"));
+
+		HttpResponse<String> r = todoRequest(token, "POST", "/todos/batch", "["
+				+ "{\"op\":\"create\",\"title\":\"Buy milk\"},"
+				+ "{\"op\":\"create\",\"title\":\"Walk dog\",\"completed\":true},"
+				+ "{\"op\":\"update\",\"id\":\"" + existing + "\",\"completed\":true},"
+				+ "{\"op\":\"create\",\"title\":\"  \"},"
+				+ "{\"op\":\"delete\",\"id\":\"" + foreign + "\"},"
+				+ "{\"op\":\"update\",\"id\":\"" + foreign + "\",\"title\":\"mine\"},"
+				+ "{\"op\":\"delete\",\"id\":\"" + existing + "\"}]");
+		assertEquals(200, r.statusCode(), "Batch failed: body=" + r.body());
+		List<Map<String, Object>> results = MAPPER.readValue(r.body(), new TypeReference<List<Map<String, Object>>>() {});
+		assertEquals(List.of(201, 201, 200, 400, 404, 404, 204), results.stream().map(m -> m.get("status")).toList());
+		assertEquals("Buy milk", ((Map<?, ?>) results.get(0).get("todo")).get("title"));
+		assertEquals(true, ((Map<?, ?>) results.get(2).get("todo")).get("completed"));
+		assertEquals("Title cannot be empty", results.get(3).get("error"));
+
+		r = todoRequest(token, "GET", "/todos", null);
+		List<Map<String, Object>> list = MAPPER.readValue(r.body(), new TypeReference<List<Map<String, Object>>>() {});
+		assertEquals(List.of("Buy milk", "Walk dog"), list.stream().map(t -> t.get("title")).toList());
+		assertEquals("Not yours", parseJsonObject(todoRequest(other, "GET", "/todos/" + foreign, null).body()).get("title"));
+
+		r = todoRequest(token, "POST", "/todos/batch",
+				"[{\"op\":\"create\",\"title\":\"Too soon\"},{\"op\":\"delete\",\"id\":\"nope\"}]");
+		assertEquals(400, r.statusCode());
+		assertEquals("Operation 1: malformed id", parseJsonObject(r.body()).get("error"));
+		assertEquals(2, MAPPER.readValue(todoRequest(token, "GET", "/todos", null).body(), List.class).size(),
+				"nothing from a refused batch is applied");
+		assertEquals("[]", todoRequest(token, "POST", "/todos/batch", "[]").body());
+		assertEquals(405, todoRequest(token, "GET", "/todos/batch", null).statusCode());
+	}
+
+	/**
+	 * Verifies {@code /todos/search} finds todos by word prefixes, best match first, honours {@code limit}, and
+	 * refuses a missing or oversized query or limit.
+	 */
+	@Test
+	void todoSearch() throws Exception {
+		String token = register("user" + System.nanoTime() + "@example.com", "Search", "Passw0rd!");
+		String other = register("user" + System.nanoTime() + "@example.com", "Other", "Passw0rd!");
+		todoRequest(other, "POST", "/todos", "{\"title\":\"Pay taxes\"}");
+		assertEquals(200, todoRequest(token, "POST", "/todos/batch", "["
+				+ "{\"op\":\"create\",\"title\":\"File taxes\"},"
+				+ "{\"op\":\"create\",\"title\":\"Tax office: call back\"},"
+				+ "{\"op\":\"create\",\"title\":\"Buy milk\"}]").statusCode());
+
+		HttpResponse<String> r = todoRequest(token, "GET", "/todos/search?q=TAX", null);
+		assertEquals(200, r.statusCode(), "Search failed: body=" + r.body());
+		List<Map<String, Object>> found = MAPPER.readValue(r.body(), new TypeReference<List<Map<String, Object>>>() {});
+		assertEquals(List.of("Tax office: call back", "File taxes"), found.stream().map(t -> t.get("title")).toList());
+		assertEquals(304, conditionalGet(token, "/todos/search?q=TAX", r.headers().firstValue("ETag").orElseThrow()).statusCode());
+
+		found = MAPPER.readValue(todoRequest(token, "GET", "/todos/search?q=ca+off&limit=1", null).body(),
+				new TypeReference<List<Map<String, Object>>>() {});
+		assertEquals(List.of("Tax office: call back"), found.stream().map(t -> t.get("title")).toList());
+		assertEquals("[]", todoRequest(token, "GET", "/todos/search?q=pay", null).body());
+		assertEquals("[]", todoRequest(token, "GET", "/todos/search?q=%3F%21", null).body());
+
+		assertEquals("Missing q", parseJsonObject(todoRequest(token, "GET", "/todos/search?q=+", null).body()).get("error"));
+		assertEquals(400, todoRequest(token, "GET", "/todos/search?q=tax&limit=0", null).statusCode());
+		assertEquals(400, todoRequest(token, "GET", "/todos/search?q=tax&limit=ten", null).statusCode());
+		assertEquals(400, todoRequest(token, "GET", "/todos/search?q=" + "a".repeat(201), null).statusCode());
+		assertEquals(405, todoRequest(token, "POST", "/todos/search?q=tax", "{}").statusCode());
+	}
+
+	/**
+	 * Verifies todos carry an optional {@code due_at}, {@code /todos} answers due ranges soonest first and leaves
+	 * out undated todos, a PUT without the field clears it, and malformed bounds are refused.
+	 */
+	@Test
+	void todoDueDates() throws Exception {
+		String token = register("user" + System.nanoTime() + "@example.com", "Due", "Passw0rd!");
+		HttpResponse<String> r = todoRequest(token, "POST", "/todos",
+				"{\"title\":\"Pay rent\",\"due_at\":\"2024-05-01T09:00:00Z\"}");
+		assertEquals(201, r.statusCode(), "Create failed: body=" + r.body());
+		assertEquals("2024-05-01T09:00:00Z", parseJsonObject(r.body()).get("due_at"));
+		String rent = r.headers().firstValue("Location").orElseThrow();
+		todoRequest(token, "POST", "/todos/batch", "["
+				+ "{\"op\":\"create\",\"title\":\"Call mum\",\"due_at\":\"2024-04-30T18:00:00Z\"},"
+				+ "{\"op\":\"create\",\"title\":\"Someday\"}]");
+
+		List<Map<String, Object>> due = MAPPER.readValue(todoRequest(token, "GET", "/todos?due_before=2024-05-02T00:00:00Z", null).body(),
+				new TypeReference<List<Map<String, Object>>>() {});
+		assertEquals(List.of("Call mum", "Pay rent"), due.stream().map(t -> t.get("title")).toList());
+		due = MAPPER.readValue(todoRequest(token, "GET", "/todos?due_after=2024-05-01T00:00:00Z", null).body(),
+				new TypeReference<List<Map<String, Object>>>() {});
+		assertEquals(List.of("Pay rent"), due.stream().map(t -> t.get("title")).toList());
+		assertEquals(3, MAPPER.readValue(todoRequest(token, "GET", "/todos?other=1", null).body(), List.class).size());
+
+		r = todoRequest(token, "PUT", rent, "{\"title\":\"Pay rent\"}");
+		assertNull(parseJsonObject(r.body()).get("due_at"));
+		assertTrue(parseJsonObject(r.body()).containsKey("due_at"));
+		assertEquals("[]", todoRequest(token, "GET", "/todos?due_after=2024-05-01T00:00:00Z", null).body());
+
+		assertEquals("Invalid due_before", parseJsonObject(todoRequest(token, "GET", "/todos?due_before=tomorrow", null).body()).get("error"));
+		assertEquals(400, todoRequest(token, "GET",
+				"/todos?due_after=2024-05-02T00:00:00Z&due_before=2024-05-01T00:00:00Z", null).statusCode());
+		assertEquals(400, todoRequest(token, "POST", "/todos", "{\"title\":\"x\",\"due_at\":\"soon\"}").statusCode());
+	}
+
+	/**
+	 * Verifies {@code /todos/events} pushes changes made after a listing's ETag as they happen, that a second
+	 * stream resumes from an event id, and that a malformed starting point, other methods and requests without a
+	 * token are refused.
+	 */
+	@Test
+	void todoEventStream() throws Exception {
+		String token = register("user" + System.nanoTime() + "@example.com", "Watcher", "Passw0rd!");
+		todoRequest(token, "POST", "/todos", "{\"title\":\"Before\"}");
+		String etag = todoRequest(token, "GET", "/todos", null).headers().firstValue("ETag").orElseThrow();
+		long listed = Long.parseLong(etag.replace("\"", ""), 16);
+
+		HttpResponse<Stream<String>> r = openEvents(token, etag);
+		assertEquals(200, r.statusCode());
+		assertEquals("text/event-stream; charset=utf-8", r.headers().firstValue("Content-Type").orElseThrow());
+		try (Stream<String> lines = r.body()) {
+			Iterator<String> events = lines.filter(l -> !l.isEmpty() && !l.startsWith(":")).iterator();
+			assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+				String after = todoRequest(token, "POST", "/todos", "{\"title\":\"After\"}").headers().firstValue("Location").orElseThrow();
+				assertEquals("event: created", events.next());
+				assertEquals("id: " + Long.toHexString(listed + 1), events.next());
+				assertEquals("After", parseJsonObject(events.next().substring("data: ".length())).get("title"));
+
+				todoRequest(token, "PATCH", after, "{\"completed\":true}");
+				assertEquals("event: updated", events.next());
+				assertEquals("id: " + Long.toHexString(listed + 2), events.next());
+				assertEquals(true, parseJsonObject(events.next().substring("data: ".length())).get("completed"));
+			});
+		}
+		// a reconnecting client sends the id of the last event it applied
+		try (Stream<String> lines = openEvents(token, Long.toHexString(listed + 1)).body()) {
+			Iterator<String> events = lines.filter(l -> !l.isEmpty() && !l.startsWith(":")).iterator();
+			assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+				assertEquals("event: updated", events.next());
+				assertEquals("id: " + Long.toHexString(listed + 2), events.next());
+			});
+		}
+
+		assertEquals(400, todoRequest(token, "GET", "/todos/events?since=xyz", null).statusCode());
+		assertEquals(405, todoRequest(token, "POST", "/todos/events", "{}").statusCode());
+		assertEquals(404, todoRequest(token, "GET", "/todos/events/1", null).statusCode());
+		assertEquals(401, HTTP.send(HttpRequest.newBuilder().uri(URI.create(baseUrl + "/todos/events")).GET().build(),
+				HttpResponse.BodyHandlers.ofString()).statusCode());
+	}
+
+	/**
+	 * Verifies list and item reads carry ETags, answer a matching {@code If-None-Match} with a bodyless 304, and
+	 * stop matching once anything changes.
+	 */
+	@Test
+	void conditionalTodoReads() throws Exception {
+		String token = register("user" + System.nanoTime() + "@example.com", "Poller", "Passw0rd!");
+		HttpResponse<String> r = todoRequest(token, "POST", "/todos", "{\"title\":\"Buy milk\"}");
+		String id = String.valueOf(parseJsonObject(r.body()).get("id"));
+		String itemTag = r.headers().firstValue("ETag").orElseThrow();
+
+		r = todoRequest(token, "GET", "/todos", null);
+		String listTag = r.headers().firstValue("ETag").orElseThrow();
+		assertTrue(listTag.matches("\"[0-9a-f]+\""), listTag);
+		assertEquals("private, no-cache", r.headers().firstValue("Cache-Control").orElseThrow());
+
+		r = conditionalGet(token, "/todos", listTag);
+		assertEquals(304, r.statusCode());
+		assertEquals("", r.body());
+		assertEquals(listTag, r.headers().firstValue("ETag").orElseThrow());
+		assertEquals(304, conditionalGet(token, "/todos", "\"0\", W/" + listTag).statusCode());
+		assertEquals(304, conditionalGet(token, "/todos/export", listTag).statusCode());
+		assertEquals(304, conditionalGet(token, "/todos/" + id, itemTag).statusCode());
+		assertEquals(200, conditionalGet(token, "/todos/" + id, listTag).statusCode());
+
+		r = todoRequest(token, "PATCH", "/todos/" + id, "{\"completed\":true}");
+		String newItemTag = r.headers().firstValue("ETag").orElseThrow();
+		assertNotEquals(itemTag, newItemTag);
+		r = conditionalGet(token, "/todos/" + id, itemTag);
+		assertEquals(200, r.statusCode());
+		assertEquals(newItemTag, r.headers().firstValue("ETag").orElseThrow());
+		r = conditionalGet(token, "/todos", listTag);
+		assertEquals(200, r.statusCode());
+		assertNotEquals(listTag, r.headers().firstValue("ETag").orElseThrow());
+
+		// a change that changes nothing keeps both tags
+		listTag = r.headers().firstValue("ETag").orElseThrow();
+		assertEquals(newItemTag, todoRequest(token, "PATCH", "/todos/" + id, "{\"completed\":true}").headers()
+				.firstValue("ETag").orElseThrow());
+		assertEquals(304, conditionalGet(token, "/todos", listTag).statusCode());
+
+		// tags are per user: the same tag means nothing for someone else's list
+		String other = register("user" + System.nanoTime() + "@example.com", "Other", "Passw0rd!");
+		assertEquals(200, conditionalGet(other, "/todos", listTag).statusCode());
+	}
+
+	/**
+	 * Verifies large todo responses are gzipped for clients that ask, conditional reads still match the weakened
+	 * tag, and small responses such as tokens are left alone.
+	 */
+	@Test
+	void compressesLargeResponses() throws Exception {
+		String token = register("user" + System.nanoTime() + "@example.com", "Gzip", "Passw0rd!");
+		StringBuilder batch = new StringBuilder("[");
+		for (int i = 0; i < 200; i++) {
+			batch.append(i == 0 ? "" : ",").append("{\"op\":\"create\",\"title\":\"todo ").append(i).append("\"}");
+		}
+		assertEquals(200, todoRequest(token, "POST", "/todos/batch", batch.append(']').toString()).statusCode());
+		String plain = todoRequest(token, "GET", "/todos", null).body();
+
+		for (String path : new String[] {"/todos", "/todos/export"}) {
+			HttpRequest req = HttpRequest.newBuilder().uri(URI.create(baseUrl + path))
+					.header("Authorization", "Bearer " + token)
+					.header("Accept-Encoding", "gzip, deflate")
+					.GET().build();
+			HttpResponse<byte[]> r = HTTP.send(req, HttpResponse.BodyHandlers.ofByteArray());
+			assertEquals(200, r.statusCode());
+			assertEquals("gzip", r.headers().firstValue("Content-Encoding").orElse(null), path);
+			String body = new String(new GZIPInputStream(new ByteArrayInputStream(r.body())).readAllBytes(), StandardCharsets.UTF_8);
+			if (path.equals("/todos")) {
+				assertEquals(plain, body);
+				assertTrue(r.body().length < plain.length() / 4, "compressed to " + r.body().length);
+			} else {
+				assertEquals(200, body.split("\n").length);
+			}
+			String etag = r.headers().firstValue("ETag").orElseThrow();
+			assertTrue(etag.startsWith("W/\""), etag);
+			assertEquals(304, conditionalGet(token, path, etag).statusCode());
+		}
+
+		HttpRequest login = HttpRequest.newBuilder().uri(URI.create(baseUrl + "/oauth/token"))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.header("Accept-Encoding", "gzip")
+				.POST(HttpRequest.BodyPublishers.ofString("grant_type=password"))
+				.build();
+		HttpResponse<String> r = HTTP.send(login, HttpResponse.BodyHandlers.ofString());
+		assertTrue(r.headers().firstValue("Content-Encoding").isEmpty(), "small bodies are not compressed");
+		assertTrue(r.body().startsWith("{"), r.body());
+	}
+
+	/**
+	 * Verifies {@code /todos} needs a valid bearer token, and that a token's scope limits what it may do.
+	 */
+	@Test
+	void todosRequireBearerTokenAndScope() throws Exception {
+		HttpResponse<String> r = todoRequest(null, "GET", "/todos", null);
+		assertEquals(401, r.statusCode());
+		assertEquals("Bearer realm=\"todo\"", r.headers().firstValue("WWW-Authenticate").orElseThrow());
+
+		r = todoRequest("garbage", "GET", "/todos", null);
+		assertEquals(401, r.statusCode());
+		assertTrue(r.headers().firstValue("WWW-Authenticate").orElseThrow().contains("invalid_token"));
+
+		String email = "user" + System.nanoTime() + "@example.com";
+		register(email, "Scoped", "Passw0rd!");
+		Map<String, String> grant = new LinkedHashMap<>();
+		grant.put("grant_type", "password");
+		grant.put("client_id", CLIENT_ID);
+		grant.put("client_secret", CLIENT_SECRET);
+		grant.put("username", email);
+		grant.put("password", "Passw0rd!");
+		grant.put("scope", "todos:read");
+		r = HTTP.send(HttpRequest.newBuilder()
+				.uri(URI.create(baseUrl + "/oauth/token"))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form(grant)))
+				.build(), HttpResponse.BodyHandlers.ofString());
+		String readOnly = String.valueOf(parseJsonObject(r.body()).get("access_token"));
+
+		assertEquals(200, todoRequest(readOnly, "GET", "/todos", null).statusCode());
+		r = todoRequest(readOnly, "POST", "/todos", "{\"title\":\"nope\"}");
+		assertEquals(403, r.statusCode());
+		assertTrue(r.headers().firstValue("WWW-Authenticate").orElseThrow().contains("scope=\"todos:write\""));
+
+		// client_credentials tokens belong to a client, not a user
+		String basic = Base64.getEncoder().encodeToString((CLIENT_ID + ":" + CLIENT_SECRET).getBytes(StandardCharsets.UTF_8));
+		r = HTTP.send(HttpRequest.newBuilder()
+				.uri(URI.create(baseUrl + "/oauth/token"))
+				.header("Authorization", "Basic " + basic)
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form(Map.of("grant_type", "client_credentials"))))
+				.build(), HttpResponse.BodyHandlers.ofString());
+		String clientToken = String.valueOf(parseJsonObject(r.body()).get("access_token"));
+		assertEquals(401, todoRequest(clientToken, "GET", "/todos", null).statusCode());
+	}
+
+	private HttpResponse<String> todoRequest(String token, String method, String path, String json) throws Exception {
+		HttpRequest.Builder b = HttpRequest.newBuilder().uri(URI.create(baseUrl + path))
+				.method(method, json == null
+						? HttpRequest.BodyPublishers.noBody()
+						: HttpRequest.BodyPublishers.ofString(json));
+		if (token != null) {
+			b.header("Authorization", "Bearer " + token);
+		}
+		if (json != null) {
+			b.header("Content-Type", "application/json; charset=utf-8");
+		}
+		return HTTP.send(b.build(), HttpResponse.BodyHandlers.ofString());
+	}
+
+	private HttpResponse<String> conditionalGet(String token, String path, String ifNoneMatch) throws Exception {
+		HttpRequest req = HttpRequest.newBuilder().uri(URI.create(baseUrl + path))
+				.header("Authorization", "Bearer " + token)
+				.header("If-None-Match", ifNoneMatch)
+				.GET()
+				.build();
+		return HTTP.send(req, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private HttpResponse<Stream<String>> openEvents(String token, String lastEventId) throws Exception {
+		return HTTP.send(HttpRequest.newBuilder().uri(URI.create(baseUrl + "/todos/events"))
+				.header("Authorization", "Bearer " + token).header("Last-Event-ID", lastEventId).GET().build(),
+				HttpResponse.BodyHandlers.ofLines());
+	}
+
+	private HttpResponse<String> revoke(String token, String clientSecret) throws Exception {
+		String basic = Base64.getEncoder().encodeToString((CLIENT_ID + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+
+		HttpRequest req = HttpRequest.newBuilder()
+				.uri(URI.create(baseUrl + "/oauth/revoke"))
+				.header("Authorization", "Basic " + basic)
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form(Map.of("token", token))))
+				.build();
+		return HTTP.send(req, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private String login(String email, String password) throws
+	Exception {
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put("email", email);
+		payload.put("password", password);
+
+		HttpResponse<String> r = sendJsonPost(baseUrl + "/login", payload);
+		assertEquals(200, r.statusCode(), "Login failed: " + r.body());
+
+		return extractToken(r.body());
+	}
+
+	/**
+	 * Registers a new user via {@code POST /register}
+	 * 
+	 * <p>This is a happy-path helper: expects the request to succeed
+	 * If the response status code is {@code >= 400}, throws exception.
+	 * 
+	 * <p>The response body is passed to {@link #extractToken(String)},
+	 * which intentionally absorbs parsing or format errors and attempts to
+	 * extract a token from multiple possible response shapes.
+	 * 
+	 * <p>This way the test harness remains resilient while the registration
+	 * endpoint's response format evolves.
+	 * 
+	 * @param email user email address
+	 * @param name user display name
+	 * @param password plaintext password
+	 * @return an authentication token issued after registration
+	 * @throws Exception if the HTTP request fails or returns an error status
+	 */
+	private String register(String email, String name, String password)
+			throws Exception {
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put("email", email);
+		payload.put("name", name);
+		payload.put("password", password);
+
+		HttpResponse<String> r = sendJsonPost(baseUrl + "/register", payload);
+		printResponse(r);
+
+		if (r.statusCode() >= 400) {
+			throw new RuntimeException("Register failed: " + r.body());
+		}
+
+		return extractToken(r.body());
+	}
+
+
+
+
+	/**
+	 * Requests an access token using client authentication via HTTP Basic.
+	 * 
+	 * <p>Client credentials are provided via the Authorization header; user credentials are provided in the form body.</p>
+	 */
+	private HttpResponse<String> requestTokenBasicClient(String username, String password) throws Exception {
+		String form = form(Map.of(
+				"grant_type", "password",
+				"username", username,
+				"password", password));
+		String basic = Base64.getEncoder().encodeToString((CLIENT_ID + ":" + CLIENT_SECRET).getBytes(StandardCharsets.UTF_8));
+
+		HttpRequest req = HttpRequest.newBuilder()
+				.uri(URI.create(baseUrl + "/oauth/token"))
+				.header("Authorization", "Basic " + basic)
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form))
+				.build();
+		return HTTP.send(req, HttpResponse.BodyHandlers.ofString());
+	}
+
+	/**
+	 * Requests an access token using client credentials supplied in the request body.
+	 * 
+	 * <p>Client credentials are included as form parameters; user credentials are also provided in the same form body.</p>
+	 */
+	private HttpResponse<String> requestTokenBodyClient(String username, String password) throws Exception {
+		String form = form(Map.of(
+				"grant_type", "password",
+				"client_id", CLIENT_ID,
+				"client_secret", CLIENT_SECRET,
+				"username", username,
+				"password", password));
+
+		HttpRequest req = HttpRequest.newBuilder()
+				.uri(URI.create(baseUrl + "/oauth/token"))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form))
+				.build();
+		return HTTP.send(req, HttpResponse.BodyHandlers.ofString());
+	}
+
+	/**
+	 * Requests an access token with a wrong client secret supplied via HTTP Basic.
+	 */
+	private HttpResponse<String> requestTokenInvalidClient(String username, String password) throws Exception {
+		String form = form(Map.of(
+				"grant_type", "password",
+				"username", username,
+				"password", password));
+		String basic = Base64.getEncoder().encodeToString((CLIENT_ID + ":WRONG_SECRET").getBytes(StandardCharsets.UTF_8));
+
+		HttpRequest req = HttpRequest.newBuilder()
+				.uri(URI.create(baseUrl + "/oauth/token"))
+				.header("Authorization", "Basic " + basic)
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form))
+				.build();
+		return HTTP.send(req, HttpResponse.BodyHandlers.ofString());
+	}
+
+	// Non-static by design: I/O helper and is considered part of the test instance lifecycle
+	/**
+	 * Sends an HTTP POST request with a JSON body.
+	 * 
+	 * <p>This is the base helper for all JSON-based endpoints such as
+	 * {@code /register} and {@code /login}. The payload object is serialized 
+	 * using Jackson and sent with {@code Content-Type: application/json}.
+	 * 
+	 * <p>This method does NOT assert on the response status code.
+	 * Callers are responsible for validating success or failure.
+	 * 
+	 * @param url the full endpoint URL
+	 * @param payload a Java object or Map to serialize as JSON
+	 * @return the raw HTTP response containing status code and body
+	 * @throws Exception
+	 */
+	private HttpResponse<String> sendJsonPost(String url, Object payload) throws Exception {
+		String json = MAPPER.writeValueAsString(payload);
+		HttpRequest req = HttpRequest.newBuilder().uri(URI.create(url))
+				.header("Content-Type", "application/json; charset=utf-8")
+				.POST(HttpRequest.BodyPublishers.ofString(json)).build();
+		return HTTP.send(req, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private static String form(Map<String, String> params) {
+		StringBuilder sb = new StringBuilder();
+		boolean first = true;
+		for (Map.Entry<String, String> e: params.entrySet()) {
+			if (!first) sb.append('&');
+			first = false;
+			sb.append(enc(e.getKey())).append('=').append(enc(e.getValue()));
+		}
+		return sb.toString();
+	}
+
+	private static String enc(String s) {
+		return URLEncoder.encode(s == null ? "": s, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Prints HTTP response status and body to standard output.
+	 * 
+	 * <p>This is a debugging aid used to inspect raw responses during tests.
+	 * 
+	 * @param response the HTTP response to print
+	 */
+	private static void printResponse(HttpResponse<String> response) {
+		System.out.println("HTTP " + response.statusCode());
+		if (response.body() == null || response.body().isBlank()) {
+			System.out.println("(empty body)");
+		} else {
+			System.out.println(response.body());
+		}
+	}
+
+	/**
+	 * Extracts an authentication token from a response body, regardless
+	 * of response shape.
+	 * 
+	 * <p>This helper supports multiple token formats:
+	 * <ul>
+	 * 		<li>{@code { "token": "..."}}</li>
+	 * 		<li>{@code { "access_token": "..."}}</li>
+	 * 		<li>{@code { "raw-token-string"}}</li>
+	 * </ul>
+	 * 
+	 * <p>This exists because different endpoints in the system return
+	 * tokens in different formats, and the test should remain resilient
+	 * while API evolves.
+	 * 
+	 * @param body the raw response body
+	 * @return the extracted token, or the raw body if no known format matches
+	 */
+	private static String extractToken(String body) {
+		if (body == null)
+			return null;
+
+		try {
+			Map<String, Object> obj = MAPPER.readValue(body, new TypeReference<Map<String, Object>>() {});
+			Object t = obj.get("token");
+			if (t != null) return String.valueOf(t);
+			Object at = obj.get("access_token");
+			if (at != null) return String.valueOf(at);
+		} catch (Exception ignored) {}
+
+		try {
+			return MAPPER.readValue(body, String.class);
+		} catch (Exception ignored) {}
+
+		return body;
+	}
+	/**
+	 * Attempts to parse a response body as a JSON object.
+	 * 
+	 * <p>If the body is not valid JSON or is not a JSON object,
+	 * this method returns an empty map instead of throwing.
+	 * 
+	 * <p>This allows negative test cases to safely inspect error responses
+	 * without crashing the test harness.
+	 * 
+	 * @param body the raw response body
+	 * @return a map representing the JSON object, or an empty map on failure
+	 */
+	private static Map<String, Object> parseJsonObject(String body) {
+		try {
+			return MAPPER.readValue(body, new TypeReference<Map<String, Object>>() {});
+		} catch (Exception ignored) {
+			return Map.of();
+		}
+	}
+}
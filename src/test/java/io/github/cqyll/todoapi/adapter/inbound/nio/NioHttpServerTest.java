@@ -0,0 +1,309 @@
+package io.github.cqyll.todoapi.adapter.inbound.nio;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.cqyll.todoapi.adapter.inbound.web.CompressionFilter;
+import io.github.cqyll.todoapi.config.AppConfig;
+import io.github.cqyll.todoapi.config.AppSettings;
+import io.github.cqyll.todoapi.config.ServerType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the real controllers on {@link NioHttpServer} and checks the HTTP/1.1 connection handling over raw sockets.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class NioHttpServerTest {
+
+	private AppConfig config;
+	private HttpServer server;
+	private int port;
+
+	@BeforeAll
+	void startServer() {
+		AppSettings settings = new AppSettings();
+		settings.setPort(0);
+		settings.setServerType(ServerType.NIO);
+		config = new AppConfig(settings);
+		server = config.createHttpServer();
+		server.createContext("/echo", ex -> {
+			byte[] body = ex.getRequestBody().readAllBytes();
+			ex.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+			ex.getResponseBody().write(body);
+			ex.close();
+		});
+		server.createContext("/stream", ex -> {
+			ex.sendResponseHeaders(200, 0);
+			try (OutputStream os = ex.getResponseBody()) {
+				for (int i = 0; i < 3; i++) {
+					os.write(("part" + i + "\n").getBytes(StandardCharsets.US_ASCII));
+					os.flush();
+				}
+			}
+		});
+		// ?n= JSON elements, ?stream for a chunked response
+		server.createContext("/json", ex -> {
+			String q = ex.getRequestURI().getQuery();
+			int n = Integer.parseInt(q.replaceAll("\\D", ""));
+			byte[] body = json(n).getBytes(StandardCharsets.US_ASCII);
+			ex.getResponseHeaders().set("Content-Type", "application/json");
+			ex.getResponseHeaders().set("ETag", "\"1\"");
+			ex.sendResponseHeaders(200, q.contains("stream") ? 0 : body.length);
+			try (OutputStream os = ex.getResponseBody()) {
+				for (int i = 0; i < body.length; i += 100) {
+					os.write(body, i, Math.min(100, body.length - i));
+				}
+			}
+		}).getFilters().add(new CompressionFilter(256));
+		server.start();
+		port = server.getAddress().getPort();
+	}
+
+	@AfterAll
+	void stopServer() {
+		config.close();
+	}
+
+	private static String json(int n) {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < n; i++) {
+			sb.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"title\":\"todo ").append(i).append("\"}");
+		}
+		return sb.append(']').toString();
+	}
+
+	/**
+	 * Fixed-length and streamed bodies are compressed with the negotiated coding, framed accordingly, and decode
+	 * to the original; small bodies and clients that accept no coding get the original bytes.
+	 */
+	@Test
+	void compressesNegotiatedResponses() throws Exception {
+		HttpClient http = HttpClient.newHttpClient();
+		for (String path : new String[] {"/json?n=500", "/json?n=500&stream"}) {
+			for (String coding : new String[] {"gzip", "deflate"}) {
+				HttpResponse<byte[]> r = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+						.header("Accept-Encoding", coding).build(), HttpResponse.BodyHandlers.ofByteArray());
+				assertEquals(200, r.statusCode());
+				assertEquals(coding, r.headers().firstValue("Content-Encoding").orElse(null), path);
+				assertEquals("Accept-Encoding", r.headers().firstValue("Vary").orElse(null));
+				assertEquals("W/\"1\"", r.headers().firstValue("ETag").orElseThrow(), "compressed bytes weaken the tag");
+				assertEquals(path.contains("stream"), r.headers().firstValue("Content-Length").isEmpty(), path);
+				InputStream decoded = "gzip".equals(coding)
+						? new GZIPInputStream(new ByteArrayInputStream(r.body()))
+						: new InflaterInputStream(new ByteArrayInputStream(r.body()));
+				assertEquals(json(500), new String(decoded.readAllBytes(), StandardCharsets.US_ASCII));
+				assertTrue(r.body().length < json(500).length() / 4, "compressed to " + r.body().length);
+			}
+		}
+
+		for (String path : new String[] {"/json?n=5", "/json?n=5&stream"}) {
+			HttpResponse<String> r = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+					.header("Accept-Encoding", "gzip").build(), HttpResponse.BodyHandlers.ofString());
+			assertTrue(r.headers().firstValue("Content-Encoding").isEmpty(), path);
+			assertEquals(json(5), r.body());
+			assertEquals(String.valueOf(json(5).length()), r.headers().firstValue("Content-Length").orElse(null),
+					"a short stream is sent with a length");
+			assertEquals("\"1\"", r.headers().firstValue("ETag").orElseThrow());
+		}
+		HttpResponse<String> r = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/json?n=500"))
+				.header("Accept-Encoding", "gzip;q=0").build(), HttpResponse.BodyHandlers.ofString());
+		assertTrue(r.headers().firstValue("Content-Encoding").isEmpty());
+		assertEquals(json(500), r.body());
+	}
+
+	/**
+	 * The existing register and login controllers work unchanged through the JDK HTTP client.
+	 */
+	@Test
+	void servesControllers() throws Exception {
+		HttpClient http = HttpClient.newHttpClient();
+		String email = "nio" + System.nanoTime() + "@example.com";
+		String json = "{\"email\":\"" + email + "\",\"name\":\"Nio\",\"password\":\"Passw0rd!\"}";
+
+		HttpResponse<String> reg = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/register"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json)).build(), HttpResponse.BodyHandlers.ofString());
+		assertEquals(201, reg.statusCode(), reg.body());
+
+		HttpResponse<String> login = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/login"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"" + email + "\",\"password\":\"Passw0rd!\"}")).build(),
+				HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, login.statusCode(), login.body());
+		assertTrue(login.body().contains("token"));
+	}
+
+	/**
+	 * Three requests written in one go on one socket come back as three responses, in order.
+	 */
+	@Test
+	void pipelinedRequestsAnsweredInOrder() throws Exception {
+		try (Socket s = new Socket("localhost", port)) {
+			StringBuilder req = new StringBuilder();
+			for (int i = 0; i < 3; i++) {
+				String body = "req-" + i;
+				req.append("POST /echo HTTP/1.1\r\nHost: x\r\nContent-Length: ").append(body.length())
+						.append("\r\n\r\n").append(body);
+			}
+			s.getOutputStream().write(req.toString().getBytes(StandardCharsets.US_ASCII));
+
+			InputStream in = s.getInputStream();
+			for (int i = 0; i < 3; i++) {
+				assertEquals("req-" + i, readResponse(in).body);
+			}
+		}
+	}
+
+	@Test
+	void keepsConnectionOpenAcrossRequests() throws Exception {
+		try (Socket s = new Socket("localhost", port)) {
+			for (int i = 0; i < 5; i++) {
+				String body = "n" + i;
+				s.getOutputStream().write(("POST /echo HTTP/1.1\r\nHost: x\r\nContent-Length: " + body.length()
+						+ "\r\n\r\n" + body).getBytes(StandardCharsets.US_ASCII));
+				Response r = readResponse(s.getInputStream());
+				assertEquals(200, r.status);
+				assertEquals(body, r.body);
+			}
+		}
+	}
+
+	@Test
+	void streamsChunkedResponses() throws Exception {
+		try (Socket s = new Socket("localhost", port)) {
+			s.getOutputStream().write("GET /stream HTTP/1.1\r\nHost: x\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+			Response r = readResponse(s.getInputStream());
+			assertEquals(200, r.status);
+			assertEquals("part0\npart1\npart2\n", r.body);
+		}
+	}
+
+	/** An HTTP/1.0 client cannot decode chunks, so a streamed body goes unframed and the connection ends it. */
+	@Test
+	void streamsToHttp10ClientsUntilClose() throws Exception {
+		try (Socket s = new Socket("localhost", port)) {
+			s.getOutputStream().write("GET /stream HTTP/1.0\r\nConnection: keep-alive\r\n\r\n"
+					.getBytes(StandardCharsets.US_ASCII));
+			String response = new String(s.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+			String head = response.substring(0, response.indexOf("\r\n\r\n")).toLowerCase();
+			assertTrue(head.startsWith("http/1.1 200"), head);
+			assertFalse(head.contains("transfer-encoding"), head);
+			assertFalse(head.contains("content-length"), head);
+			assertTrue(head.contains("connection: close"), head);
+			assertEquals("part0\npart1\npart2\n", response.substring(response.indexOf("\r\n\r\n") + 4));
+		}
+	}
+
+	@Test
+	void unknownPathIs404() throws Exception {
+		try (Socket s = new Socket("localhost", port)) {
+			s.getOutputStream().write("GET /nope HTTP/1.1\r\nHost: x\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+			assertEquals(404, readResponse(s.getInputStream()).status);
+		}
+	}
+
+	@Test
+	void malformedRequestIs400AndCloses() throws Exception {
+		try (Socket s = new Socket("localhost", port)) {
+			s.getOutputStream().write("garbage\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+			assertEquals(400, readResponse(s.getInputStream()).status);
+			assertEquals(-1, s.getInputStream().read());
+		}
+	}
+
+	/** A head of nothing but empty lines is a bad request, and the server goes on accepting connections. */
+	@Test
+	void blankRequestHeadIs400AndServerKeepsServing() throws Exception {
+		try (Socket s = new Socket("localhost", port)) {
+			s.getOutputStream().write("\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+			assertEquals(400, readResponse(s.getInputStream()).status);
+			assertEquals(-1, s.getInputStream().read());
+		}
+		try (Socket s = new Socket("localhost", port)) {
+			s.getOutputStream().write("GET /stream HTTP/1.1\r\nHost: x\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+			assertEquals(200, readResponse(s.getInputStream()).status);
+		}
+	}
+
+	/** Requests the executor refuses, including ones pipelined behind them, get one 503 and the connection closes. */
+	@Test
+	void rejectedRequestIs503AndCloses() throws Exception {
+		NioHttpServer rejecting = NioHttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		rejecting.setExecutor(task -> {
+			throw new RejectedExecutionException("shutting down");
+		});
+		rejecting.createContext("/echo", ex -> ex.sendResponseHeaders(200, -1));
+		rejecting.start();
+		try (Socket s = new Socket("localhost", rejecting.getAddress().getPort())) {
+			String get = "GET /echo HTTP/1.1\r\nHost: x\r\n\r\n";
+			s.getOutputStream().write((get + get).getBytes(StandardCharsets.US_ASCII));
+			assertEquals(503, readResponse(s.getInputStream()).status);
+			assertEquals(-1, s.getInputStream().read());
+		} finally {
+			rejecting.stop(0);
+		}
+	}
+
+	private record Response(int status, String body) {}
+
+	private static Response readResponse(InputStream in) throws IOException {
+		String statusLine = readLine(in);
+		int status = Integer.parseInt(statusLine.split(" ")[1]);
+		int length = 0;
+		boolean chunked = false;
+		String line;
+		while (!(line = readLine(in)).isEmpty()) {
+			String lower = line.toLowerCase();
+			if (lower.startsWith("content-length:")) {
+				length = Integer.parseInt(line.substring(15).trim());
+			} else if (lower.startsWith("transfer-encoding:") && lower.contains("chunked")) {
+				chunked = true;
+			}
+		}
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		if (chunked) {
+			int size;
+			while ((size = Integer.parseInt(readLine(in), 16)) > 0) {
+				body.write(in.readNBytes(size));
+				readLine(in);
+			}
+			readLine(in);
+		} else {
+			body.write(in.readNBytes(length));
+		}
+		return new Response(status, body.toString(StandardCharsets.UTF_8));
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		int c;
+		while ((c = in.read()) != -1) {
+			if (c == '\n') {
+				break;
+			}
+			if (c != '\r') {
+				sb.append((char) c);
+			}
+		}
+		return sb.toString();
+	}
+}
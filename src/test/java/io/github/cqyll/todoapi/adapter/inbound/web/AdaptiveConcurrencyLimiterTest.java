@@ -0,0 +1,66 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+	/**
+	 * Lower tiers are refused first; the token endpoint keeps the remaining capacity.
+	 */
+	@Test
+	void shedsLowPriorityBeforeCritical() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+
+		for (int i = 0; i < 5; i++) {
+			assertNotEquals(AdaptiveConcurrencyLimiter.REJECTED, limiter.tryAcquire(RequestPriority.CRITICAL));
+		}
+		// half the limit is in use: registration is shed, login and token still admitted
+		assertEquals(AdaptiveConcurrencyLimiter.REJECTED, limiter.tryAcquire(RequestPriority.SHEDDABLE));
+		assertNotEquals(AdaptiveConcurrencyLimiter.REJECTED, limiter.tryAcquire(RequestPriority.NORMAL));
+
+		for (int i = 0; i < 4; i++) {
+			assertNotEquals(AdaptiveConcurrencyLimiter.REJECTED, limiter.tryAcquire(RequestPriority.CRITICAL));
+		}
+		assertEquals(10, limiter.getInFlight());
+		assertEquals(AdaptiveConcurrencyLimiter.REJECTED, limiter.tryAcquire(RequestPriority.CRITICAL));
+	}
+
+	/**
+	 * Rising latency under full load shrinks the limit; recovering latency lets it grow back.
+	 */
+	@Test
+	void limitFollowsLatency() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 1, 200);
+
+		for (int i = 0; i < 200; i++) {
+			limiter.onSample(1_000_000, 50); // 1ms baseline at full load
+		}
+		int atBaseline = limiter.getLimit();
+		assertTrue(atBaseline >= 50, "limit should not shrink at baseline latency: " + atBaseline);
+
+		for (int i = 0; i < 50; i++) {
+			limiter.onSample(20_000_000, atBaseline); // queueing: 20x slower
+		}
+		int congested = limiter.getLimit();
+		assertTrue(congested < atBaseline / 2, "limit should drop under queueing: " + congested);
+
+		for (int i = 0; i < 200; i++) {
+			limiter.onSample(1_000_000, congested);
+		}
+		assertTrue(limiter.getLimit() > congested, "limit should recover: " + limiter.getLimit());
+	}
+
+	@Test
+	void neverGoesBelowMinimum() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 4, 16);
+		limiter.onSample(1_000, 8);
+		int lowest = Integer.MAX_VALUE;
+		for (int i = 0; i < 100; i++) {
+			limiter.onSample(1_000_000_000, 8);
+			lowest = Math.min(lowest, limiter.getLimit());
+		}
+		assertEquals(4, lowest);
+	}
+}
@@ -0,0 +1,35 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import io.github.cqyll.todoapi.adapter.inbound.web.CompressionFilter.Encoding;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link CompressionFilter#negotiate}: preference by q-value, the wildcard, and refusals. The filter itself is
+ * exercised over real connections in {@code NioHttpServerTest} and {@code ApiFlowTest}.
+ */
+public class CompressionFilterTest {
+
+	@Test
+	void prefersGzipUnlessDeflateRanksHigher() {
+		assertEquals(Encoding.GZIP, CompressionFilter.negotiate("gzip, deflate, br"));
+		assertEquals(Encoding.GZIP, CompressionFilter.negotiate("deflate, gzip"));
+		assertEquals(Encoding.DEFLATE, CompressionFilter.negotiate("gzip;q=0.5, deflate"));
+		assertEquals(Encoding.DEFLATE, CompressionFilter.negotiate("deflate"));
+		assertEquals(Encoding.GZIP, CompressionFilter.negotiate("X-GZIP ; Q=0.8"));
+		assertEquals(Encoding.GZIP, CompressionFilter.negotiate("*"));
+		assertEquals(Encoding.DEFLATE, CompressionFilter.negotiate("gzip;q=0, *;q=0.1"));
+	}
+
+	@Test
+	void refusesWhatTheClientRefuses() {
+		assertNull(CompressionFilter.negotiate(null));
+		assertNull(CompressionFilter.negotiate(""));
+		assertNull(CompressionFilter.negotiate("identity"));
+		assertNull(CompressionFilter.negotiate("br, zstd"));
+		assertNull(CompressionFilter.negotiate("gzip;q=0, deflate;q=0"));
+		assertNull(CompressionFilter.negotiate("*;q=0"));
+		assertNull(CompressionFilter.negotiate("gzip;q=nope"));
+	}
+}
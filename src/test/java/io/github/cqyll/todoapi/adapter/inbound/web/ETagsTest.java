@@ -0,0 +1,33 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link ETags#matches}: lists, the wildcard, weak tags and malformed conditions.
+ */
+public class ETagsTest {
+
+	private static final String TAG = ETags.of(0x2aL);
+
+	@Test
+	void matchesTagsInAList() {
+		assertEquals("\"2a\"", TAG);
+		assertTrue(ETags.matches("\"2a\"", TAG));
+		assertTrue(ETags.matches("\"1\", \"2a\"", TAG));
+		assertTrue(ETags.matches("\"x,y\",\"2a\"", TAG), "a comma inside a tag does not split it");
+		assertTrue(ETags.matches("W/\"2a\"", TAG), "If-None-Match compares weakly");
+		assertTrue(ETags.matches("*", TAG));
+	}
+
+	@Test
+	void rejectsOtherTagsAndMalformedConditions() {
+		assertFalse(ETags.matches("\"2b\"", TAG));
+		assertFalse(ETags.matches("\"2a0\"", TAG));
+		assertFalse(ETags.matches("\"2\"", TAG));
+		assertFalse(ETags.matches("", TAG));
+		assertFalse(ETags.matches("2a", TAG));
+		assertFalse(ETags.matches("\"2a", TAG));
+	}
+}
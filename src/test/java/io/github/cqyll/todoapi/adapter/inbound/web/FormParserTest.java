@@ -0,0 +1,56 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FormParserTest {
+
+	private static Map<String, String> parse(String body) {
+		byte[] b = body.getBytes(StandardCharsets.UTF_8);
+		return FormParser.parse(b, 0, b.length);
+	}
+
+	@Test
+	void decodesPercentAndPlus() {
+		Map<String, String> form = parse("grant_type=password&username=john.doe%40example.com&password=p%40ss+w%3Drd%26123");
+		assertEquals(Map.of(
+				"grant_type", "password",
+				"username", "john.doe@example.com",
+				"password", "p@ss w=rd&123"), form);
+	}
+
+	@Test
+	void decodesMultiByteUtf8() {
+		assertEquals("café ✓", parse("name=caf%C3%A9+%E2%9C%93").get("name"));
+	}
+
+	/**
+	 * Same omission rules as before: empty segments, missing '=', empty names and blank values are dropped.
+	 */
+	@Test
+	void omitsValuelessParameters() {
+		Map<String, String> form = parse("&a=1&&novalue&=orphan&blank=&space=%20&plus=+&b=x=y");
+		assertEquals(Map.of("a", "1", "b", "x=y"), form);
+	}
+
+	@Test
+	void rejectsDuplicateParameters() {
+		OAuthError e = assertThrows(OAuthError.class, () -> parse("scope=a&scope=b"));
+		assertEquals("invalid_request", e.getError());
+	}
+
+	@Test
+	void rejectsMalformedEscapes() {
+		assertThrows(OAuthError.class, () -> parse("a=%2"));
+		assertThrows(OAuthError.class, () -> parse("a=%zz"));
+	}
+
+	@Test
+	void emptyBodyIsEmptyForm() {
+		assertTrue(parse("").isEmpty());
+	}
+}
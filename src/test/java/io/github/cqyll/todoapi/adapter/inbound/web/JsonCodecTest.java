@@ -0,0 +1,149 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import io.github.cqyll.todoapi.dto.BasicAuthRequest;
+import io.github.cqyll.todoapi.dto.RegisterRequest;
+import io.github.cqyll.todoapi.dto.TodoOperation;
+import io.github.cqyll.todoapi.dto.TodoRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonCodecTest {
+
+	private static InputStream json(String s) {
+		return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void decodesRegisterRequestInAnyFieldOrder() throws Exception {
+		RegisterRequest req = JsonCodec.readRegisterRequest(
+				json("{\"password\":\"p\\u00e4ss\",\"email\":\"a@b.c\",\"name\":\"Ann\"}"));
+		assertEquals("Ann", req.getName());
+		assertEquals("a@b.c", req.getEmail());
+		assertEquals("päss", req.getPassword());
+	}
+
+	@Test
+	void missingAndNullFieldsAreNull() throws Exception {
+		RegisterRequest req = JsonCodec.readRegisterRequest(json("{\"email\":\"a@b.c\",\"name\":null}"));
+		assertNull(req.getName());
+		assertNull(req.getPassword());
+	}
+
+	@Test
+	void decodesEscapes() throws Exception {
+		BasicAuthRequest req = JsonCodec.readBasicAuthRequest(
+				json("{\"em\\u0061il\":\"a\\\"b\\\\c\\/d\\n\",\"password\":\"\\ud83d\\ude00 \u00e9\"}"));
+		assertEquals("a\"b\\c/d\n", req.getEmail());
+		assertEquals("\ud83d\ude00 \u00e9", req.getPassword());
+	}
+
+	@Test
+	void emptyObjectLeavesEverythingNull() throws Exception {
+		BasicAuthRequest req = JsonCodec.readBasicAuthRequest(json("\n{ }\n"));
+		assertNull(req.getEmail());
+		assertNull(req.getPassword());
+	}
+
+	@Test
+	void decodesBasicAuthRequest() throws Exception {
+		BasicAuthRequest req = JsonCodec.readBasicAuthRequest(json(" {\"email\":\"a@b.c\",\"password\":\"pw\"} "));
+		assertEquals("a@b.c", req.getEmail());
+		assertEquals("pw", req.getPassword());
+	}
+
+	@Test
+	void decodesTodoRequestBooleans() throws Exception {
+		TodoRequest req = JsonCodec.readTodoRequest(json("{\"completed\": true ,\"title\":\"Buy milk\"}"));
+		assertEquals("Buy milk", req.title());
+		assertEquals(Boolean.TRUE, req.completed());
+		assertEquals(Boolean.FALSE, JsonCodec.readTodoRequest(json("{\"completed\":false}")).completed());
+		assertNull(JsonCodec.readTodoRequest(json("{\"completed\":null}")).completed());
+
+		assertThrows(IllegalArgumentException.class, () -> JsonCodec.readTodoRequest(json("{\"completed\":\"true\"}")));
+		assertThrows(IllegalArgumentException.class, () -> JsonCodec.readTodoRequest(json("{\"completed\":tru}")));
+		assertThrows(IllegalArgumentException.class, () -> JsonCodec.readTodoRequest(json("{\"title\":true}")));
+	}
+
+	@Test
+	void decodesTodoRequestDueDates() throws Exception {
+		TodoRequest req = JsonCodec.readTodoRequest(json("{\"title\":\"Pay rent\",\"due_at\":\"2024-05-01T09:00:00Z\"}"));
+		assertEquals(Instant.parse("2024-05-01T09:00:00Z"), req.dueAt());
+		assertNull(JsonCodec.readTodoRequest(json("{\"due_at\":null}")).dueAt());
+		assertNull(JsonCodec.readTodoRequest(json("{\"title\":\"Pay rent\"}")).dueAt());
+
+		assertThrows(IllegalArgumentException.class, () -> JsonCodec.readTodoRequest(json("{\"due_at\":\"2024-05-01\"}")));
+		assertThrows(IllegalArgumentException.class, () -> JsonCodec.readTodoRequest(json("{\"due_at\":1714554000}")));
+		assertThrows(IllegalArgumentException.class, () -> JsonCodec.readTodoOperations(json(
+				"[{\"op\":\"delete\",\"id\":\"3f2b8a8e-0d1c-4f57-9a5e-6a3c1f0e9b21\",\"due_at\":\"2024-05-01T09:00:00Z\"}]")));
+	}
+
+	@Test
+	void decodesTodoOperations() throws Exception {
+		String id = "3f2b8a8e-0d1c-4f57-9a5e-6a3c1f0e9b21";
+		List<TodoOperation> ops = JsonCodec.readTodoOperations(json(" [ {\"op\":\"create\",\"title\":\"Buy milk\"},"
+				+ "{\"completed\":true,\"id\":\"" + id + "\",\"op\":\"update\"}, {\"op\":\"delete\",\"id\":\"" + id + "\"},"
+				+ "{\"op\":\"create\",\"title\":\"Pay rent\",\"due_at\":\"2024-05-01T09:00:00Z\"} ] "));
+
+		assertEquals(List.of(
+				TodoOperation.create("Buy milk", null, null),
+				TodoOperation.update(UUID.fromString(id), null, true, null),
+				TodoOperation.delete(UUID.fromString(id)),
+				TodoOperation.create("Pay rent", null, Instant.parse("2024-05-01T09:00:00Z"))), ops);
+		assertEquals(List.of(), JsonCodec.readTodoOperations(json("[]")));
+	}
+
+	/** Any bad operation refuses the whole batch, naming the operation. */
+	@Test
+	void rejectsMalformedBatches() {
+		String id = "3f2b8a8e-0d1c-4f57-9a5e-6a3c1f0e9b21";
+		for (String body : new String[] {
+				"{\"op\":\"create\",\"title\":\"a\"}",
+				"[{\"op\":\"create\",\"title\":\"a\"},]",
+				"[{\"op\":\"create\",\"title\":\"a\"}",
+				"[{\"op\":\"create\",\"title\":\"a\"}] []",
+				"[{\"title\":\"a\"}]",
+				"[{\"op\":\"create\"}]",
+				"[{\"op\":\"create\",\"title\":\"a\",\"id\":\"" + id + "\"}]",
+				"[{\"op\":\"update\",\"title\":\"a\"}]",
+				"[{\"op\":\"update\",\"id\":\"3f2b8a8e-d1c-4f57-9a5e-6a3c1f0e9b21\"}]",
+				"[{\"op\":\"delete\",\"id\":\"" + id + "\",\"completed\":true}]",
+				"[{\"op\":\"rename\",\"id\":\"" + id + "\"}]",
+				"[{\"op\":\"create\",\"title\":\"a\",\"due\":1}]",
+				"[\"create\"]" }) {
+			assertThrows(IllegalArgumentException.class, () -> JsonCodec.readTodoOperations(json(body)), body);
+		}
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> JsonCodec.readTodoOperations(
+				json("[{\"op\":\"delete\",\"id\":\"" + id + "\"},{\"op\":\"delete\"}]")));
+		assertEquals("Operation 1: id is required", e.getMessage());
+
+		String tooMany = "[" + ",{\"op\":\"delete\",\"id\":\"" + id + "\"}".repeat(JsonCodec.MAX_BATCH_OPERATIONS + 1).substring(1) + "]";
+		assertThrows(IllegalArgumentException.class, () -> JsonCodec.readTodoOperations(json(tooMany)));
+	}
+
+	/**
+	 * Unknown fields, non-string values, non-objects, trailing content and malformed JSON are all client errors.
+	 */
+	@Test
+	void rejectsUnexpectedInput() {
+		for (String body : new String[] {
+				"{\"email\":\"a@b.c\",\"password\":\"pw\",\"name\":\"Ann\"}",
+				"{\"email\":[\"a@b.c\"],\"password\":\"pw\"}",
+				"[\"a@b.c\",\"pw\"]",
+				"{\"email\":\"a@b.c\"} {}",
+				"{\"email\":\"a@b.c\"",
+				"{\"email\":\"a@b.c\",}",
+				"{\"email\":\"a\\qb\"}",
+				"{\"email\":\"a@b.c\"\"password\":\"pw\"}",
+				"" }) {
+			assertThrows(IllegalArgumentException.class, () -> JsonCodec.readBasicAuthRequest(json(body)), body);
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package io.github.cqyll.todoapi.adapter.inbound.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TokenBuckets} on a hand-driven clock: burst, lazy refill, retry hints, eviction of idle keys, the key cap,
+ * and exact token accounting when threads race on one key.
+ */
+public class TokenBucketsTest {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	private final AtomicLong now = new AtomicLong(123 * SECOND);
+
+	@Test
+	void burstThenRefillsLazily() {
+		TokenBuckets buckets = new TokenBuckets(3, SECOND, 1_000, now::get);
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(TokenBuckets.ALLOWED, buckets.tryAcquire("k"));
+		}
+		assertEquals(SECOND, buckets.tryAcquire("k"), "next token is one refill period away");
+
+		now.addAndGet(SECOND / 2);
+		assertEquals(SECOND / 2, buckets.tryAcquire("k"));
+
+		now.addAndGet(SECOND / 2);
+		assertEquals(TokenBuckets.ALLOWED, buckets.tryAcquire("k"));
+		assertNotEquals(TokenBuckets.ALLOWED, buckets.tryAcquire("k"));
+
+		// other keys are unaffected
+		assertEquals(TokenBuckets.ALLOWED, buckets.tryAcquire("other"));
+	}
+
+	@Test
+	void refusedRequestsDoNotConsumeTokens() {
+		TokenBuckets buckets = new TokenBuckets(1, SECOND, 1_000, now::get);
+
+		assertEquals(TokenBuckets.ALLOWED, buckets.tryAcquire("k"));
+		for (int i = 0; i < 100; i++) {
+			assertNotEquals(TokenBuckets.ALLOWED, buckets.tryAcquire("k"));
+		}
+		now.addAndGet(SECOND);
+		assertEquals(TokenBuckets.ALLOWED, buckets.tryAcquire("k"));
+	}
+
+	@Test
+	void idleKeysAreEvicted() {
+		TokenBuckets buckets = new TokenBuckets(5, SECOND, 100_000, now::get);
+
+		for (int i = 0; i < 5_000; i++) {
+			buckets.tryAcquire("old-" + i);
+		}
+		assertEquals(5_000, buckets.size());
+
+		now.addAndGet(10 * SECOND); // every old bucket is full again
+		for (int i = 0; i < 5_000; i++) {
+			buckets.tryAcquire("new-" + i);
+		}
+		assertTrue(buckets.size() < 7_500, "idle keys were not swept: " + buckets.size());
+	}
+
+	/** Past the cap, unknown keys pass untracked instead of growing the map. */
+	@Test
+	void keyCapFailsOpen() {
+		TokenBuckets buckets = new TokenBuckets(1, SECOND, 256, now::get);
+
+		for (int i = 0; i < 10_000; i++) {
+			assertEquals(TokenBuckets.ALLOWED, buckets.tryAcquire("key-" + i));
+		}
+		assertTrue(buckets.size() <= 256, "cap exceeded: " + buckets.size());
+	}
+
+	@Test
+	void racingThreadsShareExactlyTheBurst() throws Exception {
+		TokenBuckets buckets = new TokenBuckets(1_000, SECOND, 1_000, now::get);
+		AtomicInteger granted = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[16];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = Thread.ofPlatform().start(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < 500; i++) {
+					if (buckets.tryAcquire("shared") == TokenBuckets.ALLOWED) {
+						granted.incrementAndGet();
+					}
+				}
+			});
+		}
+		start.countDown();
+		for (Thread t : threads) {
+			t.join();
+		}
+		assertEquals(1_000, granted.get());
+	}
+
+	@Test
+	void throttleStopsAtFirstRefusalAndRoundsUpRetryAfter() {
+		TokenBuckets byIp = new TokenBuckets(1, SECOND / 2, 100, now::get);
+		TokenBuckets byEmail = new TokenBuckets(1, 10 * SECOND, 100, now::get);
+		LoginThrottle throttle = new LoginThrottle(byIp, byEmail, new TokenBuckets(100, SECOND, 100, now::get));
+
+		assertEquals(0, throttle.check("10.0.0.1", "A@Example.com", "todo-web"));
+		// IP refuses first: rounded up to a whole second, and the email bucket is left alone
+		assertEquals(1, throttle.check("10.0.0.1", "b@example.com", "todo-web"));
+		assertEquals(0, throttle.check("10.0.0.2", "b@example.com", null));
+		// case and padding variants share the email bucket, as they log in to the same account
+		assertEquals(10, throttle.check("10.0.0.3", "a@example.com", null));
+		assertEquals(10, throttle.check("10.0.0.4", " a@example.com", null));
+		assertEquals(10, throttle.check("10.0.0.5", "A@example.com  ", null));
+		assertEquals(10, throttle.check("10.0.0.6", "\ta@example.com\n", null));
+	}
+}
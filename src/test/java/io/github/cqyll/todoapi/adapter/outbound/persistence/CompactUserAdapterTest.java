@@ -0,0 +1,138 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.domain.Password;
+import io.github.cqyll.todoapi.domain.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactUserAdapterTest {
+
+	private static final String HEX_HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+	@Test
+	void looksUpUsersByIdAndEmail() {
+		CompactUserAdapter repo = new CompactUserAdapter();
+		User saved = User.createWithPassword("Ann@Example.com", " Ann Å ", Password.fromHash(HEX_HASH));
+		assertTrue(repo.saveIfEmailAbsent(saved));
+
+		User byEmail = repo.findByEmail("ANN@example.COM").orElseThrow();
+		User byId = repo.findById(saved.getId()).orElseThrow();
+		for (User u : List.of(byEmail, byId)) {
+			assertEquals(saved.getId(), u.getId());
+			assertEquals("Ann Å", u.getName());
+			assertEquals("ann@example.com", u.getEmail());
+			assertEquals(HEX_HASH, u.getPassword().getHash());
+			assertTrue(u.isActive());
+			assertFalse(u.isEmailVerified());
+		}
+		assertTrue(repo.existsByEmail("ann@example.com"));
+		assertFalse(repo.existsByEmail("bob@example.com"));
+		assertTrue(repo.findById(UUID.randomUUID()).isEmpty());
+	}
+
+	/**
+	 * Hashes that are not lower-case hex (e.g. a modular-crypt style string) are kept verbatim.
+	 */
+	@Test
+	void keepsNonHexHashesAsText() {
+		CompactUserAdapter repo = new CompactUserAdapter();
+		String hash = "pbkdf2-sha256$210000$c2FsdHNhbHRzYWx0$ABCDEFghijklmnopqrstuv0123456789";
+		User user = User.createWithPassword("c@example.com", "C", Password.fromHash(hash));
+		repo.save(user);
+		assertEquals(hash, repo.findById(user.getId()).orElseThrow().getPassword().getHash());
+	}
+
+	@Test
+	void rejectsSecondUserWithSameEmail() {
+		CompactUserAdapter repo = new CompactUserAdapter();
+		assertTrue(repo.saveIfEmailAbsent(User.createWithPassword("d@example.com", "D1", Password.fromHash(HEX_HASH))));
+		assertFalse(repo.saveIfEmailAbsent(User.createWithPassword("D@EXAMPLE.com", "D2", Password.fromHash(HEX_HASH))));
+		assertEquals("D1", repo.findByEmail("d@example.com").orElseThrow().getName());
+		assertEquals(1, repo.size());
+	}
+
+	@Test
+	void resaveReplacesTheStoredRecord() {
+		CompactUserAdapter repo = new CompactUserAdapter();
+		User user = User.createWithPassword("e@example.com", "E", Password.fromHash(HEX_HASH));
+		repo.save(user);
+		User updated = User.restore(user.getId(), "E2", "e@example.com", user.getPassword(), false, true);
+		repo.save(updated);
+
+		User found = repo.findByEmail("e@example.com").orElseThrow();
+		assertEquals("E2", found.getName());
+		assertFalse(found.isActive());
+		assertTrue(found.isEmailVerified());
+		assertEquals(1, repo.size());
+	}
+
+	/**
+	 * Enough users to resize both index tables several times; every one must still be reachable.
+	 */
+	@Test
+	void survivesIndexGrowth() {
+		CompactUserAdapter repo = new CompactUserAdapter();
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < 20_000; i++) {
+			User u = User.createWithPassword("user" + i + "@example.com", "user" + i, Password.fromHash(HEX_HASH));
+			users.add(u);
+			assertTrue(repo.saveIfEmailAbsent(u));
+		}
+		for (User u : users) {
+			assertEquals(u.getEmail(), repo.findById(u.getId()).orElseThrow().getEmail());
+			assertEquals(u.getId(), repo.findByEmail(u.getEmail()).orElseThrow().getId());
+		}
+		assertEquals(20_000, repo.size());
+	}
+
+	/**
+	 * Writers racing over the same emails while readers look them up: one winner per email, and readers never see
+	 * a user that does not match what they asked for.
+	 */
+	@Test
+	void concurrentWritersAdmitOneUserPerEmail() throws Exception {
+		CompactUserAdapter repo = new CompactUserAdapter();
+		int threads = 8;
+		int emails = 2_000;
+		AtomicIntegerArray wins = new AtomicIntegerArray(emails);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch go = new CountDownLatch(1);
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(pool.submit(() -> {
+					go.await();
+					for (int i = 0; i < emails; i++) {
+						String email = "race" + i + "@example.com";
+						if (repo.saveIfEmailAbsent(User.createWithPassword(email, "r", Password.fromHash(HEX_HASH)))) {
+							wins.incrementAndGet(i);
+						}
+						User found = repo.findByEmail(email).orElseThrow();
+						assertEquals(email, found.getEmail());
+					}
+					return null;
+				}));
+			}
+			go.countDown();
+			for (Future<?> f : futures) {
+				f.get();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		for (int i = 0; i < emails; i++) {
+			assertEquals(1, wins.get(i));
+		}
+		assertEquals(emails, repo.size());
+	}
+}
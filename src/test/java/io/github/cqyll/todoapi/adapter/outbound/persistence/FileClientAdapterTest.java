@@ -0,0 +1,76 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.domain.OAuthClient;
+import io.github.cqyll.todoapi.domain.Password;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link FileClientAdapter}: saved clients survive reopening, hand-edited files load, and malformed lines fail
+ * startup instead of silently dropping a client. A save that cannot be written is not served from memory either.
+ */
+public class FileClientAdapterTest {
+
+	private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void savedClientsSurviveReopening() throws IOException {
+		Path file = dir.resolve("clients.tsv");
+		FileClientAdapter store = new FileClientAdapter(file);
+		store.save(OAuthClient.create("web", Password.fromHash(HASH), Set.of("password", "refresh_token"), null));
+		store.save(OAuthClient.create("svc", Password.fromHash(HASH), Set.of("client_credentials"), "todos:read"));
+
+		FileClientAdapter reopened = new FileClientAdapter(file);
+		OAuthClient svc = reopened.findById("svc").orElseThrow();
+		assertEquals(HASH, svc.getSecret().getHash());
+		assertEquals(Set.of("client_credentials"), svc.getGrantTypes());
+		assertEquals("todos:read", svc.getScope());
+		assertNull(reopened.findById("web").orElseThrow().getScope());
+		assertTrue(reopened.findById("other").isEmpty());
+		assertFalse(Files.exists(dir.resolve("clients.tsv.tmp")));
+	}
+
+	@Test
+	void failedSaveIsNotServed() throws IOException {
+		Path file = dir.resolve("clients.tsv");
+		FileClientAdapter store = new FileClientAdapter(file);
+		store.save(OAuthClient.create("web", Password.fromHash(HASH), Set.of("password"), null));
+		Files.createDirectory(dir.resolve("clients.tsv.tmp")); // the temporary file cannot be written
+
+		assertThrows(UncheckedIOException.class, () -> store.save(
+				OAuthClient.create("svc", Password.fromHash(HASH), Set.of("client_credentials"), "todos:read")));
+		assertTrue(store.findById("svc").isEmpty());
+		assertTrue(store.findById("web").isPresent());
+		assertTrue(new FileClientAdapter(file).findById("svc").isEmpty());
+	}
+
+	@Test
+	void loadsHandWrittenFiles() throws IOException {
+		Path file = dir.resolve("clients.tsv");
+		Files.writeString(file, "# registered clients\n\nsvc\t" + HASH + "\tclient_credentials\ttodos:read todos:write\n");
+
+		OAuthClient svc = new FileClientAdapter(file).findById("svc").orElseThrow();
+		assertTrue(svc.allowsScope("todos:write"));
+		assertFalse(svc.allowsScope("admin"));
+	}
+
+	@Test
+	void rejectsMalformedLines() throws IOException {
+		Path file = dir.resolve("clients.tsv");
+		Files.writeString(file, "svc\t" + HASH + "\n");
+
+		IOException e = assertThrows(IOException.class, () -> new FileClientAdapter(file));
+		assertTrue(e.getMessage().contains(":1:"), e.getMessage());
+	}
+}
@@ -0,0 +1,219 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.domain.Password;
+import io.github.cqyll.todoapi.domain.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Restart behaviour of {@link FileUserAdapter}: every save that returned must be there after reopening the
+ * directory, whichever mix of snapshot and log holds it.
+ */
+public class FileUserAdapterTest {
+
+	private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+	@TempDir
+	Path dir;
+
+	private FileUserAdapter open() throws IOException {
+		return new FileUserAdapter(dir, new CompactUserAdapter(), 1_000_000);
+	}
+
+	private static User user(String email) {
+		return User.createWithPassword(email, "Name of " + email, Password.fromHash(HASH));
+	}
+
+	@Test
+	void recoversUsersFromTheLog() throws Exception {
+		User ann = user("ann@example.com");
+		User bob = User.createOAuthUser("bob@example.com", "bob@example.com");
+		try (FileUserAdapter store = open()) {
+			assertTrue(store.saveIfEmailAbsent(ann));
+			store.save(bob);
+			assertFalse(store.saveIfEmailAbsent(user("ANN@example.com")));
+		}
+
+		try (FileUserAdapter store = open()) {
+			User found = store.findByEmail("ann@example.com").orElseThrow();
+			assertEquals(ann.getId(), found.getId());
+			assertEquals(ann.getName(), found.getName());
+			assertEquals(HASH, found.getPassword().getHash());
+			User oauth = store.findById(bob.getId()).orElseThrow();
+			assertNull(oauth.getPassword());
+			assertTrue(oauth.isEmailVerified());
+		}
+	}
+
+	/**
+	 * A snapshot replaces the segments before it; saves after it are replayed on top.
+	 */
+	@Test
+	void recoversFromSnapshotPlusLogTail() throws Exception {
+		try (FileUserAdapter store = open()) {
+			for (int i = 0; i < 100; i++) {
+				store.saveIfEmailAbsent(user("before" + i + "@example.com"));
+			}
+			store.snapshot();
+			for (int i = 0; i < 10; i++) {
+				store.saveIfEmailAbsent(user("after" + i + "@example.com"));
+			}
+		}
+		assertTrue(Files.exists(dir.resolve("users.snapshot")));
+		assertEquals(1, logSegments().size(), "segments covered by the snapshot are deleted");
+
+		try (FileUserAdapter store = open()) {
+			for (int i = 0; i < 100; i++) {
+				assertTrue(store.existsByEmail("before" + i + "@example.com"));
+			}
+			for (int i = 0; i < 10; i++) {
+				assertTrue(store.existsByEmail("after" + i + "@example.com"));
+			}
+		}
+	}
+
+	/**
+	 * A crash in the middle of an append leaves a partial frame at the end of the newest segment. It is cut off on
+	 * the next start, and the store keeps working from there.
+	 */
+	@Test
+	void truncatesATornWriteAtTheEndOfTheLog() throws Exception {
+		try (FileUserAdapter store = open()) {
+			store.saveIfEmailAbsent(user("kept@example.com"));
+		}
+		Path segment = logSegments().get(logSegments().size() - 1);
+		long intact = Files.size(segment);
+		try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+			ch.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 60, 1, 2, 3, 4, 5, 6 }));
+		}
+
+		try (FileUserAdapter store = open()) {
+			assertTrue(store.existsByEmail("kept@example.com"));
+			assertEquals(intact, Files.size(segment));
+			store.saveIfEmailAbsent(user("later@example.com"));
+		}
+		try (FileUserAdapter store = open()) {
+			assertTrue(store.existsByEmail("kept@example.com"));
+			assertTrue(store.existsByEmail("later@example.com"));
+		}
+	}
+
+	@Test
+	void refusesToStartFromADamagedSnapshot() throws Exception {
+		try (FileUserAdapter store = open()) {
+			store.saveIfEmailAbsent(user("a@example.com"));
+			store.snapshot();
+		}
+		Path snapshot = dir.resolve("users.snapshot");
+		byte[] bytes = Files.readAllBytes(snapshot);
+		bytes[bytes.length - 3] ^= 0x55;
+		Files.write(snapshot, bytes);
+
+		assertThrows(IOException.class, this::open);
+	}
+
+	/**
+	 * Concurrent saves share fsyncs, a snapshot is taken in the background once enough saves were logged, and all
+	 * of it comes back after a restart.
+	 */
+	@Test
+	void concurrentSavesAreGroupCommittedAndSnapshotted() throws Exception {
+		int threads = 16;
+		int perThread = 100;
+		try (FileUserAdapter store = new FileUserAdapter(dir, new CompactUserAdapter(), 500)) {
+			ExecutorService pool = Executors.newFixedThreadPool(threads);
+			try {
+				List<Future<?>> futures = new ArrayList<>();
+				for (int t = 0; t < threads; t++) {
+					int thread = t;
+					futures.add(pool.submit(() -> {
+						for (int i = 0; i < perThread; i++) {
+							assertTrue(store.saveIfEmailAbsent(user("t" + thread + "-" + i + "@example.com")));
+						}
+						return null;
+					}));
+				}
+				for (Future<?> f : futures) {
+					f.get();
+				}
+			} finally {
+				pool.shutdownNow();
+			}
+			assertEquals(threads * perThread, store.getFramesWritten());
+			assertTrue(store.getFlushCount() <= store.getFramesWritten());
+		}
+		assertTrue(Files.exists(dir.resolve("users.snapshot")));
+
+		try (FileUserAdapter store = open()) {
+			for (int t = 0; t < threads; t++) {
+				for (int i = 0; i < perThread; i++) {
+					assertTrue(store.existsByEmail("t" + t + "-" + i + "@example.com"));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Saves reach the memory store only once logged, so registrations racing for one email are held apart while
+	 * queued: exactly one wins, and it is the one the log has.
+	 */
+	@Test
+	void racingRegistrationsOfOneEmailLogOnlyTheWinner() throws Exception {
+		int threads = 16;
+		List<User> winners = new ArrayList<>();
+		try (FileUserAdapter store = open()) {
+			ExecutorService pool = Executors.newFixedThreadPool(threads);
+			try {
+				for (int round = 0; round < 50; round++) {
+					String email = "race" + round + "@example.com";
+					List<Future<User>> futures = new ArrayList<>();
+					for (int t = 0; t < threads; t++) {
+						futures.add(pool.submit(() -> {
+							User u = user(email);
+							return store.saveIfEmailAbsent(u) ? u : null;
+						}));
+					}
+					List<User> won = new ArrayList<>();
+					for (Future<User> f : futures) {
+						if (f.get() != null) {
+							won.add(f.get());
+						}
+					}
+					assertEquals(1, won.size(), email);
+					assertEquals(won.get(0).getId(), store.findByEmail(email).orElseThrow().getId());
+					winners.addAll(won);
+				}
+			} finally {
+				pool.shutdownNow();
+			}
+			assertEquals(winners.size(), store.getFramesWritten());
+		}
+
+		try (FileUserAdapter store = open()) {
+			for (User u : winners) {
+				assertEquals(u.getId(), store.findByEmail(u.getEmail()).orElseThrow().getId());
+			}
+		}
+	}
+
+	private List<Path> logSegments() throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.filter(f -> f.getFileName().toString().endsWith(".log")).sorted().toList();
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.application.port.outbound.AuthorizationCodeStorePort.Grant;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link InMemoryAuthorizationCodeAdapter}: codes redeem exactly once, even when threads race for one, expire
+ * after their TTL, and are reclaimed by later issues without a sweep.
+ */
+public class InMemoryAuthorizationCodeAdapterTest {
+
+	private static final Grant GRANT = new Grant(UUID.randomUUID(), "web", "http://localhost/cb", "todos", null);
+
+	private final AtomicLong now = new AtomicLong(1_000_000);
+	private final InMemoryAuthorizationCodeAdapter store = new InMemoryAuthorizationCodeAdapter(60_000, now::get);
+
+	@Test
+	void redeemsOnce() {
+		String code = store.issue(GRANT);
+
+		assertEquals(GRANT, store.consume(code).orElseThrow());
+		assertTrue(store.consume(code).isEmpty());
+		assertTrue(store.consume("unknown").isEmpty());
+		assertTrue(store.consume(null).isEmpty());
+	}
+
+	@Test
+	void racingRedemptionsHaveOneWinner() throws Exception {
+		for (int round = 0; round < 200; round++) {
+			String code = store.issue(GRANT);
+			AtomicInteger winners = new AtomicInteger();
+			CountDownLatch start = new CountDownLatch(1);
+			Thread[] threads = new Thread[8];
+			for (int t = 0; t < threads.length; t++) {
+				threads[t] = Thread.ofPlatform().start(() -> {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					if (store.consume(code).isPresent()) {
+						winners.incrementAndGet();
+					}
+				});
+			}
+			start.countDown();
+			for (Thread t : threads) {
+				t.join();
+			}
+			assertEquals(1, winners.get());
+		}
+	}
+
+	@Test
+	void expiresAfterTtl() {
+		String code = store.issue(GRANT);
+		now.addAndGet(60_000);
+
+		assertTrue(store.consume(code).isEmpty());
+	}
+
+	/** Unredeemed codes are dropped as new ones are issued, faster than they come in. */
+	@Test
+	void laterIssuesReclaimExpiredCodes() {
+		for (int i = 0; i < 1_000; i++) {
+			store.issue(GRANT);
+		}
+		now.addAndGet(60_000);
+		for (int i = 0; i < 500; i++) {
+			store.issue(GRANT);
+		}
+		assertEquals(500, store.size());
+	}
+}
@@ -0,0 +1,94 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.application.port.outbound.RefreshTokenStorePort.Rotation;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link InMemoryRefreshTokenAdapter} on a hand-driven clock: rotation, reuse detection, client binding, revocation
+ * and expiry through the shards' timing wheels.
+ */
+public class InMemoryRefreshTokenAdapterTest {
+
+	private static final UUID USER = UUID.fromString("3f2b8a8e-0d1c-4f57-9a5e-6a3c1f0e9b21");
+
+	private final AtomicLong now = new AtomicLong(1_700_000_000L);
+	private final InMemoryRefreshTokenAdapter store = new InMemoryRefreshTokenAdapter(3600, 4, now::get);
+
+	@Test
+	void rotatesIntoASuccessor() {
+		String first = store.issue(USER, "web", "todos");
+
+		Rotation rotation = store.rotate(first, "web").orElseThrow();
+		assertEquals(USER, rotation.userId());
+		assertEquals("todos", rotation.scope());
+		assertNotEquals(first, rotation.refreshToken());
+
+		assertTrue(store.rotate(rotation.refreshToken(), "web").isPresent());
+	}
+
+	/** Replaying a redeemed token kills the family, including the successor the legitimate client holds. */
+	@Test
+	void reuseRevokesTheFamily() {
+		String first = store.issue(USER, "web", null);
+		String second = store.rotate(first, "web").orElseThrow().refreshToken();
+		String unrelated = store.issue(USER, "web", null);
+
+		assertTrue(store.rotate(first, "web").isEmpty());
+		assertTrue(store.rotate(second, "web").isEmpty());
+		assertTrue(store.rotate(unrelated, "web").isPresent());
+	}
+
+	/** A refusal while issuing leaves the token current, and its retry is not taken for a replay. */
+	@Test
+	void failedIssueLeavesTheTokenCurrent() {
+		String token = store.issue(USER, "web", "todos");
+
+		assertThrows(IllegalStateException.class, () -> store.rotate(token, "web", r -> {
+			throw new IllegalStateException("refused");
+		}));
+		Rotation rotation = store.rotate(token, "web").orElseThrow();
+		assertTrue(store.rotate(rotation.refreshToken(), "web").isPresent());
+	}
+
+	@Test
+	void tokensAreBoundToTheirClient() {
+		String token = store.issue(USER, "web", null);
+
+		assertTrue(store.rotate(token, "other").isEmpty());
+		assertTrue(store.rotate(token, "web").isPresent(), "a wrong client does not use the token up");
+	}
+
+	@Test
+	void revokeEndsTheFamily() {
+		String token = store.issue(USER, "web", null);
+
+		assertTrue(store.revoke(token));
+		assertFalse(store.revoke(token));
+		assertFalse(store.revoke("unknown"));
+		assertTrue(store.rotate(token, "web").isEmpty());
+		assertTrue(store.rotate(null, "web").isEmpty());
+	}
+
+	@Test
+	void expiredTokensAreRejectedAndReclaimed() {
+		for (int i = 0; i < 100; i++) {
+			store.issue(USER, "web", null);
+		}
+		String token = store.issue(USER, "web", null);
+		assertEquals(101, store.size());
+
+		now.addAndGet(3600);
+		assertTrue(store.rotate(token, "web").isEmpty());
+
+		// every shard reclaims its expired entries on its next access
+		for (int i = 0; i < 100; i++) {
+			store.issue(USER, "web", null);
+		}
+		assertEquals(100, store.size());
+	}
+}
@@ -0,0 +1,303 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.application.port.outbound.TodoRepositoryPort.Write;
+import io.github.cqyll.todoapi.domain.Todo;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link InMemoryTodoAdapter}: owners never see each other's todos, listings come out in creation order, batches
+ * apply in order, versions follow writes, searches follow titles and rank as specified, due ranges follow due
+ * dates, and concurrent updates of one todo are not lost.
+ */
+public class InMemoryTodoAdapterTest {
+
+	private static final UUID ALICE = UUID.fromString("3f2b8a8e-0d1c-4f57-9a5e-6a3c1f0e9b21");
+	private static final UUID BOB = UUID.fromString("7c9e6679-7425-40de-944b-e07fc1f90ae7");
+	private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+	private final InMemoryTodoAdapter store = new InMemoryTodoAdapter();
+
+	@Test
+	void todosAreOnlyReachableThroughTheirOwner() {
+		Todo todo = Todo.create(ALICE, "Buy milk", false, T0);
+		store.save(todo);
+
+		assertEquals("Buy milk", store.findById(ALICE, todo.getId()).orElseThrow().getTitle());
+		assertTrue(store.findById(BOB, todo.getId()).isEmpty());
+		assertTrue(store.update(BOB, todo.getId(), t -> t.update("mine now", null, T0)).isEmpty());
+		assertFalse(store.delete(BOB, todo.getId()));
+		assertEquals(List.of(), store.findByOwner(BOB));
+		assertEquals(1, store.countByOwner(ALICE));
+	}
+
+	@Test
+	void listsInCreationOrder() {
+		Todo second = Todo.create(ALICE, "second", false, T0.plusMillis(1));
+		Todo first = Todo.create(ALICE, "first", false, T0);
+		Todo third = Todo.create(ALICE, "third", false, T0.plusMillis(2));
+		store.save(second);
+		store.save(third);
+		store.save(first);
+		store.save(Todo.create(BOB, "other", false, T0));
+
+		store.update(ALICE, first.getId(), t -> t.update("first, renamed", true, T0.plusSeconds(60)));
+		assertEquals(List.of("first, renamed", "second", "third"),
+				store.findByOwner(ALICE).stream().map(Todo::getTitle).toList());
+		assertEquals(store.findByOwner(ALICE), store.streamByOwner(ALICE).toList());
+		assertEquals(0, store.streamByOwner(UUID.randomUUID()).count());
+
+		assertTrue(store.delete(ALICE, second.getId()));
+		assertFalse(store.delete(ALICE, second.getId()));
+		assertEquals(List.of("first, renamed", "third"), store.findByOwner(ALICE).stream().map(Todo::getTitle).toList());
+		assertEquals(2, store.countByOwner(ALICE));
+	}
+
+	/** A stream opened before a write can still see it: it walks the live index, not a copy. */
+	@Test
+	void streamsAreLazy() {
+		Todo first = Todo.create(ALICE, "first", false, T0);
+		store.save(first);
+
+		Iterator<Todo> it = store.streamByOwner(ALICE).iterator();
+		store.save(Todo.create(ALICE, "second", false, T0.plusMillis(1)));
+		store.update(ALICE, first.getId(), t -> t.update("first, renamed", null, T0));
+
+		assertEquals("first, renamed", it.next().getTitle());
+		assertEquals("second", it.next().getTitle());
+		assertFalse(it.hasNext());
+	}
+
+	/** Writes apply in order, a miss does not stop the rest, and todos stored in one millisecond keep their order. */
+	@Test
+	void writeAllAppliesInOrder() {
+		Todo kept = Todo.create(ALICE, "kept", false, T0);
+		Todo gone = Todo.create(ALICE, "gone", false, T0);
+		store.save(kept);
+		store.save(gone);
+		Todo a = Todo.create(ALICE, "a", false, T0);
+		Todo b = Todo.create(ALICE, "b", false, T0);
+		Todo c = Todo.create(ALICE, "c", false, T0);
+		UUID missing = UUID.randomUUID();
+
+		List<Optional<Todo>> results = store.writeAll(ALICE, List.of(
+				new Write.Save(c),
+				new Write.Update(kept.getId(), t -> t.update("kept, renamed", null, T0)),
+				new Write.Delete(gone.getId()),
+				new Write.Update(missing, t -> t.update("never", null, T0)),
+				new Write.Save(a),
+				new Write.Delete(gone.getId()),
+				new Write.Save(b)));
+
+		assertEquals(Optional.of(c), results.get(0));
+		assertEquals("kept, renamed", results.get(1).orElseThrow().getTitle());
+		assertEquals("gone", results.get(2).orElseThrow().getTitle(), "a delete returns what it removed");
+		assertTrue(results.get(3).isEmpty());
+		assertTrue(results.get(5).isEmpty(), "already deleted by an earlier write");
+		assertEquals(List.of("kept, renamed", "c", "a", "b"),
+				store.findByOwner(ALICE).stream().map(Todo::getTitle).toList());
+
+		assertThrows(IllegalArgumentException.class,
+				() -> store.writeAll(ALICE, List.of(new Write.Delete(c.getId()), new Write.Save(Todo.create(BOB, "x", false, T0)))));
+		assertTrue(store.findById(ALICE, c.getId()).isPresent(), "a refused batch applies nothing");
+	}
+
+	/** Every write moves the owner's version, and only that owner's; a write that changes nothing moves nothing. */
+	@Test
+	void versionsMoveWithEveryWrite() {
+		assertEquals(0, store.version(ALICE));
+		Todo todo = Todo.create(ALICE, "Buy milk", false, T0);
+		store.save(todo);
+		long created = store.version(ALICE);
+		assertNotEquals(0, created);
+
+		store.update(ALICE, todo.getId(), t -> t.update("Buy milk", null, T0));
+		assertEquals(created, store.version(ALICE));
+		store.save(Todo.create(BOB, "other", false, T0));
+		assertFalse(store.delete(ALICE, UUID.randomUUID()));
+		assertEquals(created, store.version(ALICE));
+
+		Todo updated = store.update(ALICE, todo.getId(), t -> t.update(null, true, T0)).orElseThrow();
+		assertEquals(2, updated.getVersion());
+		long afterUpdate = store.version(ALICE);
+		assertNotEquals(created, afterUpdate);
+		assertTrue(store.delete(ALICE, todo.getId()));
+		assertNotEquals(afterUpdate, store.version(ALICE));
+		assertNotEquals(created, store.version(ALICE));
+	}
+
+	/** Every query word must start a title word; whole words beat prefixes, then short titles, then new todos. */
+	@Test
+	void searchMatchesWordPrefixesAndRanks() {
+		Todo taxes = Todo.create(ALICE, "File taxes", false, T0);
+		Todo tasks = Todo.create(ALICE, "Tasks for the tax office", false, T0.plusMillis(1));
+		Todo tax = Todo.create(ALICE, "TAX-return (2024)", false, T0.plusMillis(2));
+		Todo newer = Todo.create(ALICE, "tax return, 2024!", false, T0.plusMillis(3));
+		for (Todo t : List.of(taxes, tasks, tax, newer)) {
+			store.save(t);
+		}
+		store.save(Todo.create(BOB, "tax", false, T0));
+
+		assertEquals(List.of(newer, tax, tasks, taxes), store.search(ALICE, "tax", 10));
+		assertEquals(List.of(newer, tax, tasks), store.search(ALICE, "Ta", 3));
+		assertEquals(List.of(newer, tax), store.search(ALICE, "ret 2024 tax", 10));
+		assertEquals(List.of(tasks), store.search(ALICE, "offi TASK", 10));
+		assertEquals(List.of(), store.search(ALICE, "taxi", 10));
+		assertEquals(List.of(), store.search(ALICE, "?!", 10));
+		assertEquals(List.of(), store.search(UUID.randomUUID(), "tax", 10));
+		assertEquals(1, store.search(BOB, "tax", 10).size());
+	}
+
+	@Test
+	void searchFollowsRenamesAndDeletes() {
+		Todo milk = Todo.create(ALICE, "Buy milk", false, T0);
+		store.save(milk);
+		store.update(ALICE, milk.getId(), t -> t.update("Buy oat milk", true, T0.plusSeconds(1)));
+		assertTrue(store.search(ALICE, "oat", 10).get(0).isCompleted());
+
+		store.update(ALICE, milk.getId(), t -> t.update("Buy bread", null, T0.plusSeconds(2)));
+		assertEquals(List.of(), store.search(ALICE, "milk", 10));
+		assertEquals("Buy bread", store.search(ALICE, "bread buy", 10).get(0).getTitle());
+
+		// the freed number goes to the next todo, which must not inherit the old one's words
+		store.delete(ALICE, milk.getId());
+		Todo eggs = Todo.create(ALICE, "Eggs", false, T0.plusSeconds(3));
+		store.save(eggs);
+		assertEquals(List.of(), store.search(ALICE, "bread", 10));
+		assertEquals(List.of(eggs), store.search(ALICE, "e", 10));
+	}
+
+	@Test
+	void dueRangesFollowDueDatesPerOwnerAndAcrossOwners() {
+		Instant day = T0.plusSeconds(86_400);
+		Todo rent = Todo.create(ALICE, "Pay rent", false, day.plusSeconds(3_600), T0);
+		Todo call = Todo.create(ALICE, "Call mum", false, day, T0);
+		Todo sameTime = Todo.create(BOB, "Water plants", false, day, T0);
+		Todo undated = Todo.create(ALICE, "Someday", false, T0);
+		for (Todo t : List.of(rent, call, sameTime, undated)) {
+			store.save(t);
+		}
+
+		assertEquals(List.of(call, rent), store.findDue(ALICE, null, null));
+		assertEquals(List.of(call), store.findDue(ALICE, day, day.plusSeconds(3_600)));
+		assertEquals(List.of(rent), store.findDue(ALICE, day.plusSeconds(1), null));
+		assertEquals(List.of(), store.findDue(ALICE, null, day));
+		assertEquals(List.of(), store.findDue(UUID.randomUUID(), null, null));
+		try (var due = store.streamDue(day, day.plusSeconds(1))) {
+			assertEquals(Set.of(call, sameTime), due.collect(Collectors.toSet()));
+		}
+
+		// moved earlier, cleared, set, deleted: each leaves exactly one entry, or none, under the current date
+		store.update(ALICE, rent.getId(), t -> t.update(null, null, Optional.of(T0), T0));
+		store.update(ALICE, call.getId(), t -> t.update(null, null, Optional.empty(), T0));
+		store.update(ALICE, undated.getId(), t -> t.update(null, null, Optional.of(day), T0));
+		assertEquals(List.of(rent.getId(), undated.getId()),
+				store.findDue(ALICE, null, null).stream().map(Todo::getId).toList());
+		assertEquals(T0, store.findDue(ALICE, null, null).get(0).getDueAt());
+		store.delete(BOB, sameTime.getId());
+		try (var due = store.streamDue(null, null)) {
+			assertEquals(List.of(rent.getId(), undated.getId()), due.map(Todo::getId).toList());
+		}
+	}
+
+	/**
+	 * Thousands of random writes over a small vocabulary, enough for stale postings to be cleared several times,
+	 * leave the index answering exactly as a scan of the same todos does.
+	 */
+	@Test
+	void indexedSearchAgreesWithScan() {
+		InMemoryTodoAdapter scan = new InMemoryTodoAdapter(false);
+		String[] vocabulary = {"buy", "bread", "butter", "call", "calendar", "mum", "milk", "tax", "taxes", "task"};
+		Random random = new Random(7);
+		List<UUID> ids = new ArrayList<>();
+		for (int i = 0; i < 20_000; i++) {
+			StringBuilder title = new StringBuilder();
+			for (int w = random.nextInt(4); w >= 0; w--) {
+				title.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+			}
+			// mostly creates and renames, so the store grows and stale postings pile up past the live ones
+			int roll = random.nextInt(20);
+			int op = ids.isEmpty() || roll < 8 ? 0 : roll < 17 ? 1 : 2;
+			if (op == 0) {
+				Todo t = Todo.create(ALICE, title.toString(), false, T0.plusMillis(i));
+				store.save(t);
+				scan.save(t);
+				ids.add(t.getId());
+			} else if (op == 1) {
+				UUID id = ids.get(random.nextInt(ids.size()));
+				Todo t = store.update(ALICE, id, x -> x.update(title.toString(), null, T0)).orElseThrow();
+				scan.save(t);
+			} else {
+				UUID id = ids.remove(random.nextInt(ids.size()));
+				assertTrue(store.delete(ALICE, id));
+				assertTrue(scan.delete(ALICE, id));
+			}
+			if (i % 1000 == 999) {
+				for (String q : new String[] {"b", "bu", "butter", "ca mu", "tax", "ta mi bu", "taxes task"}) {
+					assertEquals(scan.search(ALICE, q, 25), store.search(ALICE, q, 25), q);
+				}
+			}
+		}
+	}
+
+	@Test
+	void emptyUpdatesAreNotStored() {
+		Todo todo = Todo.create(ALICE, "Buy milk", false, T0);
+		store.save(todo);
+
+		Todo same = store.update(ALICE, todo.getId(), t -> t.update("Buy milk", false, T0.plusSeconds(1))).orElseThrow();
+		assertSame(todo, same);
+		assertEquals(T0, same.getUpdatedAt());
+		assertThrows(IllegalArgumentException.class, () -> store.update(ALICE, todo.getId(), t -> t.update(" ", null, T0)));
+		assertEquals("Buy milk", store.findById(ALICE, todo.getId()).orElseThrow().getTitle());
+	}
+
+	/** Two threads change different fields of the same todo; each sees the other's writes. */
+	@Test
+	void concurrentUpdatesAreNotLost() throws Exception {
+		Todo todo = Todo.create(ALICE, "0", false, T0);
+		store.save(todo);
+		CountDownLatch start = new CountDownLatch(1);
+		Thread renamer = Thread.ofPlatform().start(() -> {
+			await(start);
+			for (int i = 1; i <= 10_000; i++) {
+				String title = Integer.toString(i);
+				store.update(ALICE, todo.getId(), t -> t.update(title, null, T0));
+			}
+		});
+		Thread toggler = Thread.ofPlatform().start(() -> {
+			await(start);
+			for (int i = 0; i < 10_001; i++) {
+				store.update(ALICE, todo.getId(), t -> t.update(null, !t.isCompleted(), T0));
+			}
+		});
+		start.countDown();
+		renamer.join();
+		toggler.join();
+
+		Todo result = store.findById(ALICE, todo.getId()).orElseThrow();
+		assertEquals("10000", result.getTitle());
+		assertTrue(result.isCompleted(), "an odd number of toggles");
+		assertEquals(1, store.findByOwner(ALICE).size());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
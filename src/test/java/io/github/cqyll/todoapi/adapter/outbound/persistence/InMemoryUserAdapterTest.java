@@ -0,0 +1,117 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import io.github.cqyll.todoapi.adapter.outbound.security.FakeTokenProviderAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.security.SimplePasswordHasherAdapter;
+import io.github.cqyll.todoapi.application.service.UserRegistrationService;
+import io.github.cqyll.todoapi.domain.Password;
+import io.github.cqyll.todoapi.domain.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrency checks for {@link InMemoryUserAdapter}: threads released together race to register the same set of
+ * emails, and exactly one registration per email may win.
+ */
+public class InMemoryUserAdapterTest {
+
+	private static final int THREADS = 16;
+	private static final int EMAILS = 500;
+	private static final Password PASSWORD = Password.fromHash("0".repeat(64));
+
+	@Test
+	void saveIfEmailAbsentAdmitsOneUserPerEmail() throws Exception {
+		InMemoryUserAdapter repo = new InMemoryUserAdapter();
+		AtomicIntegerArray wins = new AtomicIntegerArray(EMAILS);
+
+		race(t -> {
+			for (int i = 0; i < EMAILS; i++) {
+				// mixed case: uniqueness is case-insensitive
+				String email = t % 2 == 0 ? email(i) : email(i).toUpperCase(Locale.ROOT);
+				User user = User.createWithPassword(email, "user" + t, PASSWORD);
+				if (repo.saveIfEmailAbsent(user)) {
+					wins.incrementAndGet(i);
+				}
+				// whoever won, the email is taken from now on
+				assertTrue(repo.findByEmail(email).isPresent());
+			}
+		});
+
+		for (int i = 0; i < EMAILS; i++) {
+			assertEquals(1, wins.get(i), "registrations that won for " + email(i));
+			User winner = repo.findByEmail(email(i)).orElseThrow();
+			assertSame(winner, repo.findById(winner.getId()).orElseThrow());
+		}
+		assertEquals(EMAILS, repo.getUsersRepo().size());
+	}
+
+	/**
+	 * End to end through {@link UserRegistrationService}: the existsByEmail pre-check passes for every racer, so
+	 * only the atomic insert stands between them and duplicate accounts.
+	 */
+	@Test
+	void concurrentRegistrationOfOneEmailSucceedsOnce() throws Exception {
+		InMemoryUserAdapter repo = new InMemoryUserAdapter();
+		UserRegistrationService service = new UserRegistrationService(
+				repo, new SimplePasswordHasherAdapter(), new FakeTokenProviderAdapter());
+		AtomicInteger registered = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+
+		race(t -> {
+			try {
+				service.register("race@example.com", "racer" + t, "password123");
+				registered.incrementAndGet();
+			} catch (IllegalArgumentException e) {
+				assertEquals("Email already registered", e.getMessage());
+				rejected.incrementAndGet();
+			}
+		});
+
+		assertEquals(1, registered.get());
+		assertEquals(THREADS - 1, rejected.get());
+		assertEquals(1, repo.getUsersRepo().size());
+	}
+
+	private interface Racer {
+		void run(int thread) throws Exception;
+	}
+
+	private static void race(Racer racer) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			CountDownLatch ready = new CountDownLatch(THREADS);
+			CountDownLatch go = new CountDownLatch(1);
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				int thread = t;
+				futures.add(pool.submit(() -> {
+					ready.countDown();
+					go.await();
+					racer.run(thread);
+					return null;
+				}));
+			}
+			ready.await();
+			go.countDown();
+			for (Future<?> f : futures) {
+				f.get();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static String email(int i) {
+		return "user" + i + "@example.com";
+	}
+}
@@ -0,0 +1,84 @@
+package io.github.cqyll.todoapi.adapter.outbound.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TimingWheel}: every entry fires exactly at its deadline tick, on every level, past the wheel's span, and
+ * when the wheel is advanced in large jumps.
+ */
+public class TimingWheelTest {
+
+	private static final class Item extends TimingWheel.Timeout {
+		final long due;
+
+		Item(long due) {
+			this.due = due;
+		}
+	}
+
+	private final List<Long> late = new ArrayList<>();
+	private long now;
+	private int fired;
+
+	private final TimingWheel<Item> wheel = new TimingWheel<>(1_000, item -> {
+		fired++;
+		if (item.due != now) {
+			late.add(item.due);
+		}
+	});
+
+	@Test
+	void firesEachEntryAtItsDeadlineTick() {
+		SplittableRandom random = new SplittableRandom(7);
+		long[] offsets = {0, 1, 63, 64, 65, 4095, 4096, 4097, 262_143, 262_144, 16_777_215, 16_777_216, 40_000_000};
+		List<Item> items = new ArrayList<>();
+		for (long offset : offsets) {
+			items.add(new Item(1_000 + Math.max(offset, 1)));
+		}
+		for (int i = 0; i < 5_000; i++) {
+			items.add(new Item(1_001 + random.nextLong(20_000_000)));
+		}
+		for (Item item : items) {
+			wheel.schedule(item, item.due);
+		}
+		assertEquals(items.size(), wheel.size());
+
+		long last = items.stream().mapToLong(i -> i.due).max().getAsLong();
+		for (now = 1_001; now <= last; now++) {
+			wheel.advance(now);
+		}
+		assertEquals(items.size(), fired);
+		assertEquals(List.of(), late);
+		assertEquals(0, wheel.size());
+	}
+
+	/** Skipping ahead fires everything due in between, and nothing that is not due yet. */
+	@Test
+	void largeJumpsFireWhatIsDue() {
+		wheel.schedule(new Item(1_010), 1_010);
+		wheel.schedule(new Item(500_000), 500_000);
+
+		now = 400_000;
+		wheel.advance(now);
+		assertEquals(1, fired);
+		assertEquals(1, wheel.size());
+
+		now = 500_000;
+		wheel.advance(now);
+		assertEquals(2, fired);
+	}
+
+	@Test
+	void overdueEntriesFireOnTheNextTick() {
+		now = 1_001;
+		wheel.schedule(new Item(now), 900);
+		wheel.advance(now);
+		assertEquals(1, fired);
+	}
+}
@@ -0,0 +1,102 @@
+package io.github.cqyll.todoapi.adapter.outbound.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link HmacTokenProviderAdapter}: round trips, expiry on a hand-driven clock, revocation, and rejection of
+ * tampered, foreign and malformed tokens.
+ */
+public class HmacTokenProviderAdapterTest {
+
+	private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+	private static final UUID USER = UUID.fromString("3f2b8a8e-0d1c-4f57-9a5e-6a3c1f0e9b21");
+
+	private final AtomicLong now = new AtomicLong(1_700_000_000L);
+	private final HmacTokenProviderAdapter provider = new HmacTokenProviderAdapter(SECRET, 3600, new RevocationSet(3600, 60, 64, now::get), now::get);
+
+	@Test
+	void roundTripsUserIdScopeAndExpiry() {
+		String token = provider.createToken(USER, "todos:read todos:write");
+
+		assertTrue(provider.validateToken(token));
+		assertEquals(USER, provider.extractUserId(token));
+		assertEquals("todos:read todos:write", provider.extractScope(token));
+		assertEquals(now.get() + 3600, provider.expiresAt(token));
+		assertNull(provider.extractScope(provider.createToken(USER)));
+		assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+	}
+
+	@Test
+	void tokensIssuedTogetherAreDistinct() {
+		assertNotEquals(provider.createToken(USER), provider.createToken(USER));
+	}
+
+	@Test
+	void expiresAfterTtl() {
+		String token = provider.createToken(USER);
+
+		now.addAndGet(3599);
+		assertTrue(provider.validateToken(token));
+		now.addAndGet(1);
+		assertFalse(provider.validateToken(token));
+		assertThrows(IllegalArgumentException.class, () -> provider.extractUserId(token));
+	}
+
+	@Test
+	void revokedTokensFailValidation() {
+		String token = provider.createToken(USER);
+		String other = provider.createToken(USER);
+
+		assertTrue(provider.revoke(token));
+		assertFalse(provider.validateToken(token));
+		assertThrows(IllegalArgumentException.class, () -> provider.extractUserId(token));
+		assertTrue(provider.validateToken(other), "only the revoked token is affected");
+
+		assertFalse(provider.revoke(token), "already revoked");
+		assertFalse(provider.revoke("not-a-token"));
+	}
+
+	/** Any single changed character, in the payload or the MAC, invalidates the token. */
+	@Test
+	void rejectsTamperedTokens() {
+		String token = provider.createToken(USER, "todos");
+		for (int i = 0; i < token.length(); i++) {
+			char c = token.charAt(i);
+			String tampered = token.substring(0, i) + (c == 'A' ? 'B' : 'A') + token.substring(i + 1);
+			assertFalse(provider.validateToken(tampered), "accepted change at " + i);
+		}
+	}
+
+	@Test
+	void rejectsTokensSignedWithAnotherKey() {
+		byte[] other = SECRET.clone();
+		other[0] ^= 1;
+		String foreign = new HmacTokenProviderAdapter(other, 3600, new RevocationSet(3600, 60, 64, now::get), now::get).createToken(USER);
+
+		assertFalse(provider.validateToken(foreign));
+	}
+
+	@Test
+	void rejectsMalformedInput() {
+		String token = provider.createToken(USER);
+
+		assertFalse(provider.validateToken(null));
+		assertFalse(provider.validateToken(""));
+		assertFalse(provider.validateToken("TOKEN-" + USER));
+		assertFalse(provider.validateToken(token.substring(1)));
+		assertFalse(provider.validateToken(token + "A"));
+		assertFalse(provider.validateToken(token.replace(token.charAt(5), '+')));
+		assertFalse(provider.validateToken("A".repeat(2_000)));
+		// standard base64 with padding is a different encoding, not an alias
+		byte[] raw = Base64.getUrlDecoder().decode(token);
+		assertFalse(provider.validateToken(Base64.getEncoder().encodeToString(raw)));
+		assertThrows(IllegalArgumentException.class, () -> provider.createToken(USER, "café"));
+	}
+}
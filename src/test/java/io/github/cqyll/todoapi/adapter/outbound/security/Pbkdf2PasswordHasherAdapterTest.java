@@ -0,0 +1,97 @@
+package io.github.cqyll.todoapi.adapter.outbound.security;
+
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryUserAdapter;
+import io.github.cqyll.todoapi.application.service.BasicCredentialsAuthenticator;
+import io.github.cqyll.todoapi.domain.Password;
+import io.github.cqyll.todoapi.domain.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link Pbkdf2PasswordHasherAdapter}: salted round trips, verification of the legacy SHA-256 format, rehash on
+ * login, and fail-fast rejection once the hashing queue is full. Iteration counts are kept low so the tests
+ * measure behaviour, not the cost.
+ */
+public class Pbkdf2PasswordHasherAdapterTest {
+
+	@Test
+	void hashesAreSaltedAndVerify() {
+		try (Pbkdf2PasswordHasherAdapter hasher = new Pbkdf2PasswordHasherAdapter(1_000, 2, 8)) {
+			String a = hasher.hash("correct horse");
+			String b = hasher.hash("correct horse");
+
+			assertTrue(a.startsWith("pbkdf2-sha256$1000$"), a);
+			assertNotEquals(a, b, "same password must get different salts");
+			assertTrue(hasher.matches("correct horse", a));
+			assertTrue(hasher.matches("correct horse", b));
+			assertFalse(hasher.matches("correct horsE", a));
+			assertFalse(hasher.needsRehash(a));
+		}
+	}
+
+	@Test
+	void malformedHashesNeverMatch() {
+		Pbkdf2PasswordHasherAdapter hasher = new Pbkdf2PasswordHasherAdapter(1_000, 0, 0);
+
+		assertFalse(hasher.matches("x", "pbkdf2-sha256$abc$AAAA$AAAA"));
+		assertFalse(hasher.matches("x", "pbkdf2-sha256$1000$AAAA"));
+		assertFalse(hasher.matches("x", "pbkdf2-sha256$1000$!!!!$AAAA"));
+		assertFalse(hasher.matches("x", "z".repeat(64)));
+	}
+
+	@Test
+	void verifiesLegacyHashesAndAsksForRehash() {
+		String legacy = new SimplePasswordHasherAdapter().hash("password123");
+		Pbkdf2PasswordHasherAdapter hasher = new Pbkdf2PasswordHasherAdapter(1_000, 0, 0);
+
+		assertTrue(hasher.matches("password123", legacy));
+		assertFalse(hasher.matches("password124", legacy));
+		assertTrue(hasher.needsRehash(legacy));
+
+		String weaker = new Pbkdf2PasswordHasherAdapter(500, 0, 0).hash("password123");
+		assertTrue(hasher.matches("password123", weaker));
+		assertTrue(hasher.needsRehash(weaker));
+	}
+
+	/** A successful login replaces an outdated hash; the new one verifies and is current. */
+	@Test
+	void authenticatorUpgradesOutdatedHashOnLogin() {
+		InMemoryUserAdapter repo = new InMemoryUserAdapter();
+		User user = User.createWithPassword("a@example.com", "A",
+				Password.fromHash(new SimplePasswordHasherAdapter().hash("password123")));
+		repo.save(user);
+		Pbkdf2PasswordHasherAdapter hasher = new Pbkdf2PasswordHasherAdapter(1_000, 0, 0);
+		BasicCredentialsAuthenticator auth = new BasicCredentialsAuthenticator(repo, hasher);
+
+		auth.authenticate(Map.of("email", "a@example.com", "password", "password123"));
+
+		String stored = repo.findById(user.getId()).orElseThrow().getPassword().getHash();
+		assertTrue(stored.startsWith("pbkdf2-sha256$1000$"), stored);
+		assertFalse(hasher.needsRehash(stored));
+		assertDoesNotThrow(() -> auth.authenticate(Map.of("email", "a@example.com", "password", "password123")));
+		assertThrows(IllegalArgumentException.class,
+				() -> auth.authenticate(Map.of("email", "b@example.com", "password", "password123")));
+	}
+
+	/** One thread and a queue of one: the third concurrent request is refused instead of waiting. */
+	@Test
+	void fullQueueRejectsInsteadOfWaiting() {
+		try (Pbkdf2PasswordHasherAdapter hasher = new Pbkdf2PasswordHasherAdapter(300_000, 1, 1)) {
+			List<CompletableFuture<String>> accepted = new ArrayList<>();
+			accepted.add(hasher.hashAsync("first-password"));
+			accepted.add(hasher.hashAsync("second-password"));
+
+			assertThrows(RejectedExecutionException.class, () -> hasher.hashAsync("third-password"));
+			assertThrows(RejectedExecutionException.class, () -> hasher.hash("third-password"));
+
+			accepted.forEach(f -> f.cancel(false));
+		}
+	}
+}
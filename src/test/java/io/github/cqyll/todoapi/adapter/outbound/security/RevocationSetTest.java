@@ -0,0 +1,73 @@
+package io.github.cqyll.todoapi.adapter.outbound.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link RevocationSet} on a hand-driven clock: exact answers despite the Bloom filters and their growth,
+ * generations dropped once their tokens have expired, and the lifetime guard.
+ */
+public class RevocationSetTest {
+
+	private final AtomicLong now = new AtomicLong(1_700_000_000L);
+	private final RevocationSet set = new RevocationSet(3600, 60, 64, now::get);
+
+	/** Filters start at a single long, so every generation is rebuilt larger a few times on the way. */
+	@Test
+	void containsOnlyWhatWasAdded() {
+		RevocationSet set = new RevocationSet(3600, 60, 1, now::get);
+		SplittableRandom random = new SplittableRandom(42);
+		long[] revoked = new long[1_000];
+		for (int i = 0; i < revoked.length; i++) {
+			revoked[i] = random.nextLong();
+			set.add(revoked[i], now.get() + 1 + i % 3600);
+		}
+		for (int i = 0; i < revoked.length; i++) {
+			assertTrue(set.contains(revoked[i], now.get() + 1 + i % 3600));
+		}
+		for (int i = 0; i < 10_000; i++) {
+			assertFalse(set.contains(random.nextLong(), now.get() + 1 + i % 3600));
+		}
+		assertEquals(1_000, set.size());
+	}
+
+	/** An id is only revoked together with the expiry it was revoked under; a token's expiry cannot change. */
+	@Test
+	void lookupIsScopedToTheExpiryBucket() {
+		set.add(7, now.get() + 100);
+
+		assertTrue(set.contains(7, now.get() + 100));
+		assertFalse(set.contains(7, now.get() + 1000));
+	}
+
+	@Test
+	void expiredGenerationsAreDropped() {
+		set.add(1, now.get() + 30);
+		set.add(2, now.get() + 1800);
+
+		now.addAndGet(120);
+		set.add(3, now.get() + 60);
+
+		assertEquals(2, set.size());
+		assertTrue(set.contains(2, now.get() + 1800 - 120));
+		assertTrue(set.contains(3, now.get() + 60));
+
+		// a full turn of the ring later the slots are reused without stale hits
+		now.addAndGet(3600);
+		set.add(4, now.get() + 3599);
+		assertEquals(1, set.size());
+		assertTrue(set.contains(4, now.get() + 3599));
+	}
+
+	@Test
+	void ignoresExpiredAndRejectsOverlongLifetimes() {
+		set.add(1, now.get());
+		assertEquals(0, set.size());
+
+		assertThrows(IllegalArgumentException.class, () -> set.add(2, now.get() + 3 * 3600));
+	}
+}
@@ -0,0 +1,121 @@
+package io.github.cqyll.todoapi.application.service;
+
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryUserAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.security.HmacTokenProviderAdapter;
+import io.github.cqyll.todoapi.domain.Password;
+import io.github.cqyll.todoapi.domain.User;
+import io.github.cqyll.todoapi.dto.AuthenticatedPrincipal;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link BearerAuthenticationService}: repeated tokens are served from the cache without a user lookup, and
+ * revocation, the cache's maximum age and deactivated users are still noticed.
+ */
+public class BearerAuthenticationServiceTest {
+
+	private final AtomicInteger lookups = new AtomicInteger();
+	private final InMemoryUserAdapter users = new InMemoryUserAdapter() {
+		@Override
+		public Optional<User> findById(UUID id) {
+			lookups.incrementAndGet();
+			return super.findById(id);
+		}
+	};
+	private final HmacTokenProviderAdapter tokens =
+			new HmacTokenProviderAdapter(HmacTokenProviderAdapter.randomSecret(), 3600);
+	private final AtomicLong now = new AtomicLong(System.currentTimeMillis() / 1000);
+	private final BearerAuthenticationService auth = new BearerAuthenticationService(tokens, users, 64, 30, now::get);
+
+	private final User alice = User.createWithPassword("alice@example.com", "Alice", Password.fromHash("0".repeat(64)));
+
+	@Test
+	void repeatedTokensSkipTheUserLookup() {
+		users.save(alice);
+		String token = tokens.createToken(alice.getId(), "todos:read todos:write");
+
+		for (int i = 0; i < 10; i++) {
+			AuthenticatedPrincipal p = auth.authenticate(token).orElseThrow();
+			assertEquals(alice.getId(), p.userId());
+			assertEquals(Set.of("todos:read", "todos:write"), p.scopes());
+		}
+		assertEquals(1, lookups.get());
+
+		BearerAuthenticationService.Stats stats = auth.getStats();
+		assertEquals(9, stats.hits());
+		assertEquals(1, stats.misses());
+		assertEquals(0.9, stats.hitRate(), 1e-9);
+		assertTrue(stats.timed() <= 10);
+	}
+
+	@Test
+	void unscopedTokensGrantEveryScope() {
+		users.save(alice);
+
+		AuthenticatedPrincipal p = auth.authenticate(tokens.createToken(alice.getId())).orElseThrow();
+		assertNull(p.scopes());
+		assertTrue(p.hasScope("todos:write"));
+		assertFalse(auth.authenticate(tokens.createToken(alice.getId(), "todos:read")).orElseThrow()
+				.hasScope("todos:write"));
+	}
+
+	@Test
+	void revocationInvalidatesCachedTokens() {
+		users.save(alice);
+		String token = tokens.createToken(alice.getId());
+		String other = tokens.createToken(alice.getId());
+		auth.authenticate(token).orElseThrow();
+		auth.authenticate(other).orElseThrow();
+
+		assertTrue(tokens.revoke(token));
+		assertTrue(auth.authenticate(token).isEmpty());
+		assertTrue(auth.authenticate(other).isPresent(), "other tokens are merely checked again");
+	}
+
+	/** A deactivated user keeps access only until the cached entry reaches its maximum age. */
+	@Test
+	void deactivationIsNoticedAfterTheMaximumAge() {
+		users.save(alice);
+		String token = tokens.createToken(alice.getId());
+		auth.authenticate(token).orElseThrow();
+
+		users.save(User.restore(alice.getId(), alice.getName(), alice.getEmail(), alice.getPassword(), false, false));
+		now.addAndGet(29);
+		assertTrue(auth.authenticate(token).isPresent());
+		now.addAndGet(1);
+		assertTrue(auth.authenticate(token).isEmpty());
+	}
+
+	@Test
+	void rejectsInvalidTokensAndUnknownSubjects() {
+		users.save(alice);
+		String token = tokens.createToken(alice.getId());
+
+		assertTrue(auth.authenticate(null).isEmpty());
+		assertTrue(auth.authenticate("").isEmpty());
+		assertTrue(auth.authenticate(token.substring(1)).isEmpty());
+		// e.g. a client_credentials token, issued to a client rather than a user
+		assertTrue(auth.authenticate(tokens.createToken(UUID.randomUUID())).isEmpty());
+		assertEquals(4, auth.getStats().rejected());
+	}
+
+	@Test
+	void disabledCacheChecksEveryToken() {
+		users.save(alice);
+		BearerAuthenticationService uncached = new BearerAuthenticationService(tokens, users, 0, 30, now::get);
+		String token = tokens.createToken(alice.getId());
+
+		for (int i = 0; i < 3; i++) {
+			assertTrue(uncached.authenticate(token).isPresent());
+		}
+		assertEquals(3, lookups.get());
+		assertEquals(0, uncached.getStats().hits());
+	}
+}
@@ -0,0 +1,71 @@
+package io.github.cqyll.todoapi.application.service;
+
+import io.github.cqyll.todoapi.adapter.inbound.web.OAuthError;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryClientAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.security.SimplePasswordHasherAdapter;
+import io.github.cqyll.todoapi.domain.OAuthClient;
+import io.github.cqyll.todoapi.domain.Password;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link ClientAuthenticator}: a verified secret is served from the digest cache, while wrong secrets and a
+ * re-registered secret go back to the hasher.
+ */
+public class ClientAuthenticatorTest {
+
+	private final AtomicInteger verifications = new AtomicInteger();
+	private final SimplePasswordHasherAdapter hasher = new SimplePasswordHasherAdapter() {
+		@Override
+		public boolean matches(String rawPassword, String hashedPassword) {
+			verifications.incrementAndGet();
+			return super.matches(rawPassword, hashedPassword);
+		}
+	};
+	private final InMemoryClientAdapter clients = new InMemoryClientAdapter();
+	private final ClientAuthenticator auth = new ClientAuthenticator(clients, hasher);
+
+	private void register(String secret) {
+		clients.save(OAuthClient.create("svc", Password.fromHash(hasher.hash(secret)), Set.of("client_credentials"),
+				null));
+	}
+
+	@Test
+	void verifiesOnceThenComparesDigests() {
+		register("s3cret");
+
+		for (int i = 0; i < 10; i++) {
+			assertEquals("svc", auth.authenticate("svc", "s3cret").getClientId());
+		}
+		assertEquals(1, verifications.get());
+	}
+
+	@Test
+	void wrongSecretsAreAlwaysVerified() {
+		register("s3cret");
+		auth.authenticate("svc", "s3cret");
+
+		for (int i = 0; i < 3; i++) {
+			OAuthError e = assertThrows(OAuthError.class, () -> auth.authenticate("svc", "wrong"));
+			assertEquals(401, e.getHttpStatus());
+		}
+		assertEquals(4, verifications.get());
+		assertThrows(OAuthError.class, () -> auth.authenticate("unknown", "s3cret"));
+		assertThrows(OAuthError.class, () -> auth.authenticate(null, null));
+	}
+
+	/** Rotating the stored secret invalidates the cached digest of the old one. */
+	@Test
+	void newSecretInvalidatesTheCache() {
+		register("old");
+		auth.authenticate("svc", "old");
+
+		register("new");
+		assertThrows(OAuthError.class, () -> auth.authenticate("svc", "old"));
+		assertEquals("svc", auth.authenticate("svc", "new").getClientId());
+	}
+}
@@ -0,0 +1,91 @@
+package io.github.cqyll.todoapi.application.service;
+
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryAuthorizationCodeAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryClientAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryRefreshTokenAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryUserAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.security.HmacTokenProviderAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.security.SimplePasswordHasherAdapter;
+import io.github.cqyll.todoapi.domain.OAuthClient;
+import io.github.cqyll.todoapi.domain.Password;
+import io.github.cqyll.todoapi.domain.User;
+import io.github.cqyll.todoapi.dto.AuthenticatedPrincipal;
+import io.github.cqyll.todoapi.dto.AuthorizationRequest;
+import io.github.cqyll.todoapi.dto.OAuthTokenRequest;
+import io.github.cqyll.todoapi.dto.TokenResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link OAuthTokenService} and {@link OAuthAuthorizationService} for a client registered with a narrow scope:
+ * a grant that asks for no scope gets the client's scope rather than an unscoped token, which would allow
+ * everything, and so does every token refreshed from it.
+ */
+public class OAuthTokenServiceTest {
+
+	private static final String REDIRECT = "https://app.example.com/callback";
+
+	private final SimplePasswordHasherAdapter hasher = new SimplePasswordHasherAdapter();
+	private final InMemoryUserAdapter users = new InMemoryUserAdapter();
+	private final InMemoryClientAdapter clients = new InMemoryClientAdapter();
+	private final InMemoryAuthorizationCodeAdapter codes = new InMemoryAuthorizationCodeAdapter();
+	private final HmacTokenProviderAdapter tokens =
+			new HmacTokenProviderAdapter(HmacTokenProviderAdapter.randomSecret(), 3600);
+	private final BasicCredentialsAuthenticator basicAuth = new BasicCredentialsAuthenticator(users, hasher);
+	private final OAuthTokenService service = new OAuthTokenService(basicAuth, tokens,
+			new ClientAuthenticator(clients, hasher), users, new InMemoryRefreshTokenAdapter(), codes);
+	private final BearerAuthenticationService bearer = new BearerAuthenticationService(tokens, users, 64, 30);
+
+	{
+		users.save(User.createWithPassword("ann@example.com", "Ann", Password.fromHash(hasher.hash("Passw0rd!"))));
+		clients.save(OAuthClient.create("reader", Password.fromHash(hasher.hash("s3cret")),
+				Set.of("password", "refresh_token", "authorization_code"), "todos:read", Set.of(REDIRECT)));
+	}
+
+	private OAuthTokenRequest request(String grantType) {
+		OAuthTokenRequest req = new OAuthTokenRequest();
+		req.setGrantType(grantType);
+		req.setClientId("reader");
+		req.setClientSecret("s3cret");
+		return req;
+	}
+
+	private AuthenticatedPrincipal principal(TokenResponse response) {
+		return bearer.authenticate(response.accessToken()).orElseThrow();
+	}
+
+	@Test
+	void passwordGrantWithoutScopeGetsTheClientsScope() {
+		OAuthTokenRequest req = request("password");
+		req.setUsername("ann@example.com");
+		req.setPassword("Passw0rd!");
+		TokenResponse issued = service.token(req);
+		assertEquals(Set.of("todos:read"), principal(issued).scopes());
+		assertFalse(principal(issued).hasScope("todos:write"));
+
+		OAuthTokenRequest refresh = request("refresh_token");
+		refresh.setRefreshToken(issued.refreshToken());
+		assertFalse(principal(service.token(refresh)).hasScope("todos:write"));
+	}
+
+	@Test
+	void authorizationCodeWithoutScopeGetsTheClientsScope() {
+		AuthorizationRequest auth = new AuthorizationRequest();
+		auth.setResponseType("code");
+		auth.setClientId("reader");
+		auth.setRedirectUri(REDIRECT);
+		auth.setUsername("ann@example.com");
+		auth.setPassword("Passw0rd!");
+		String code = new OAuthAuthorizationService(basicAuth, clients, codes).authorize(auth).code();
+
+		OAuthTokenRequest req = request("authorization_code");
+		req.setCode(code);
+		req.setRedirectUri(REDIRECT);
+		AuthenticatedPrincipal p = principal(service.token(req));
+		assertEquals(Set.of("todos:read"), p.scopes());
+		assertFalse(p.hasScope("todos:write"));
+	}
+}
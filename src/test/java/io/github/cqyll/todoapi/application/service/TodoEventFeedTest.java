@@ -0,0 +1,144 @@
+package io.github.cqyll.todoapi.application.service;
+
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryTodoAdapter;
+import io.github.cqyll.todoapi.application.port.inbound.TodoEventsUseCase.Subscription;
+import io.github.cqyll.todoapi.domain.Todo;
+import io.github.cqyll.todoapi.dto.TodoEvent;
+import io.github.cqyll.todoapi.dto.TodoEvent.Type;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TodoEventFeed} behind a {@link TodoService}: every subscriber of an owner sees the owner's writes in
+ * order, a subscriber resumes from a listing's version, one that has missed events is told to resync instead of
+ * holding writers up, the oldest of too many subscribers is closed, and owners nobody follows cost nothing.
+ */
+public class TodoEventFeedTest {
+
+	private static final UUID ALICE = UUID.fromString("3f2b8a8e-0d1c-4f57-9a5e-6a3c1f0e9b21");
+	private static final UUID BOB = UUID.fromString("7c9e6679-7425-40de-944b-e07fc1f90ae7");
+
+	private final AtomicLong nanos = new AtomicLong();
+	private final TodoEventFeed feed = new TodoEventFeed(4, 2, TimeUnit.SECONDS.toNanos(60), nanos::get);
+	private final TodoService todos = new TodoService(new InMemoryTodoAdapter(true, feed), Clock.systemUTC(), feed);
+
+	@Test
+	void everySubscriberSeesTheOwnersWritesInOrder() throws Exception {
+		try (Subscription first = todos.subscribe(ALICE, null); Subscription second = todos.subscribe(ALICE, null)) {
+			Todo milk = todos.create(ALICE, "Buy milk", false, null);
+			todos.create(BOB, "Not Alice's", false, null);
+			todos.update(ALICE, milk.getId(), null, true, null);
+			todos.delete(ALICE, milk.getId());
+
+			for (Subscription s : List.of(first, second)) {
+				List<TodoEvent> events = s.next(1, TimeUnit.SECONDS);
+				assertEquals(List.of(Type.CREATED, Type.UPDATED, Type.DELETED), events.stream().map(TodoEvent::type).toList());
+				assertTrue(events.get(1).todo().isCompleted());
+				assertEquals(events.get(0).id() + 1, events.get(1).id());
+				assertEquals(todos.version(ALICE), events.get(2).id());
+				assertEquals(List.of(), s.next(0, TimeUnit.SECONDS));
+			}
+		}
+	}
+
+	@Test
+	void waitsForTheNextWrite() throws Exception {
+		try (Subscription s = todos.subscribe(ALICE, null)) {
+			Thread writer = Thread.ofVirtual().start(() -> {
+				try {
+					Thread.sleep(50);
+				} catch (InterruptedException e) {
+					return;
+				}
+				todos.create(ALICE, "Buy milk", false, null);
+			});
+			List<TodoEvent> events = s.next(5, TimeUnit.SECONDS);
+			assertEquals(1, events.size());
+			assertEquals("Buy milk", events.get(0).todo().getTitle());
+			writer.join();
+		}
+	}
+
+	@Test
+	void resumesFromAListingsVersionOrResyncs() throws Exception {
+		todos.create(ALICE, "Before", false, null);
+		try (Subscription watching = todos.subscribe(ALICE, null)) {
+			long listed = todos.version(ALICE);
+			todos.create(ALICE, "After", false, null);
+
+			try (Subscription resumed = todos.subscribe(ALICE, listed)) {
+				assertEquals(List.of("After"), resumed.next(0, TimeUnit.SECONDS).stream().map(e -> e.todo().getTitle()).toList());
+			}
+			// from before the feed remembers, and from a version it never reached
+			for (long from : new long[] {listed - 1, listed + 100}) {
+				try (Subscription s = todos.subscribe(ALICE, from)) {
+					assertEquals(List.of(TodoEvent.resync(todos.version(ALICE))), s.next(0, TimeUnit.SECONDS));
+					todos.create(ALICE, "Later", false, null);
+					assertEquals(Type.CREATED, s.next(0, TimeUnit.SECONDS).get(0).type());
+				}
+			}
+			assertEquals(3, watching.next(0, TimeUnit.SECONDS).size());
+		}
+	}
+
+	/** Writers never wait for a subscriber; one that falls further behind than the ring holds resyncs. */
+	@Test
+	void subscriberThatFallsBehindResyncs() throws Exception {
+		try (Subscription slow = todos.subscribe(ALICE, null)) {
+			for (int i = 0; i < 10; i++) {
+				todos.create(ALICE, "todo " + i, false, null);
+			}
+			assertEquals(List.of(TodoEvent.resync(todos.version(ALICE))), slow.next(0, TimeUnit.SECONDS));
+			todos.create(ALICE, "caught up", false, null);
+			assertEquals("caught up", slow.next(0, TimeUnit.SECONDS).get(0).todo().getTitle());
+		}
+	}
+
+	/** An owner with no todos yet reports version 0, and their first write starts a fresh count. */
+	@Test
+	void firstWriteOfANewOwnerIsNotAMissedChange() throws Exception {
+		try (Subscription s = todos.subscribe(ALICE, 0L)) {
+			todos.create(ALICE, "First", false, null);
+			assertEquals(Type.CREATED, s.next(0, TimeUnit.SECONDS).get(0).type());
+		}
+	}
+
+	@Test
+	void tooManySubscribersCloseTheOldest() throws Exception {
+		Subscription oldest = todos.subscribe(ALICE, null);
+		try (Subscription a = todos.subscribe(ALICE, null); Subscription b = todos.subscribe(ALICE, null)) {
+			assertNull(oldest.next(1, TimeUnit.SECONDS));
+			todos.create(ALICE, "Buy milk", false, null);
+			assertEquals(1, a.next(0, TimeUnit.SECONDS).size());
+			assertEquals(1, b.next(0, TimeUnit.SECONDS).size());
+		}
+		oldest.close();
+	}
+
+	@Test
+	void followsOnlyOwnersWithSubscribersAndForgetsThemLater() throws Exception {
+		todos.create(BOB, "Nobody is watching", false, null);
+		assertEquals(0, feed.channels());
+
+		todos.create(ALICE, "Before", false, null);
+		Subscription s = todos.subscribe(ALICE, null);
+		s.close();
+		// a client reconnecting within the window resumes
+		long last = todos.version(ALICE);
+		todos.create(ALICE, "While away", false, null);
+		try (Subscription back = todos.subscribe(ALICE, last)) {
+			assertEquals(Type.CREATED, back.next(0, TimeUnit.SECONDS).get(0).type());
+		}
+
+		nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+		todos.create(ALICE, "Long gone", false, null);
+		assertEquals(0, feed.channels());
+	}
+}
@@ -0,0 +1,59 @@
+package io.github.cqyll.todoapi.bench;
+
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryAuthorizationCodeAdapter;
+import io.github.cqyll.todoapi.application.port.outbound.AuthorizationCodeStorePort.Grant;
+
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * {@link InMemoryAuthorizationCodeAdapter}: issue-then-redeem round trips, the store's share of one browser login,
+ * single-threaded (ns/op, B/op) and then throughput with many threads logging in at once.
+ *
+ * <p>Plain {@code main} program (no JMH), not picked up by surefire. Arguments: {@code [threads=1,4,16,64]}.</p>
+ */
+public class AuthorizationCodeBench {
+
+	private static final Grant GRANT = new Grant(UUID.randomUUID(), "todo-web", "http://localhost/callback",
+			"todos", "E9Melhoa2OwvFrEMTJguCHaoeK1t8URWbuGJSstw-cM");
+
+	public static void main(String[] args) throws Exception {
+		InMemoryAuthorizationCodeAdapter store = new InMemoryAuthorizationCodeAdapter();
+		BenchSupport.measure("issue + consume", 200_000, 1_000_000,
+				i -> BenchSupport.blackhole = store.consume(store.issue(GRANT)));
+
+		String spec = args.length > 0 ? args[0] : "1,4,16,64";
+		for (String t : spec.split(",")) {
+			concurrent(store, Integer.parseInt(t.trim()));
+		}
+	}
+
+	private static void concurrent(InMemoryAuthorizationCodeAdapter store, int threads) throws Exception {
+		int perThread = 2_000_000 / threads;
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			workers[t] = Thread.ofPlatform().start(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < perThread; i++) {
+					if (store.consume(store.issue(GRANT)).isEmpty()) {
+						throw new IllegalStateException("code lost");
+					}
+				}
+			});
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread w : workers) {
+			w.join();
+		}
+		long elapsed = System.nanoTime() - begin;
+		System.out.printf(Locale.ROOT, "issue + consume %2d threads %8.2f k/s (%d codes left)%n", threads,
+				(long) perThread * threads / (elapsed / 1e6), store.size());
+	}
+}
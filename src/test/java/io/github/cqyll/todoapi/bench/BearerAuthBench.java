@@ -0,0 +1,62 @@
+package io.github.cqyll.todoapi.bench;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpHandler;
+import io.github.cqyll.todoapi.adapter.inbound.web.BearerAuthFilter;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.CompactUserAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.security.HmacTokenProviderAdapter;
+import io.github.cqyll.todoapi.application.service.BearerAuthenticationService;
+import io.github.cqyll.todoapi.domain.Password;
+import io.github.cqyll.todoapi.domain.User;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Cost of authenticating a request on a protected context: {@link BearerAuthenticationService} with the cache
+ * disabled (signature check and user lookup every time) against a warm cache, for a working set of hot tokens
+ * that fits the cache; then the same through {@link BearerAuthFilter}, header parsing included.
+ *
+ * <p>Plain {@code main} program (no JMH), not picked up by surefire. Arguments: {@code [hotTokens=1000]}.</p>
+ */
+public class BearerAuthBench {
+
+	private static long sink;
+
+	public static void main(String[] args) throws Exception {
+		int hot = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+		int warmup = 500_000;
+		int iterations = 3_000_000;
+
+		CompactUserAdapter users = new CompactUserAdapter();
+		HmacTokenProviderAdapter provider = new HmacTokenProviderAdapter(HmacTokenProviderAdapter.randomSecret(), 3600);
+		String[] tokens = new String[hot];
+		for (int i = 0; i < hot; i++) {
+			User u = User.createWithPassword("user" + i + "@example.com", "User " + i, Password.fromHash("0".repeat(64)));
+			users.save(u);
+			tokens[i] = provider.createToken(u.getId(), "todos:read todos:write");
+		}
+
+		BearerAuthenticationService uncached = new BearerAuthenticationService(provider, users, 0, 30);
+		BearerAuthenticationService cached = new BearerAuthenticationService(provider, users);
+		BenchSupport.measure("authenticate, uncached", warmup, iterations,
+				i -> sink += uncached.authenticate(tokens[i % hot]).isPresent() ? 1 : 0);
+		BenchSupport.measure("authenticate, cached", warmup, iterations,
+				i -> sink += cached.authenticate(tokens[i % hot]).isPresent() ? 1 : 0);
+
+		// a Chain is single use: it walks its filters with an iterator
+		List<Filter> filters = List.of(new BearerAuthFilter(cached));
+		HttpHandler handler = ex -> sink++;
+		NullExchange[] exchanges = new NullExchange[hot];
+		for (int i = 0; i < hot; i++) {
+			exchanges[i] = new NullExchange("GET", "/todos");
+			exchanges[i].getRequestHeaders().set("Authorization", "Bearer " + tokens[i]);
+		}
+		BenchSupport.measure("BearerAuthFilter, cached", warmup, iterations,
+				i -> new Filter.Chain(filters, handler).doFilter(exchanges[i % hot]));
+
+		BearerAuthenticationService.Stats s = cached.getStats();
+		System.out.printf(Locale.ROOT, "cache: %d hits, %d misses, hit rate %.4f, %.1f ns/auth%n",
+				s.hits(), s.misses(), s.hitRate(), s.averageNanos());
+	}
+}
@@ -0,0 +1,54 @@
+package io.github.cqyll.todoapi.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Shared helpers for the micro-benchmarks in this package.
+ *
+ * <p>The benchmarks are plain {@code main} programs rather than JMH, so they run from the test classpath without
+ * extra build plugins. They are not picked up by surefire (no {@code *Test} suffix). Run one with:</p>
+ *
+ * <pre>{@code
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) io.github.cqyll.todoapi.bench.FormParserBench
+ * }</pre>
+ *
+ * <p>Numbers are indicative only: each measurement runs after a warm-up pass, on one JVM, without forking.</p>
+ */
+final class BenchSupport {
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private BenchSupport() {
+	}
+
+	/**
+	 * Runs {@code op} for {@code warmup} then {@code iterations} calls on the current thread and prints
+	 * nanoseconds and bytes allocated per call.
+	 */
+	static void measure(String name, int warmup, int iterations, Op op) throws Exception {
+		for (int i = 0; i < warmup; i++) {
+			op.run(i);
+		}
+		long tid = Thread.currentThread().threadId();
+		long allocBefore = THREADS.getThreadAllocatedBytes(tid);
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			op.run(i);
+		}
+		long elapsed = System.nanoTime() - start;
+		long allocated = THREADS.getThreadAllocatedBytes(tid) - allocBefore;
+		System.out.printf(Locale.ROOT, "%-40s %10.1f ns/op %10.1f B/op%n",
+				name, (double) elapsed / iterations, (double) allocated / iterations);
+	}
+
+	@FunctionalInterface
+	interface Op {
+		void run(int i) throws Exception;
+	}
+
+	/** Sink that keeps the JIT from eliminating benchmarked work. */
+	static volatile Object blackhole;
+}
@@ -0,0 +1,79 @@
+package io.github.cqyll.todoapi.bench;
+
+import com.sun.net.httpserver.Filter;
+import io.github.cqyll.todoapi.adapter.inbound.web.BearerAuthFilter;
+import io.github.cqyll.todoapi.adapter.inbound.web.CompressionFilter;
+import io.github.cqyll.todoapi.adapter.inbound.web.TodoController;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryTodoAdapter;
+import io.github.cqyll.todoapi.application.service.TodoService;
+import io.github.cqyll.todoapi.dto.AuthenticatedPrincipal;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+/**
+ * {@code GET /todos} for an owner of 1,000 todos through {@link CompressionFilter}: identity, gzip and deflate,
+ * with the size on the wire. Then the raw cost of deflating that listing at a few zlib levels, and of a fresh
+ * {@link Deflater} per response against one reset and reused. No socket.
+ *
+ * <p>Plain {@code main} program (no JMH), not picked up by surefire.</p>
+ */
+public class CompressionBench {
+
+	public static void main(String[] args) throws Exception {
+		TodoService service = new TodoService(new InMemoryTodoAdapter());
+		TodoController controller = new TodoController(service, service, service);
+		UUID owner = UUID.randomUUID();
+		for (int i = 0; i < 1_000; i++) {
+			service.create(owner, "todo number " + i, i % 3 == 0, null);
+		}
+		CompressionFilter filter = new CompressionFilter();
+
+		for (String coding : new String[] {null, "gzip", "deflate"}) {
+			NullExchange ex = new NullExchange("GET", "/todos").context("/todos");
+			ex.setAttribute(BearerAuthFilter.PRINCIPAL_ATTRIBUTE, new AuthenticatedPrincipal(owner, null));
+			if (coding != null) {
+				ex.getRequestHeaders().set("Accept-Encoding", coding);
+			}
+			Filter.Chain chain = new Filter.Chain(List.of(filter), controller);
+			chain.doFilter(ex);
+			long wire = ex.bytesWritten();
+			BenchSupport.measure(String.format(Locale.ROOT, "list 1,000 todos, %s (%,d bytes)",
+					coding == null ? "identity" : coding, wire), 2_000, 10_000, i -> chain.doFilter(ex.reset()));
+		}
+
+		NullExchange ex = new NullExchange("GET", "/todos").context("/todos");
+		ex.setAttribute(BearerAuthFilter.PRINCIPAL_ATTRIBUTE, new AuthenticatedPrincipal(owner, null));
+		ByteArrayOutputStream capture = new ByteArrayOutputStream();
+		ex.setStreams(null, capture);
+		controller.handle(ex);
+		byte[] json = capture.toByteArray();
+		byte[] out = new byte[json.length];
+
+		for (int level : new int[] {Deflater.BEST_SPEED, 3, Deflater.DEFAULT_COMPRESSION}) {
+			Deflater reused = new Deflater(level, true);
+			int size = deflate(reused, json, out);
+			BenchSupport.measure(String.format(Locale.ROOT, "deflate %,d bytes at level %d (%,d bytes)",
+					json.length, level, size), 2_000, 10_000, i -> deflate(reused, json, out));
+		}
+		BenchSupport.measure("deflate, new Deflater per response", 2_000, 10_000, i -> {
+			Deflater d = new Deflater(CompressionFilter.LEVEL, true);
+			deflate(d, json, out);
+			d.end();
+		});
+	}
+
+	private static int deflate(Deflater d, byte[] in, byte[] out) {
+		d.reset();
+		d.setInput(in);
+		d.finish();
+		int n = 0;
+		while (!d.finished()) {
+			n += d.deflate(out, n, out.length - n);
+		}
+		return n;
+	}
+}
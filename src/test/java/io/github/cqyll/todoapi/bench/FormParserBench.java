@@ -0,0 +1,49 @@
+package io.github.cqyll.todoapi.bench;
+
+import io.github.cqyll.todoapi.adapter.inbound.web.FormParser;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link FormParser} against the previous {@code OAuthTokenController.parseForm}
+ * (body string, {@code split}, {@code URLDecoder}) on typical token request bodies.
+ */
+public class FormParserBench {
+
+	private static final byte[] PLAIN = ("grant_type=password&username=john.doe.example&password=correcthorse"
+			+ "&client_id=todo-web&client_secret=todo-secret&scope=todos").getBytes(StandardCharsets.UTF_8);
+	private static final byte[] ENCODED = ("grant_type=password&username=john.doe%40example.com"
+			+ "&password=p%40ss+w%3Drd%26123&client_id=todo-web&client_secret=todo-secret&scope=todos+profile")
+			.getBytes(StandardCharsets.UTF_8);
+
+	public static void main(String[] args) throws Exception {
+		int warmup = 200_000;
+		int iterations = 2_000_000;
+		BenchSupport.measure("legacy split/URLDecoder (plain)", warmup, iterations,
+				i -> BenchSupport.blackhole = legacyParse(new String(PLAIN, StandardCharsets.UTF_8)));
+		BenchSupport.measure("FormParser (plain)", warmup, iterations,
+				i -> BenchSupport.blackhole = FormParser.parse(PLAIN, 0, PLAIN.length));
+		BenchSupport.measure("legacy split/URLDecoder (encoded)", warmup, iterations,
+				i -> BenchSupport.blackhole = legacyParse(new String(ENCODED, StandardCharsets.UTF_8)));
+		BenchSupport.measure("FormParser (encoded)", warmup, iterations,
+				i -> BenchSupport.blackhole = FormParser.parse(ENCODED, 0, ENCODED.length));
+	}
+
+	private static Map<String, String> legacyParse(String body) {
+		Map<String, String> params = new HashMap<>();
+		if (body == null || body.isBlank()) return params;
+
+		for (String pair : body.split("&")) {
+			String[] kv = pair.split("=", 2);
+			if (kv.length == 2) {
+				String k = URLDecoder.decode(kv[0], StandardCharsets.UTF_8);
+				String v = URLDecoder.decode(kv[1], StandardCharsets.UTF_8);
+				params.put(k, v);
+			}
+		}
+		return params;
+	}
+}
@@ -0,0 +1,122 @@
+package io.github.cqyll.todoapi.bench;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.github.cqyll.todoapi.adapter.inbound.nio.NioHttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Requests/sec of the JDK {@link HttpServer} against {@link NioHttpServer} on a tiny JSON endpoint, so the numbers
+ * reflect connection and framing overhead rather than application work.
+ *
+ * <p>Each client thread holds one keep-alive connection and keeps {@code depth} requests in flight
+ * (depth 1 = no pipelining). Both servers run handlers on virtual threads.</p>
+ *
+ * <p>Plain {@code main} program (no JMH), not picked up by surefire. Arguments:
+ * {@code [clients=32] [seconds=5] [depth=1]}.</p>
+ */
+public class HttpServerBench {
+
+	private static final byte[] BODY = "{\"token\":\"abc\"}".getBytes(StandardCharsets.UTF_8);
+
+	public static void main(String[] args) throws Exception {
+		int clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int depth = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+		for (int round = 0; round < 2; round++) { // first round is warm-up
+			run("jdk", HttpServer.create(new InetSocketAddress("localhost", 0), 1024), clients, seconds, depth, round > 0);
+			run("nio", NioHttpServer.create(new InetSocketAddress("localhost", 0), 1024), clients, seconds, depth, round > 0);
+		}
+	}
+
+	private static void run(String name, HttpServer server, int clients, int seconds, int depth, boolean report)
+			throws Exception {
+		HttpHandler handler = ex -> {
+			ex.getRequestBody().readAllBytes();
+			ex.getResponseHeaders().set("Content-Type", "application/json");
+			ex.sendResponseHeaders(200, BODY.length);
+			try (OutputStream os = ex.getResponseBody()) {
+				os.write(BODY);
+			}
+		};
+		server.createContext("/bench", handler);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.start();
+		int port = server.getAddress().getPort();
+
+		AtomicBoolean stop = new AtomicBoolean();
+		LongAdder completed = new LongAdder();
+		List<Thread> threads = new ArrayList<>();
+		byte[] request = ("GET /bench HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+		for (int i = 0; i < clients; i++) {
+			threads.add(Thread.ofPlatform().start(() -> {
+				try (Socket s = new Socket("localhost", port)) {
+					s.setTcpNoDelay(true);
+					OutputStream out = s.getOutputStream();
+					InputStream in = s.getInputStream();
+					while (!stop.get()) {
+						for (int d = 0; d < depth; d++) {
+							out.write(request);
+						}
+						out.flush();
+						for (int d = 0; d < depth; d++) {
+							readResponse(in);
+							completed.increment();
+						}
+					}
+				} catch (IOException e) {
+					if (!stop.get()) {
+						System.err.println(name + ": " + e);
+					}
+				}
+			}));
+		}
+		Thread.sleep(seconds * 1000L);
+		stop.set(true);
+		for (Thread t : threads) {
+			t.join();
+		}
+		server.stop(0);
+		if (report) {
+			System.out.printf(Locale.ROOT, "%-4s clients=%d depth=%d  %,12.0f req/s%n",
+					name, clients, depth, completed.sum() / (double) seconds);
+		}
+	}
+
+	private static void readResponse(InputStream in) throws IOException {
+		int contentLength = 0;
+		StringBuilder line = new StringBuilder();
+		while (true) {
+			int c = in.read();
+			if (c < 0) {
+				throw new IOException("connection closed");
+			}
+			if (c == '\n') {
+				if (line.length() == 0) {
+					break;
+				}
+				String l = line.toString().toLowerCase(Locale.ROOT);
+				if (l.startsWith("content-length:")) {
+					contentLength = Integer.parseInt(l.substring(15).trim());
+				}
+				line.setLength(0);
+			} else if (c != '\r') {
+				line.append((char) c);
+			}
+		}
+		in.readNBytes(contentLength);
+	}
+}
@@ -0,0 +1,44 @@
+package io.github.cqyll.todoapi.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.cqyll.todoapi.adapter.inbound.web.JsonCodec;
+import io.github.cqyll.todoapi.dto.BasicAuthRequest;
+import io.github.cqyll.todoapi.dto.RegisterRequest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request body decoding: the controllers' previous {@code ObjectMapper.readValue}, a cached {@link ObjectReader},
+ * and the {@link JsonCodec} streaming decoders.
+ */
+public class JsonCodecBench {
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final ObjectReader REGISTER_READER = MAPPER.readerFor(RegisterRequest.class);
+	private static final ObjectReader LOGIN_READER = MAPPER.readerFor(BasicAuthRequest.class);
+
+	private static final byte[] REGISTER = "{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\",\"password\":\"correct horse battery\"}"
+			.getBytes(StandardCharsets.UTF_8);
+	private static final byte[] LOGIN = "{\"email\":\"john.doe@example.com\",\"password\":\"correct horse battery\"}"
+			.getBytes(StandardCharsets.UTF_8);
+
+	public static void main(String[] args) throws Exception {
+		int warmup = 200_000;
+		int iterations = 2_000_000;
+
+		BenchSupport.measure("ObjectMapper.readValue (register)", warmup, iterations,
+				i -> BenchSupport.blackhole = MAPPER.readValue(new ByteArrayInputStream(REGISTER), RegisterRequest.class));
+		BenchSupport.measure("ObjectReader (register)", warmup, iterations,
+				i -> BenchSupport.blackhole = REGISTER_READER.readValue(new ByteArrayInputStream(REGISTER)));
+		BenchSupport.measure("JsonCodec (register)", warmup, iterations,
+				i -> BenchSupport.blackhole = JsonCodec.readRegisterRequest(new ByteArrayInputStream(REGISTER)));
+
+		BenchSupport.measure("ObjectMapper.readValue (login)", warmup, iterations,
+				i -> BenchSupport.blackhole = MAPPER.readValue(new ByteArrayInputStream(LOGIN), BasicAuthRequest.class));
+		BenchSupport.measure("ObjectReader (login)", warmup, iterations,
+				i -> BenchSupport.blackhole = LOGIN_READER.readValue(new ByteArrayInputStream(LOGIN)));
+		BenchSupport.measure("JsonCodec (login)", warmup, iterations,
+				i -> BenchSupport.blackhole = JsonCodec.readBasicAuthRequest(new ByteArrayInputStream(LOGIN)));
+	}
+}
@@ -0,0 +1,62 @@
+package io.github.cqyll.todoapi.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.cqyll.todoapi.adapter.inbound.web.JsonResponseWriter;
+import io.github.cqyll.todoapi.adapter.inbound.web.OAuthError;
+import io.github.cqyll.todoapi.dto.TokenResponse;
+
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token endpoint response writing: {@link JsonResponseWriter} against the previous
+ * {@code Map} + {@code ObjectMapper.writeValueAsBytes} path, both writing into a {@link NullExchange}.
+ */
+public class JsonResponseBench {
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final String TOKEN = "TOKEN-3f2b8a8e-0d1c-4f57-9a5e-6a3c1f0e9b21";
+
+	public static void main(String[] args) throws Exception {
+		int warmup = 200_000;
+		int iterations = 2_000_000;
+		NullExchange ex = new NullExchange("POST", "/oauth/token");
+		TokenResponse token = TokenResponse.bearer(TOKEN, 3600);
+		OAuthError error = OAuthError.invalidGrant("invalid resource owner credentials");
+
+		// what every variant pays for the exchange itself (Headers.set, fresh request stream)
+		BenchSupport.measure("baseline (headers only)", warmup, iterations, i -> {
+			ex.reset();
+			ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		});
+		BenchSupport.measure("legacy Map + ObjectMapper (token)", warmup, iterations, i -> {
+			ex.reset();
+			legacyWrite(ex, 200, Map.of("access_token", token.accessToken(), "token_type", "Bearer",
+					"expires_in", 3600));
+		});
+		BenchSupport.measure("JsonResponseWriter (token)", warmup, iterations, i -> {
+			ex.reset();
+			JsonResponseWriter.writeTokenResponse(ex, token);
+		});
+		BenchSupport.measure("legacy HashMap + ObjectMapper (error)", warmup, iterations, i -> {
+			ex.reset();
+			Map<String, Object> body = new HashMap<>();
+			body.put("error", error.getError());
+			body.put("error_description", error.getDescription());
+			legacyWrite(ex, error.getHttpStatus(), body);
+		});
+		BenchSupport.measure("JsonResponseWriter (error)", warmup, iterations, i -> {
+			ex.reset();
+			JsonResponseWriter.writeOAuthError(ex, error);
+		});
+	}
+
+	private static void legacyWrite(NullExchange ex, int status, Object body) throws Exception {
+		byte[] bytes = MAPPER.writeValueAsBytes(body);
+		ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		ex.sendResponseHeaders(status, bytes.length);
+		try (OutputStream os = ex.getResponseBody()) {
+			os.write(bytes);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package io.github.cqyll.todoapi.bench;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.cqyll.todoapi.config.AppConfig;
+import io.github.cqyll.todoapi.config.AppSettings;
+import io.github.cqyll.todoapi.config.ExecutionMode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Login flood against the real wiring: {@code clients} threads post valid {@code /login} requests back to back
+ * while one probe thread times a request that needs no hashing ({@code /oauth/token} with a wrong client secret).
+ *
+ * <p>Compares hashing inline on the request thread with hashing on the dedicated pool, under both execution
+ * modes. Clients that get 503 wait the second {@code Retry-After} asks for. Reports completed and refused
+ * logins/s and the probe's p50/p99 latency: the probe shows whether the flood starves everything else of
+ * request threads.</p>
+ *
+ * <p>Plain {@code main} program (no JMH), not picked up by surefire. Arguments:
+ * {@code [clients=64] [seconds=10] [iterations=600000]}.</p>
+ */
+public class LoginFloodBench {
+
+	public static void main(String[] args) throws Exception {
+		int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 600_000;
+		int cores = Runtime.getRuntime().availableProcessors();
+
+		System.out.printf(Locale.ROOT, "%d cores, %d clients, %d iterations%n", cores, clients, iterations);
+		for (ExecutionMode mode : new ExecutionMode[] {ExecutionMode.PLATFORM_POOL, ExecutionMode.VIRTUAL_THREADS}) {
+			run(mode, "inline", 0, iterations, clients, seconds);
+			run(mode, "pool", cores, iterations, clients, seconds);
+		}
+	}
+
+	private static void run(ExecutionMode mode, String label, int hashingThreads, int iterations, int clients,
+			int seconds) throws Exception {
+		AppSettings settings = new AppSettings();
+		settings.setPort(0);
+		settings.setExecutionMode(mode);
+		settings.setAdmissionControl(false); // measure the hasher's own back-pressure, not the limiter's
+		settings.setLoginThrottling(false); // one client IP and one account: the throttle would refuse nearly all of it
+		settings.setPasswordHashIterations(iterations);
+		settings.setHashingThreads(hashingThreads);
+		AppConfig config = new AppConfig(settings);
+		HttpServer server = config.createHttpServer();
+		server.start();
+		String base = "http://localhost:" + server.getAddress().getPort();
+
+		post(base + "/register", "application/json",
+				"{\"email\":\"flood@example.com\",\"name\":\"Flood\",\"password\":\"password123\"}");
+
+		AtomicBoolean stop = new AtomicBoolean();
+		LongAdder ok = new LongAdder();
+		LongAdder busy = new LongAdder();
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < clients; i++) {
+			threads.add(Thread.ofPlatform().daemon(true).start(() -> {
+				while (!stop.get()) {
+					int status = post(base + "/login", "application/json",
+							"{\"email\":\"flood@example.com\",\"password\":\"password123\"}");
+					(status == 200 ? ok : busy).increment();
+					if (status == 503) {
+						pause(1_000); // honour Retry-After, as a well-behaved client would
+					}
+				}
+			}));
+		}
+
+		long[] probe = new long[100_000];
+		AtomicInteger probes = new AtomicInteger();
+		Thread prober = Thread.ofPlatform().daemon(true).start(() -> {
+			while (!stop.get() && probes.get() < probe.length) {
+				long start = System.nanoTime();
+				post(base + "/oauth/token", "application/x-www-form-urlencoded",
+						"grant_type=password&client_id=todo-web&client_secret=wrong&username=a&password=b");
+				probe[probes.getAndIncrement()] = System.nanoTime() - start;
+				pause(10);
+			}
+		});
+
+		pause(seconds * 1_000L);
+		// count only what finished inside the window; stragglers and the last probe complete afterwards
+		long logins = ok.sum();
+		long refused = busy.sum();
+		stop.set(true);
+		prober.join();
+		for (Thread t : threads) {
+			t.join(30_000);
+		}
+		config.close();
+
+		int n = probes.get();
+		Arrays.sort(probe, 0, n);
+		System.out.printf(Locale.ROOT, "%-15s %-6s %8.1f logins/s %8.1f rejected/s   probe p50 %7.1f ms  p99 %7.1f ms%n",
+				mode.name().toLowerCase(Locale.ROOT), label, logins / (double) seconds, refused / (double) seconds,
+				probe[n / 2] / 1e6, probe[(int) (n * 0.99)] / 1e6);
+	}
+
+	private static void pause(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static int post(String url, String contentType, String body) {
+		try {
+			HttpURLConnection c = (HttpURLConnection) URI.create(url).toURL().openConnection();
+			c.setRequestMethod("POST");
+			c.setDoOutput(true);
+			c.setRequestProperty("Content-Type", contentType);
+			try (OutputStream os = c.getOutputStream()) {
+				os.write(body.getBytes(StandardCharsets.UTF_8));
+			}
+			int status = c.getResponseCode();
+			try (InputStream in = status >= 400 ? c.getErrorStream() : c.getInputStream()) {
+				if (in != null) {
+					in.readAllBytes();
+				}
+			}
+			return status;
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+}
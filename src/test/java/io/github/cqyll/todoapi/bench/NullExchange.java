@@ -0,0 +1,216 @@
+package io.github.cqyll.todoapi.bench;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpPrincipal;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process {@link HttpExchange} for benchmarking handlers and writers without a socket: the request body is a
+ * fixed byte array, the response body is discarded (only its length is kept). Attributes are kept, as a filter
+ * in front of the handler would set them; the context only knows its path.
+ */
+final class NullExchange extends HttpExchange {
+	private final String method;
+	private final URI uri;
+	private final Headers requestHeaders = new Headers();
+	private Headers responseHeaders = new Headers();
+	private byte[] requestBody = new byte[0];
+	private InputStream in;
+	private final CountingSink out = new CountingSink();
+	private OutputStream body = out;
+	private int responseCode = -1;
+	private final Map<String, Object> attributes = new HashMap<>();
+	private HttpContext context;
+
+	NullExchange(String method, String path) {
+		this.method = method;
+		this.uri = URI.create(path);
+		reset();
+	}
+
+	NullExchange body(byte[] body) {
+		this.requestBody = body;
+		this.in = new ByteArrayInputStream(body);
+		return this;
+	}
+
+	/** Routes the exchange as if received by the context registered at {@code path}. */
+	NullExchange context(String path) {
+		this.context = new PathContext(path);
+		return this;
+	}
+
+	/** Prepares the exchange for another run of the same request. */
+	NullExchange reset() {
+		responseHeaders.clear();
+		in = new ByteArrayInputStream(requestBody);
+		out.written = 0;
+		responseCode = -1;
+		return this;
+	}
+
+	long bytesWritten() {
+		return out.written;
+	}
+
+	@Override
+	public Headers getRequestHeaders() {
+		return requestHeaders;
+	}
+
+	@Override
+	public Headers getResponseHeaders() {
+		return responseHeaders;
+	}
+
+	@Override
+	public URI getRequestURI() {
+		return uri;
+	}
+
+	@Override
+	public String getRequestMethod() {
+		return method;
+	}
+
+	@Override
+	public HttpContext getHttpContext() {
+		return context;
+	}
+
+	@Override
+	public void close() {
+	}
+
+	@Override
+	public InputStream getRequestBody() {
+		return in;
+	}
+
+	@Override
+	public OutputStream getResponseBody() {
+		return body;
+	}
+
+	@Override
+	public void sendResponseHeaders(int rCode, long responseLength) {
+		responseCode = rCode;
+	}
+
+	@Override
+	public InetSocketAddress getRemoteAddress() {
+		return null;
+	}
+
+	@Override
+	public int getResponseCode() {
+		return responseCode;
+	}
+
+	@Override
+	public InetSocketAddress getLocalAddress() {
+		return null;
+	}
+
+	@Override
+	public String getProtocol() {
+		return "HTTP/1.1";
+	}
+
+	@Override
+	public Object getAttribute(String name) {
+		return attributes.get(name);
+	}
+
+	@Override
+	public void setAttribute(String name, Object value) {
+		attributes.put(name, value);
+	}
+
+	@Override
+	public void setStreams(InputStream i, OutputStream o) {
+		if (o != null) {
+			body = o;
+		}
+	}
+
+	@Override
+	public HttpPrincipal getPrincipal() {
+		return null;
+	}
+
+	private static final class PathContext extends HttpContext {
+		private final String path;
+
+		PathContext(String path) {
+			this.path = path;
+		}
+
+		@Override
+		public String getPath() {
+			return path;
+		}
+
+		@Override
+		public HttpHandler getHandler() {
+			return null;
+		}
+
+		@Override
+		public void setHandler(HttpHandler handler) {
+		}
+
+		@Override
+		public HttpServer getServer() {
+			return null;
+		}
+
+		@Override
+		public Map<String, Object> getAttributes() {
+			return Map.of();
+		}
+
+		@Override
+		public List<Filter> getFilters() {
+			return List.of();
+		}
+
+		@Override
+		public Authenticator setAuthenticator(Authenticator auth) {
+			return null;
+		}
+
+		@Override
+		public Authenticator getAuthenticator() {
+			return null;
+		}
+	}
+
+	private static final class CountingSink extends OutputStream {
+		long written;
+
+		@Override
+		public void write(int b) {
+			written++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			written += len;
+		}
+	}
+}
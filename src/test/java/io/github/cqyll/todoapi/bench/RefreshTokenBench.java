@@ -0,0 +1,55 @@
+package io.github.cqyll.todoapi.bench;
+
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryRefreshTokenAdapter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * {@link InMemoryRefreshTokenAdapter}: {@code issue} and {@code rotate} latency with {@code N} outstanding tokens,
+ * and heap retained per token.
+ *
+ * <p>Plain {@code main} program (no JMH), not picked up by surefire. Arguments: {@code [tokens=1000000]}.</p>
+ */
+public class RefreshTokenBench {
+
+	private static final UUID USER = UUID.fromString("3f2b8a8e-0d1c-4f57-9a5e-6a3c1f0e9b21");
+
+	public static void main(String[] args) throws Exception {
+		int tokens = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+		long heapBefore = usedHeapAfterGc();
+		InMemoryRefreshTokenAdapter store = new InMemoryRefreshTokenAdapter();
+		String[] sample = new String[1_024];
+		for (int i = 0; i < tokens; i++) {
+			String t = store.issue(USER, "todo-web", "todos");
+			if (i < sample.length) {
+				sample[i] = t;
+			}
+		}
+		long heapAfter = usedHeapAfterGc();
+		System.out.printf(Locale.ROOT, "%d tokens, %.0f B retained per token%n",
+				store.size(), (double) (heapAfter - heapBefore) / store.size());
+
+		BenchSupport.measure("issue", 100_000, 500_000,
+				i -> BenchSupport.blackhole = store.issue(USER, "todo-web", "todos"));
+		// every rotation adds a successor, and the redeemed token stays until it expires
+		String[] chains = sample.clone();
+		BenchSupport.measure("rotate", 100_000, 500_000, i -> {
+			int k = i & (chains.length - 1);
+			chains[k] = store.rotate(chains[k], "todo-web").orElseThrow().refreshToken();
+		});
+		BenchSupport.blackhole = store;
+	}
+
+	private static long usedHeapAfterGc() throws InterruptedException {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+}
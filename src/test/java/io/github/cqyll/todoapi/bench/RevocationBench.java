@@ -0,0 +1,53 @@
+package io.github.cqyll.todoapi.bench;
+
+import io.github.cqyll.todoapi.adapter.outbound.security.HmacTokenProviderAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.security.RevocationSet;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * What revocation adds to token validation: {@code validateToken} with nothing revoked, with many revocations that
+ * do not include the token, and for a revoked token; then {@link RevocationSet#contains} on its own.
+ *
+ * <p>Plain {@code main} program (no JMH), not picked up by surefire. Arguments: {@code [revocations=100000]}.</p>
+ */
+public class RevocationBench {
+
+	private static final UUID USER = UUID.fromString("3f2b8a8e-0d1c-4f57-9a5e-6a3c1f0e9b21");
+
+	private static long sink;
+
+	public static void main(String[] args) throws Exception {
+		int revocations = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		int warmup = 500_000;
+		int iterations = 3_000_000;
+
+		HmacTokenProviderAdapter provider = new HmacTokenProviderAdapter(HmacTokenProviderAdapter.randomSecret(), 3600);
+		String token = provider.createToken(USER, "todos");
+		BenchSupport.measure("validateToken, nothing revoked", warmup, iterations,
+				i -> sink += provider.validateToken(token) ? 1 : 0);
+
+		for (int i = 0; i < revocations; i++) {
+			provider.revoke(provider.createToken(USER, "todos"));
+		}
+		BenchSupport.measure("validateToken, " + revocations + " others revoked", warmup, iterations,
+				i -> sink += provider.validateToken(token) ? 1 : 0);
+
+		String revoked = provider.createToken(USER, "todos");
+		provider.revoke(revoked);
+		BenchSupport.measure("validateToken, revoked", warmup, iterations,
+				i -> sink += provider.validateToken(revoked) ? 1 : 0);
+
+		RevocationSet set = new RevocationSet(3600);
+		long expiresAt = System.currentTimeMillis() / 1000 + 1800;
+		SplittableRandom random = new SplittableRandom(1);
+		for (int i = 0; i < revocations; i++) {
+			set.add(random.nextLong(), expiresAt);
+		}
+		long[] probes = random.longs(1 << 16).toArray();
+		BenchSupport.measure("RevocationSet.contains, miss", warmup, iterations,
+				i -> sink += set.contains(probes[i & (probes.length - 1)], expiresAt) ? 1 : 0);
+		System.out.println("sink " + sink);
+	}
+}
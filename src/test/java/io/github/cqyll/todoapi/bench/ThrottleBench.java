@@ -0,0 +1,99 @@
+package io.github.cqyll.todoapi.bench;
+
+import io.github.cqyll.todoapi.adapter.inbound.web.LoginThrottle;
+import io.github.cqyll.todoapi.adapter.inbound.web.TokenBuckets;
+
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-request cost of {@link TokenBuckets} and {@link LoginThrottle}: single-threaded ns/op and allocation for
+ * allowed, refused and first-seen keys, then aggregate throughput with threads racing on one shared key and on
+ * disjoint keys.
+ *
+ * <p>Plain {@code main} program (no JMH), not picked up by surefire. Arguments: {@code [threads=1,4,16]}.</p>
+ */
+public class ThrottleBench {
+
+	private static final int KEYS = 10_000;
+
+	// results are summed here rather than stored in the blackhole, which would box every long
+	private static long sink;
+
+	public static void main(String[] args) throws Exception {
+		String[] keys = new String[KEYS];
+		for (int i = 0; i < KEYS; i++) {
+			keys[i] = "user" + i + "@example.com";
+		}
+		int warmup = 500_000;
+		int iterations = 5_000_000;
+
+		// a burst far beyond what the run consumes, so every call is allowed and every key stays tracked
+		TokenBuckets open = new TokenBuckets(100_000_000, 60_000, 100_000);
+		BenchSupport.measure("allowed, hot key", warmup, iterations, i -> sink += open.tryAcquire("hot"));
+		BenchSupport.measure("allowed, 10k keys", warmup, iterations,
+				i -> sink += open.tryAcquire(keys[i % KEYS]));
+
+		TokenBuckets closed = new TokenBuckets(1, 1, 100_000);
+		BenchSupport.measure("refused, hot key", warmup, iterations,
+				i -> sink += closed.tryAcquire("hot"));
+
+		// a key per call: creation plus the amortised sweeps and, once full, untracked pass-through
+		String[] fresh = new String[iterations];
+		for (int i = 0; i < iterations; i++) {
+			fresh[i] = "fresh-" + i;
+		}
+		TokenBuckets churn = new TokenBuckets(10, 10, 100_000);
+		BenchSupport.measure("first-seen keys (cap 100k)", 0, iterations,
+				i -> sink += churn.tryAcquire(fresh[i]));
+
+		LoginThrottle throttle = new LoginThrottle(open, open, open);
+		BenchSupport.measure("LoginThrottle.check, 3 keys", warmup, iterations,
+				i -> sink += throttle.check("10.0.0.1", keys[i % KEYS], "todo-web"));
+
+		String spec = args.length > 0 ? args[0] : "1,4,16";
+		for (String t : spec.split(",")) {
+			int threads = Integer.parseInt(t.trim());
+			concurrent("shared key", threads, open, (thread, i) -> "hot");
+			concurrent("disjoint keys", threads, open, (thread, i) -> keys[(thread * 997 + i) % KEYS]);
+		}
+	}
+
+	private interface KeyPicker {
+		String key(int thread, int i);
+	}
+
+	private static void concurrent(String name, int threads, TokenBuckets buckets, KeyPicker picker)
+			throws Exception {
+		int perThread = 20_000_000 / threads;
+		LongAdder total = new LongAdder();
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			int thread = t;
+			workers[t] = Thread.ofPlatform().start(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				long local = 0;
+				for (int i = 0; i < perThread; i++) {
+					local += buckets.tryAcquire(picker.key(thread, i));
+				}
+				total.add(local);
+			});
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread w : workers) {
+			w.join();
+		}
+		long elapsed = System.nanoTime() - begin;
+		long ops = (long) perThread * threads;
+		BenchSupport.blackhole = total.sum();
+		System.out.printf(Locale.ROOT, "%-16s %2d threads %10.1f Mops/s %8.1f ns/op (wall / ops)%n",
+				name, threads, ops / (elapsed / 1e3), (double) elapsed / ops);
+	}
+}
@@ -0,0 +1,85 @@
+package io.github.cqyll.todoapi.bench;
+
+import io.github.cqyll.todoapi.adapter.inbound.web.JsonCodec;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryTodoAdapter;
+import io.github.cqyll.todoapi.application.service.TodoService;
+import io.github.cqyll.todoapi.domain.Todo;
+import io.github.cqyll.todoapi.dto.TodoOperation;
+import io.github.cqyll.todoapi.dto.TodoOperationResult;
+import io.github.cqyll.todoapi.dto.TodoRequest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A sync of 100 changes (creates, then an update and a delete of each) applied as 100 separate decodes and
+ * service calls, against one batch body decoded in a single pass and applied under one lock. HTTP and
+ * authentication, which the batch also saves per change, are left out.
+ *
+ * <p>Plain {@code main} program (no JMH), not picked up by surefire.</p>
+ */
+public class TodoBatchBench {
+
+	private static final UUID OWNER = UUID.fromString("3f2b8a8e-0d1c-4f57-9a5e-6a3c1f0e9b21");
+	private static final int CHANGES = 100;
+
+	private static long sink;
+
+	public static void main(String[] args) throws Exception {
+		int warmup = 20_000;
+		int iterations = 100_000;
+		TodoService service = new TodoService(new InMemoryTodoAdapter());
+
+		Todo[] todos = new Todo[CHANGES];
+		for (int i = 0; i < CHANGES; i++) {
+			todos[i] = service.create(OWNER, "todo " + i, false, null);
+		}
+		BenchSupport.measure("100 updates, one by one", warmup / 10, iterations / 10, i -> {
+			for (Todo t : todos) {
+				sink += service.update(OWNER, t.getId(), null, (i & 1) == 0, null).isPresent() ? 1 : 0;
+			}
+		});
+		BenchSupport.measure("100 updates, one batch", warmup / 10, iterations / 10, i -> {
+			Boolean completed = (i & 1) == 0;
+			List<TodoOperation> ops = new ArrayList<>(CHANGES);
+			for (Todo t : todos) {
+				ops.add(TodoOperation.update(t.getId(), null, completed, null));
+			}
+			sink += service.applyAll(OWNER, ops).size();
+		});
+
+		byte[][] single = new byte[CHANGES][];
+		StringBuilder batch = new StringBuilder("[");
+		for (int i = 0; i < CHANGES; i++) {
+			String title = "todo number " + i;
+			single[i] = ("{\"title\":\"" + title + "\",\"completed\":false}").getBytes(StandardCharsets.UTF_8);
+			batch.append(i == 0 ? "" : ",").append("{\"op\":\"create\",\"title\":\"").append(title).append("\"}");
+		}
+		byte[] body = batch.append(']').toString().getBytes(StandardCharsets.UTF_8);
+
+		BenchSupport.measure("100 creates, one by one", warmup / 10, iterations / 10, i -> {
+			for (byte[] b : single) {
+				TodoRequest req = JsonCodec.readTodoRequest(new ByteArrayInputStream(b));
+				Todo t = service.create(OWNER, req.title(), Boolean.TRUE.equals(req.completed()), req.dueAt());
+				sink += service.delete(OWNER, t.getId()) ? 1 : 0;
+			}
+		});
+		BenchSupport.measure("100 creates, one batch", warmup / 10, iterations / 10, i -> {
+			List<TodoOperationResult> results =
+					service.applyAll(OWNER, JsonCodec.readTodoOperations(new ByteArrayInputStream(body)));
+			for (TodoOperationResult r : results) {
+				sink += service.delete(OWNER, r.todo().getId()) ? 1 : 0;
+			}
+		});
+		BenchSupport.measure("decode 100 single bodies", warmup, iterations, i -> {
+			for (byte[] b : single) {
+				sink += JsonCodec.readTodoRequest(new ByteArrayInputStream(b)).title().length();
+			}
+		});
+		BenchSupport.measure("decode batch of 100", warmup, iterations,
+				i -> sink += JsonCodec.readTodoOperations(new ByteArrayInputStream(body)).size());
+	}
+}
@@ -0,0 +1,105 @@
+package io.github.cqyll.todoapi.bench;
+
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryTodoAdapter;
+import io.github.cqyll.todoapi.domain.Todo;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * One owner with {@code N} todos (100,000 by default) and 1,000 others with 100 each, one todo in ten due at a
+ * random minute of the next 30 days. Compares the due-date indexes against what the store offered before them,
+ * listing everything and filtering and sorting it: "due in the next 24 hours" and "overdue" for the heavy owner,
+ * and a reminder sweep of the next hour across every owner. Also times moving a todo's due date, which rekeys it
+ * in both indexes.
+ *
+ * <pre>
+ * java -Xmx2g -cp ... io.github.cqyll.todoapi.bench.TodoDueBench 100000
+ * </pre>
+ *
+ * <p>Plain {@code main} program (no JMH), not picked up by surefire.</p>
+ */
+public class TodoDueBench {
+
+	private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+	private static final int OWNERS = 1_000;
+	private static final int TODOS_PER_OWNER = 100;
+
+	public static void main(String[] args) throws Exception {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		Random random = new Random(42);
+		InMemoryTodoAdapter store = new InMemoryTodoAdapter(false);
+		UUID heavy = UUID.randomUUID();
+		fill(store, heavy, n, random);
+		List<UUID> owners = new ArrayList<>(OWNERS + 1);
+		owners.add(heavy);
+		for (int i = 0; i < OWNERS; i++) {
+			UUID owner = UUID.randomUUID();
+			fill(store, owner, TODOS_PER_OWNER, random);
+			owners.add(owner);
+		}
+
+		Instant day = NOW.plusSeconds(86_400);
+		Instant hour = NOW.plusSeconds(3_600);
+		// overdue: the heavy owner's clock has moved on a week
+		Instant later = NOW.plusSeconds(7 * 86_400);
+		System.out.printf(Locale.ROOT, "next 24h %,d, overdue a week on %,d, next hour store-wide %d%n",
+				store.findDue(heavy, NOW, day).size(), store.findDue(heavy, null, later).size(),
+				sweepIndex(store, NOW, hour));
+
+		BenchSupport.measure("next 24h, filter+sort", 10, 100,
+				i -> BenchSupport.blackhole = filterAndSort(store.findByOwner(heavy), NOW, day));
+		BenchSupport.measure("next 24h, index      ", 1_000, 10_000,
+				i -> BenchSupport.blackhole = store.findDue(heavy, NOW, day));
+		BenchSupport.measure("overdue, filter+sort ", 10, 100,
+				i -> BenchSupport.blackhole = filterAndSort(store.findByOwner(heavy), null, later));
+		BenchSupport.measure("overdue, index       ", 100, 1_000,
+				i -> BenchSupport.blackhole = store.findDue(heavy, null, later));
+		BenchSupport.measure("sweep, every owner   ", 5, 50,
+				i -> BenchSupport.blackhole = sweepScan(store, owners, NOW, hour));
+		BenchSupport.measure("sweep, index         ", 1_000, 10_000,
+				i -> BenchSupport.blackhole = sweepIndex(store, NOW, hour));
+
+		Todo moved = store.findDue(heavy, NOW, day).get(0);
+		BenchSupport.measure("move due date        ", 2_000, 20_000, i -> store.update(heavy, moved.getId(),
+				t -> t.update(null, null, Optional.of(NOW.plusSeconds(60L * (i % 43_200))), NOW)));
+	}
+
+	private static void fill(InMemoryTodoAdapter store, UUID owner, int n, Random random) {
+		for (int i = 0; i < n; i++) {
+			Instant dueAt = random.nextInt(10) == 0 ? NOW.plusSeconds(60L * random.nextInt(30 * 24 * 60)) : null;
+			store.save(Todo.create(owner, "todo number " + i, false, dueAt, NOW.plusMillis(i)));
+		}
+	}
+
+	private static List<Todo> filterAndSort(List<Todo> todos, Instant from, Instant to) {
+		return todos.stream()
+				.filter(t -> t.getDueAt() != null && (from == null || !t.getDueAt().isBefore(from))
+						&& (to == null || t.getDueAt().isBefore(to)))
+				.sorted(Comparator.comparing(Todo::getDueAt))
+				.toList();
+	}
+
+	/** Store-wide sweep off the global index. */
+	private static int sweepIndex(InMemoryTodoAdapter store, Instant from, Instant to) {
+		try (Stream<Todo> due = store.streamDue(from, to)) {
+			return (int) due.count();
+		}
+	}
+
+	/** The same sweep without it: every owner's todos read and filtered. */
+	private static int sweepScan(InMemoryTodoAdapter store, List<UUID> owners, Instant from, Instant to) {
+		int due = 0;
+		for (UUID owner : owners) {
+			due += filterAndSort(store.findByOwner(owner), from, to).size();
+		}
+		return due;
+	}
+}
@@ -0,0 +1,73 @@
+package io.github.cqyll.todoapi.bench;
+
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryTodoAdapter;
+import io.github.cqyll.todoapi.application.port.inbound.TodoEventsUseCase.Subscription;
+import io.github.cqyll.todoapi.application.service.TodoEventFeed;
+import io.github.cqyll.todoapi.application.service.TodoService;
+import io.github.cqyll.todoapi.domain.Todo;
+import io.github.cqyll.todoapi.dto.TodoEvent;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The cost the event feed adds to a write: one owner's todo updated over and over with no feed, with a feed
+ * nobody follows, and with {@code 1}, {@code 8} and {@code N} (32 by default) subscribers draining it on virtual
+ * threads, more than the feed keeps per owner, so the oldest are closed. Subscribers count what they receive and
+ * how often they had to resync, which shows how far they keep up with a writer that never waits for them.
+ *
+ * <pre>
+ * java -Xmx2g -cp ... io.github.cqyll.todoapi.bench.TodoEventBench 32
+ * </pre>
+ *
+ * <p>Plain {@code main} program (no JMH), not picked up by surefire.</p>
+ */
+public class TodoEventBench {
+
+	public static void main(String[] args) throws Exception {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+
+		TodoService plain = new TodoService(new InMemoryTodoAdapter(false), Clock.systemUTC());
+		run("no feed          ", plain, null, 0);
+		for (int subscribers : new int[] {0, 1, 8, n}) {
+			TodoEventFeed feed = new TodoEventFeed();
+			TodoService todos = new TodoService(new InMemoryTodoAdapter(false, feed), Clock.systemUTC(), feed);
+			run(String.format(Locale.ROOT, "%2d subscriber(s) ", subscribers), todos, feed, subscribers);
+		}
+	}
+
+	private static void run(String name, TodoService todos, TodoEventFeed feed, int subscribers) throws Exception {
+		UUID owner = UUID.randomUUID();
+		Todo todo = todos.create(owner, "Buy milk", false, null);
+		AtomicLong received = new AtomicLong();
+		AtomicLong resyncs = new AtomicLong();
+		List<Thread> readers = new ArrayList<>();
+		for (int i = 0; i < subscribers; i++) {
+			Subscription s = todos.subscribe(owner, null);
+			readers.add(Thread.ofVirtual().start(() -> {
+				try (s) {
+					for (List<TodoEvent> batch; (batch = s.next(1, TimeUnit.SECONDS)) != null && !batch.isEmpty(); ) {
+						received.addAndGet(batch.size());
+						resyncs.addAndGet(batch.stream().filter(e -> e.type() == TodoEvent.Type.RESYNC).count());
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+		}
+
+		BenchSupport.measure(name, 20_000, 200_000,
+				i -> BenchSupport.blackhole = todos.update(owner, todo.getId(), null, (i & 1) == 0, null));
+		for (Thread t : readers) {
+			t.join();
+		}
+		if (feed != null) {
+			System.out.printf(Locale.ROOT, "  delivered %,d events, %,d resyncs%n", received.get(), resyncs.get());
+		}
+	}
+}
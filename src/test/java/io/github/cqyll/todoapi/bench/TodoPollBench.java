@@ -0,0 +1,53 @@
+package io.github.cqyll.todoapi.bench;
+
+import io.github.cqyll.todoapi.adapter.inbound.web.BearerAuthFilter;
+import io.github.cqyll.todoapi.adapter.inbound.web.TodoController;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryTodoAdapter;
+import io.github.cqyll.todoapi.application.service.TodoService;
+import io.github.cqyll.todoapi.dto.AuthenticatedPrincipal;
+
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * A client polling {@code GET /todos} through {@link TodoController}: the full listing against the same request
+ * with the {@code If-None-Match} of the current list, for owners of 10, 100 and 1,000 todos. The principal is
+ * attached as the bearer filter would; no socket.
+ *
+ * <p>Plain {@code main} program (no JMH), not picked up by surefire.</p>
+ */
+public class TodoPollBench {
+
+	public static void main(String[] args) throws Exception {
+		TodoService service = new TodoService(new InMemoryTodoAdapter());
+		TodoController controller = new TodoController(service, service, service);
+
+		for (int size : new int[] {10, 100, 1_000}) {
+			UUID owner = UUID.randomUUID();
+			for (int i = 0; i < size; i++) {
+				service.create(owner, "todo number " + i, i % 3 == 0, null);
+			}
+			NullExchange full = exchange(owner);
+			controller.handle(full);
+			String etag = full.getResponseHeaders().getFirst("ETag");
+			NullExchange poll = exchange(owner);
+			poll.getRequestHeaders().set("If-None-Match", etag);
+			controller.handle(poll);
+			if (poll.getResponseCode() != 304) {
+				throw new IllegalStateException("expected 304, got " + poll.getResponseCode());
+			}
+
+			int iterations = 10_000_000 / size;
+			BenchSupport.measure(String.format(Locale.ROOT, "list %,d todos", size), iterations / 5, iterations,
+					i -> controller.handle(full.reset()));
+			BenchSupport.measure(String.format(Locale.ROOT, "poll %,d todos, unchanged", size), 200_000, 1_000_000,
+					i -> controller.handle(poll.reset()));
+		}
+	}
+
+	private static NullExchange exchange(UUID owner) {
+		NullExchange ex = new NullExchange("GET", "/todos").context("/todos");
+		ex.setAttribute(BearerAuthFilter.PRINCIPAL_ATTRIBUTE, new AuthenticatedPrincipal(owner, null));
+		return ex;
+	}
+}
@@ -0,0 +1,113 @@
+package io.github.cqyll.todoapi.bench;
+
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryTodoAdapter;
+import io.github.cqyll.todoapi.domain.Todo;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * One owner with {@code N} todos (100,000 by default) whose titles draw two to six words from a vocabulary of
+ * 5,000 with Zipf-like frequencies, as real titles do. Compares the store with its title index against the same
+ * store without it, which answers by reading every todo: heap retained per todo, load time, the cost of a rename,
+ * and search latency for a rare word, a common one, prefixes typed one letter at a time and multi-word queries.
+ *
+ * <pre>
+ * java -Xmx2g -cp ... io.github.cqyll.todoapi.bench.TodoSearchBench 100000
+ * </pre>
+ *
+ * <p>Plain {@code main} program (no JMH), not picked up by surefire.</p>
+ */
+public class TodoSearchBench {
+
+	private static final int VOCABULARY = 5_000;
+
+	public static void main(String[] args) throws Exception {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		UUID owner = UUID.randomUUID();
+		String[] words = vocabulary();
+		Random random = new Random(42);
+		List<Todo> todos = new ArrayList<>(n);
+		Instant t0 = Instant.parse("2024-01-01T00:00:00Z");
+		for (int i = 0; i < n; i++) {
+			StringBuilder title = new StringBuilder();
+			for (int w = 2 + random.nextInt(5); w > 0; w--) {
+				title.append(words[zipf(random)]).append(w > 1 ? " " : "");
+			}
+			todos.add(Todo.create(owner, title.toString(), false, t0.plusMillis(i)));
+		}
+
+		long base = usedHeapAfterGc();
+		InMemoryTodoAdapter plain = load(new InMemoryTodoAdapter(false), todos, "without index");
+		long plainHeap = usedHeapAfterGc() - base;
+		InMemoryTodoAdapter indexed = load(new InMemoryTodoAdapter(true), todos, "with index");
+		long indexedHeap = usedHeapAfterGc() - base - plainHeap;
+		System.out.printf(Locale.ROOT, "heap without index %,12d B (%.0f B/todo)%n", plainHeap, (double) plainHeap / n);
+		System.out.printf(Locale.ROOT, "heap with index    %,12d B (%.0f B/todo), index %,d B (%.0f B/todo)%n",
+				indexedHeap, (double) indexedHeap / n, indexedHeap - plainHeap, (double) (indexedHeap - plainHeap) / n);
+
+		for (InMemoryTodoAdapter store : new InMemoryTodoAdapter[] {plain, indexed}) {
+			String name = store == plain ? "scan " : "index";
+			Todo renamed = todos.get(n / 2);
+			BenchSupport.measure(name + " rename", 2_000, 20_000, i -> store.update(owner, renamed.getId(),
+					t -> t.update(words[i % VOCABULARY] + " " + words[(i * 7) % VOCABULARY], null, t0)));
+		}
+
+		String rare = words[VOCABULARY - 1];
+		String common = words[0];
+		String[] queries = {rare, common, common.substring(0, 1), common.substring(0, 2), common.substring(0, 3),
+				words[1] + " " + words[2], rare + " " + common, words[3] + " " + words[4].substring(0, 2)};
+		for (String q : queries) {
+			System.out.printf(Locale.ROOT, "%-28s %,7d hits%n", "\"" + q + "\"", indexed.search(owner, q, 100_000).size());
+			for (InMemoryTodoAdapter store : new InMemoryTodoAdapter[] {plain, indexed}) {
+				String name = store == plain ? "  scan" : "  index";
+				int iterations = store == plain ? 20 : 2_000;
+				BenchSupport.measure(name, iterations / 4, iterations,
+						i -> BenchSupport.blackhole = store.search(owner, q, 20));
+			}
+		}
+	}
+
+	private static InMemoryTodoAdapter load(InMemoryTodoAdapter store, List<Todo> todos, String name) {
+		long start = System.nanoTime();
+		for (Todo t : todos) {
+			store.save(t);
+		}
+		System.out.printf(Locale.ROOT, "load %,d todos %-14s %,6d ms%n", todos.size(), name,
+				(System.nanoTime() - start) / 1_000_000);
+		return store;
+	}
+
+	/** Pronounceable made-up words, none a prefix of another's first syllable pattern more than chance allows. */
+	private static String[] vocabulary() {
+		String[] syllables = {"ka", "lo", "mi", "ne", "ru", "sa", "ti", "vo", "ba", "de", "fi", "go", "hu", "ja", "pe", "zo"};
+		Random random = new Random(1);
+		String[] words = new String[VOCABULARY];
+		for (int i = 0; i < VOCABULARY; i++) {
+			StringBuilder w = new StringBuilder();
+			for (int s = 2 + random.nextInt(3); s > 0; s--) {
+				w.append(syllables[random.nextInt(syllables.length)]);
+			}
+			words[i] = w.toString();
+		}
+		return words;
+	}
+
+	/** Index into the vocabulary, word {@code k} about {@code 1/(k+1)} as likely as the first. */
+	private static int zipf(Random random) {
+		return (int) Math.min(VOCABULARY - 1, Math.floor(Math.pow(VOCABULARY + 1, random.nextDouble())) - 1);
+	}
+
+	private static long usedHeapAfterGc() throws InterruptedException {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		Runtime rt = Runtime.getRuntime();
+		return rt.totalMemory() - rt.freeMemory();
+	}
+}
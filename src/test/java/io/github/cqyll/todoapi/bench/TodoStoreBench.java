@@ -0,0 +1,160 @@
+package io.github.cqyll.todoapi.bench;
+
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryTodoAdapter;
+import io.github.cqyll.todoapi.domain.Todo;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link InMemoryTodoAdapter} under a skewed population: most users have a handful of todos, a few percent have
+ * hundreds, and a long tail of heavy users tens of thousands. Single operations first (ns/op, B/op), including a
+ * listing against a flat id-to-todo map that has to scan everyone's todos; then throughput of a mixed workload
+ * with several threads, where requests for single todos pick a todo at random, so heavy users get their share of
+ * the traffic and of the lock contention.
+ *
+ * <p>Plain {@code main} program (no JMH), not picked up by surefire. Arguments:
+ * {@code [users=20000] [threads=1,4,16]}.</p>
+ */
+public class TodoStoreBench {
+
+	private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+	private static long sink;
+
+	public static void main(String[] args) throws Exception {
+		int users = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+		String threadSpec = args.length > 1 ? args[1] : "1,4,16";
+		int warmup = 200_000;
+		int iterations = 1_000_000;
+
+		InMemoryTodoAdapter store = new InMemoryTodoAdapter();
+		ConcurrentHashMap<UUID, Todo> flat = new ConcurrentHashMap<>();
+		SplittableRandom rnd = new SplittableRandom(42);
+		UUID[] owners = new UUID[users];
+		List<Todo> all = new ArrayList<>();
+		UUID light = null;
+		UUID heavy = null;
+		int heaviest = 0;
+		for (int u = 0; u < users; u++) {
+			owners[u] = UUID.randomUUID();
+			int n = todoCount(rnd);
+			for (int i = 0; i < n; i++) {
+				Todo t = Todo.create(owners[u], "todo " + i, i % 3 == 0, T0.plusMillis(i));
+				store.save(t);
+				flat.put(t.getId(), t);
+				all.add(t);
+			}
+			if (light == null && n == 10) {
+				light = owners[u];
+			}
+			if (n > heaviest) {
+				heaviest = n;
+				heavy = owners[u];
+			}
+		}
+		Todo[] todos = all.toArray(new Todo[0]);
+		System.out.printf(Locale.ROOT, "%d users, %d todos, heaviest user %d%n", users, todos.length, heaviest);
+
+		UUID lightOwner = light;
+		UUID heavyOwner = heavy;
+		BenchSupport.measure("findById (random todo)", warmup, iterations, i -> {
+			Todo t = todos[ThreadLocalRandom.current().nextInt(todos.length)];
+			sink += store.findById(t.getOwnerId(), t.getId()).isPresent() ? 1 : 0;
+		});
+		BenchSupport.measure("update (random todo)", warmup, iterations, i -> {
+			Todo t = todos[ThreadLocalRandom.current().nextInt(todos.length)];
+			sink += store.update(t.getOwnerId(), t.getId(), x -> x.update(null, !x.isCompleted(), T0)).isPresent() ? 1 : 0;
+		});
+		BenchSupport.measure("create + delete", warmup, iterations, i -> {
+			Todo t = Todo.create(owners[ThreadLocalRandom.current().nextInt(users)], "new", false, T0);
+			store.save(t);
+			sink += store.delete(t.getOwnerId(), t.getId()) ? 1 : 0;
+		});
+		BenchSupport.measure("findByOwner (10 todos)", warmup, iterations,
+				i -> sink += store.findByOwner(lightOwner).size());
+		BenchSupport.measure("findByOwner (" + heaviest + " todos)", 200, 1_000,
+				i -> sink += store.findByOwner(heavyOwner).size());
+		BenchSupport.measure("flat map scan (10 todos)", 20, 100, i -> {
+			List<Todo> mine = new ArrayList<>();
+			for (Todo t : flat.values()) {
+				if (t.getOwnerId().equals(lightOwner)) {
+					mine.add(t);
+				}
+			}
+			sink += mine.size();
+		});
+
+		for (String t : threadSpec.split(",")) {
+			mixed(store, todos, owners, Integer.parseInt(t.trim()));
+		}
+	}
+
+	/** 94% up to 20 todos, 5.9% 50 to 500, 0.1% 5,000 to 20,000. */
+	private static int todoCount(SplittableRandom rnd) {
+		int p = rnd.nextInt(1000);
+		if (p < 940) {
+			return 1 + rnd.nextInt(20);
+		}
+		if (p < 999) {
+			return 50 + rnd.nextInt(451);
+		}
+		return 5_000 + rnd.nextInt(15_001);
+	}
+
+	/**
+	 * 60% reads and 20% updates of a random todo, 10% listings of a random user, 10% create plus delete for a
+	 * random user.
+	 */
+	private static void mixed(InMemoryTodoAdapter store, Todo[] todos, UUID[] owners, int threads) throws Exception {
+		int perThread = 2_000_000 / threads;
+		LongAdder done = new LongAdder();
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+		for (int w = 0; w < threads; w++) {
+			workers[w] = Thread.ofPlatform().start(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				ThreadLocalRandom r = ThreadLocalRandom.current();
+				long local = 0;
+				for (int i = 0; i < perThread; i++) {
+					int op = r.nextInt(10);
+					Todo t = todos[r.nextInt(todos.length)];
+					if (op < 6) {
+						local += store.findById(t.getOwnerId(), t.getId()).isPresent() ? 1 : 0;
+					} else if (op < 8) {
+						local += store.update(t.getOwnerId(), t.getId(), x -> x.update(null, !x.isCompleted(), T0))
+								.isPresent() ? 1 : 0;
+					} else if (op < 9) {
+						local += store.findByOwner(owners[r.nextInt(owners.length)]).size();
+					} else {
+						Todo n = Todo.create(owners[r.nextInt(owners.length)], "new", false, T0);
+						store.save(n);
+						local += store.delete(n.getOwnerId(), n.getId()) ? 1 : 0;
+					}
+				}
+				done.add(local);
+			});
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread w : workers) {
+			w.join();
+		}
+		long elapsed = System.nanoTime() - begin;
+		sink += done.sum();
+		System.out.printf(Locale.ROOT, "mixed %2d threads %8.2f Mops/s%n", threads,
+				(long) perThread * threads / (elapsed / 1e3));
+	}
+}
@@ -0,0 +1,84 @@
+package io.github.cqyll.todoapi.bench;
+
+import io.github.cqyll.todoapi.adapter.outbound.security.FakeTokenProviderAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.security.HmacTokenProviderAdapter;
+import io.github.cqyll.todoapi.application.port.outbound.TokenProviderPort;
+
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code createToken}/{@code validateToken}/{@code extractUserId} of {@link HmacTokenProviderAdapter} against the
+ * unsigned {@link FakeTokenProviderAdapter}, single-threaded (ns/op, B/op) and then validation throughput with
+ * several threads sharing the Mac pool.
+ *
+ * <p>Plain {@code main} program (no JMH), not picked up by surefire. Arguments: {@code [threads=1,4,16]}.</p>
+ */
+public class TokenProviderBench {
+
+	private static final UUID USER = UUID.fromString("3f2b8a8e-0d1c-4f57-9a5e-6a3c1f0e9b21");
+
+	private static long sink;
+
+	public static void main(String[] args) throws Exception {
+		int warmup = 500_000;
+		int iterations = 3_000_000;
+
+		HmacTokenProviderAdapter hmac = new HmacTokenProviderAdapter(HmacTokenProviderAdapter.randomSecret(), 3600);
+		FakeTokenProviderAdapter fake = new FakeTokenProviderAdapter();
+		for (TokenProviderPort p : new TokenProviderPort[] {fake, hmac}) {
+			String name = p.getClass().getSimpleName().replace("TokenProviderAdapter", "");
+			String token = p.createToken(USER, "todos");
+			BenchSupport.measure(name + " createToken", warmup, iterations,
+					i -> BenchSupport.blackhole = p.createToken(USER, "todos"));
+			BenchSupport.measure(name + " validateToken", warmup, iterations,
+					i -> sink += p.validateToken(token) ? 1 : 0);
+			BenchSupport.measure(name + " extractUserId", warmup, iterations,
+					i -> BenchSupport.blackhole = p.extractUserId(token));
+		}
+		// one MAC character changed: parsed and hashed in full, rejected by the comparison
+		String valid = hmac.createToken(USER, "todos");
+		int at = valid.length() - 10;
+		String forged = valid.substring(0, at) + (valid.charAt(at) == 'A' ? 'B' : 'A') + valid.substring(at + 1);
+		BenchSupport.measure("Hmac validateToken (forged MAC)", warmup, iterations,
+				i -> sink += hmac.validateToken(forged) ? 1 : 0);
+
+		String spec = args.length > 0 ? args[0] : "1,4,16";
+		String token = hmac.createToken(USER, "todos");
+		for (String t : spec.split(",")) {
+			concurrentValidate(hmac, token, Integer.parseInt(t.trim()));
+		}
+	}
+
+	private static void concurrentValidate(TokenProviderPort p, String token, int threads) throws Exception {
+		int perThread = 10_000_000 / threads;
+		LongAdder valid = new LongAdder();
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			workers[t] = Thread.ofPlatform().start(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				long local = 0;
+				for (int i = 0; i < perThread; i++) {
+					local += p.validateToken(token) ? 1 : 0;
+				}
+				valid.add(local);
+			});
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread w : workers) {
+			w.join();
+		}
+		long elapsed = System.nanoTime() - begin;
+		long ops = (long) perThread * threads;
+		BenchSupport.blackhole = valid.sum();
+		System.out.printf(Locale.ROOT, "validateToken %2d threads %8.2f Mops/s%n", threads, ops / (elapsed / 1e3));
+	}
+}
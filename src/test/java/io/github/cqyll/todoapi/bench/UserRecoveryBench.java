@@ -0,0 +1,106 @@
+package io.github.cqyll.todoapi.bench;
+
+import io.github.cqyll.todoapi.adapter.outbound.persistence.CompactUserAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.FileUserAdapter;
+import io.github.cqyll.todoapi.domain.Password;
+import io.github.cqyll.todoapi.domain.User;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Write throughput and recovery time of {@link FileUserAdapter}.
+ *
+ * <pre>
+ * java -Xmx2g -cp ... io.github.cqyll.todoapi.bench.UserRecoveryBench [users] [concurrent writers] [dir]
+ * </pre>
+ *
+ * <p>Loads {@code users} accounts from many virtual threads (so group commit has something to batch), then
+ * restarts the store twice: once recovering from the log alone, once from a snapshot.</p>
+ */
+public class UserRecoveryBench {
+
+	public static void main(String[] args) throws Exception {
+		int users = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		int writers = args.length > 1 ? Integer.parseInt(args[1]) : 512;
+		Path dir = args.length > 2 ? Path.of(args[2]) : Files.createTempDirectory("user-recovery-bench");
+		try {
+			load(dir, users, writers);
+
+			long start = System.nanoTime();
+			try (FileUserAdapter store = new FileUserAdapter(dir, new CompactUserAdapter(), Long.MAX_VALUE)) {
+				report("recovery, log only", start, users, dir);
+				long snapStart = System.nanoTime();
+				store.snapshot();
+				System.out.printf("snapshot of %,d users: %,d ms%n", users, (System.nanoTime() - snapStart) / 1_000_000);
+			}
+
+			start = System.nanoTime();
+			try (FileUserAdapter store = new FileUserAdapter(dir, new CompactUserAdapter(), Long.MAX_VALUE)) {
+				report("recovery, snapshot", start, users, dir);
+				BenchSupport.blackhole = store;
+			}
+		} finally {
+			if (args.length <= 2) {
+				try (Stream<Path> files = Files.walk(dir)) {
+					files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+				}
+			}
+		}
+	}
+
+	private static void load(Path dir, int users, int writers) throws Exception {
+		AtomicInteger next = new AtomicInteger();
+		long start = System.nanoTime();
+		try (FileUserAdapter store = new FileUserAdapter(dir, new CompactUserAdapter(), Long.MAX_VALUE);
+				ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int w = 0; w < writers; w++) {
+				futures.add(pool.submit(() -> {
+					Random random = new Random();
+					byte[] digest = new byte[32];
+					for (int i = next.getAndIncrement(); i < users; i = next.getAndIncrement()) {
+						random.nextBytes(digest);
+						store.saveIfEmailAbsent(User.createWithPassword("user" + i + "@example.com", "User " + i,
+								Password.fromHash(hex(digest))));
+					}
+					return null;
+				}));
+			}
+			for (Future<?> f : futures) {
+				f.get();
+			}
+			long millis = (System.nanoTime() - start) / 1_000_000;
+			System.out.printf("load: %,d users from %d writers in %,d ms (%,d saves/s), %,d fsyncs, %.1f saves/fsync%n",
+					users, writers, millis, users * 1000L / Math.max(1, millis), store.getFlushCount(),
+					(double) store.getFramesWritten() / store.getFlushCount());
+		}
+	}
+
+	private static void report(String what, long start, int users, Path dir) throws Exception {
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		long bytes;
+		try (Stream<Path> files = Files.list(dir)) {
+			bytes = files.mapToLong(p -> p.toFile().length()).sum();
+		}
+		System.out.printf("%s: %,d users in %,d ms (%,d users/s), %,d bytes on disk%n",
+				what, users, millis, users * 1000L / Math.max(1, millis), bytes);
+	}
+
+	private static String hex(byte[] b) {
+		StringBuilder sb = new StringBuilder(b.length * 2);
+		for (byte x : b) {
+			sb.append(Character.forDigit((x >> 4) & 0xF, 16)).append(Character.forDigit(x & 0xF, 16));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,98 @@
+package io.github.cqyll.todoapi.bench;
+
+import io.github.cqyll.todoapi.adapter.outbound.persistence.CompactUserAdapter;
+import io.github.cqyll.todoapi.adapter.outbound.persistence.InMemoryUserAdapter;
+import io.github.cqyll.todoapi.application.port.outbound.UserRepositoryPort;
+import io.github.cqyll.todoapi.domain.Password;
+import io.github.cqyll.todoapi.domain.User;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Memory per user and GC cost of a user store holding {@code N} accounts.
+ *
+ * <p>One store per JVM, so the numbers do not mix:</p>
+ * <pre>
+ * java -Xmx4g -XX:MaxDirectMemorySize=2g -cp ... io.github.cqyll.todoapi.bench.UserStoreMemoryBench in_memory 1000000
+ * java -Xmx4g -XX:MaxDirectMemorySize=2g -cp ... io.github.cqyll.todoapi.bench.UserStoreMemoryBench compact 10000000
+ * </pre>
+ *
+ * <p>Reports heap retained after a full GC, off-heap bytes (compact store only), GC count and time spent while
+ * loading, the pause of a full GC with the store live, and lookup latency.</p>
+ */
+public class UserStoreMemoryBench {
+
+	public static void main(String[] args) throws Exception {
+		String store = args.length > 0 ? args[0] : "compact";
+		int users = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+		long heapBefore = usedHeapAfterGc();
+		long[] gcBefore = gcTotals();
+
+		UserRepositoryPort repo = "compact".equals(store) ? new CompactUserAdapter() : new InMemoryUserAdapter();
+		Random random = new Random(42);
+		byte[] digest = new byte[32];
+		UUID[] sample = new UUID[1_000];
+		long loadStart = System.nanoTime();
+		for (int i = 0; i < users; i++) {
+			random.nextBytes(digest);
+			User u = User.createWithPassword("user" + i + "@example.com", "User " + i, Password.fromHash(hex(digest)));
+			repo.saveIfEmailAbsent(u);
+			if (i % (users / sample.length) == 0 && i / (users / sample.length) < sample.length) {
+				sample[i / (users / sample.length)] = u.getId();
+			}
+		}
+		long loadMillis = (System.nanoTime() - loadStart) / 1_000_000;
+		long[] gcLoad = gcTotals();
+
+		long heapAfter = usedHeapAfterGc();
+		long fullGcStart = System.nanoTime();
+		System.gc();
+		long fullGcMillis = (System.nanoTime() - fullGcStart) / 1_000_000;
+
+		long offHeap = repo instanceof CompactUserAdapter c ? c.offHeapBytes() : 0;
+		long heap = heapAfter - heapBefore;
+		System.out.printf("%s, %,d users, load %,d ms%n", store, users, loadMillis);
+		System.out.printf("  heap     %,14d B  (%.1f B/user)%n", heap, (double) heap / users);
+		System.out.printf("  off-heap %,14d B  (%.1f B/user)%n", offHeap, (double) offHeap / users);
+		System.out.printf("  total                       %.1f B/user%n", (double) (heap + offHeap) / users);
+		System.out.printf("  GC during load: %d collections, %,d ms%n", gcLoad[0] - gcBefore[0], gcLoad[1] - gcBefore[1]);
+		System.out.printf("  full GC with store live: %,d ms%n", fullGcMillis);
+
+		BenchSupport.measure("  findById", 10_000, 200_000,
+				i -> BenchSupport.blackhole = repo.findById(sample[i % sample.length]));
+		BenchSupport.measure("  findByEmail", 10_000, 200_000,
+				i -> BenchSupport.blackhole = repo.findByEmail("user" + (i % users) + "@example.com"));
+		BenchSupport.blackhole = repo;
+	}
+
+	private static long usedHeapAfterGc() throws InterruptedException {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		Runtime rt = Runtime.getRuntime();
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+	private static long[] gcTotals() {
+		long count = 0;
+		long millis = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+			millis += Math.max(0, gc.getCollectionTime());
+		}
+		return new long[] { count, millis };
+	}
+
+	private static String hex(byte[] b) {
+		StringBuilder sb = new StringBuilder(b.length * 2);
+		for (byte x : b) {
+			sb.append(Character.forDigit((x >> 4) & 0xF, 16)).append(Character.forDigit(x & 0xF, 16));
+		}
+		return sb.toString();
+	}
+}
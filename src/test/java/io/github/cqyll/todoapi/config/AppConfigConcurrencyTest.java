@@ -0,0 +1,92 @@
+package io.github.cqyll.todoapi.config;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link AppConfig} runs handlers concurrently for the non-dispatcher execution modes.
+ *
+ * <p>Each request blocks for {@link #WORK_MILLIS}, standing in for a slow password check. With the JDK dispatcher
+ * thread the requests queue up and total time grows linearly with the number of clients; with an executor it stays
+ * close to a single request's latency.</p>
+ */
+public class AppConfigConcurrencyTest {
+
+	private static final int CLIENTS = 8;
+	private static final long WORK_MILLIS = 150;
+
+	private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+	@Test
+	void virtualThreadsServeClientsInParallel() throws Exception {
+		long elapsed = timeParallelRequests(ExecutionMode.VIRTUAL_THREADS);
+		assertTrue(elapsed < WORK_MILLIS * CLIENTS / 2,
+				"Expected parallel handling, took " + elapsed + "ms for " + CLIENTS + " clients");
+	}
+
+	@Test
+	void platformPoolServesClientsInParallel() throws Exception {
+		long elapsed = timeParallelRequests(ExecutionMode.PLATFORM_POOL);
+		assertTrue(elapsed < WORK_MILLIS * CLIENTS / 2,
+				"Expected parallel handling, took " + elapsed + "ms for " + CLIENTS + " clients");
+	}
+
+	/**
+	 * Baseline: the dispatcher thread serializes every request.
+	 */
+	@Test
+	void dispatcherSerializesClients() throws Exception {
+		long elapsed = timeParallelRequests(ExecutionMode.DISPATCHER);
+		assertTrue(elapsed >= WORK_MILLIS * CLIENTS,
+				"Expected serialized handling, took " + elapsed + "ms for " + CLIENTS + " clients");
+	}
+
+	private long timeParallelRequests(ExecutionMode mode) throws Exception {
+		AppSettings settings = new AppSettings();
+		settings.setPort(0);
+		settings.setExecutionMode(mode);
+		settings.setPlatformPoolSize(CLIENTS);
+
+		AppConfig config = new AppConfig(settings);
+		HttpServer server = config.createHttpServer();
+		server.createContext("/slow", ex -> {
+			try {
+				Thread.sleep(WORK_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			ex.sendResponseHeaders(204, -1);
+			ex.close();
+		});
+		server.start();
+
+		try {
+			URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/slow");
+			// warm up the connection pool so connect time doesn't skew the measurement
+			HTTP.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding());
+
+			long start = System.nanoTime();
+			List<CompletableFuture<HttpResponse<Void>>> inFlight = new ArrayList<>();
+			for (int i = 0; i < CLIENTS; i++) {
+				inFlight.add(HTTP.sendAsync(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding()));
+			}
+			for (CompletableFuture<HttpResponse<Void>> f : inFlight) {
+				assertEquals(204, f.join().statusCode());
+			}
+			return (System.nanoTime() - start) / 1_000_000;
+		} finally {
+			config.close();
+		}
+	}
+}